@@ -2,7 +2,6 @@ package seng202.team4.controller;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -12,9 +11,13 @@ import seng202.team4.model.Airline;
 import seng202.team4.model.DataLoader;
 import seng202.team4.model.DataType;
 import seng202.team4.model.Path;
+import seng202.team4.model.RecordFilter;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Performs logic for the 'Airline' tab of the application
@@ -54,19 +57,21 @@ public class AirlineTabController extends DataController {
     /**
      * Mutable ObservableLst containing a list of airlines for the search filter.
      */
-    private ObservableList<Airline> airlines = FXCollections.observableArrayList();
+    private final ObservableList<Airline> airlines = FXCollections.observableArrayList();
     /**
      * Mutable ObservableList containing a list of countries for the countryComboBox.
      */
-    private ObservableList<String> countries = FXCollections.observableArrayList();
+    private final ObservableList<String> countries = FXCollections.observableArrayList();
     /**
-     * Initialization of FilteredList for countryComboBox.
+     * Index of the country in the columns of the airline filter.
      */
-    private FilteredList<Airline> countryFilter = new FilteredList<>(airlines, p -> true);
+    private static final int COUNTRY = 1;
     /**
-     * Initialization of FilteredList for the search text field
+     * Filter of the airlines shown by the country combobox and the search bar, which
+     * searches the name, country and IATA code of each airline.
      */
-    private FilteredList<Airline> searchFilter = new FilteredList<>(countryFilter, p -> true);
+    private final RecordFilter<Airline> airlineFilter = new RecordFilter<>(airlines,
+            Arrays.asList(Airline::getName, Airline::getCountry, Airline::getIata));
 
     /**
      * Holds the high level logic (set of instructions) for initialisation.
@@ -83,6 +88,12 @@ public class AirlineTabController extends DataController {
         // Multiple rows can be selected
         dataTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
+        // The table shows the filtered airlines sorted by the sorted column
+        SortedList<Airline> sortedAirline = new SortedList<>(airlineFilter.getView());
+        sortedAirline.comparatorProperty().bind(dataTable.comparatorProperty());
+        dataTable.setItems(sortedAirline);
+        initialiseFilters();
+
         try {
             initialiseButtons();
             setDataSetComboBox();
@@ -95,47 +106,61 @@ public class AirlineTabController extends DataController {
     }
 
     /**
-     * Sets the JavaFX table with rows from the 'Airline' database table.
-     * This is done using the table query and assigning each record to a row in the table
-     * @param rs JDBC ResultSet obtained from querying the Database Airline table and is used to set the rows
-     *           of the JavaFX data table by creating N Airline objects from the query that results in N tuples.
-     * @throws SQLException if the query fails, throws an exception
+     * Empties the JavaFX table before the rows of the 'Airline' database table are loaded.
      */
     @Override
-    public void setTableData(ResultSet rs) throws SQLException {
-        airlines = FXCollections.observableArrayList();
-        countries = FXCollections.observableArrayList();
-        while (rs.next()) {
-            int id = rs.getInt("Id");
-            String name = rs.getString("Name");
-            String country = rs.getString("Country");
-            String alias = rs.getString("Alias");
-            if (alias.equals("\\N")) {
-                alias = "N/A";
-            }
-            String iata = rs.getString("Iata");
-            String icao = rs.getString("Icao");
-            String callSign = rs.getString("Callsign");
-            boolean active = rs.getString("RecentlyActive").equals("true");
+    public void clearTableData() {
+        airlines.clear();
+    }
+
+    /**
+     * Creates an Airline from a row of the 'Airline' database table.
+     * @param rs JDBC ResultSet obtained from querying the Database Airline table, at the row to read.
+     * @return Airline the airline of the row.
+     * @throws SQLException if the row could not be read.
+     */
+    @Override
+    public Airline readRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt("Id");
+        String name = rs.getString("Name");
+        String country = rs.getString("Country");
+        String alias = rs.getString("Alias");
+        if (alias.equals("\\N")) {
+            alias = "N/A";
+        }
+        String iata = rs.getString("Iata");
+        String icao = rs.getString("Icao");
+        String callSign = rs.getString("Callsign");
+        boolean active = rs.getString("RecentlyActive").equals("true");
+
+        Airline airline = new Airline(name, alias, iata, icao, callSign, country, active);
+        airline.setId(id);
+        return airline;
+    }
 
-            Airline airline = new Airline(name, alias, iata, icao, callSign, country, active);
-            airline.setId(id);
-            airlines.add(airline);
-            addToComboBoxList(countries, country);
+    /**
+     * Adds loaded airlines to the JavaFX table.
+     * @param rows List the airlines read from the 'Airline' database table.
+     */
+    @Override
+    public void addTableData(List<DataType> rows) {
+        List<Airline> chunk = new ArrayList<>(rows.size());
+        for (DataType row : rows) {
+            chunk.add((Airline) row);
         }
-        dataTable.setItems(airlines);
+        airlines.addAll(chunk);
     }
 
     /**
-     * Sorts the FX observable lists for the country ComboBox and
-     * uses ControlsFX library to make the ComboBox searchable.
+     * Sets the FX observable list for the country ComboBox to the sorted distinct values of the
+     * data set and uses ControlsFX library to make the ComboBox searchable.
      * filterData() is also called here because filtering of the table is based on ComboBox selections
      * and is required to be refreshed whenever a new dataset is chosen to be displayed.
      */
     @Override
     public void initialiseComboBoxes() {
-        // Sort and set combobox items
-        FXCollections.sort(countries);
+        // Set combobox items, which are sorted when read
+        countries.setAll(getDistinctValues("Country"));
         countryCombobox.setItems(countries);
 
         TextFields.bindAutoCompletion(countryCombobox.getEditor(), countryCombobox.getItems());
@@ -145,23 +170,24 @@ public class AirlineTabController extends DataController {
     }
 
     /**
-     * Filtering of table data is done here by initialising then iteratively the country combobox filter
-     * to a FilteredList object. The country filter requires addFilter(). Then the search bar filter
-     * is added through addSearchBar(). Finally the resulting SortedList is bound to the TableView dataTable
-     * and the result of the filtering is shown to the user.
+     * Filters the table whenever the country combobox or the search bar changes. Typing in the
+     * search bar filters the table once typing pauses.
+     */
+    private void initialiseFilters() {
+        countryCombobox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> filterNow());
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterLater());
+    }
+
+    /**
+     * Filtering of table data is done here by setting the value of the country combobox and the
+     * text of the search bar on the airline filter, which shows the airlines whose country contains
+     * the combobox value and whose name, country or IATA code contains the search text.
      */
     @Override
     public void filterData() {
-        // Connect combobox and slider filters to table
-        FilteredList<Airline> countryFilter = addFilter(new FilteredList<>(airlines, p -> true), countryCombobox, "Country");
-
-        // Add search bar filter
-        FilteredList<Airline> searchFilter = addSearchBar(countryFilter);
-        SortedList<Airline> sortedAirline = new SortedList<>(searchFilter);
-        sortedAirline.comparatorProperty().bind(dataTable.comparatorProperty());
-
-        dataTable.setItems(sortedAirline);
-
+        airlineFilter.setValue(COUNTRY, countryCombobox.getSelectionModel().getSelectedItem());
+        airlineFilter.setSearch(searchField.getText());
+        airlineFilter.apply();
     }
 
     /**
@@ -173,57 +199,6 @@ public class AirlineTabController extends DataController {
         return Path.NEW_AIRLINE_FXML;
     }
 
-    /**
-     * Adds a combobox filter, comboBox, to an input FilteredList, filteredList through
-     * adding a listener to comboBox (which works with combobox searching as well). The result is
-     * a new FilteredList which has the comboBox filter applied.
-     *
-     * @param filteredList the filtered list to add a filter to.
-     * @param comboBox     the searchable combobox filter that is added to the filteredList.
-     * @param filter       a String parameter used to specify which filter is being applied.
-     * @return FilteredList with the new filter added.
-     */
-    public FilteredList<Airline> addFilter(FilteredList<Airline> filteredList, ComboBox<String> comboBox, String filter) {
-        FilteredList<Airline> newFilter = new FilteredList<>(filteredList, p -> true);
-        comboBox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) ->
-                newFilter.setPredicate(airline -> {
-                    if (newValue == null) {
-                        return true;
-                    }
-                    String lower = newValue.toLowerCase();
-                    if (filter.equals("Country")) {
-                        return airline.getCountry().toLowerCase().contains(lower);
-                    }
-                    return false;
-                }));
-        return newFilter;
-    }
-
-    /**
-     * Adds holistic search bar filter which searches the Airline's name and it's country.
-     * @param countryFilter the last filter to be added to before the search bar.
-     * @return FilteredList with the search bar filter added.
-     */
-    private FilteredList<Airline> addSearchBar(FilteredList<Airline> countryFilter) {
-        FilteredList<Airline> searchFilter = new FilteredList<>(countryFilter, p -> true);
-        searchField.textProperty().addListener((observable, oldValue, newValue) ->
-                searchFilter.setPredicate(airline -> {
-                    if (newValue == null || newValue.isEmpty()) {
-                        return true;
-                    }
-                    String lower = newValue.toLowerCase();
-                    if (airline.getName().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (airline.getCountry().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (airline.getIata().toLowerCase().contains(lower)) {
-                        return true;
-                    }
-                    return false;
-                }));
-        return searchFilter;
-    }
-
     /**
      * Returns the 'Airline' datatype specifically used for this controller.
      * @return DataType a new Airline object.
@@ -2,7 +2,6 @@ package seng202.team4.controller;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -13,9 +12,13 @@ import seng202.team4.model.Airport;
 import seng202.team4.model.DataLoader;
 import seng202.team4.model.DataType;
 import seng202.team4.model.Path;
+import seng202.team4.model.RecordFilter;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Performs logic for the 'Airport' tab of the application
@@ -63,21 +66,31 @@ public class AirportTabController extends DataController {
      */
     @FXML private TextField searchField;
     /**
-     * Initialization of FilteredList for the search text field.
+     * Mutable ObservableList containing the airports of the data set shown.
      */
-    private ObservableList<Airport> airports;
+    private final ObservableList<Airport> airports = FXCollections.observableArrayList();
     /**
      * Initialization of FilteredList for the countries ComboBox.
      */
-    private ObservableList<String> countries;
+    private final ObservableList<String> countries = FXCollections.observableArrayList();
     /**
      * Initialization of FilteredList for the cities ComboBox.
      */
-    private ObservableList<String> cities;
+    private final ObservableList<String> cities = FXCollections.observableArrayList();
     /**
-     * Initialization of the SortedList to be used by filters and the checkboxes.
+     * Index of the country in the columns of the airport filter.
      */
-    private SortedList<Airport> sortedAirport;
+    private static final int COUNTRY = 1;
+    /**
+     * Index of the city in the columns of the airport filter.
+     */
+    private static final int CITY = 3;
+    /**
+     * Filter of the airports shown by the comboboxes and the search bar, which searches
+     * the name, country, IATA and city of each airport.
+     */
+    private final RecordFilter<Airport> airportFilter = new RecordFilter<>(airports,
+            Arrays.asList(Airport::getName, Airport::getCountry, Airport::getIata, Airport::getCity));
 
     /**
      * Holds the high level logic (set of instructions) for initialisation.
@@ -96,6 +109,11 @@ public class AirportTabController extends DataController {
         // Multiple rows can be selected
         dataTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
+        // The table shows the filtered airports sorted by the sorted column
+        SortedList<Airport> sortedAirport = new SortedList<>(airportFilter.getView());
+        sortedAirport.comparatorProperty().bind(dataTable.comparatorProperty());
+        dataTable.setItems(sortedAirport);
+        initialiseFilters();
 
         // Make and connect checkbox column to AirportsSelected database table
         makeCheckboxColumn();
@@ -103,7 +121,7 @@ public class AirportTabController extends DataController {
         try {
             setDataSetComboBox();
             setDataSetListener();
-            setTable(); // Super class method which calls setTableData
+            setTable(); // Super class method which loads the rows through readRow
         } catch (Exception e) {
             e.printStackTrace();
             System.exit(0);
@@ -126,66 +144,76 @@ public class AirportTabController extends DataController {
         dataTable.setEditable(true);
 
         airportTabSelectColumn.setCellFactory(CheckBoxTableCell.forTableColumn(param -> {
-            if (sortedAirport.get(param).isSelect()) {
-                DataLoader.addToAirportsSelectedDatabase(sortedAirport.get(param));
+            Airport airport = dataTable.getItems().get(param);
+            if (airport.isSelect()) {
+                DataLoader.addToAirportsSelectedDatabase(airport);
             } else {
-                DataLoader.removeFromAirportsSelectedDatabase(sortedAirport.get(param));
+                DataLoader.removeFromAirportsSelectedDatabase(airport);
             }
 
-            return sortedAirport.get(param).selectProperty();
+            return airport.selectProperty();
         }));
     }
 
 
     /**
-     * Sets the JavaFX table with rows from the 'Airport' database table.
-     * This is done using the table query and assigning each record to a row in the table
-     * @param rs JDBC ResultSet obtained from querying the Database Airport table and is used to set the rows
-     *           of the JavaFX data table by creating N Airport objects from the query that results in N tuples.
-     * @throws SQLException if the query fails, throws an exception
+     * Empties the JavaFX table before the rows of the 'Airport' database table are loaded.
+     */
+    @Override
+    public void clearTableData() {
+        airports.clear();
+    }
+
+    /**
+     * Creates an Airport from a row of the 'Airport' database table.
+     * @param rs JDBC ResultSet obtained from querying the Database Airport table, at the row to read.
+     * @return Airport the airport of the row.
+     * @throws SQLException if the row could not be read.
      */
     @Override
-    public void setTableData(ResultSet rs) throws SQLException {
-        airports = FXCollections.observableArrayList();
-        countries = FXCollections.observableArrayList();
-        cities = FXCollections.observableArrayList();
-        countries.clear(); cities.clear();
-        countries.add(""); cities.add("");
-        while (rs.next()) {
-            int id = rs.getInt("Id");
-            String name = rs.getString("Name");
-            String country = rs.getString("Country");
-            String city = rs.getString("City");
-            String iata = rs.getString("Iata");
-            String icao = rs.getString("Icao");
-            double longitude = rs.getDouble("Longitude");
-            double latitude = rs.getDouble("Latitude");
-            int altitude = rs.getInt("Altitude");
-            float timezone = rs.getFloat("TimeZone");
-            char dst = rs.getString("Dst").charAt(0);
-            String tz = rs.getString("TzDatabaseTime");
+    public Airport readRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt("Id");
+        String name = rs.getString("Name");
+        String country = rs.getString("Country");
+        String city = rs.getString("City");
+        String iata = rs.getString("Iata");
+        String icao = rs.getString("Icao");
+        double longitude = rs.getDouble("Longitude");
+        double latitude = rs.getDouble("Latitude");
+        int altitude = rs.getInt("Altitude");
+        float timezone = rs.getFloat("TimeZone");
+        char dst = rs.getString("Dst").charAt(0);
+        String tz = rs.getString("TzDatabaseTime");
 
-            Airport airport = new Airport(name, city, country, iata, icao, latitude, longitude, altitude, timezone, dst, tz);
-            airport.setId(id);
-            airports.add(airport);
+        Airport airport = new Airport(name, city, country, iata, icao, latitude, longitude, altitude, timezone, dst, tz);
+        airport.setId(id);
+        return airport;
+    }
 
-            addToComboBoxList(countries, country);
-            addToComboBoxList(cities, city);
+    /**
+     * Adds loaded airports to the JavaFX table.
+     * @param rows List the airports read from the 'Airport' database table.
+     */
+    @Override
+    public void addTableData(List<DataType> rows) {
+        List<Airport> chunk = new ArrayList<>(rows.size());
+        for (DataType row : rows) {
+            chunk.add((Airport) row);
         }
-        dataTable.setItems(airports);
+        airports.addAll(chunk);
     }
 
     /**
-     * Sorts the FX observable lists for the country and cities ComboBoxes and
-     * uses ControlsFX library to make these ComboBoxes searchable.
+     * Sets the FX observable lists for the country and cities ComboBoxes to the sorted distinct
+     * values of the data set and uses ControlsFX library to make these ComboBoxes searchable.
      * filterData() is also called here because filtering of the table is based on ComboBox selections
      * and is required to be refreshed whenever a new dataset is chosen to be displayed.
      */
     @Override
     public void initialiseComboBoxes() {
-        // Sort and set combobox items
-        FXCollections.sort(countries); countryCombobox.setItems(countries);
-        FXCollections.sort(cities); cityCombobox.setItems(cities);
+        // Set combobox items, which are sorted when read
+        countries.setAll(getFilterValues("Country")); countryCombobox.setItems(countries);
+        cities.setAll(getFilterValues("City")); cityCombobox.setItems(cities);
 
         // Make combobox searching autocomplete
         TextFields.bindAutoCompletion(countryCombobox.getEditor(), countryCombobox.getItems());
@@ -196,87 +224,52 @@ public class AirportTabController extends DataController {
     }
 
     /**
-     * Filtering of table data is done here by initialising then iteratively adding each combobox filter
-     * to a FilteredList object. The country and cities filter require addFilter(). Then the search bar filter
-     * is added through addSearchBarFilter(). Finally the resulting SortedList is bound to the TableView dataTable
-     * and the result of the filtering is shown to the user.
+     * Gets the sorted distinct values of a column of the airports shown, after a blank value
+     * that clears the filter.
+     * @param column name of the column.
+     * @return List the blank value followed by the values of the column.
      */
-    @Override
-    public void filterData() {
-        // Connect combobox and slider filters to table
-        FilteredList<Airport> countryFilter = addFilter(new FilteredList<>(airports, p -> true), countryCombobox, "Country");
-        FilteredList<Airport> cityFilter = addFilter(countryFilter, cityCombobox, "City");
-
-        // Add search bar filter
-        FilteredList<Airport> searchFilter = addSearchBarFilter(cityFilter);
-        sortedAirport = new SortedList<>(searchFilter);
-        sortedAirport.comparatorProperty().bind(dataTable.comparatorProperty());
-        dataTable.setItems(sortedAirport);
-
+    private List<String> getFilterValues(String column) {
+        List<String> values = new ArrayList<>();
+        values.add("");
+        for (String value : getDistinctValues(column)) {
+            if (!value.isEmpty()) {
+                values.add(value);
+            }
+        }
+        return values;
     }
 
     /**
-     * Override the parent's abstract class as to return the new record FXML file relating to the Airport class.
-     * @return String the path to the NEW_AIRPORT_FXML file.
+     * Filters the table whenever a combobox or the search bar changes. Typing in the search bar
+     * filters the table once typing pauses.
      */
-    @Override
-    public String getNewRecordFXML() {
-        return Path.NEW_AIRPORT_FXML;
+    private void initialiseFilters() {
+        countryCombobox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> filterNow());
+        cityCombobox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> filterNow());
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterLater());
     }
 
     /**
-     * Adds a combobox filter, comboBox, to an input FilteredList, filteredList through
-     * adding a listener to comboBox (which works with combobox searching as well). The result is
-     * a new FilteredList which has the comboBox filter applied.
-     *
-     * @param filteredList the filtered list to add a filter to.
-     * @param comboBox     the searchable combobox filter that is added to the filteredList.
-     * @param filter       a String parameter used to specify which filter is being applied.
-     * @return the FilteredList with the new filter added.
+     * Filtering of table data is done here by setting the value of the country and city comboboxes
+     * and the text of the search bar on the airport filter, which shows the airports whose country
+     * and city contain the combobox values and whose name, country, IATA or city contains the search text.
      */
-    public FilteredList<Airport> addFilter(FilteredList<Airport> filteredList, ComboBox<String> comboBox, String filter) {
-        FilteredList<Airport> newFilter = new FilteredList<>(filteredList, p -> true);
-        comboBox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) ->
-                newFilter.setPredicate(airport -> {
-                    if (newValue == null) {
-                        return true;
-                    }
-                    String lower = newValue.toLowerCase();
-                    if (filter.equals("Country")) {
-                        return airport.getCountry().toLowerCase().contains(lower);
-                    } else if (filter.equals("City")) {
-                        return airport.getCity().toLowerCase().contains(lower);
-                    }
-                    return false;
-                }));
-        return newFilter;
+    @Override
+    public void filterData() {
+        airportFilter.setValue(COUNTRY, countryCombobox.getSelectionModel().getSelectedItem());
+        airportFilter.setValue(CITY, cityCombobox.getSelectionModel().getSelectedItem());
+        airportFilter.setSearch(searchField.getText());
+        airportFilter.apply();
     }
 
     /**
-     * Adds holistic search bar filter which searches the Airport's name, country and it's city.
-     * @param countryFilter the last filter to be added to before the search bar.
-     * @return FilteredList with the search bar filter added.
+     * Override the parent's abstract class as to return the new record FXML file relating to the Airport class.
+     * @return String the path to the NEW_AIRPORT_FXML file.
      */
-    private FilteredList<Airport> addSearchBarFilter(FilteredList<Airport> countryFilter) {
-        FilteredList<Airport> searchFilter = new FilteredList<>(countryFilter, p -> true);
-        searchField.textProperty().addListener((observable, oldValue, newValue) ->
-                searchFilter.setPredicate(airport -> {
-                    if (newValue == null || newValue.isEmpty()) {
-                        return true;
-                    }
-                    String lower = newValue.toLowerCase();
-                    if (airport.getName().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (airport.getCountry().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (airport.getIata().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (airport.getCity().toLowerCase().contains(lower)) {
-                        return true;
-                    }
-                    return false;
-                }));
-        return searchFilter;
+    @Override
+    public String getNewRecordFXML() {
+        return Path.NEW_AIRPORT_FXML;
     }
 
     /**
@@ -1,21 +1,30 @@
 package seng202.team4.controller;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableView;
 import javafx.scene.control.Tooltip;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.GridPane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import seng202.team4.model.DataType;
 import seng202.team4.model.DatabaseManager;
+import seng202.team4.model.DistinctValues;
 import seng202.team4.model.Path;
 
 import java.io.IOException;
@@ -23,6 +32,9 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Describes the required functionality of
@@ -33,7 +45,6 @@ public abstract class DataController {
 
     public abstract DataType getDataType();
     public abstract String getTableQuery();
-    public abstract void setTableData(ResultSet rs) throws SQLException;
     public abstract void initialiseComboBoxes();
     public abstract void filterData();
     public abstract String getNewRecordFXML();
@@ -60,6 +71,36 @@ public abstract class DataController {
 
     public final static String ALL = "All";
 
+    /**
+     * Number of rows read before they are added to the table together.
+     */
+    private static final int LOAD_CHUNK_SIZE = 500;
+    /**
+     * Width and height of the loading indicator.
+     */
+    private static final double LOADING_INDICATOR_SIZE = 60;
+    /**
+     * Time the filters must stay unchanged before the table is filtered.
+     */
+    private static final Duration FILTER_DELAY = Duration.millis(150);
+
+    /**
+     * Query of the rows shown in the table.
+     */
+    private String shownQuery;
+    /**
+     * Task loading the rows of the table, or null if the table has not been loaded.
+     */
+    private Task<Void> loadTask;
+    /**
+     * Indicator shown over the table while it is loaded, or null until first shown.
+     */
+    private ProgressIndicator loadingIndicator;
+    /**
+     * Delay before the table is filtered after a filter changes.
+     */
+    private final PauseTransition filterDelay = new PauseTransition(FILTER_DELAY);
+
 
     public void setDataSetListener() {
         dataSetComboBox.valueProperty().addListener((obs, oldItem, newItem) -> {
@@ -98,7 +139,7 @@ public abstract class DataController {
     public void setDataSetComboBox() {
         // Connects to the database and gets the names of the data sets.
 
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery("Select Name from " + getDataType().getSetName());) {
             // Creates a list to store the keyword ALL in and the names.
@@ -124,7 +165,7 @@ public abstract class DataController {
         // If dataset name is not equal to keyword all, gets dataset matching name.
         if (dataSetName != ALL) {
             String idQuery = "Select ID from " + getDataType().getSetName() + " Where Name = '" + dataSetName + "';";
-            try (Connection connection = DatabaseManager.connect();
+            try (Connection connection = DatabaseManager.connectReadOnly();
                  Statement stmt = connection.createStatement();
                  ResultSet rs = stmt.executeQuery(idQuery)) {
                 rs.next();
@@ -144,30 +185,121 @@ public abstract class DataController {
     }
 
     /**
-     * Sets the table using the query provided.
+     * Sets the table using the query provided. The rows are read on a background thread
+     * and added to the table in chunks while a loading indicator is shown over it, so
+     * large data sets do not freeze the interface. Setting the table again cancels the
+     * load still running, whose remaining rows are then never added.
      * @param query specifications for the content of the table.
      */
     public void setTable(String query) {
-        try (Connection connection = DatabaseManager.connect();
-             Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        if (loadTask != null) {
+            loadTask.cancel(false);
+        }
+        shownQuery = query;
+        clearTableData();
+        TableLoadTask task = new TableLoadTask(query);
+        task.setOnSucceeded(event -> {
+            setLoading(false);
+            initialiseComboBoxes();
+        });
+        task.setOnFailed(event -> {
+            setLoading(false);
+            ErrorController.createErrorMessage("Could not load " + getDataType().getTypeName() + " table data.", false);
+        });
+        loadTask = task;
+        setLoading(true);
 
-            setTableData(rs);
-        } catch (SQLException e) {
-            ErrorController.createErrorMessage("Could not load " + getDataType().getTypeName() + "table data.", false);
+        Thread thread = new Thread(task, "table-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Creates the record shown in a row of the table from the current row of a query's result.
+     * Called on the thread loading the table, so must not change the interface.
+     * @param rs ResultSet the result of the query, at the row to read.
+     * @return DataType the record of the row.
+     * @throws SQLException if the row could not be read.
+     */
+    public abstract DataType readRow(ResultSet rs) throws SQLException;
+
+    /**
+     * Empties the table before the rows of a query are added by {@link #addTableData(List)}.
+     * Tabs reading their rows from the database a page at a time override
+     * setTable(String) instead, so do not keep the rows here.
+     */
+    public void clearTableData() {
+    }
+
+    /**
+     * Adds a chunk of the rows read by {@link #setTable(String)} to the table, on the JavaFX application thread.
+     * @param rows List the records read by {@link #readRow(ResultSet)}.
+     */
+    public void addTableData(List<DataType> rows) {
+    }
+
+    /**
+     * Shows or hides the loading indicator over the table, creating the indicator
+     * in the table's cell of its layout the first time it is shown.
+     * @param loading boolean true while the table is being loaded.
+     */
+    private void setLoading(boolean loading) {
+        if (loadingIndicator == null) {
+            if (!loading || !(dataTable.getParent() instanceof GridPane)) {
+                return;
+            }
+            loadingIndicator = new ProgressIndicator();
+            loadingIndicator.setMaxSize(LOADING_INDICATOR_SIZE, LOADING_INDICATOR_SIZE);
+            loadingIndicator.setMouseTransparent(true);
+            Integer column = GridPane.getColumnIndex(dataTable);
+            Integer row = GridPane.getRowIndex(dataTable);
+            GridPane.setConstraints(loadingIndicator, column == null ? 0 : column, row == null ? 0 : row,
+                    1, 1, HPos.CENTER, VPos.CENTER);
+            ((GridPane) dataTable.getParent()).getChildren().add(loadingIndicator);
         }
+        loadingIndicator.setVisible(loading);
+    }
+
+    /**
+     * Filters the table with {@link #filterData()} once the filters have stopped changing,
+     * so typing in the search bar filters the table once rather than on every key.
+     * A filter still waiting when a filter changes again is replaced rather than run.
+     */
+    public void filterLater() {
+        filterDelay.setOnFinished(event -> filterData());
+        filterDelay.playFromStart();
+    }
+
+    /**
+     * Filters the table now, replacing a filter waiting to be run by {@link #filterLater()}.
+     */
+    public void filterNow() {
+        filterDelay.stop();
+        filterData();
+    }
 
-        initialiseComboBoxes();
+    /**
+     * Gets the distinct values of a column in the rows shown in the table, for a filter combo box.
+     * @param column name of the column.
+     * @return List the sorted values, empty if they could not be read.
+     */
+    public List<String> getDistinctValues(String column) {
+        return getDistinctValues(shownQuery, column);
     }
 
     /**
-     * Adds an String to a given combobox if it is not already in it
-     * @param comboBoxList combobox to add to
-     * @param dataName string to add
+     * Gets the distinct values of a column in the rows of a query, for a filter combo box.
+     * The values of each data set are read once and cached until records change.
+     * @param query query selecting the rows.
+     * @param column name of the column.
+     * @return List the sorted values, empty if they could not be read.
      */
-    public void addToComboBoxList(ObservableList comboBoxList, String dataName) {
-        if (!comboBoxList.contains(dataName)) {
-            comboBoxList.add(dataName);
+    public List<String> getDistinctValues(String query, String column) {
+        try {
+            return DistinctValues.get().of(query, column);
+        } catch (SQLException e) {
+            ErrorController.createErrorMessage("Could not load the " + column + " filter values.", false);
+            return Collections.emptyList();
         }
     }
 
@@ -266,4 +398,61 @@ public abstract class DataController {
         }
     }
 
+    /**
+     * Task reading the rows of a query on a background thread, passing each chunk of
+     * records to {@link #addTableData(List)} on the JavaFX application thread. Chunks
+     * still waiting to be added when the task is cancelled are dropped.
+     */
+    private class TableLoadTask extends Task<Void> {
+
+        private final String query;
+
+        /**
+         * Creates the task.
+         * @param query query selecting the rows of the table.
+         */
+        private TableLoadTask(String query) {
+            this.query = query;
+        }
+
+        /**
+         * Reads the rows of the query.
+         * @return null.
+         * @throws SQLException if the query fails.
+         */
+        @Override
+        protected Void call() throws SQLException {
+            try (Connection connection = DatabaseManager.connectReadOnly();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(query)) {
+                List<DataType> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+                while (!isCancelled() && rs.next()) {
+                    chunk.add(readRow(rs));
+                    if (chunk.size() == LOAD_CHUNK_SIZE) {
+                        publish(chunk);
+                        chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+                    }
+                }
+                publish(chunk);
+            }
+            return null;
+        }
+
+        /**
+         * Adds a chunk of records to the table unless the task has been cancelled.
+         * As the chunks are queued before the task succeeds, every chunk is added
+         * before the combo boxes are initialised.
+         * @param chunk the records.
+         */
+        private void publish(List<DataType> chunk) {
+            if (!chunk.isEmpty()) {
+                Platform.runLater(() -> {
+                    if (!isCancelled()) {
+                        addTableData(chunk);
+                    }
+                });
+            }
+        }
+    }
+
 }
@@ -0,0 +1,157 @@
+package seng202.team4.controller;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import seng202.team4.model.DatabaseManager;
+import seng202.team4.model.EmissionsAggregator;
+import seng202.team4.model.EmissionsTotal;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Performs the logic for the emissions report, which is displayed
+ * in a new window when the 'Dataset Report' button is clicked on the
+ * Emissions tab. The report totals the carbon emissions, dollar offset
+ * and trees equivalent of every route in a route data set, grouped by
+ * airline, source country, destination country or equipment.
+ */
+public class EmissionsReportController {
+
+    /**
+     * Combo box of the route data sets
+     */
+    @FXML private ComboBox<String> dataSetComboBox;
+    /**
+     * Combo box of the attributes the routes can be grouped by
+     */
+    @FXML private ComboBox<EmissionsAggregator.Grouping> groupingComboBox;
+    /**
+     * TableView of the total of each group
+     */
+    @FXML private TableView<EmissionsTotal> reportTable;
+    /**
+     * Group name column of the report table
+     */
+    @FXML private TableColumn<EmissionsTotal, String> groupColumn;
+    /**
+     * Number of routes column of the report table
+     */
+    @FXML private TableColumn<EmissionsTotal, Integer> routesColumn;
+    /**
+     * Total carbon emissions column of the report table
+     */
+    @FXML private TableColumn<EmissionsTotal, Double> emissionsColumn;
+    /**
+     * Average carbon emissions per route column of the report table
+     */
+    @FXML private TableColumn<EmissionsTotal, Double> averageEmissionsColumn;
+    /**
+     * Dollar offset column of the report table
+     */
+    @FXML private TableColumn<EmissionsTotal, Double> dollarOffsetColumn;
+    /**
+     * Trees equivalent column of the report table
+     */
+    @FXML private TableColumn<EmissionsTotal, Long> treesColumn;
+    /**
+     * Label displaying the totals of the whole data set
+     */
+    @FXML private Label totalLabel;
+    /**
+     * Routes of the selected data set, null if no data set is selected
+     */
+    private EmissionsAggregator aggregator;
+
+    /**
+     * Connects the table columns to the attributes of the totals and fills the combo boxes.
+     */
+    public void initialize() {
+        groupColumn.setCellValueFactory(new PropertyValueFactory<>("group"));
+        routesColumn.setCellValueFactory(new PropertyValueFactory<>("routes"));
+        emissionsColumn.setCellValueFactory(new PropertyValueFactory<>("emissions"));
+        averageEmissionsColumn.setCellValueFactory(new PropertyValueFactory<>("averageEmissions"));
+        dollarOffsetColumn.setCellValueFactory(new PropertyValueFactory<>("dollarOffset"));
+        treesColumn.setCellValueFactory(new PropertyValueFactory<>("trees"));
+        formatDecimals(emissionsColumn);
+        formatDecimals(averageEmissionsColumn);
+        formatDecimals(dollarOffsetColumn);
+
+        groupingComboBox.setItems(FXCollections.observableArrayList(EmissionsAggregator.Grouping.values()));
+        groupingComboBox.setValue(EmissionsAggregator.Grouping.AIRLINE);
+        groupingComboBox.valueProperty().addListener((obs, oldItem, newItem) -> updateReport());
+
+        try (Connection connection = DatabaseManager.connectReadOnly();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("Select Name from RouteSet")) {
+            ObservableList<String> dataSetNames = FXCollections.observableArrayList();
+            while (rs.next()) {
+                dataSetNames.add(rs.getString("Name"));
+            }
+            dataSetComboBox.setItems(dataSetNames);
+        } catch (SQLException e) {
+            ErrorController.createErrorMessage("Could not load the route data sets.", false);
+        }
+        dataSetComboBox.valueProperty().addListener((obs, oldItem, newItem) -> {
+            if (newItem != null) {
+                setDataSet(newItem);
+            }
+        });
+    }
+
+    /**
+     * Reads the routes of a data set and shows their totals. If the routes can not be
+     * read the report of the previous data set is cleared, so it is not shown as this one's.
+     * @param dataSetName String the name of the route data set.
+     */
+    private void setDataSet(String dataSetName) {
+        try {
+            aggregator = EmissionsAggregator.load(dataSetName);
+        } catch (SQLException e) {
+            aggregator = null;
+            reportTable.getItems().clear();
+            totalLabel.setText("");
+            ErrorController.createErrorMessage("Could not load the routes of " + dataSetName + ".", false);
+        }
+        updateReport();
+    }
+
+    /**
+     * Shows the totals of the selected data set grouped by the selected attribute.
+     */
+    private void updateReport() {
+        if (aggregator == null || groupingComboBox.getValue() == null) {
+            return;
+        }
+        reportTable.setItems(FXCollections.observableArrayList(aggregator.aggregate(groupingComboBox.getValue())));
+        EmissionsTotal total = aggregator.total();
+        totalLabel.setText(total.getRoutes() + " routes: "
+                + String.format("%.2f", total.getEmissions()) + "kg C02, "
+                + String.format("%.2f", total.getAverageEmissions()) + "kg C02 per route, $"
+                + String.format("%.2f", total.getDollarOffset()) + " NZD to offset, "
+                + total.getTrees() + " trees");
+    }
+
+    /**
+     * Shows the values of a column with two decimal places.
+     * @param column TableColumn the column.
+     */
+    private void formatDecimals(TableColumn<EmissionsTotal, Double> column) {
+        column.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double value, boolean empty) {
+                super.updateItem(value, empty);
+                setText(empty || value == null ? null : String.format("%.2f", value));
+            }
+        });
+    }
+}
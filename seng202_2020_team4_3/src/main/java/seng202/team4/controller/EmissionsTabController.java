@@ -1,9 +1,7 @@
 package seng202.team4.controller;
 
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
+import javafx.beans.binding.Bindings;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -13,12 +11,14 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.FlowPane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import org.apache.commons.math3.util.Precision;
 import seng202.team4.model.*;
 
 import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Performs logic for the 'Emissions' tab of the application
@@ -28,18 +28,15 @@ import java.sql.SQLException;
  * on this data. Analysis is performed on this data, specifically the distance and
  * carbon emissions for each route is calculated. The suggested donation amount to
  * offset a users carbon footprint is calculated, along with how many trees they
- * could plant with this derived figure.
+ * could plant with this derived figure. The table and totals show the
+ * {@link RouteSelection}, which is updated as routes are selected on the 'Routes' tab.
  */
 public class EmissionsTabController extends DataController {
 
     /**
-     * Initialization of users suggested dollar offset amount
+     * The routes selected by the user and their running totals
      */
-    private double totalDonation = 0.0;
-    /**
-     * Initialization of the trees the user could plant with dollarOffset
-     */
-    private int totalTrees = 0;
+    private final RouteSelection selection = RouteSelection.get();
 
     /**
      * TableView of the selected routes raw data table
@@ -79,9 +76,12 @@ public class EmissionsTabController extends DataController {
      */
     @FXML private Label currentEmissionsValue;
     /**
-     * Mutable ObservableList containing Route objects
+     * Filter of the selected routes shown by the search field, which searches the
+     * airline, airports and plane type of each route
      */
-    private ObservableList<Route> selectedRoutes;
+    private final RecordFilter<Route> routeFilter = new RecordFilter<>(selection.getRoutes(),
+            Arrays.asList(Route::getAirlineCode, Route::getSourceAirportCode,
+                    Route::getDestinationAirportCode, Route::getPlaneTypeCode));
 
     /**
      *  On Action method for the 'Environmental Donation' button
@@ -91,7 +91,7 @@ public class EmissionsTabController extends DataController {
      */
     @FXML
     public void pressEnvironmentalDonationButton() {
-        String donationDollarsCents = String.format("%.2f", totalDonation);
+        String donationDollarsCents = String.format("%.2f", selection.getTotalDonation());
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Environmental Donation Equivalent");
         alert.setHeaderText("Donation required to offset your emissions: $" + donationDollarsCents + " NZD");
@@ -113,7 +113,7 @@ public class EmissionsTabController extends DataController {
 
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Trees Equivalent");
-        alert.setHeaderText("With the suggested donation amount you could plant " + totalTrees + " trees");
+        alert.setHeaderText("With the suggested donation amount you could plant " + selection.getTotalTrees() + " trees");
 
         FlowPane treesFp = new FlowPane();
         Label explainText = new Label("Plant trees at the teamtrees.org site");
@@ -144,9 +144,30 @@ public class EmissionsTabController extends DataController {
         stage.show();
         ContributionsGraphController contributions = loader.getController();
         //Set up the bar chart by passing it the users currently selected routes
-        contributions.setUp(selectedRoutes);
+        contributions.setUp(selection.getRoutes());
     }
 
+    /**
+     * On Action method for the 'Dataset Report' button
+     * Shows the totals of the emissions of every route in a
+     * route data set, grouped by airline, country or equipment,
+     * in a new modal stage
+     */
+    @FXML
+    public void pressEmissionsReportButton() {
+        Stage stage = new Stage();
+        stage.setTitle("Dataset Emissions Report");
+        stage.setMinHeight(500);
+        stage.setMinWidth(800);
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(Path.EMISSIONS_REPORT));
+        try {
+            stage.setScene(new Scene(loader.load(), 800, 500));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        stage.initModality(Modality.APPLICATION_MODAL);
+        stage.show();
+    }
 
     /**
      * Holds the high level logic (set of instructions) for initialisation.
@@ -163,6 +184,13 @@ public class EmissionsTabController extends DataController {
 
         // Multiple rows can be selected
         dataTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        currentEmissionsValue.textProperty().bind(Bindings.format("%.2fkg C02", selection.totalEmissionsProperty()));
+
+        // The table shows the selected routes matching the search field, sorted by the sorted column
+        SortedList<Route> sortedRoutes = new SortedList<>(routeFilter.getView());
+        sortedRoutes.comparatorProperty().bind(dataTable.comparatorProperty());
+        dataTable.setItems(sortedRoutes);
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterLater());
 
         try {
             initialiseButtons();
@@ -173,34 +201,15 @@ public class EmissionsTabController extends DataController {
         }
     }
 
-    /**
-     * Calculates the total carbon emissions for the selected routes in
-     * the data table. The recommended donation to offset the emissions
-     * figure is calculated using this figure.
-     */
-    private void setTotalEmissions() {
-        double sumEmissions = 0.0;
-        totalDonation = 0.0;
-        totalTrees = 0;
-        for(Route route: selectedRoutes){
-            sumEmissions += route.getCarbonEmissions();
-            totalDonation += route.getDollarOffset();
-            totalTrees += route.getTreeEquivalent();
-        }
-
-        currentEmissionsValue.setText(String.format("%.2f", sumEmissions) + "kg C02");
-    }
-
     /**
      * On action method for the 'Load Selected Routes' button
-     * updates the table to display the routes selected by the user
-     * on the 'Routes' tab.
+     * reloads the routes selected by the user from the database. The table
+     * is normally kept up to date as routes are selected on the 'Routes' tab.
      */
     @FXML
     public void updateTable() {
         try {
             setTable();
-            setTotalEmissions();
         } catch (Exception e) {
             String message = "Error on table update";
             ErrorController.createErrorMessage(message, false);
@@ -217,72 +226,53 @@ public class EmissionsTabController extends DataController {
     }
 
     /**
-     * Returns the JDBC/SQL query for selecting all distinct/unique rows from the 'RoutesSelected' table.
+     * Returns the JDBC/SQL query for selecting all rows from the 'RoutesSelected' table.
+     * Repeated rows are shown once by the route selection.
      * @return String for the  JDBC/SQL query for selecting all rows from the 'RoutesSelected' table.
      */
     @Override
     public String getTableQuery() {
-        return "Select distinct Airline, SourceAirport, DestinationAirport, Equipment, distance, carbonEmissions from RoutesSelected";
+        return "Select Airline, SourceAirport, DestinationAirport, Equipment, distance, carbonEmissions from RoutesSelected";
     }
 
     /**
-     * Sets the JavaFX table with rows from the 'RoutesSelected' database table.
-     * This is done using the table query and assigning each record to a row in the table
-     * @param rs JDBC ResultSet obtained from querying the Database RoutesSelected table and is used to set the rows
-     *           of the JavaFX data table by creating N Route objects from the query that results in N tuples.
-     * @throws SQLException if the query fails, throws an exception
+     * Empties the route selection before the rows of the 'RoutesSelected' database table are loaded.
+     * The table shows the selection, so it is updated in place.
      */
     @Override
-    public void setTableData(ResultSet rs) throws SQLException {
-        selectedRoutes = FXCollections.observableArrayList();
-        while (rs.next()) {
-            Route route = new Route();
-            String airline = rs.getString("Airline");
-            String sourceAirport = rs.getString("SourceAirport");
-            String destinationAirport = rs.getString("DestinationAirport");
-            String planeType = rs.getString("Equipment");
-
-            route.setAirlineCode(airline);
-            route.setSourceAirportCode(sourceAirport);
-            route.setDestinationAirportCode(destinationAirport);
-            route.setPlaneTypeCode(planeType);
-            route.setDistance(Precision.round(rs.getDouble("distance"), 2));
-            route.setCarbonEmissions(Precision.round(rs.getDouble("carbonEmissions"), 2));
-            route.setDollarOffset(Calculations.calculateDollarOffset(route));
-            route.setTreeEquivalent(Calculations.calculateTreesEquivalent(route));
-            selectedRoutes.add(route);
-
-        }
-        dataTable.setItems(selectedRoutes);
+    public void clearTableData() {
+        selection.clear();
+    }
 
+    /**
+     * Creates a Route from a row of the 'RoutesSelected' database table.
+     * @param rs JDBC ResultSet obtained from querying the Database RoutesSelected table, at the row to read.
+     * @return Route the route of the row, with its stored distance and carbon emissions.
+     * @throws SQLException if the row could not be read.
+     */
+    @Override
+    public Route readRow(ResultSet rs) throws SQLException {
+        Route route = new Route();
+        route.setAirlineCode(rs.getString("Airline"));
+        route.setSourceAirportCode(rs.getString("SourceAirport"));
+        route.setDestinationAirportCode(rs.getString("DestinationAirport"));
+        route.setPlaneTypeCode(rs.getString("Equipment"));
+        route.setDistance(rs.getDouble("Distance"));
+        route.setCarbonEmissions(rs.getDouble("CarbonEmissions"));
+        return route;
     }
 
     /**
-     * Filtering functionality for the Search field.
-     * Filters the routes in the table view that have a value in
-     * either of the: airlineCode, sourceAirportCode, destinationAirportCode or planeTypeCode
-     * columns that matches the users search input
-     * @return FilteredList of routes that match the input
+     * Adds loaded routes to the route selection, which shows repeated routes once.
+     * @param rows List the routes read from the 'RoutesSelected' database table.
      */
-    private FilteredList<Route> searchBarFilter() {
-        FilteredList<Route> searchFilter = new FilteredList<>(selectedRoutes, p -> true);
-        searchField.textProperty().addListener((observable, oldValue, newValue) ->
-                searchFilter.setPredicate(route -> {
-                    if (newValue == null || newValue.isEmpty()) {
-                        return true;
-                    }
-                    String lower = newValue.toLowerCase();
-                    if (route.getAirlineCode().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (route.getSourceAirportCode().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (route.getDestinationAirportCode().toLowerCase().contains(lower)){
-                        return true;
-                    } else {
-                        return (route.getPlaneTypeCode().toLowerCase().contains(lower));
-                    }
-                }));
-        return searchFilter;
+    @Override
+    public void addTableData(List<DataType> rows) {
+        List<Route> chunk = new ArrayList<>(rows.size());
+        for (DataType row : rows) {
+            chunk.add((Route) row);
+        }
+        selection.addAll(chunk);
     }
 
     /**
@@ -297,16 +287,15 @@ public class EmissionsTabController extends DataController {
 
     /**
      * Required method from the abstract DataController class
-     * applies the search filter to the data table view
+     * applies the search field to the filter of the data table view, which
+     * follows the changes to the selection. Filters the routes in the table view
+     * that have a value in either of the: airlineCode, sourceAirportCode,
+     * destinationAirportCode or planeTypeCode columns that matches the users search input
      */
     @Override
     public void filterData() {
-        FilteredList<Route> searchFilter = searchBarFilter();
-        SortedList<Route> sortedRoute = new SortedList<>(searchFilter);
-        sortedRoute.comparatorProperty().bind(dataTable.comparatorProperty());
-
-        dataTable.setItems(sortedRoute);
-
+        routeFilter.setSearch(searchField.getText());
+        routeFilter.apply();
     }
 
     /**
@@ -327,11 +316,9 @@ public class EmissionsTabController extends DataController {
     public void deleteRows() {
         DataType rows[] = dataTable.getSelectionModel().getSelectedItems().toArray(new DataType[0]);
         for(DataType row : rows) {
+            // Removing the route from the database also removes it from the selection
             boolean deleted = DataLoader.removeFromRoutesSelectedDatabase((Route) row);
-            if (deleted) {
-                selectedRoutes.remove(row);
-            }
-            else {
+            if (!deleted) {
                 ErrorController.createErrorMessage("Can't delete record: \n" + row.toString(), false);
             }
         }
@@ -1,5 +1,6 @@
 package seng202.team4.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -21,10 +22,26 @@ public class ErrorController {
 
     /**
      * Constructs the error message by calling the setup method.
+     * When called from a background thread, such as an upload, the
+     * message is shown later on the JavaFX application thread. Before
+     * JavaFX has started the message is printed, and the application
+     * exits at once if exitSystem is true.
      * @param message message to show
      * @param exitSystem boolean of whether or not the system should exit
      */
     public static void createErrorMessage(String message, boolean exitSystem) {
+        if (!Platform.isFxApplicationThread()) {
+            try {
+                Platform.runLater(() -> createErrorMessage(message, exitSystem));
+            } catch (IllegalStateException e) {
+                // JavaFX has not been started, so there is no popup to exit from
+                System.err.println(message);
+                if (exitSystem) {
+                    System.exit(1);
+                }
+            }
+            return;
+        }
         Stage stage = new Stage();
         stage.setTitle("Error");
         stage.getIcons().add(new Image(ErrorController.class.getResourceAsStream(Path.APP_ICON)));
@@ -1,10 +1,13 @@
 package seng202.team4.controller;
 
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.ContentDisplay;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Tooltip;
 import javafx.scene.image.Image;
@@ -21,7 +24,9 @@ import java.util.ArrayList;
 
 /**
  * Controller used for uploading datasets
- * to the application.
+ * to the application. The file is uploaded in a background
+ * task so the application stays responsive, with its progress,
+ * rate and estimated time left shown until it completes or is cancelled.
  */
 public class FileUploadController {
 
@@ -29,9 +34,14 @@ public class FileUploadController {
     @FXML private Text filePath;
     @FXML private Label errorText;
     @FXML private Label imageHolderLabel;
+    @FXML private ProgressBar progressBar;
+    @FXML private Label progressText;
+    @FXML private Button confirmButton;
+    @FXML private Button chooseFileButton;
     private File file;
     private DataController controller;
     private Stage stage;
+    private UploadTask uploadTask;
 
     /**
      * Initial setup of the controller, sets the stage
@@ -42,6 +52,8 @@ public class FileUploadController {
     public void setUp(DataController controller, Stage stage) {
         this.controller = controller;
         this.stage = stage;
+        // Closing the window cancels a running upload
+        stage.setOnCloseRequest(event -> cancelUpload());
         showInsertInfo();
     }
 
@@ -104,10 +116,20 @@ public class FileUploadController {
     }
 
     /**
-     * Closes the stage.
+     * Cancels the upload if one is running, otherwise closes the stage.
      */
     public void cancel() {
-        stage.close();
+        if (!cancelUpload()) {
+            stage.close();
+        }
+    }
+
+    /**
+     * Cancels the running upload, rolling back the data set, unless it has been committed.
+     * @return true if an upload was running and has been cancelled.
+     */
+    private boolean cancelUpload() {
+        return uploadTask != null && uploadTask.isRunning() && uploadTask.cancelUnlessCommitted();
     }
 
     /**
@@ -124,20 +146,64 @@ public class FileUploadController {
             errorText.setText("*Dataset name already chosen");
         } else {
             uploadData(confirmName);
-            controller.newData(confirmName);
         }
     }
 
     /**
-     * Calls DataLoader class to upload new user inputted file. Shows error popup if data is erroneous.
+     * Starts a background task calling the DataLoader class to upload the new user inputted file.
+     * Once it completes the table is refreshed with the new data set and an error popup is shown
+     * if data is erroneous.
      * @param name name of the data set user has chosen
      */
     private void uploadData(String name) {
-        ArrayList<String> invalidLines = DataLoader.uploadData(name, file, controller.getDataType());
-        if (invalidLines.size() > 0) {
-            showErrorPopUp(invalidLines);
+        uploadTask = new UploadTask(name, file, controller.getDataType());
+        progressBar.progressProperty().bind(uploadTask.progressProperty());
+        progressText.textProperty().bind(uploadTask.messageProperty());
+        setUploading(true);
+
+        uploadTask.setOnSucceeded(event -> {
+            setUploading(false);
+            ArrayList<String> invalidLines = uploadTask.getValue();
+            if (invalidLines == null) {
+                return; // Upload failed, the error has been shown
+            }
+            controller.newData(name);
+            if (invalidLines.size() > 0) {
+                showErrorPopUp(invalidLines);
+            } else {
+                stage.close();
+            }
+        });
+        uploadTask.setOnCancelled(event -> {
+            setUploading(false);
+            errorText.setText("*Upload cancelled");
+        });
+        uploadTask.setOnFailed(event -> {
+            setUploading(false);
+            ErrorController.createErrorMessage("Failed uploading data.", false);
+        });
+
+        Thread thread = new Thread(uploadTask, "upload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Shows or hides the progress of the upload and disables the
+     * controls that can't be used while uploading.
+     * @param uploading boolean true while the upload is running.
+     */
+    private void setUploading(boolean uploading) {
+        progressBar.setVisible(uploading);
+        progressText.setVisible(uploading);
+        confirmButton.setDisable(uploading);
+        chooseFileButton.setDisable(uploading);
+        nameField.setDisable(uploading);
+        if (uploading) {
+            errorText.setText("");
         } else {
-            stage.close();
+            progressBar.progressProperty().unbind();
+            progressText.textProperty().unbind();
         }
     }
 
@@ -168,4 +234,83 @@ public class FileUploadController {
         }
         errorStage.show();
     }
+
+    /**
+     * Task uploading a file in the background, reporting the fraction of the file
+     * uploaded as its progress and the rows per second, rows rejected and estimated
+     * time left as its message.
+     */
+    private static class UploadTask extends Task<ArrayList<String>> implements UploadProgress {
+
+        private final String name;
+        private final File file;
+        private final DataType dataType;
+        private long startTime;
+        /**
+         * Whether the upload has been committed, after which it is not cancelled.
+         */
+        private boolean committed = false;
+
+        /**
+         * Creates the task.
+         * @param name name of the data set.
+         * @param file file to upload.
+         * @param dataType data type of the records in the file.
+         */
+        private UploadTask(String name, File file, DataType dataType) {
+            this.name = name;
+            this.file = file;
+            this.dataType = dataType;
+        }
+
+        /**
+         * Uploads the file.
+         * @return the invalid lines, or null if the upload failed or was cancelled.
+         */
+        @Override
+        protected ArrayList<String> call() {
+            startTime = System.nanoTime();
+            updateMessage("Starting upload");
+            return DataLoader.uploadData(name, file, dataType, this);
+        }
+
+        /**
+         * Marks the upload as committed unless it has been cancelled, so it is not
+         * cancelled while the data derived from the new records is updated.
+         * @return true if the upload is committed.
+         */
+        @Override
+        public synchronized boolean commit() {
+            if (isCancelled()) {
+                return false;
+            }
+            committed = true;
+            return true;
+        }
+
+        /**
+         * Cancels the upload if it has not been committed.
+         * @return true if the upload was cancelled.
+         */
+        private synchronized boolean cancelUnlessCommitted() {
+            return !committed && cancel();
+        }
+
+        /**
+         * Updates the progress bar and message.
+         * @param bytesRead number of bytes of the file uploaded so far.
+         * @param totalBytes size of the file in bytes.
+         * @param rowsInserted number of valid records inserted so far.
+         * @param rowsRejected number of invalid lines so far.
+         */
+        @Override
+        public void update(long bytesRead, long totalBytes, int rowsInserted, int rowsRejected) {
+            updateProgress(bytesRead, Math.max(1, totalBytes));
+            double seconds = Math.max(1e-3, (System.nanoTime() - startTime) / 1e9);
+            long rowsPerSecond = Math.round((rowsInserted + rowsRejected) / seconds);
+            long secondsLeft = bytesRead == 0 ? 0 : Math.round((totalBytes - bytesRead) * seconds / bytesRead);
+            updateMessage(String.format("%,d rows/s   %,d rejected   %d:%02d left",
+                    rowsPerSecond, rowsRejected, secondsLeft / 60, secondsLeft % 60));
+        }
+    }
 }
@@ -2,7 +2,6 @@ package seng202.team4.controller;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.SelectionMode;
@@ -14,9 +13,13 @@ import seng202.team4.model.DataLoader;
 import seng202.team4.model.DataType;
 import seng202.team4.model.FlightPath;
 import seng202.team4.model.Path;
+import seng202.team4.model.RecordFilter;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Performs logic for the 'Flight Path' tab of the application
@@ -58,11 +61,15 @@ public class FlightPathTabController extends DataController {
     /**
      * Mutable ObservableLst containing a list of flight paths.
      */
-    private ObservableList<FlightPath> flightPaths = FXCollections.observableArrayList();
+    private final ObservableList<FlightPath> flightPaths = FXCollections.observableArrayList();
     /**
-     * Initialization of SortedList of routes that will be used by the filters
+     * Filter of the flight paths shown by the search bar, which searches every column.
      */
-    private SortedList<FlightPath> sortedFlightPath;
+    private final RecordFilter<FlightPath> flightPathFilter = new RecordFilter<>(flightPaths, Arrays.asList(
+            FlightPath::getType, FlightPath::getFlightPathId,
+            flightPath -> String.valueOf(flightPath.getAltitude()),
+            flightPath -> String.valueOf(flightPath.getLatitude()),
+            flightPath -> String.valueOf(flightPath.getLongitude())));
 
     /**
      * Holds the high level logic (set of instructions) for initialisation.
@@ -80,6 +87,13 @@ public class FlightPathTabController extends DataController {
         // Multiple rows can be selected
         dataTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
+        // The table shows the searched flight paths sorted by the sorted column
+        SortedList<FlightPath> sortedFlightPath = new SortedList<>(flightPathFilter.getView());
+        sortedFlightPath.comparatorProperty().bind(dataTable.comparatorProperty());
+        dataTable.setItems(sortedFlightPath);
+        // Typing in the search bar filters the table once typing pauses
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterLater());
+
         try {
             initialiseButtons();
             setDataSetComboBox();
@@ -93,27 +107,44 @@ public class FlightPathTabController extends DataController {
     }
 
     /**
-     * Sets the JavaFX table with rows from the 'FlightPath' database table.
-     * This is done using the table query and assigning each record to a row in the table
-     * @param rs JDBC ResultSet obtained from querying the Database FlightPath table and is used to set the rows
-     *           of the JavaFX data table by creating N FlightPath objects from the query that results in N tuples.
-     * @throws SQLException if the query fails, throws an exception
+     * Empties the JavaFX table before the rows of the 'FlightPath' database table are loaded.
      */
     @Override
-    public void setTableData(ResultSet rs) throws SQLException {
-        while (rs.next()) {
-            int id = rs.getInt("ID");
-            String type = rs.getString("Type");
-            String flightPathID = rs.getString("FlightPathID");
-            int altitude = rs.getInt("Altitude");
-            double latitude = rs.getDouble("Latitude");
-            double longitude = rs.getDouble("Longitude");
-
-            FlightPath flightPath = new FlightPath(type, flightPathID, altitude, latitude, longitude);
-            flightPath.setId(id);
-            flightPaths.add(flightPath);
+    public void clearTableData() {
+        flightPaths.clear();
+    }
+
+    /**
+     * Creates a FlightPath from a row of the 'FlightPath' database table.
+     * @param rs JDBC ResultSet obtained from querying the Database FlightPath table, at the row to read.
+     * @return FlightPath the flight path point of the row.
+     * @throws SQLException if the row could not be read.
+     */
+    @Override
+    public FlightPath readRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt("ID");
+        String type = rs.getString("Type");
+        String flightPathID = rs.getString("FlightPathID");
+        int altitude = rs.getInt("Altitude");
+        double latitude = rs.getDouble("Latitude");
+        double longitude = rs.getDouble("Longitude");
+
+        FlightPath flightPath = new FlightPath(type, flightPathID, altitude, latitude, longitude);
+        flightPath.setId(id);
+        return flightPath;
+    }
+
+    /**
+     * Adds loaded flight path points to the JavaFX table.
+     * @param rows List the flight path points read from the 'FlightPath' database table.
+     */
+    @Override
+    public void addTableData(List<DataType> rows) {
+        List<FlightPath> chunk = new ArrayList<>(rows.size());
+        for (DataType row : rows) {
+            chunk.add((FlightPath) row);
         }
-        dataTable.setItems(flightPaths);
+        flightPaths.addAll(chunk);
     }
 
     /**
@@ -147,37 +178,14 @@ public class FlightPathTabController extends DataController {
 
     }
 
+    /**
+     * Filtering of table data is done here by setting the text of the search bar on the flight path
+     * filter, which shows the flight path points with a column containing the search text.
+     */
     @Override
     public void filterData() {
-        FilteredList<FlightPath> searchFilter = addSearchBarFilter(flightPaths);
-        sortedFlightPath = new SortedList<>(searchFilter);
-        sortedFlightPath.comparatorProperty().bind(dataTable.comparatorProperty());
-
-        dataTable.setItems(sortedFlightPath);
-
-    }
-
-    private FilteredList<FlightPath> addSearchBarFilter(ObservableList<FlightPath> flightPaths) {
-        FilteredList<FlightPath> searchFilter = new FilteredList<>(flightPaths, p -> true);
-        searchField.textProperty().addListener((observable, oldValue, newValue) ->
-                searchFilter.setPredicate(flightPath -> {
-                    if (newValue == null || newValue.isEmpty()) {
-                        return true;
-                    }
-
-                    if (flightPath.getType().toLowerCase().contains(newValue.toLowerCase())) {
-                        return true;
-                    } else if (flightPath.getFlightPathId().toLowerCase().contains(newValue.toLowerCase())) {
-                        return true;
-                    } else if (String.valueOf(flightPath.getAltitude()).contains(newValue.toLowerCase())) {
-                        return true;
-                    } else if (String.valueOf(flightPath.getLatitude()).contains(newValue.toLowerCase())) {
-                        return true;
-                    } else {
-                        return (String.valueOf(flightPath.getLongitude()).contains(newValue.toLowerCase()));
-                    }
-                }));
-        return searchFilter;
+        flightPathFilter.setSearch(searchField.getText());
+        flightPathFilter.apply();
     }
 
     /**
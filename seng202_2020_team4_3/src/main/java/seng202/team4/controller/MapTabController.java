@@ -11,6 +11,7 @@ import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
 import org.controlsfx.control.textfield.TextFields;
 import seng202.team4.model.DatabaseManager;
+import seng202.team4.model.DistinctValues;
 import seng202.team4.model.Path;
 
 import java.sql.Connection;
@@ -93,6 +94,15 @@ public class MapTabController {
      * Limit for how many routes can be shown on the map (to avoid clutter).
      */
     private static final int ROUTELIMIT = 400;
+    /**
+     * Query of the routes whose values fill the route comboboxes, the same as the Routes tab
+     * shows for all data sets so the values read by either tab are shared.
+     */
+    private static final String ROUTE_QUERY = "SELECT * FROM Route";
+    /**
+     * Query of the airports whose countries fill the airport country combobox.
+     */
+    private static final String AIRPORT_QUERY = "SELECT * FROM Airport";
     /**
      * Web engine used to load the Google Map onto the WebView.
      */
@@ -169,58 +179,36 @@ public class MapTabController {
     }
 
     /**
-     * Specifically initialises/populates the route filtering comboboxes by querying
-     * the SQL database.
-     * @throws SQLException thrown if there is an error querying the SQL database
+     * Specifically initialises/populates the airport filtering comboboxes with the
+     * distinct values read from the SQL database.
      */
     private void initialiseAirportComboBoxes() {
-        try (Connection connection = DatabaseManager.connect();
-             Statement stmt = connection.createStatement();
-            ResultSet airportResultSet = stmt.executeQuery("SELECT Country FROM Airport");
-        ) {
-            while (airportResultSet.next()) {
-                String country = airportResultSet.getString("Country");
-                if (!airportCountries.contains(country)) {
-                    airportCountries.add(country);
-                }
-            }
+        try {
+            DistinctValues values = DistinctValues.get();
+            airportCountries.setAll(values.of(AIRPORT_QUERY, "Country"));
         } catch (SQLException e) {
             ErrorController.createErrorMessage("Could not initialize airline combo boxes.", false);
         }
-        FXCollections.sort(airportCountries); airportCountryFilterCombobox.setItems(airportCountries);
+        airportCountryFilterCombobox.setItems(airportCountries);
         TextFields.bindAutoCompletion(airportCountryFilterCombobox.getEditor(), airportCountryFilterCombobox.getItems());
     }
 
     /**
-     * Specifically initialises/populates the route filtering comboboxes by querying
-     * the SQL database.
+     * Specifically initialises/populates the route filtering comboboxes with the
+     * distinct values read from the SQL database.
      */
     private void initialiseRouteComboBoxes() {
-        try (Connection connection = DatabaseManager.connect();
-            Statement stmt = connection.createStatement();
-            ResultSet routesResultSet = stmt.executeQuery("SELECT Airline, SourceAirport, Equipment FROM Route");
-        ) {
-            while (routesResultSet.next()) {
-                String airline = routesResultSet.getString("Airline");
-                String sourceAirport = routesResultSet.getString("SourceAirport");
-                String planeType = routesResultSet.getString("Equipment");
-
-                if (!airlineCodes.contains(airline)) {
-                    airlineCodes.add(airline);
-                }
-                if (!departureCountries.contains(sourceAirport)) {
-                    departureCountries.add(sourceAirport);
-                }
-                if (!planeTypes.contains(planeType)) {
-                    planeTypes.add(planeType);
-                }
-            }
+        try {
+            DistinctValues values = DistinctValues.get();
+            airlineCodes.setAll(values.of(ROUTE_QUERY, "Airline"));
+            departureCountries.setAll(values.of(ROUTE_QUERY, "SourceAirport"));
+            planeTypes.setAll(values.of(ROUTE_QUERY, "Equipment"));
         } catch (SQLException e) {
             ErrorController.createErrorMessage("Could not initialize route combo boxes.", false);
         }
-        FXCollections.sort(airlineCodes); routeAirlineFilterCombobox.setItems(airlineCodes);
-        FXCollections.sort(departureCountries); routeAirportFilterCombobox.setItems(departureCountries);
-        FXCollections.sort(planeTypes); routePlaneTypeFilterCombobox.setItems(planeTypes);
+        routeAirlineFilterCombobox.setItems(airlineCodes);
+        routeAirportFilterCombobox.setItems(departureCountries);
+        routePlaneTypeFilterCombobox.setItems(planeTypes);
         // Make combobox searching autocomplete
         TextFields.bindAutoCompletion(routeAirlineFilterCombobox.getEditor(), routeAirlineFilterCombobox.getItems());
         TextFields.bindAutoCompletion(routeAirportFilterCombobox.getEditor(), routeAirportFilterCombobox.getItems());
@@ -254,7 +242,7 @@ public class MapTabController {
     @FXML
     private void showSelectedRoutes() {
         clearMap();
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
              ResultSet routesResultSet = stmt.executeQuery("SELECT SourceAirport, DestinationAirport FROM RoutesSelected");
         ) {
@@ -290,7 +278,7 @@ public class MapTabController {
                 airline, airport, planeType);
 
 
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
              ResultSet filteredResultSet = stmt.executeQuery(query);
         ) {
@@ -349,7 +337,7 @@ public class MapTabController {
     @FXML
     public void showSelectedAirports() {
         clearMap();
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
              ResultSet airportResultSet = stmt.executeQuery("SELECT Name, Longitude, Latitude FROM AirportsSelected");
             ) {
@@ -400,7 +388,7 @@ public class MapTabController {
         country = getValidInput(country);
         String query = String.format("SELECT Longitude, Latitude, Name FROM Airport WHERE Country is %s", country);
 
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
             ResultSet airportResultSet = stmt.executeQuery(query);
             ) {
@@ -85,7 +85,7 @@ abstract class NewRecord {
      */
     private void setDataSetComboBox(ComboBox comboBox) {
         ObservableList<String> dataSetNames = FXCollections.observableArrayList();
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery("Select Name from " + controller.getDataType().getSetName());
         ) {
@@ -45,7 +45,7 @@ public class NewRoute extends NewRecord{
 
     private void initialiseComboBoxes() {
         String query = "SELECT DISTINCT ICAO, IATA FROM Airport";
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
             ResultSet rs = stmt.executeQuery(query);
             ) {
@@ -3,8 +3,6 @@ package seng202.team4.controller;
 import com.jfoenix.controls.JFXSlider;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.CheckBoxTableCell;
@@ -16,6 +14,12 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Performs logic for the 'Routes' tab of the application; extends the DataController Class.
@@ -23,6 +27,8 @@ import java.sql.Statement;
  * initialising/updating the JavaFX TableView with data from the SQLite database table 'Routes' and also
  * initialising/updating the additive filtering and searching of said data. Checkboxes in this table are used to add
  * to a separate 'RoutesSelected' table and are used by both the Maps tab and the Emissions tab.
+ * The table shows a {@link PagedRecordList}, so only the routes on screen are read from the database,
+ * and the filters and sorting of the table are done by the database when the list is opened.
  */
 public class RouteTabController extends DataController {
 
@@ -80,33 +86,55 @@ public class RouteTabController extends DataController {
      */
     @FXML private TextField searchField;
     /**
-     * Mutable ObservableList containing Route objects.
+     * Routes of the data set matching the filters, read a page at a time.
      */
-    private ObservableList<Route> routes;
+    private PagedRecordList<Route> routes;
     /**
      * Mutable ObservableList containing a list of airline codes for the airlineFilterCombobox.
      */
-    private ObservableList<String> airlineCodes;
+    private final ObservableList<String> airlineCodes = FXCollections.observableArrayList();
     /**
      * Mutable ObservableList containing a list of departure country IATAs for the departureFilterCombobox.
      */
-    private ObservableList<String> departureCountries;
+    private final ObservableList<String> departureCountries = FXCollections.observableArrayList();
     /**
      * Mutable ObservableList containing a list of destination country IATAs for the destinationFilterCombobox.
      */
-    private ObservableList<String> destinationCountries;
+    private final ObservableList<String> destinationCountries = FXCollections.observableArrayList();
     /**
      * Mutable ObservableList containing a list of plane types for the planeTypeFilterCombobox.
      */
-    private ObservableList<String> planeTypes;
+    private final ObservableList<String> planeTypes = FXCollections.observableArrayList();
 
     /**
-     * Initialization of SortedList of routes that will be used by the filters
+     * Trigram index of the airline, airports and plane type of the routes of the data set shown,
+     * null until the routes are first searched.
      */
-    private SortedList<Route> sortedRoute;
+    private TrigramIndex searchIndex;
+    /**
+     * ID of the route in each row of the search index.
+     */
+    private int[] searchIndexIds;
+    /**
+     * Number of stops of the routes shown, null until the stops slider is moved.
+     */
+    private Integer stopsFilter;
+    /**
+     * Column of the Route table each sortable table column is sorted by.
+     */
+    private final Map<TableColumn<Route, ?>, String> sortColumns = new HashMap<>();
+    /**
+     * Table column the routes are sorted by, null if they are sorted by ID.
+     */
+    private TableColumn<Route, ?> sortedBy;
+    /**
+     * Whether the routes are sorted in decreasing order.
+     */
+    private boolean sortedDescending;
+
     /**
      * Holds the high level logic (set of instructions) for initialisation.
-     * Initialisation order: New Record Button, Sliders, Table Columns, Dataset Chooser ComboBox, Set Table
+     * Initialisation order: New Record Button, Table Columns, Dataset Chooser ComboBox, Sliders, Filters, Set Table
      */
     @FXML
     public void initialize() {
@@ -117,8 +145,9 @@ public class RouteTabController extends DataController {
             initialiseColumns();
             setDataSetComboBox();
             initialiseSliders();
+            initialiseFilters();
             setDataSetListener();
-            setTable(); // Super class method which calls setTableData
+            setTable(); // Super class method which calls setTable(query)
         } catch (Exception e) {
             e.printStackTrace();
             System.exit(0);
@@ -128,7 +157,8 @@ public class RouteTabController extends DataController {
 
     /**
      * Connect table columns to their respective Airport class attribute.
-     * Also makes the checkbox column for selecting specific rows.
+     * Also makes the checkbox column for selecting specific rows, and sorts
+     * the routes in the database when a column is sorted.
      */
     private void initialiseColumns() {
         airlineColumn.setCellValueFactory(new PropertyValueFactory<>("airlineCode"));
@@ -139,6 +169,38 @@ public class RouteTabController extends DataController {
         dataTable.setEditable(true);
 
         makeCheckboxColumn();
+
+        sortColumns.put(airlineColumn, "Airline");
+        sortColumns.put(departureAirportColumn, "SourceAirport");
+        sortColumns.put(destinationAirportColumn, "DestinationAirport");
+        sortColumns.put(numStopsColumn, "Stops");
+        sortColumns.put(planeTypeColumn, "Equipment");
+        routes = new PagedRecordList<>(this::readRow);
+        dataTable.setItems(routes);
+        dataTable.setSortPolicy(table -> {
+            TableColumn<Route, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            boolean descending = column != null && column.getSortType() == TableColumn.SortType.DESCENDING;
+            if (column != sortedBy || descending != sortedDescending) {
+                filterData();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Shows the routes matching the filters whenever a filter changes. Typing in the search bar
+     * reads the routes once typing pauses, rather than on every key.
+     */
+    private void initialiseFilters() {
+        airlineFilterCombobox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> filterNow());
+        departureFilterCombobox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> filterNow());
+        destinationFilterCombobox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> filterNow());
+        planeTypeFilterCombobox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> filterNow());
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterLater());
+        stopsLabel.textProperty().addListener((observable, oldValue, newValue) -> {
+            stopsFilter = Integer.parseInt(newValue);
+            filterNow();
+        });
     }
 
     /**
@@ -155,7 +217,8 @@ public class RouteTabController extends DataController {
     /**
      * Makes the checkbox column for selecting specific rows of the Route table.
      * Selected rows are then used by the Emissions tab, to calculated distance and carbon emissions,
-     * and the Map tab, to display chosen airports.
+     * and the Map tab, to display chosen airports. The checkbox of a row shows the select property
+     * of its route, which adds it to or removes it from the 'RoutesSelected' table when it changes.
      */
     private void makeCheckboxColumn() {
         final TableColumn<Route, Boolean> routeTabSelectedRoute = new TableColumn<>("Select");
@@ -163,70 +226,75 @@ public class RouteTabController extends DataController {
         routeTabSelectedRoute.setCellValueFactory(new PropertyValueFactory<>("select"));
         routeTabSelectedRoute.setCellFactory(CheckBoxTableCell.forTableColumn(routeTabSelectedRoute));
         routeTabSelectedRoute.setEditable(true);
+        routeTabSelectedRoute.setSortable(false);
         dataTable.setEditable(true);
+    }
+
+    /**
+     * Creates a route from a row of the 'Route' table, as the rows of the table are read.
+     * The route is selected if it is in the 'RoutesSelected' table, and is added to or
+     * removed from it when its checkbox is changed.
+     * @param rs JDBC ResultSet at the row of the route.
+     * @return Route the route.
+     * @throws SQLException if the row could not be read.
+     */
+    @Override
+    public Route readRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt("Id");
+        String airline = rs.getString("Airline");
+        String sourceAirport = rs.getString("SourceAirport");
+        String destinationAirport = rs.getString("DestinationAirport");
+        boolean codeshare = "true".equals(rs.getString("Codeshare"));
+        int stops = rs.getInt("Stops");
+        String planeType = rs.getString("Equipment");
+
+        Route route = new Route(airline, sourceAirport, destinationAirport, codeshare, stops, planeType);
+        route.setId(id);
+        route.setDistance(rs.getDouble("Distance"));
+        route.setCarbonEmissions(rs.getDouble("CarbonEmissions"));
+        route.setSelect(RouteSelection.get().contains(route));
         // Add listener for adding/removing a specific route to the RoutesSelected Database table
-        routeTabSelectedRoute.setCellFactory(CheckBoxTableCell.forTableColumn(param -> {
-            if (sortedRoute.get(param).isSelect()) {
-                DataLoader.addToRoutesSelectedDatabase(sortedRoute.get(param));
+        route.selectProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                DataLoader.addToRoutesSelectedDatabase(route);
             } else {
-                DataLoader.removeFromRoutesSelectedDatabase(sortedRoute.get(param));
+                DataLoader.removeFromRoutesSelectedDatabase(route);
             }
-
-            return sortedRoute.get(param).selectProperty();
-        }));
+        });
+        return route;
     }
 
     /**
-     * Sets the JavaFX Route table with rows from the 'Routes' table from the database.
-     * @param rs JDBC ResultSet obtained from querying the Database Route table and is used to set the rows
-     *           of the JavaFX airport table by creating N Route objects from the query that results in N tuples.
-     * @throws SQLException if the query fails, throws an exception
+     * Sets the table to show the routes of a query, setting the values of the filter
+     * comboboxes to the distinct values of the routes and opening the list of routes.
+     * @param query specifications for the content of the table.
      */
     @Override
-    public void setTableData(ResultSet rs) throws SQLException {
-        routes = FXCollections.observableArrayList();
-        airlineCodes = FXCollections.observableArrayList();
-        departureCountries = FXCollections.observableArrayList();
-        destinationCountries = FXCollections.observableArrayList();
-        planeTypes = FXCollections.observableArrayList();
-        routes = FXCollections.observableArrayList();
-        while (rs.next()) {
-            int id = rs.getInt("Id");
-            String airline = rs.getString("Airline");
-            String sourceAirport = rs.getString("SourceAirport");
-            String destinationAirport = rs.getString("DestinationAirport");
-            boolean codeshare = rs.getString("Codeshare").equals("true");
-            int stops = rs.getInt("Stops");
-            String planeType = rs.getString("Equipment");
-
-            Route route = new Route(airline, sourceAirport, destinationAirport, codeshare, stops, planeType);
-            route.setId(id);
-            route.setDistance(0);
-            routes.add(route);
-
-            addToComboBoxList(airlineCodes, airline);
-            addToComboBoxList(departureCountries, sourceAirport);
-            addToComboBoxList(destinationCountries, destinationAirport);
-            addToComboBoxList(planeTypes, planeType);
-
-        }
-        dataTable.setItems(routes);
-        initialiseSliders();
+    public void setTable(String query) {
+        routes.setQuery(query);
+        searchIndex = null;
+        airlineCodes.setAll(getDistinctValues(query, "Airline"));
+        departureCountries.setAll(getDistinctValues(query, "SourceAirport"));
+        destinationCountries.setAll(getDistinctValues(query, "DestinationAirport"));
+        planeTypes.setAll(getDistinctValues(query, "Equipment"));
+        setSliderMaxStops();
+
+        initialiseComboBoxes();
     }
 
     /**
-     * Sorts and sets the FX observable lists to each respective combobox and
+     * Sets the FX observable lists to each respective combobox and
      * uses ControlsFX to make these comboboxes searchable.
      * filterdata() is also called here because filtering of the table is based on combobox selections
      * and is required to be refreshed whenever a new dataset is chosen to be displayed.
      */
     @Override
     public void initialiseComboBoxes() {
-        // Sort and set combobox items
-        FXCollections.sort(airlineCodes); airlineFilterCombobox.setItems(airlineCodes);
-        FXCollections.sort(departureCountries); departureFilterCombobox.setItems(departureCountries);
-        FXCollections.sort(destinationCountries); destinationFilterCombobox.setItems(destinationCountries);
-        FXCollections.sort(planeTypes); planeTypeFilterCombobox.setItems(planeTypes);
+        // Set combobox items, which are sorted when read
+        airlineFilterCombobox.setItems(airlineCodes);
+        departureFilterCombobox.setItems(departureCountries);
+        destinationFilterCombobox.setItems(destinationCountries);
+        planeTypeFilterCombobox.setItems(planeTypes);
 
         // Make combobox searching autocomplete
         TextFields.bindAutoCompletion(airlineFilterCombobox.getEditor(), airlineFilterCombobox.getItems());
@@ -240,93 +308,95 @@ public class RouteTabController extends DataController {
     }
 
     /**
-     * Filtering of table data is done here by initialising then iteratively adding each combobox/slider filter
-     * to a FilteredList object. Each filter requires addFilter(). Then the search bar filter
-     * is added through addSearchBar(). Finally the resulting SortedList is bound to the TableView dataTable
-     * and the result of the filtering is shown to the user.
+     * Filtering of table data is done here by adding a condition on the routes for each combobox/slider filter
+     * with a selected value, through addFilter(), and restricting the routes to those found by the search bar
+     * through searchRoutes(). The routes are then read again with the conditions and the order of the sorted
+     * table column, and the table shows the first routes.
      */
     @Override
     public void filterData() {
-        // Connect combobox and slider filters to table
-        FilteredList<Route> airlinesFilter = addFilter(new FilteredList<>(routes, p -> true), airlineFilterCombobox, "Airline");
-        FilteredList<Route> sourceFilter = addFilter(airlinesFilter, departureFilterCombobox, "Source");
-        FilteredList<Route> stopSliderFilter = new FilteredList<>(sourceFilter, p -> true);
-
-        stopsLabel.textProperty().addListener((observableValue, oldValue, newValue) ->
-                stopSliderFilter.setPredicate((route -> (Integer.parseInt(newValue) == route.getNumStops()))));
-
-
-        FilteredList<Route> destinationFilter = addFilter(stopSliderFilter, destinationFilterCombobox, "Destination");
-        FilteredList<Route> planeFilter = addFilter(destinationFilter, planeTypeFilterCombobox, "Plane");
-
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        addFilter(conditions, parameters, airlineFilterCombobox, "Airline");
+        addFilter(conditions, parameters, departureFilterCombobox, "SourceAirport");
+        if (stopsFilter != null) {
+            conditions.add("Stops = ?");
+            parameters.add(stopsFilter);
+        }
+        addFilter(conditions, parameters, destinationFilterCombobox, "DestinationAirport");
+        addFilter(conditions, parameters, planeTypeFilterCombobox, "Equipment");
 
+        routes.setFilter(conditions.isEmpty() ? null : String.join(" AND ", conditions), parameters);
         // Add search bar filter
-        FilteredList<Route> searchFilter = addSearchBarFilter(planeFilter);
-        sortedRoute = new SortedList<>(searchFilter);
-        sortedRoute.comparatorProperty().bind(dataTable.comparatorProperty());
-
-        dataTable.setItems(sortedRoute);
+        routes.setIds(searchRoutes(searchField.getText()));
 
+        sortedBy = dataTable.getSortOrder().isEmpty() ? null : dataTable.getSortOrder().get(0);
+        sortedDescending = sortedBy != null && sortedBy.getSortType() == TableColumn.SortType.DESCENDING;
+        routes.setOrder(sortColumns.get(sortedBy), sortedDescending);
+        try {
+            routes.open();
+        } catch (SQLException e) {
+            ErrorController.createErrorMessage("Could not load route table data.", false);
+        }
     }
 
     /**
-     * Adds a combobox filter, comboBox, to an input FilteredList, filteredList through
-     * adding a listener to comboBox (which works with combobox searching as well). The result is
-     * a new FilteredList which has the comboBox filter applied.
-     *
-     * @param filteredList the filtered list to add a filter to.
-     * @param comboBox     the searchable combobox filter that is added to the filteredList.
-     * @param filter       a String parameter used to specify which filter is being applied.
-     * @return the FilteredList with the new filter added.
-     */
-    public FilteredList<Route> addFilter(FilteredList<Route> filteredList, ComboBox<String> comboBox, String filter) {
-        FilteredList<Route> newFilter = new FilteredList<>(filteredList, p -> true);
-        comboBox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) ->
-                newFilter.setPredicate(route -> {
-                    if (newValue == null || newValue.equals("---")) {
-                        return true;
-                    }
-                    String lower = newValue.toLowerCase();
-
-                    if (filter.equals("Airline")) {
-                        return route.getAirlineCode().toLowerCase().contains(lower);
-                    } else if (filter.equals("Source")) {
-                        return route.getSourceAirportCode().toLowerCase().contains(lower);
-                    } else if (filter.equals("Destination")) {
-                        return route.getDestinationAirportCode().toLowerCase().contains(lower);
-                    } else {
-                        return route.getPlaneTypeCode().toLowerCase().contains(lower);
+     * Finds the routes with an airline, source airport, destination airport or plane type containing
+     * the search text, ignoring case, through a trigram index of the routes of the data set shown.
+     * The index is created by the first search of the data set.
+     * @param search the text of the search bar.
+     * @return the IDs of the routes found, or null if the search bar is empty or the routes could not be read.
+     */
+    private BitSet searchRoutes(String search) {
+        if (search == null || search.isEmpty()) {
+            return null;
+        }
+        if (searchIndex == null) {
+            TrigramIndex index = new TrigramIndex(4);
+            int[] ids = new int[1024];
+            try (Connection connection = DatabaseManager.connectReadOnly();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT ID, lower(Airline), lower(SourceAirport), "
+                         + "lower(DestinationAirport), lower(Equipment) FROM (" + routes.getQuery() + ")")) {
+                while (rs.next()) {
+                    int row = index.add(rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+                    if (row == ids.length) {
+                        ids = Arrays.copyOf(ids, row * 2);
                     }
-
-                }));
-        return newFilter;
+                    ids[row] = rs.getInt(1);
+                }
+            } catch (SQLException e) {
+                ErrorController.createErrorMessage("Could not search the routes.", false);
+                return null;
+            }
+            searchIndex = index;
+            searchIndexIds = ids;
+        }
+        BitSet found = new BitSet();
+        BitSet rows = searchIndex.search(search.toLowerCase());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            found.set(searchIndexIds[row]);
+        }
+        return found;
     }
 
     /**
-     * Adds holistic search bar filter which searches the route's Airline Code, Source Airport Code, Destination Airport
-     * Code, and Plant Type Code.
-     * @param filteredList the last filter to be added to before the search bar.
-     * @return FilteredList with the search bar filter added.
-     */
-    private FilteredList<Route> addSearchBarFilter(FilteredList<Route> filteredList) {
-        FilteredList<Route> searchFilter = new FilteredList<>(filteredList, p -> true);
-        searchField.textProperty().addListener((observable, oldValue, newValue) ->
-                searchFilter.setPredicate(route -> {
-                    if (newValue == null || newValue.isEmpty()) {
-                        return true;
-                    }
-                    String lower = newValue.toLowerCase();
-                    if (route.getAirlineCode().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (route.getSourceAirportCode().toLowerCase().contains(lower)) {
-                        return true;
-                    } else if (route.getDestinationAirportCode().toLowerCase().contains(lower)){
-                        return true;
-                    } else {
-                        return (route.getPlaneTypeCode().toLowerCase().contains(lower));
-                    }
-                }));
-        return searchFilter;
+     * Adds the condition of a combobox filter, comboBox, to the conditions on the routes if it
+     * has a value selected. The condition is met by routes whose column contains the value,
+     * ignoring case.
+     *
+     * @param conditions the conditions to add to.
+     * @param parameters the values of the parameters of the conditions, which the value is added to.
+     * @param comboBox   the searchable combobox filter whose value is added to the conditions.
+     * @param column     the column of the 'Route' table that is filtered.
+     */
+    private void addFilter(List<String> conditions, List<Object> parameters, ComboBox<String> comboBox, String column) {
+        String value = comboBox.getSelectionModel().getSelectedItem();
+        if (value == null || value.isEmpty() || value.equals("---")) {
+            return;
+        }
+        conditions.add("instr(lower(" + column + "), ?) > 0");
+        parameters.add(value.toLowerCase());
     }
 
 
@@ -336,7 +406,7 @@ public class RouteTabController extends DataController {
      */
     public void setSliderMaxStops() {
         String query = "SELECT max(STOPS) FROM Route";
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.connectReadOnly();
              Statement stmt = connection.createStatement();
              ResultSet result = stmt.executeQuery(query);
             ) {
@@ -375,21 +445,22 @@ public class RouteTabController extends DataController {
     }
 
     /**
-     * Delete each row selected in the table view and database
+     * Delete each row selected in the table view and database, then read the routes again
      */
     @FXML
     @Override
     public void deleteRows() {
         DataType rows[] = dataTable.getSelectionModel().getSelectedItems().toArray(new DataType[0]);
         for(DataType row : rows) {
-            boolean deleted = DataLoader.deleteRecord(row.getId(), getDataType().getTypeName());
-            if (deleted) {
-                routes.remove(row);
+            if (row == null) {
+                continue;
             }
-            else {
+            boolean deleted = DataLoader.deleteRecord(row.getId(), getDataType().getTypeName());
+            if (!deleted) {
                 ErrorController.createErrorMessage("Can't delete record: \n" + row.toString(), false);
             }
         }
+        filterData();
     }
 
     /**
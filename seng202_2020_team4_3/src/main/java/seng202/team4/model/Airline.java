@@ -1,7 +1,8 @@
 package seng202.team4.model;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 
 /**
  * Airline model class with attributes representing
@@ -90,6 +91,34 @@ public class Airline extends DataType {
                 + "');";
     }
 
+    /**
+     * Gets the parameterised airline insert statement for the database.
+     * @return String the insert statement with a placeholder for each attribute.
+     */
+    @Override
+    public String getPreparedInsertStatement() {
+        return "Insert into " + getTypeName() + " (Name, Alias, IATA, ICAO, CallSign, Country, RecentlyActive, SetId) "
+                + "Values (?, ?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Binds the airline attributes to the prepared insert statement.
+     * @param statement PreparedStatement the prepared insert statement.
+     * @param setID int the ID of the set the that will be inserted into.
+     * @throws SQLException if a parameter could not be bound.
+     */
+    @Override
+    public void setInsertParameters(PreparedStatement statement, int setID) throws SQLException {
+        statement.setString(1, getName());
+        statement.setString(2, getAlias());
+        statement.setString(3, getIata());
+        statement.setString(4, getIcao());
+        statement.setString(5, getCallSign());
+        statement.setString(6, getCountry());
+        statement.setString(7, String.valueOf(isRecentlyActive()));
+        statement.setInt(8, setID);
+    }
+
     @Override
     public String getUpdateStatement(int setID) {
         return "Update " + getTypeName() + " set "
@@ -195,19 +224,19 @@ public class Airline extends DataType {
 
     /**
      * Converts a string record into individual strings and calls get valid.
-     * @param record String constituting the record.
+     * @param record CharSequence the line constituting the record.
      * @param errorMessage ArrayList where the error messages will be stored.
      * @return DataType the airline if valid, otherwise null.
      */
     @Override
-    public DataType getValid(String record, ArrayList<String> errorMessage) {
-        String[] recordList = record.replaceAll("\"", "").split(",");
-        if (recordList.length != AIRLINE_RECORD_LENGTH) {
+    public DataType getValid(CharSequence record, ArrayList<String> errorMessage) {
+        RecordTokenizer fields = RecordTokenizer.get();
+        if (fields.tokenize(record) != AIRLINE_RECORD_LENGTH) {
             errorMessage.add("Invalid number of attributes");
             return null;
         }
-        recordList = Arrays.copyOfRange(recordList, 1, AIRLINE_RECORD_LENGTH);
-        return getValid(recordList, errorMessage);
+        return getValid(fields.getField(1), fields.getField(2), fields.getField(3), fields.getField(4),
+                fields.getField(5), fields.getField(6), fields.getField(7), errorMessage);
     }
 
     /**
@@ -4,8 +4,9 @@ import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import org.apache.commons.math3.util.Precision;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 
 /**
  * Airport model class with attributes representing
@@ -138,6 +139,38 @@ public class Airport extends DataType {
                 + "');";
     }
 
+    /**
+     * Gets the parameterised airport insert statement for the database.
+     * @return String the insert statement with a placeholder for each attribute.
+     */
+    @Override
+    public String getPreparedInsertStatement() {
+        return "Insert into " + getTypeName() + " (Name, City, Country, IATA, ICAO, Latitude, Longitude, Altitude, TimeZone, DST, TzDatabaseTime, SetId) "
+                + "Values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Binds the airport attributes to the prepared insert statement.
+     * @param statement PreparedStatement the prepared insert statement.
+     * @param setID int the ID of the set the that will be inserted into.
+     * @throws SQLException if a parameter could not be bound.
+     */
+    @Override
+    public void setInsertParameters(PreparedStatement statement, int setID) throws SQLException {
+        statement.setString(1, getName());
+        statement.setString(2, getCity());
+        statement.setString(3, getCountry());
+        statement.setString(4, getIata());
+        statement.setString(5, getIcao());
+        statement.setDouble(6, getLatitude());
+        statement.setDouble(7, getLongitude());
+        statement.setInt(8, getAltitude());
+        statement.setFloat(9, getTimezone());
+        statement.setString(10, String.valueOf(getDst()));
+        statement.setString(11, getTzDatabase());
+        statement.setInt(12, setID);
+    }
+
     @Override
     public String getUpdateStatement(int setID) {
         return "Update " + getTypeName() + " set "
@@ -286,42 +319,29 @@ public class Airport extends DataType {
 
     /**
      * Converts a string record into individual strings and calls get valid.
-     * @param record String constituting the record.
+     * @param record CharSequence the line constituting the record.
      * @param errorMessage ArrayList where the error messages will be stored.
      * @return DataType the airline if valid, otherwise null.
      */
     @Override
-    public DataType getValid(String record, ArrayList<String> errorMessage) {
-        String[] recordList = record.replaceAll("\"", "").split(",");
-        String[] newRecordList = new String[AIRPORT_RECORD_LENGTH - 1];
-        boolean containsComma = false;
-        if (recordList.length == AIRPORT_RECORD_LENGTH) {
-            containsComma = true;
-            newRecordList[0] = recordList[0];
-            newRecordList[1] = recordList[1];
-            newRecordList[2] = recordList[2] + " " + recordList[3];
-            newRecordList[3] = recordList[4];
-            newRecordList[4] = recordList[5];
-            newRecordList[5] = recordList[6];
-            newRecordList[6] = recordList[7];
-            newRecordList[7] = recordList[8];
-            newRecordList[8] = recordList[9];
-            newRecordList[9] = recordList[10];
-            newRecordList[10] = recordList[11];
-            newRecordList[11] = recordList[12];
-        }
-        if (recordList.length != (AIRPORT_RECORD_LENGTH - 1) && recordList.length != AIRPORT_RECORD_LENGTH) {
+    public DataType getValid(CharSequence record, ArrayList<String> errorMessage) {
+        RecordTokenizer fields = RecordTokenizer.get();
+        int length = fields.tokenize(record);
+        if (length != (AIRPORT_RECORD_LENGTH - 1) && length != AIRPORT_RECORD_LENGTH) {
             errorMessage.add("Invalid number of attributes");
             return null;
         }
-        if (containsComma) {
-            newRecordList = Arrays.copyOfRange(newRecordList, 1, AIRPORT_RECORD_LENGTH - 1);
-            return getValid(newRecordList, errorMessage);
-        }
-        else {
-            recordList = Arrays.copyOfRange(recordList, 1, AIRPORT_RECORD_LENGTH - 1);
-            return getValid(recordList, errorMessage);
+        String city = fields.getField(2);
+        int next = 3;
+        if (length == AIRPORT_RECORD_LENGTH) {
+            // An unquoted city containing a comma is split over two fields
+            city = city + " " + fields.getField(3);
+            next = 4;
         }
+        return getValid(fields.getField(1), city, fields.getField(next), fields.getField(next + 1),
+                fields.getField(next + 2), fields.getField(next + 3), fields.getField(next + 4),
+                fields.getField(next + 5), fields.getField(next + 6), fields.getField(next + 7),
+                fields.getField(next + 8), errorMessage);
     }
 
     /**
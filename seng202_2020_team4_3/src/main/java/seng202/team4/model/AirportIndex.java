@@ -0,0 +1,262 @@
+package seng202.team4.model;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In memory index of the coordinates of every airport in the database, so the
+ * distance of a route is calculated without querying the database. Each airport
+ * has a slot in arrays of its latitude and longitude in radians, and its IATA and
+ * ICAO codes map to the slot through an open addressing hash table. When a code
+ * belongs to airports in several sets, the airport inserted first is used.
+ * The index is loaded when it is first used and reloaded after the airports in the
+ * database change, which {@link DataLoader} reports through {@link #invalidate()}.
+ * A loaded index is never modified, so it can be read by any thread. Each index
+ * has a {@link DistanceCache} of the distances between pairs of its airports, which
+ * is discarded with the index when the airports change.
+ */
+public final class AirportIndex {
+
+    /**
+     * Index of the airports currently in the database, or null if it has to be loaded.
+     */
+    private static AirportIndex current;
+
+    /**
+     * Latitude of the airport in each slot in radians.
+     */
+    private final double[] latitudes;
+    /**
+     * Longitude of the airport in each slot in radians.
+     */
+    private final double[] longitudes;
+    /**
+     * Cosine of the latitude of the airport in each slot.
+     */
+    private final double[] cosLatitudes;
+    /**
+     * Code of the airport in each slot, its IATA code or its ICAO code if it has no IATA code.
+     */
+    private final String[] slotCodes;
+    /**
+     * Country of the airport in each slot.
+     */
+    private final String[] countries;
+    /**
+     * Number of airports in the index.
+     */
+    private int size = 0;
+
+    /**
+     * Codes in the hash table, null where a bucket is empty.
+     */
+    private final String[] codes;
+    /**
+     * Slot of the airport with the code in the same bucket.
+     */
+    private final int[] slots;
+    /**
+     * Distances between pairs of airports calculated through {@link #cachedDistance(int, int)}.
+     */
+    private final DistanceCache cache = new DistanceCache();
+
+    /**
+     * Creates an empty index with room for a number of airports.
+     * @param capacity int the number of airports.
+     */
+    private AirportIndex(int capacity) {
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        cosLatitudes = new double[capacity];
+        slotCodes = new String[capacity];
+        countries = new String[capacity];
+        // At least four buckets per airport, so the table is at most half full with two codes each
+        int buckets = Integer.highestOneBit(Math.max(4, capacity * 4 - 1)) << 1;
+        codes = new String[buckets];
+        slots = new int[buckets];
+    }
+
+    /**
+     * Gets the index of the airports currently in the application's database,
+     * loading it if it has not been loaded since the airports last changed.
+     * @return AirportIndex the index.
+     * @throws SQLException if the airports could not be read.
+     */
+    public static synchronized AirportIndex get() throws SQLException {
+        if (current == null) {
+            try (Connection connection = DatabaseManager.connectReadOnly()) {
+                current = load(connection);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Discards the loaded index, so the next call to {@link #get()} reads the airports again.
+     * Called after the Airport table changes.
+     */
+    public static synchronized void invalidate() {
+        current = null;
+    }
+
+    /**
+     * Reads the coordinates and codes of every airport in a database.
+     * @param connection Connection the connection to the database.
+     * @return AirportIndex the index of the airports.
+     * @throws SQLException if the airports could not be read.
+     */
+    static AirportIndex load(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            int count;
+            try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM Airport")) {
+                count = rs.getInt(1);
+            }
+            AirportIndex index = new AirportIndex(count);
+            try (ResultSet rs = stmt.executeQuery("SELECT IATA, ICAO, Latitude, Longitude, Country FROM Airport ORDER BY ID")) {
+                int slot = 0;
+                // Airports inserted after counting are left for the next load
+                while (rs.next() && slot < count) {
+                    double latitude = Math.toRadians(rs.getDouble(3));
+                    index.latitudes[slot] = latitude;
+                    index.longitudes[slot] = Math.toRadians(rs.getDouble(4));
+                    index.cosLatitudes[slot] = Math.cos(latitude);
+                    String iata = rs.getString(1);
+                    String icao = rs.getString(2);
+                    index.slotCodes[slot] = isCode(iata) ? iata : icao;
+                    index.countries[slot] = rs.getString(5);
+                    index.put(iata, slot);
+                    index.put(icao, slot);
+                    slot++;
+                }
+                index.size = slot;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Gets the slot of the airport with an IATA or ICAO code.
+     * @param code String the IATA or ICAO code of the airport.
+     * @return int the slot of the airport, or -1 if no airport has the code.
+     */
+    public int slot(String code) {
+        if (code == null || code.isEmpty()) {
+            return -1;
+        }
+        int mask = codes.length - 1;
+        for (int i = hash(code) & mask; codes[i] != null; i = (i + 1) & mask) {
+            if (codes[i].equals(code)) {
+                return slots[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the code of the airport in a slot.
+     * @param slot int the slot of the airport.
+     * @return String the IATA code of the airport, or its ICAO code if it has no IATA code.
+     */
+    public String getCode(int slot) {
+        return slotCodes[slot];
+    }
+
+    /**
+     * Gets the country of the airport in a slot.
+     * @param slot int the slot of the airport.
+     * @return String the country of the airport.
+     */
+    public String getCountry(int slot) {
+        return countries[slot];
+    }
+
+    /**
+     * Gets the number of airports in the index.
+     * @return int the number of airports.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calculates the great circle distance between two airports with the Haversine formula.
+     * @param source int the slot of the departure airport.
+     * @param destination int the slot of the destination airport.
+     * @return double the distance between the airports in kilometres.
+     */
+    public double distance(int source, int destination) {
+        double sinLatitude = Math.sin((latitudes[destination] - latitudes[source]) / 2);
+        double sinLongitude = Math.sin((longitudes[destination] - longitudes[source]) / 2);
+        double arcInverse = sinLatitude * sinLatitude
+                + cosLatitudes[source] * cosLatitudes[destination] * sinLongitude * sinLongitude;
+        return Calculations.EARTH_RADIUS_KM * 2 * Math.asin(Math.sqrt(arcInverse));
+    }
+
+    /**
+     * Gets the distance between two airports from the cache of this index,
+     * calculating and caching it if the pair is not cached.
+     * @param source int the slot of the departure airport.
+     * @param destination int the slot of the destination airport.
+     * @return double the distance between the airports in kilometres.
+     */
+    public double cachedDistance(int source, int destination) {
+        long key = DistanceCache.key(source, destination);
+        double distance = cache.get(key);
+        if (Double.isNaN(distance)) {
+            distance = distance(source, destination);
+            cache.put(key, distance);
+        }
+        return distance;
+    }
+
+    /**
+     * Gets the cache of distances between pairs of airports of this index.
+     * @return DistanceCache the cache.
+     */
+    public DistanceCache getDistanceCache() {
+        return cache;
+    }
+
+    /**
+     * Maps a code to a slot, unless the code is empty or already belongs to an earlier airport.
+     * @param code String the IATA or ICAO code.
+     * @param slot int the slot of the airport.
+     */
+    private void put(String code, int slot) {
+        if (!isCode(code)) {
+            return;
+        }
+        int mask = codes.length - 1;
+        int i = hash(code) & mask;
+        while (codes[i] != null) {
+            if (codes[i].equals(code)) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        codes[i] = code;
+        slots[i] = slot;
+    }
+
+    /**
+     * Checks whether a code read from the database identifies an airport.
+     * @param code String the IATA or ICAO code.
+     * @return boolean true if the code is not null, empty or \N.
+     */
+    private static boolean isCode(String code) {
+        return code != null && !code.isEmpty() && !code.equals("\\N");
+    }
+
+    /**
+     * Mixes the bits of the hash code of a code. The hash codes of three and four character
+     * codes fit in about 24 bits and differ mostly in their low bits, so codes differing only
+     * in their last character would otherwise fill neighbouring buckets and lengthen probes.
+     * @param code String the code.
+     * @return int the mixed hash code.
+     */
+    private static int hash(String code) {
+        return Hashing.mix(code.hashCode());
+    }
+}
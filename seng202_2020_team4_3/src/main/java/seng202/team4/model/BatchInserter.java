@@ -0,0 +1,122 @@
+package seng202.team4.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inserts records into the database in batches. One
+ * {@link java.sql.PreparedStatement PreparedStatement} is prepared and
+ * cached per data type, records are bound to it as typed parameters and
+ * the batch is sent to SQLite every time it reaches the batch size.
+ * The inserter never commits, the transaction belongs to the caller.
+ */
+public class BatchInserter implements AutoCloseable {
+
+    /**
+     * Number of records queued on a statement before the batch is executed.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Connection the records are inserted through.
+     */
+    private final Connection connection;
+    /**
+     * Number of records queued on a statement before the batch is executed.
+     */
+    private final int batchSize;
+    /**
+     * Prepared insert statements keyed by the name of their data type.
+     */
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    /**
+     * Number of records queued on each statement since it was last executed.
+     */
+    private final Map<String, Integer> queued = new HashMap<>();
+    /**
+     * Total number of records added to the inserter.
+     */
+    private int count = 0;
+
+    /**
+     * Creates a batch inserter using the default batch size.
+     * @param connection Connection the records are inserted through.
+     */
+    public BatchInserter(Connection connection) {
+        this(connection, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a batch inserter.
+     * @param connection Connection the records are inserted through.
+     * @param batchSize int number of records queued before the batch is executed.
+     */
+    public BatchInserter(Connection connection, int batchSize) {
+        this.connection = connection;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Queues a record for insertion, executing the batch of its
+     * data type if the batch size has been reached.
+     * @param data DataType the record to insert.
+     * @param setID int the ID of the set the record is inserted into.
+     * @throws SQLException if the record could not be bound or the batch failed.
+     */
+    public void add(DataType data, int setID) throws SQLException {
+        String typeName = data.getTypeName();
+        PreparedStatement statement = statements.get(typeName);
+        if (statement == null) {
+            statement = connection.prepareStatement(data.getPreparedInsertStatement());
+            statements.put(typeName, statement);
+        }
+        data.setInsertParameters(statement, setID);
+        statement.addBatch();
+        count++;
+
+        int size = queued.getOrDefault(typeName, 0) + 1;
+        if (size >= batchSize) {
+            statement.executeBatch();
+            size = 0;
+        }
+        queued.put(typeName, size);
+    }
+
+    /**
+     * Executes every batch that still has queued records.
+     * @throws SQLException if a batch failed.
+     */
+    public void flush() throws SQLException {
+        for (Map.Entry<String, PreparedStatement> entry : statements.entrySet()) {
+            if (queued.getOrDefault(entry.getKey(), 0) > 0) {
+                entry.getValue().executeBatch();
+                queued.put(entry.getKey(), 0);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of records added to the inserter.
+     * @return int the number of records added.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Closes the cached statements. Records that have not been
+     * flushed are discarded.
+     * @throws SQLException if a statement could not be closed.
+     */
+    @Override
+    public void close() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+        queued.clear();
+    }
+}
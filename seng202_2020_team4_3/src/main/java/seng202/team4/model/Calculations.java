@@ -1,16 +1,13 @@
 package seng202.team4.model;
 
-import seng202.team4.controller.ErrorController;
-
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
 
 /**
  * Performs calculations for the emissions tab of the application.
  * Responsible for calculating the distance and carbon emissions
- * of a route.
+ * of a route. Besides the calculations for a single route, each
+ * calculation has a batch version working on arrays with an element
+ * per route, which calculates whole datasets without creating objects.
  */
 public class Calculations {
 
@@ -18,13 +15,13 @@ public class Calculations {
      * Constant for the figure used as the Average Carbon emitted
      * per passenger per kilometre on a flight. This baseline figure
      * assumes the passenger is on a 65% capacity Boeing 737 with a fuel
-     * use of 36.6g per passenger km.
+     * use of 36.6g per passenger km. Used for aircraft without an {@link EmissionFactors} factor.
      */
-    private static final double AVG_PASSENGER_C02_EMITTED_KM = 0.115;
+    static final double AVG_PASSENGER_C02_EMITTED_KM = 0.115;
     /**
      * Constant for the radius of the earth in KM
      */
-    private static final double EARTH_RADIUS_KM = 6371;
+    static final double EARTH_RADIUS_KM = 6371;
     /**
      * Constant for the cost to offset 1km of flying per
      * passenger. Assumes an offset payment of $14.79 NZD
@@ -33,72 +30,67 @@ public class Calculations {
     private static final double C02_COST_TO_OFFSET_PER_KG = 0.01479;
     /**
      * Calculates the estimated carbon footprint of a passenger on the
-     * provided route. This assumes each plane is a Boeing 737 at 65% capacity
-     * Hence it is assumed 0.115kg of C02 is emitted per passenger per kilometre.
-     * In the next release the fuel efficiency for different aircraft types will
-     * be taken into account
+     * provided route. The emissions per kilometre depend on the aircraft
+     * in the route's equipment, through the application's {@link EmissionFactors}.
+     * A plane without a factor is assumed to be a Boeing 737 at 65% capacity,
+     * emitting 0.115kg of C02 per passenger per kilometre.
      *
      * @param route Route to calculate carbon emissions for
      * @return double the calculated emissions figure for a single passenger
      */
     public static double calculateEmissions(Route route) {
-        double distance = route.getDistance();
-        return distance * AVG_PASSENGER_C02_EMITTED_KM;
+        return calculateEmissions(route.getDistance(), route.getPlaneTypeCode());
+    }
+
+    /**
+     * Calculates the estimated carbon footprint of a passenger flying a distance
+     * on a route with the given equipment.
+     *
+     * @param distance double the distance flown in kilometres
+     * @param equipment String the equipment codes of the route separated by spaces, may be null
+     * @return double the calculated emissions figure for a single passenger
+     */
+    public static double calculateEmissions(double distance, String equipment) {
+        return EmissionFactors.get().emissions(distance, equipment);
     }
 
     /**
      * Calculates the distance between two airports, a departure airport with
      * airportCodeOne and a destination airport with airportCodeTwo. Gets each
-     * airports coordinates from the Airport database table and uses the
-     * Haversine formula to calculate the distance between these coordinates
+     * airports coordinates from the {@link AirportIndex} of the airports in the
+     * database and uses the Haversine formula to calculate the distance between
+     * these coordinates, reusing the distance if the pair was calculated before.
+     * Airports are found by IATA code, or by ICAO code if no airport has the IATA code.
      *
      * @param airportCodeOne String representing code of the departure airport
      * @param airportCodeTwo String representing code of the destination airport
-     * @param stmt The given statement
      * @return double the calculated distance between two given airports
-     * @throws Exception Exception
+     * @throws Exception if either airport does not exist or the airports could not be read
      */
-    public static double calculateDistance(String airportCodeOne, String airportCodeTwo, Statement stmt) throws Exception {
-        double lat1;
-        double lat2;
-        double long1;
-        double long2;
-
-        //Sets up query required for accessing the provided airports in the Airport database table
-        String query = "SELECT Latitude,Longitude from Airport WHERE IATA = '" + airportCodeOne + "' OR IATA = '" + airportCodeTwo + "'";
-        ArrayList<Double> lats = new ArrayList<>();
-        ArrayList<Double> longs = new ArrayList<>();
-        //Execute query, store results in result set
-        try (ResultSet result = stmt.executeQuery(query);
-            ) {
-            //Store latitude and longitudes of airports
-            while (result.next()) {
-                lats.add(result.getDouble("Latitude"));
-                longs.add(result.getDouble("Longitude"));
-            }
-        } catch (SQLException e) {
-            String message = "Airports with selected IATA's do not exist";
-            ErrorController.createErrorMessage(message, false);
+    public static double calculateDistance(String airportCodeOne, String airportCodeTwo) throws Exception {
+        AirportIndex airports = AirportIndex.get();
+        int source = airports.slot(airportCodeOne);
+        int destination = airports.slot(airportCodeTwo);
+        if (source < 0 || destination < 0) {
+            throw new IllegalArgumentException("Airports with selected codes do not exist");
         }
-        //Convert latitude and longitude of airports to radians
-        lat1 = Math.toRadians(lats.get(0));
-        lat2 = Math.toRadians(lats.get(1));
-        long1 = Math.toRadians(longs.get(0));
-        long2 = Math.toRadians(longs.get(1));
-
-
-        // Calculate distance between airports
-        // Using the Haversine formula
-        double dlon = long2 - long1;
-        double dlat = lat2 - lat1;
-        double arcInverse = Math.pow(Math.sin(dlat / 2), 2)
-                + Math.cos(lat1) * Math.cos(lat2)
-                * Math.pow(Math.sin(dlon / 2),2);
+        return airports.cachedDistance(source, destination);
+    }
 
-        double twiceArcInverse = 2 * Math.asin(Math.sqrt(arcInverse));
-        // Radius of earth in kilometers.
-        //return distance to be stored in DB
-        return (EARTH_RADIUS_KM * twiceArcInverse);
+    /**
+     * Calculates the distance between two airports. The airports are
+     * looked up in the {@link AirportIndex} rather than through the statement.
+     *
+     * @param airportCodeOne String representing code of the departure airport
+     * @param airportCodeTwo String representing code of the destination airport
+     * @param stmt The given statement, which is no longer used
+     * @return double the calculated distance between two given airports
+     * @throws Exception if either airport does not exist or the airports could not be read
+     * @deprecated use {@link #calculateDistance(String, String)}
+     */
+    @Deprecated
+    public static double calculateDistance(String airportCodeOne, String airportCodeTwo, Statement stmt) throws Exception {
+        return calculateDistance(airportCodeOne, airportCodeTwo);
     }
 
     /**
@@ -108,8 +100,16 @@ public class Calculations {
      * @return      the dollar donations required to offset flight carbon emissions
      */
     public static double calculateDollarOffset(Route route) {
-        double emission = route.getCarbonEmissions();
-        return emission * C02_COST_TO_OFFSET_PER_KG;
+        return calculateDollarOffset(route.getCarbonEmissions());
+    }
+
+    /**
+     * Calculates the amount of money required to offset an amount of carbon emissions.
+     * @param emissions double the carbon emissions in kilograms
+     * @return      the dollar donations required to offset the emissions
+     */
+    public static double calculateDollarOffset(double emissions) {
+        return emissions * C02_COST_TO_OFFSET_PER_KG;
     }
 
     /**
@@ -119,7 +119,162 @@ public class Calculations {
      * @return      the number of trees to offset flight carbon emissions
      */
     public static int calculateTreesEquivalent(Route route) {
-        double dollars = route.getDollarOffset();
+        return calculateTreesEquivalent(route.getDollarOffset());
+    }
+
+    /**
+     * Calculates the equivalent number of trees that can be planted with a donation.
+     * @param dollars double the dollar donation
+     * @return      the number of trees the donation plants
+     */
+    public static int calculateTreesEquivalent(double dollars) {
         return (int) Math.ceil(dollars);
     }
+
+    /**
+     * Calculates the distances of a batch of routes with the Haversine formula.
+     * Coordinates are given as an array per coordinate with an element per route.
+     *
+     * @param sourceLatitudes double[] the latitude of the departure airport of each route in degrees
+     * @param sourceLongitudes double[] the longitude of the departure airport of each route in degrees
+     * @param destinationLatitudes double[] the latitude of the destination airport of each route in degrees
+     * @param destinationLongitudes double[] the longitude of the destination airport of each route in degrees
+     * @param distances double[] the array the distance of each route in kilometres is written to
+     * @param count int the number of routes, at most the length of every array
+     */
+    public static void calculateDistances(double[] sourceLatitudes, double[] sourceLongitudes,
+                                          double[] destinationLatitudes, double[] destinationLongitudes,
+                                          double[] distances, int count) {
+        calculateDistances(sourceLatitudes, sourceLongitudes, destinationLatitudes, destinationLongitudes,
+                distances, count, DistanceStrategy.EXACT);
+    }
+
+    /**
+     * Calculates the distances of a batch of routes with a distance strategy, so totals
+     * over whole datasets can trade a bounded error for speed with {@link DistanceStrategy#FAST}.
+     *
+     * @param sourceLatitudes double[] the latitude of the departure airport of each route in degrees
+     * @param sourceLongitudes double[] the longitude of the departure airport of each route in degrees
+     * @param destinationLatitudes double[] the latitude of the destination airport of each route in degrees
+     * @param destinationLongitudes double[] the longitude of the destination airport of each route in degrees
+     * @param distances double[] the array the distance of each route in kilometres is written to
+     * @param count int the number of routes, at most the length of every array
+     * @param strategy DistanceStrategy how each distance is calculated
+     */
+    public static void calculateDistances(double[] sourceLatitudes, double[] sourceLongitudes,
+                                          double[] destinationLatitudes, double[] destinationLongitudes,
+                                          double[] distances, int count, DistanceStrategy strategy) {
+        for (int i = 0; i < count; i++) {
+            distances[i] = strategy.distance(sourceLatitudes[i], sourceLongitudes[i],
+                    destinationLatitudes[i], destinationLongitudes[i]);
+        }
+    }
+
+    /**
+     * Calculates the estimated carbon footprint of a passenger on each of a batch of routes,
+     * with the application's {@link EmissionFactors} of the equipment of each route.
+     *
+     * @param distances double[] the distance of each route in kilometres
+     * @param equipment String[] the equipment codes of each route separated by spaces, may be null
+     * @param emissions double[] the array the emissions of each route are written to
+     * @param count int the number of routes, at most the length of every array
+     */
+    public static void calculateEmissions(double[] distances, String[] equipment, double[] emissions, int count) {
+        calculateEmissions(distances, equipment, emissions, count, EmissionFactors.get());
+    }
+
+    /**
+     * Calculates the estimated carbon footprint of a passenger on each of a batch of routes,
+     * with the given emission factors of the equipment of each route.
+     *
+     * @param distances double[] the distance of each route in kilometres
+     * @param equipment String[] the equipment codes of each route separated by spaces, may be null
+     * @param emissions double[] the array the emissions of each route are written to
+     * @param count int the number of routes, at most the length of every array
+     * @param factors EmissionFactors the emissions per kilometre of each aircraft
+     */
+    public static void calculateEmissions(double[] distances, String[] equipment, double[] emissions, int count,
+                                          EmissionFactors factors) {
+        for (int i = 0; i < count; i++) {
+            emissions[i] = factors.emissions(distances[i], equipment[i]);
+        }
+    }
+
+    /**
+     * Calculates the amount of money required to offset the emissions of each of a batch of routes.
+     *
+     * @param emissions double[] the emissions of each route
+     * @param dollarOffsets double[] the array the dollar offset of each route is written to
+     * @param count int the number of routes, at most the length of both arrays
+     */
+    public static void calculateDollarOffsets(double[] emissions, double[] dollarOffsets, int count) {
+        for (int i = 0; i < count; i++) {
+            dollarOffsets[i] = emissions[i] * C02_COST_TO_OFFSET_PER_KG;
+        }
+    }
+
+    /**
+     * Calculates the equivalent number of trees required to offset the emissions of each of a batch of routes.
+     *
+     * @param dollarOffsets double[] the dollar offset of each route
+     * @param trees int[] the array the number of trees of each route is written to
+     * @param count int the number of routes, at most the length of both arrays
+     */
+    public static void calculateTreesEquivalent(double[] dollarOffsets, int[] trees, int count) {
+        for (int i = 0; i < count; i++) {
+            trees[i] = (int) Math.ceil(dollarOffsets[i]);
+        }
+    }
+
+    /**
+     * Calculates the distance, emissions, dollar offset and equivalent trees of a batch of routes,
+     * giving the same results as the calculations for a single route, with the emissions of each
+     * route depending on its equipment. Each calculation is a separate pass over the arrays, so the
+     * simple passes can be compiled into vector instructions.
+     *
+     * @param sourceLatitudes double[] the latitude of the departure airport of each route in degrees
+     * @param sourceLongitudes double[] the longitude of the departure airport of each route in degrees
+     * @param destinationLatitudes double[] the latitude of the destination airport of each route in degrees
+     * @param destinationLongitudes double[] the longitude of the destination airport of each route in degrees
+     * @param equipment String[] the equipment codes of each route separated by spaces, may be null
+     * @param distances double[] the array the distance of each route in kilometres is written to
+     * @param emissions double[] the array the emissions of each route are written to
+     * @param dollarOffsets double[] the array the dollar offset of each route is written to
+     * @param trees int[] the array the number of trees of each route is written to
+     * @param count int the number of routes, at most the length of every array
+     */
+    public static void calculateAll(double[] sourceLatitudes, double[] sourceLongitudes,
+                                    double[] destinationLatitudes, double[] destinationLongitudes,
+                                    String[] equipment, double[] distances, double[] emissions,
+                                    double[] dollarOffsets, int[] trees, int count) {
+        calculateAll(sourceLatitudes, sourceLongitudes, destinationLatitudes, destinationLongitudes,
+                equipment, distances, emissions, dollarOffsets, trees, count, DistanceStrategy.EXACT);
+    }
+
+    /**
+     * Calculates the distance, emissions, dollar offset and equivalent trees of a batch of routes,
+     * with the distances calculated by a distance strategy.
+     *
+     * @param sourceLatitudes double[] the latitude of the departure airport of each route in degrees
+     * @param sourceLongitudes double[] the longitude of the departure airport of each route in degrees
+     * @param destinationLatitudes double[] the latitude of the destination airport of each route in degrees
+     * @param destinationLongitudes double[] the longitude of the destination airport of each route in degrees
+     * @param equipment String[] the equipment codes of each route separated by spaces, may be null
+     * @param distances double[] the array the distance of each route in kilometres is written to
+     * @param emissions double[] the array the emissions of each route are written to
+     * @param dollarOffsets double[] the array the dollar offset of each route is written to
+     * @param trees int[] the array the number of trees of each route is written to
+     * @param count int the number of routes, at most the length of every array
+     * @param strategy DistanceStrategy how each distance is calculated
+     */
+    public static void calculateAll(double[] sourceLatitudes, double[] sourceLongitudes,
+                                    double[] destinationLatitudes, double[] destinationLongitudes,
+                                    String[] equipment, double[] distances, double[] emissions,
+                                    double[] dollarOffsets, int[] trees, int count, DistanceStrategy strategy) {
+        calculateDistances(sourceLatitudes, sourceLongitudes, destinationLatitudes, destinationLongitudes,
+                distances, count, strategy);
+        calculateEmissions(distances, equipment, emissions, count);
+        calculateDollarOffsets(emissions, dollarOffsets, count);
+        calculateTreesEquivalent(dollarOffsets, trees, count);
+    }
 }
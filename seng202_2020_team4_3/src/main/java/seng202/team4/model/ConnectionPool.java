@@ -0,0 +1,281 @@
+package seng202.team4.model;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reuses long lived connections to a SQLite database instead of opening one for
+ * every query. The pool has a single writer connection, as SQLite only allows one
+ * writer at a time, and keeps a few idle reader connections. Each connection is
+ * configured once when it is opened, and the database is put in WAL mode so readers
+ * do not wait for the writer. The writer is borrowed by one caller at a time, and a
+ * thread can not borrow it again while holding it, as committing the inner borrow would
+ * commit the outer caller's unfinished work. Connections are handed out wrapped so that
+ * closing them returns them to the pool, which keeps the usual try-with-resources usage.
+ */
+class ConnectionPool {
+
+    /**
+     * Number of idle reader connections kept open.
+     */
+    static final int MAX_IDLE_READERS = 4;
+    /**
+     * Milliseconds to wait for the writer connection, or for a lock on
+     * the database, before failing.
+     */
+    static final int TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Settings applied to each connection when it is opened.
+     */
+    private static final String[] PRAGMAS = {
+            "PRAGMA journal_mode = WAL",
+            "PRAGMA synchronous = NORMAL",
+            "PRAGMA cache_size = -16000",
+            "PRAGMA mmap_size = 268435456",
+            "PRAGMA busy_timeout = " + TIMEOUT_MILLIS
+    };
+
+    /**
+     * JDBC url of the database.
+     */
+    private final String url;
+    /**
+     * Lock held by the thread using the writer.
+     */
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    /**
+     * Writer connection, opened when it is first borrowed.
+     */
+    private Connection writer;
+    /**
+     * Idle reader connections.
+     */
+    private final ArrayDeque<Connection> readers = new ArrayDeque<>();
+    /**
+     * Whether the pool has been closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Action returning a borrowed connection to the pool.
+     */
+    private interface Release {
+        void release() throws SQLException;
+    }
+
+    /**
+     * Creates a pool for a database. No connections are opened until one is borrowed.
+     * @param url String the JDBC url of the database.
+     */
+    ConnectionPool(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Borrows the writer connection, waiting while another thread uses it.
+     * The connection does not auto commit, and work which is not committed
+     * when it is closed is rolled back.
+     * @return Connection the writer connection.
+     * @throws SQLException if the writer is still in use after the timeout, is already
+     * borrowed by this thread or could not be opened.
+     */
+    Connection getWriter() throws SQLException {
+        return getWriter(TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Borrows the writer connection, waiting at most a given time while another thread uses it.
+     * The connection does not auto commit, and work which is not committed
+     * when it is closed is rolled back.
+     * @param timeoutMillis long the milliseconds to wait, 0 to fail at once if the writer is in use.
+     * @return Connection the writer connection.
+     * @throws SQLException if the writer is still in use after the timeout, is already
+     * borrowed by this thread or could not be opened.
+     */
+    Connection getWriter(long timeoutMillis) throws SQLException {
+        if (writerLock.isHeldByCurrentThread()) {
+            throw new SQLException("The database is already being changed by this thread");
+        }
+        try {
+            if (!writerLock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Another change to the database is still running, try again once it has finished");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database", e);
+        }
+        try {
+            checkOpen();
+            if (writer == null || writer.isClosed()) {
+                writer = open(false);
+            }
+        } catch (SQLException e) {
+            writerLock.unlock();
+            throw e;
+        }
+        Connection connection = writer;
+        return wrap(connection, () -> {
+            try {
+                if (!connection.isClosed()) {
+                    connection.rollback(); // Ends the transaction, so the next borrower starts clean
+                }
+            } finally {
+                writerLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Borrows a reader connection, opening a new one if none are idle.
+     * The connection auto commits and can not change the database.
+     * @return Connection a reader connection.
+     * @throws SQLException if a new connection could not be opened.
+     */
+    Connection getReader() throws SQLException {
+        checkOpen();
+        Connection connection;
+        synchronized (readers) {
+            connection = readers.poll();
+        }
+        if (connection == null || connection.isClosed()) {
+            connection = open(true);
+        }
+        Connection reader = connection;
+        return wrap(reader, () -> {
+            if (reader.isClosed()) {
+                return;
+            }
+            if (!reader.getAutoCommit()) {
+                reader.rollback();
+                reader.setAutoCommit(true);
+            }
+            synchronized (readers) {
+                if (!closed && readers.size() < MAX_IDLE_READERS) {
+                    readers.push(reader);
+                    return;
+                }
+            }
+            reader.close();
+        });
+    }
+
+    /**
+     * Closes the idle connections and the writer. Connections borrowed
+     * afterwards fail, and readers in use are closed when they are returned.
+     * The writer is closed once it is returned, waiting at most the timeout; if a
+     * background change still holds it then, it is left open so the change is not
+     * cut off, and SQLite rolls back its unfinished work when the application exits.
+     * @throws SQLException if a connection could not be closed.
+     */
+    void close() throws SQLException {
+        closed = true;
+        synchronized (readers) {
+            for (Connection reader : readers) {
+                reader.close();
+            }
+            readers.clear();
+        }
+        try {
+            if (!writerLock.tryLock(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            if (writer != null) {
+                if (!writer.isClosed()) {
+                    try (Statement stmt = writer.createStatement()) {
+                        stmt.execute("PRAGMA optimize"); // Refreshes the statistics of tables that changed a lot
+                        writer.commit();
+                    } catch (SQLException e) {
+                        // The statistics are only a hint to the query planner
+                    }
+                }
+                writer.close();
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Opens and configures a connection.
+     * @param readOnly boolean whether the connection is a reader.
+     * @return Connection the new connection.
+     * @throws SQLException if the connection could not be opened.
+     */
+    private Connection open(boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            for (String pragma : PRAGMAS) {
+                stmt.execute(pragma);
+            }
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = true");
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        connection.setAutoCommit(readOnly);
+        return connection;
+    }
+
+    /**
+     * Checks that the pool has not been closed.
+     * @throws SQLException if the pool has been closed.
+     */
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+    }
+
+    /**
+     * Wraps a pooled connection so that closing it returns it to the pool instead.
+     * @param connection Connection the pooled connection.
+     * @param release Release the action returning the connection to the pool.
+     * @return Connection the wrapped connection.
+     */
+    private static Connection wrap(Connection connection, Release release) {
+        AtomicBoolean returned = new AtomicBoolean(false);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (returned.compareAndSet(false, true)) {
+                                release.release();
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned.get() || connection.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled " + connection;
+                        default:
+                            if (returned.get()) {
+                                throw new SQLException("Connection is closed");
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+}
@@ -2,14 +2,15 @@ package seng202.team4.model;
 
 import seng202.team4.controller.ErrorController;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 /**
  * Handles loading data into the database. The data can be loaded from either:
@@ -25,37 +26,33 @@ public abstract class DataLoader {
      * @return ArrayList an ArrayList of erroneous lines
      */
     public static ArrayList<String> uploadData(String setName, File file, DataType dataType) {
-        try (Connection connection = DatabaseManager.connect();
-             Statement stmt = connection.createStatement();
-            ) {
-            // Inserts a new set into the related dataType's set table
-            String setInsertStatement = "INSERT INTO " + dataType.getSetName() + " ('NAME') VALUES ('" + setName + "');";
-            stmt.executeUpdate(setInsertStatement);
-
-            int setID = getSetID(setName, dataType, stmt);
-
-            // Stores the invalid lines in the file
-            ArrayList<String> invalidLines = new ArrayList<>();
+        return uploadData(setName, file, dataType, UploadProgress.NONE);
+    }
 
-            // Reads lines from file and adds valid lines to statement batch
-            BufferedReader buffer = new BufferedReader(new FileReader(file));
-            String line = buffer.readLine();
-            while (line != null && line.trim().length() > 0) {
-                ArrayList<String> errorMessage = new ArrayList<>();
-                DataType data = dataType.getValid(line, errorMessage);
-                if (data != null) {
-                    stmt.addBatch(data.getInsertStatement(setID)); // Add to database
-                }
-                else {
-                    if (errorMessage.size() > 0) {
-                        invalidLines.add(line + " (" + errorMessage.get(0) + ")");
-                    }
-                }
-                line = buffer.readLine();
+    /**
+     * Uploads data to the database from a file of a specific dataType with a name for the new set of data,
+     * reporting the progress of the upload. If the upload is cancelled before it is committed the new
+     * set and its records are rolled back.
+     * @param setName String the name of the new set of data.
+     * @param file File the file that's being uploaded to the database.
+     * @param dataType DataType the data type of new data that's being uploaded.
+     * @param progress UploadProgress the progress updated as the file is uploaded.
+     * @return ArrayList an ArrayList of erroneous lines, null if the upload failed or was cancelled.
+     */
+    public static ArrayList<String> uploadData(String setName, File file, DataType dataType, UploadProgress progress) {
+        try (Connection connection = DatabaseManager.connect()) {
+            ArrayList<String> invalidLines;
+            try {
+                invalidLines = upload(connection, setName, file, dataType, progress);
+            } catch (CancellationException e) {
+                invalidLines = null;
+            }
+            if (invalidLines == null || !progress.commit()) {
+                connection.rollback(); // Removes the new set and the records inserted so far
+                return null;
             }
-
-            stmt.executeBatch();
             connection.commit();
+            recordsChanged(connection, dataType.getTypeName());
             return invalidLines;
 
         } catch (Exception e) {
@@ -66,6 +63,34 @@ public abstract class DataLoader {
         }
     }
 
+    /**
+     * Inserts a new set and the valid records of a file into a database without committing them.
+     * @param connection Connection the connection to the database the data is inserted into.
+     * @param setName String the name of the new set of data.
+     * @param file File the file that's being uploaded to the database.
+     * @param dataType DataType the data type of new data that's being uploaded.
+     * @param progress UploadProgress the progress updated as the file is uploaded.
+     * @return ArrayList an ArrayList of erroneous lines.
+     * @throws CancellationException if the upload was cancelled.
+     * @throws Exception if the file could not be read or the data could not be inserted.
+     */
+    static ArrayList<String> upload(Connection connection, String setName, File file, DataType dataType, UploadProgress progress) throws Exception {
+        int setID;
+        try (Statement stmt = connection.createStatement()) {
+            // Inserts a new set into the related dataType's set table
+            String setInsertStatement = "INSERT INTO " + dataType.getSetName() + " ('NAME') VALUES ('" + setName + "');";
+            stmt.executeUpdate(setInsertStatement);
+
+            setID = getSetID(setName, dataType, stmt);
+        }
+
+        // Reads, validates and inserts the lines of the file in parallel stages
+        try (MappedLineReader reader = new MappedLineReader(file);
+             BatchInserter inserter = new BatchInserter(connection)) {
+            return new UploadPipeline(dataType).run(reader, inserter, setID, progress);
+        }
+    }
+
     /**
      * Adds a new record to the database.
      * @param dataType DataType the type of data the new record is.
@@ -73,17 +98,30 @@ public abstract class DataLoader {
      * @return 'true' if record was successfully inserted into the database, 'false' otherwise
      */
     public static boolean addNewRecord(DataType dataType, String setName){
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.tryConnect();
              Statement stmt = connection.createStatement();
         ) {
             int setID = getSetID(setName, dataType, stmt);
             // Inserts the new record into the database
-            stmt.executeUpdate(dataType.getInsertStatement(setID));
+            try (BatchInserter inserter = new BatchInserter(connection)) {
+                inserter.add(dataType, setID);
+                inserter.flush();
+            }
+            int id;
+            try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                id = rs.getInt(1);
+            }
             connection.commit();
+            recordChanged(connection, dataType.getTypeName(), id, airportCodes(dataType));
+            if (dataType instanceof Route) {
+                Route route = (Route) dataType;
+                RouteGraph.routeAdded(setID, route.getSourceAirportCode(), route.getDestinationAirportCode(),
+                        route.getPlaneTypeCode());
+            }
             return true;
 
         } catch (Exception e) {
-            String message = "Unable to add new record.";
+            String message = "Unable to add new record.\n" + e.getMessage();
             ErrorController.createErrorMessage(message, false);
             return false;
 
@@ -97,17 +135,27 @@ public abstract class DataLoader {
      * @return true of record is updated successfully, false otherwise
      */
     public static boolean updateRecord(DataType dataType, String setName) {
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.tryConnect();
              Statement stmt = connection.createStatement();
              ) {
             int setID = getSetID(setName, dataType, stmt);
+            Runnable graphRemoval = dataType instanceof Route ? routeGraphRemoval(dataType.getId(), stmt) : null;
+            Set<String> codes = airportCodes(dataType.getId(), dataType.getTypeName(), stmt);
+            codes.addAll(airportCodes(dataType));
             // Inserts the new record into the database
             stmt.executeUpdate(dataType.getUpdateStatement(setID));
             connection.commit();
+            recordChanged(connection, dataType.getTypeName(), dataType.getId(), codes);
+            if (graphRemoval != null) {
+                Route route = (Route) dataType;
+                graphRemoval.run();
+                RouteGraph.routeAdded(setID, route.getSourceAirportCode(), route.getDestinationAirportCode(),
+                        route.getPlaneTypeCode());
+            }
             return true;
 
         } catch (Exception e) {
-            String message = "Unable to edit record.";
+            String message = "Unable to edit record.\n" + e.getMessage();
             ErrorController.createErrorMessage(message, false);
             return false;
         }
@@ -138,17 +186,19 @@ public abstract class DataLoader {
      *              with a checkbox
      */
     public static boolean addToRoutesSelectedDatabase(Route route) {
-        try (Connection connection = DatabaseManager.connect();
+        try {
+            route.setDistance(Calculations.calculateDistance(route.getSourceAirportCode(), route.getDestinationAirportCode()));
+        } catch (Exception e) {
+            ErrorController.createErrorMessage("This route has no associated airports so some key features " +
+                    "such as map visualisation and emissions calculations cannot be done!", false);
+            route.setSelect(false);
+            return false;
+        }
+        try (Connection connection = DatabaseManager.tryConnect();
              Statement stmt = connection.createStatement();
             ) {
             String between = "', '";
 
-            String sourceAirport = route.getSourceAirportCode();
-            String destAirport = route.getDestinationAirportCode();
-
-            double distance = Calculations.calculateDistance(sourceAirport, destAirport, stmt);
-            route.setDistance(distance);
-
             double carbonEmitted = Calculations.calculateEmissions(route);
             String query = "INSERT INTO RoutesSelected ('Airline', 'SourceAirport', 'DestinationAirport', 'Equipment', 'Distance', 'CarbonEmissions') "
                     + "VALUES ('"
@@ -161,10 +211,10 @@ public abstract class DataLoader {
                     + "');";
             stmt.executeUpdate(query);
             connection.commit();
+            RouteSelection.get().add(route, carbonEmitted);
             return true;
-        } catch (Exception e) {
-            ErrorController.createErrorMessage("This route has no associated airports so some key features " +
-                    "such as map visualisation and emissions calculations cannot be done!", false);
+        } catch (SQLException e) {
+            ErrorController.createErrorMessage("Could not select route:\n" + e.getMessage(), false);
             route.setSelect(false);
             return false;
         }
@@ -178,7 +228,7 @@ public abstract class DataLoader {
      * @return True if it passed
      */
     public static boolean removeFromRoutesSelectedDatabase(Route route) {
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.tryConnect();
              Statement stmt = connection.createStatement();
             ) {
         final String AND = "' and ";
@@ -190,9 +240,10 @@ public abstract class DataLoader {
                 + "Equipment = '" + route.getPlaneTypeCode().replaceAll("'", "''") + "'";
             stmt.executeUpdate(query);
             connection.commit();
+            RouteSelection.get().remove(route);
             return true;
         } catch (SQLException e) {
-            ErrorController.createErrorMessage("Could not delete route:\n" + route.toString(), false);
+            ErrorController.createErrorMessage("Could not delete route:\n" + route.toString() + "\n" + e.getMessage(), false);
             return false;
         }
     }
@@ -205,7 +256,7 @@ public abstract class DataLoader {
      *              with a checkbox
      */
     public static void addToAirportsSelectedDatabase(Airport airport) {
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.tryConnect();
              Statement stmt = connection.createStatement();
             ) {
             final String BETWEEN = "', '";
@@ -219,7 +270,7 @@ public abstract class DataLoader {
             stmt.executeUpdate(query);
             connection.commit();
         } catch (SQLException e) {
-            ErrorController.createErrorMessage("Could not select airport:\n" + airport.toString(), false);
+            ErrorController.createErrorMessage("Could not select airport:\n" + airport.toString() + "\n" + e.getMessage(), false);
             airport.setSelect(false);
         }
     }
@@ -232,7 +283,7 @@ public abstract class DataLoader {
      * @return True if it passed
      */
     public static boolean removeFromAirportsSelectedDatabase(Airport airport) {
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.tryConnect();
              Statement stmt = connection.createStatement();
             ) {
             final String AND = "' and ";
@@ -245,7 +296,7 @@ public abstract class DataLoader {
             connection.commit();
             return true;
         } catch (SQLException e) {
-            ErrorController.createErrorMessage("Could not delete route:\n" + airport.toString(), false);
+            ErrorController.createErrorMessage("Could not delete airport:\n" + airport.toString() + "\n" + e.getMessage(), false);
             return false;
         }
     }
@@ -263,16 +314,141 @@ public abstract class DataLoader {
      */
     public static boolean deleteRecord(int id, String table) {
         String query = "Delete from " + table + " Where ID = " + id;
-        try (Connection connection = DatabaseManager.connect();
+        try (Connection connection = DatabaseManager.tryConnect();
              Statement stmt = connection.createStatement();
             ) {
+            Runnable graphRemoval = table.equals("Route") ? routeGraphRemoval(id, stmt) : null;
+            Set<String> codes = airportCodes(id, table, stmt);
             stmt.executeUpdate(query);
             connection.commit();
+            // A deleted route has no distance left to calculate
+            recordChanged(connection, table, 0, codes);
+            if (graphRemoval != null) {
+                graphRemoval.run();
+            }
             return true;
         } catch (SQLException e) {
-            String message = "Could not delete record with ID " + id + ".";
+            String message = "Could not delete record with ID " + id + ".\n" + e.getMessage();
             ErrorController.createErrorMessage(message, false);
             return false;
         }
     }
+
+    /**
+     * Reads the set, airports and equipment of a route before it is edited or deleted, so that
+     * it can be removed from the graph of its set once the change is committed.
+     * @param id int the ID of the route.
+     * @param stmt Statement the statement used to execute the query.
+     * @return Runnable removes the route from the graph of its set, does nothing if there is no such route.
+     * @throws SQLException SQL Exception
+     */
+    private static Runnable routeGraphRemoval(int id, Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT SetID, SourceAirport, DestinationAirport, Equipment FROM Route WHERE ID = " + id)) {
+            if (!rs.next()) {
+                return () -> { };
+            }
+            int setID = rs.getInt(1);
+            String source = rs.getString(2);
+            String destination = rs.getString(3);
+            String equipment = rs.getString(4);
+            return () -> RouteGraph.routeRemoved(setID, source, destination, equipment);
+        }
+    }
+
+    /**
+     * Reads the IATA and ICAO codes of an airport before it is edited or deleted, so
+     * the routes flying from or to it can be updated once the change is committed.
+     * @param id int the ID of the record.
+     * @param table String the name of the table of the record.
+     * @param stmt Statement the statement used to execute the query.
+     * @return Set the codes of the airport, empty if the record is not an airport.
+     * @throws SQLException SQL Exception
+     */
+    private static Set<String> airportCodes(int id, String table, Statement stmt) throws SQLException {
+        Set<String> codes = new HashSet<>();
+        if (!table.equals("Airport")) {
+            return codes;
+        }
+        try (ResultSet rs = stmt.executeQuery("SELECT IATA, ICAO FROM Airport WHERE ID = " + id)) {
+            if (rs.next()) {
+                addCode(codes, rs.getString(1));
+                addCode(codes, rs.getString(2));
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Gets the IATA and ICAO codes of a record if it is an airport.
+     * @param dataType DataType the record.
+     * @return Set the codes of the airport, empty if the record is not an airport.
+     */
+    private static Set<String> airportCodes(DataType dataType) {
+        Set<String> codes = new HashSet<>();
+        if (dataType instanceof Airport) {
+            addCode(codes, ((Airport) dataType).getIata());
+            addCode(codes, ((Airport) dataType).getIcao());
+        }
+        return codes;
+    }
+
+    /**
+     * Adds an airport code to a set of codes if it is not empty.
+     * @param codes Set the codes.
+     * @param code String the code, may be null.
+     */
+    private static void addCode(Set<String> codes, String code) {
+        if (code != null && !code.isEmpty()) {
+            codes.add(code);
+        }
+    }
+
+    /**
+     * Updates data derived from a table after its records have changed. The cached
+     * filter values are discarded, the airport index is discarded after airports change,
+     * and the stored distance and emissions of every route are updated after routes or
+     * airports change. Called after an upload, on the thread uploading the file.
+     * @param connection Connection the connection the change was committed through.
+     * @param table String the name of the table that changed.
+     */
+    private static void recordsChanged(Connection connection, String table) {
+        DistinctValues.get().invalidate();
+        if (table.equals("Airport")) {
+            AirportIndex.invalidate();
+        }
+        if (table.equals("Airport") || table.equals("Route")) {
+            try {
+                RouteEnrichment.refresh(connection, AirportIndex.get());
+            } catch (SQLException e) {
+                String message = "Could not calculate the distances of routes.";
+                ErrorController.createErrorMessage(message, false);
+            }
+        }
+    }
+
+    /**
+     * Updates data derived from a table after one of its records has been added, edited
+     * or deleted. The cached filter values are discarded, the airport index is discarded
+     * after an airport changes, and the stored distance and emissions are updated for the
+     * route that was added or edited, or for the routes flying from or to the codes of the
+     * airport before and after it changed, rather than for every route.
+     * @param connection Connection the connection the change was committed through.
+     * @param table String the name of the table that changed.
+     * @param id int the ID of the record, 0 if it was deleted.
+     * @param airportCodes Set the codes of the airport before and after the change, empty if the record is not an airport.
+     */
+    private static void recordChanged(Connection connection, String table, int id, Set<String> airportCodes) {
+        DistinctValues.get().invalidate();
+        try {
+            if (table.equals("Airport")) {
+                AirportIndex.invalidate();
+                RouteEnrichment.refreshAirports(connection, AirportIndex.get(), airportCodes);
+            } else if (table.equals("Route") && id > 0) {
+                RouteEnrichment.refreshRoute(connection, AirportIndex.get(), id);
+            }
+        } catch (SQLException e) {
+            String message = "Could not calculate the distances of routes.";
+            ErrorController.createErrorMessage(message, false);
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package seng202.team4.model;
 
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 
 /**
@@ -27,6 +29,20 @@ public abstract class DataType implements Validate {
      */
     public abstract String getInsertStatement(int setID);
 
+    /**
+     * Gets the parameterised database insert statement shared by every record of this data type.
+     * @return String the insert statement with a placeholder for each attribute and the set ID.
+     */
+    public abstract String getPreparedInsertStatement();
+
+    /**
+     * Binds the attributes of this record to the parameters of the prepared insert statement.
+     * @param statement PreparedStatement prepared from {@link #getPreparedInsertStatement()}.
+     * @param setID int the ID of the set the that will be inserted into.
+     * @throws SQLException if a parameter could not be bound.
+     */
+    public abstract void setInsertParameters(PreparedStatement statement, int setID) throws SQLException;
+
     public abstract String getUpdateStatement(int setID);
 
     /**
@@ -53,11 +69,11 @@ public abstract class DataType implements Validate {
     /**
      * Gets a valid data type from the array of strings, or returns null with
      * reasons for being invalid in the error message.
-     * @param record String constituting the record.
+     * @param record CharSequence the line constituting the record.
      * @param errorMessage ArrayList where the error messages will be stored.
      * @return DataType a valid new dataType, 'null' if invalid.
      */
-    public abstract DataType getValid(String record, ArrayList<String> errorMessage);
+    public abstract DataType getValid(CharSequence record, ArrayList<String> errorMessage);
 
     /**
      * A method for checking if a given object is equal the current object of the class.
@@ -5,6 +5,7 @@ import seng202.team4.controller.ErrorController;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -146,18 +147,128 @@ public abstract class DatabaseManager {
             ")";
 
     /**
-     * Gets a new {@link java.sql.Connection Connection}
-     * @throws SQLException exception to catch database access errors.
-     * @return a new {@link java.sql.Connection Connection} if connection does not throw an error, otherwise 'null'
+     * DDL statements upgrading the database from each schema version to the next,
+     * where the statements at index i upgrade version i to version i + 1.
+     * Version 0 is the tables without any indexes. New migrations are only ever
+     * added to the end, as existing databases have already applied the earlier ones.
      */
-    public static Connection connect() throws SQLException {
+    private static final String[][] MIGRATIONS = {
+            {
+                    // 1: Indexes the records of each set and the airport codes routes are matched to
+                    "CREATE INDEX IF NOT EXISTS \"AirlineSetID\" ON \"Airline\" (\"SetID\")",
+                    "CREATE INDEX IF NOT EXISTS \"AirportSetID\" ON \"Airport\" (\"SetID\")",
+                    "CREATE INDEX IF NOT EXISTS \"AirportIATA\" ON \"Airport\" (\"IATA\")",
+                    "CREATE INDEX IF NOT EXISTS \"AirportICAO\" ON \"Airport\" (\"ICAO\")",
+                    "CREATE INDEX IF NOT EXISTS \"RouteSetID\" ON \"Route\" (\"SetID\")",
+                    "CREATE INDEX IF NOT EXISTS \"FlightPathSetID\" ON \"FlightPath\" (\"SetID\")"
+            },
+            {
+                    // 2: Indexes the airline, source airport and plane type filters of the map
+                    "CREATE INDEX IF NOT EXISTS \"RouteAirlineFilter\" ON \"Route\" (\"Airline\", \"SourceAirport\", \"Equipment\")",
+                    "CREATE INDEX IF NOT EXISTS \"RouteSourceFilter\" ON \"Route\" (\"SourceAirport\", \"Equipment\")",
+                    "CREATE INDEX IF NOT EXISTS \"RouteEquipment\" ON \"Route\" (\"Equipment\")"
+            },
+            {
+                    // 3: Stores the carbon emissions of each route next to its distance
+                    "ALTER TABLE \"Route\" ADD COLUMN \"CarbonEmissions\" DOUBLE"
+            },
+            {
+                    // 4: Discards emissions stored before they depended on the equipment of each route
+                    "UPDATE \"Route\" SET \"CarbonEmissions\" = NULL"
+            },
+            {
+                    // 5: Indexes the destination airport, so the routes of an edited airport are found without a scan
+                    "CREATE INDEX IF NOT EXISTS \"RouteDestination\" ON \"Route\" (\"DestinationAirport\")"
+            }
+    };
+
+    /**
+     * Version of the database schema after all migrations. The default
+     * data snapshot is only used if it was built with the same version.
+     */
+    static final int SCHEMA_VERSION = MIGRATIONS.length;
 
+    /**
+     * Pool of connections to the application's database, created when first used.
+     */
+    private static ConnectionPool pool;
+
+    static {
         try {
-            Class.forName("org.sqlite.JDBC"); // TODO: Is this needed?
+            Class.forName("org.sqlite.JDBC");
         } catch (ClassNotFoundException e) {
             e.printStackTrace();
         }
-        Connection connection= DriverManager.getConnection(Path.DATABASE_CONNECTION);
+    }
+
+    /**
+     * Gets the writer {@link java.sql.Connection Connection} to the application's database from the pool.
+     * Only one thread uses the writer at a time, so this waits while another thread is using it.
+     * Closing the connection returns it to the pool and rolls back changes that were not committed.
+     * @throws SQLException exception to catch database access errors.
+     * @return a pooled {@link java.sql.Connection Connection} without auto commit.
+     */
+    public static Connection connect() throws SQLException {
+        return getPool().getWriter();
+    }
+
+    /**
+     * Gets the writer {@link java.sql.Connection Connection} to the application's database from the pool
+     * without waiting, for changes made on the JavaFX application thread, which must not block while a
+     * background upload is using the writer.
+     * Closing the connection returns it to the pool and rolls back changes that were not committed.
+     * @throws SQLException if another thread is using the writer, or to catch database access errors.
+     * @return a pooled {@link java.sql.Connection Connection} without auto commit.
+     */
+    public static Connection tryConnect() throws SQLException {
+        return getPool().getWriter(0);
+    }
+
+    /**
+     * Gets a reader {@link java.sql.Connection Connection} to the application's database from the pool.
+     * Readers do not wait for the writer, auto commit and can not change the database.
+     * Closing the connection returns it to the pool.
+     * @throws SQLException exception to catch database access errors.
+     * @return a pooled read only {@link java.sql.Connection Connection}.
+     */
+    public static Connection connectReadOnly() throws SQLException {
+        return getPool().getReader();
+    }
+
+    /**
+     * Closes the pooled connections to the application's database.
+     * The next connection creates a new pool.
+     */
+    public static synchronized void closeConnections() {
+        if (pool != null) {
+            try {
+                pool.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            pool = null;
+        }
+    }
+
+    /**
+     * Gets the pool of connections to the application's database, creating it if needed.
+     * @return ConnectionPool the pool.
+     */
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(Path.DATABASE_CONNECTION);
+        }
+        return pool;
+    }
+
+    /**
+     * Gets a new unpooled {@link java.sql.Connection Connection} to a database at a given url.
+     * @param url String the JDBC url of the database.
+     * @throws SQLException exception to catch database access errors.
+     * @return a new {@link java.sql.Connection Connection} without auto commit.
+     */
+    static Connection connect(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
         connection.setAutoCommit(false);
         return connection;
     }
@@ -165,7 +276,11 @@ public abstract class DatabaseManager {
     /**
      * Initial setup for the application. Creates a
      * new directory for the application's database
-     * and a new database if they do not exist.
+     * and a new database if they do not exist. A new database
+     * is copied from the default data snapshot when it is up to date,
+     * and an existing database is migrated to the current schema. Exits
+     * the application if the database could not be migrated, or is newer
+     * than the application, so it never starts on a database it can not use.
      */
     static void setUp() {
         // Creates a new directory and database if the directory doesn't exist.
@@ -182,16 +297,57 @@ public abstract class DatabaseManager {
                 newDatabase();
             }
         }
+
+        try (Connection connection = DatabaseManager.connect()) {
+            if (migrate(connection) > 0) {
+                // Routes of a database from before distances were stored have none yet
+                RouteEnrichment.refresh(connection, AirportIndex.load(connection));
+            }
+        } catch (SQLException e) {
+            // Runs before JavaFX has started, so the application exits here rather than from an error popup
+            System.err.println("Unable to upgrade the database, application will exit: " + e.getMessage());
+            System.exit(1);
+        }
     }
 
     /**
-     * Creates a new database inserting all the tables
-     * required for the database.
+     * Creates a new database by copying the default data snapshot,
+     * or inserting all the tables required for the database if the
+     * snapshot is missing or out of date.
      */
     private static void newDatabase () {
-        try (Connection connection = DatabaseManager.connect();
-             Statement stmt = connection.createStatement();
-             ) {
+        if (DatabaseSnapshot.copyTo(new File(Path.DATABASE))) {
+            return;
+        }
+        try (Connection connection = DatabaseManager.connect()) {
+            createTables(connection);
+            connection.commit();
+
+        } catch (SQLException e) {
+            String message = "Unable to connect to create database, application will exit.";
+            ErrorController.createErrorMessage(message, true);
+        }
+    }
+
+    /**
+     * Inserts all the tables and indexes required for the database,
+     * and sets it to the current schema version.
+     * @param connection Connection the connection to the new database.
+     * @throws SQLException if a table could not be created.
+     */
+    static void createTables(Connection connection) throws SQLException {
+        createUnversionedTables(connection);
+        migrate(connection);
+    }
+
+    /**
+     * Inserts the tables of schema version 0, which databases
+     * created before the schema was versioned have.
+     * @param connection Connection the connection to the new database.
+     * @throws SQLException if a table could not be created.
+     */
+    static void createUnversionedTables(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
             stmt.addBatch(AIRLINE_SET_TABLE);
             stmt.addBatch(AIRPORT_SET_TABLE);
             stmt.addBatch(ROUTE_SET_TABLE);
@@ -205,11 +361,42 @@ public abstract class DatabaseManager {
             stmt.addBatch(ROUTES_SELECTED_TABLE);
             stmt.addBatch(AIRPORTS_SELECTED_TABLE);
             stmt.executeBatch();
-            connection.commit();
+        }
+    }
 
-        } catch (SQLException e) {
-            String message = "Unable to connect to create database, application will exit.";
-            ErrorController.createErrorMessage(message, true);
+    /**
+     * Upgrades a database to the current schema version by applying each migration
+     * after its version, which is stored in the database's user_version, then updates
+     * the statistics the query planner uses to choose indexes. Nothing is done if the
+     * database is already up to date, otherwise the upgrade is committed.
+     * @param connection Connection the connection to the database.
+     * @return int the number of migrations applied.
+     * @throws SQLException if a migration failed or the database is newer than the application.
+     */
+    static int migrate(Connection connection) throws SQLException {
+        int version;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            version = rs.getInt(1);
+        }
+        if (version > SCHEMA_VERSION) {
+            throw new SQLException("Database schema version " + version + " is newer than " + SCHEMA_VERSION);
+        }
+        if (version == SCHEMA_VERSION) {
+            return 0;
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = version; i < SCHEMA_VERSION; i++) {
+                for (String migration : MIGRATIONS[i]) {
+                    stmt.addBatch(migration);
+                }
+            }
+            stmt.addBatch("ANALYZE");
+            stmt.addBatch("PRAGMA user_version = " + SCHEMA_VERSION);
+            stmt.executeBatch();
         }
+        connection.commit();
+        return SCHEMA_VERSION - version;
     }
 }
@@ -0,0 +1,137 @@
+package seng202.team4.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Builds and restores a snapshot of a new database holding the 'Default' sets of
+ * the bundled airlines, airports, routes and flight path. The snapshot is built
+ * during the build, stored as a resource next to a checksum of the schema version
+ * and the bundled data it was built from, including the emission factors of the
+ * stored emissions, and copied to create a new database instead of uploading the
+ * bundled data line by line. A snapshot whose checksum does not match the current
+ * schema and data is stale and is not used.
+ */
+public abstract class DatabaseSnapshot {
+
+    /**
+     * Bundled data uploaded to the snapshot, in the order of the data types in build.
+     */
+    private static final String[] DEFAULT_DATA = {
+            Path.AIRLINE_RSC, Path.AIRPORT_RSC, Path.ROUTE_RSC, Path.FLIGHT_PATH_RSC
+    };
+
+    /**
+     * Bundled data the snapshot depends on without being uploaded to it.
+     */
+    private static final String[] DERIVED_FROM = {Path.EMISSION_FACTORS_RSC};
+
+    /**
+     * Name of the set the bundled data is uploaded to.
+     */
+    static final String DEFAULT_SET = "Default";
+
+    /**
+     * Builds the snapshot into a directory of the build output.
+     * @param args String[] the directory the snapshot and checksum are written to.
+     * @throws Exception if the snapshot could not be built.
+     */
+    public static void main(String[] args) throws Exception {
+        File directory = new File(args.length > 0 ? args[0] : ".");
+        build(new File(directory, Path.DEFAULT_DATABASE_RSC), new File(directory, Path.DEFAULT_DATABASE_CHECKSUM_RSC));
+    }
+
+    /**
+     * Builds a new database with the bundled data uploaded to the 'Default' sets,
+     * the distance and emissions of each route stored, indexed and analysed,
+     * and writes the checksum it was built from.
+     * @param database File the database file to create, replacing any existing file.
+     * @param checksumFile File the file the checksum is written to.
+     * @throws Exception if the bundled data could not be read or inserted.
+     */
+    static void build(File database, File checksumFile) throws Exception {
+        Files.deleteIfExists(database.toPath());
+        try (Connection connection = DatabaseManager.connect("jdbc:sqlite:" + database.getPath())) {
+            DatabaseManager.createTables(connection);
+            DataType[] dataTypes = {new Airline(), new Airport(), new Route(), new FlightPath()};
+            for (int i = 0; i < DEFAULT_DATA.length; i++) {
+                File data = File.createTempFile("snapshot", ".dat");
+                try (InputStream stream = DatabaseSnapshot.class.getResourceAsStream(DEFAULT_DATA[i])) {
+                    Files.copy(stream, data.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    DataLoader.upload(connection, DEFAULT_SET, data, dataTypes[i], UploadProgress.NONE);
+                } finally {
+                    Files.deleteIfExists(data.toPath());
+                }
+            }
+            RouteEnrichment.refresh(connection, AirportIndex.load(connection));
+
+            connection.setAutoCommit(true);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ANALYZE");
+                stmt.execute("VACUUM");
+            }
+        }
+        Files.write(checksumFile.toPath(), checksum().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Creates a database by copying the snapshot, if it exists and is up to date.
+     * @param database File the database file to create.
+     * @return boolean true if the database was created from the snapshot.
+     */
+    static boolean copyTo(File database) {
+        try (InputStream snapshot = DatabaseSnapshot.class.getResourceAsStream(Path.DEFAULT_DATABASE_RSC);
+             InputStream checksum = DatabaseSnapshot.class.getResourceAsStream(Path.DEFAULT_DATABASE_CHECKSUM_RSC)) {
+            if (snapshot == null || checksum == null) {
+                return false;
+            }
+            String built = new String(checksum.readAllBytes(), StandardCharsets.US_ASCII).trim();
+            if (!built.equals(checksum())) {
+                return false; // The bundled data or schema changed since the snapshot was built
+            }
+            // Copies to a temporary file first so a failed copy never leaves a partial database
+            File copy = new File(database.getPath() + ".tmp");
+            Files.copy(snapshot, copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(copy.toPath(), database.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Calculates the SHA-256 checksum of the schema version, the bundled data and the emission factors.
+     * @return String the checksum as hexadecimal.
+     * @throws IOException if the bundled data could not be read.
+     * @throws NoSuchAlgorithmException if SHA-256 is not available.
+     */
+    static String checksum() throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(("schema " + DatabaseManager.SCHEMA_VERSION + "\n").getBytes(StandardCharsets.US_ASCII));
+        byte[] buffer = new byte[64 * 1024];
+        String[] resources = Arrays.copyOf(DEFAULT_DATA, DEFAULT_DATA.length + DERIVED_FROM.length);
+        System.arraycopy(DERIVED_FROM, 0, resources, DEFAULT_DATA.length, DERIVED_FROM.length);
+        for (String resource : resources) {
+            try (InputStream stream = new DigestInputStream(DatabaseSnapshot.class.getResourceAsStream(resource), digest)) {
+                while (stream.read(buffer) != -1) {
+                    // Reading updates the digest
+                }
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
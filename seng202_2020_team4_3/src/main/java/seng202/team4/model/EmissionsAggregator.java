@@ -0,0 +1,197 @@
+package seng202.team4.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Totals the carbon emissions, dollar offsets and equivalent trees of every route
+ * in a route set, grouped by airline, source country, destination country or
+ * equipment. The airline, equipment, airport countries and stored emissions of the
+ * routes are read once into arrays, using the emissions stored by {@link RouteEnrichment}
+ * and the countries of the {@link AirportIndex}, so each grouping is a parallel
+ * reduction over the arrays: each thread totals its part of the routes into its own
+ * map of groups and the maps are then merged. Routes without stored emissions,
+ * because an airport is not known, are left out of every total.
+ */
+public final class EmissionsAggregator {
+
+    /**
+     * Group used for routes missing the attribute they are grouped by.
+     */
+    static final String UNKNOWN = "Unknown";
+
+    /**
+     * An attribute of a route that totals can be grouped by.
+     */
+    public enum Grouping {
+        AIRLINE("Airline"),
+        SOURCE_COUNTRY("Source Country"),
+        DESTINATION_COUNTRY("Destination Country"),
+        EQUIPMENT("Equipment");
+
+        /**
+         * Name of the grouping shown to the user.
+         */
+        private final String label;
+
+        Grouping(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Number of routes read.
+     */
+    private final int count;
+    /**
+     * Group of each route for each grouping, indexed by the ordinal of the grouping.
+     */
+    private final String[][] groups;
+    /**
+     * Stored emissions of a passenger on each route.
+     */
+    private final double[] emissions;
+
+    /**
+     * Creates an aggregator over routes.
+     * @param groups String[][] the group of each route for each grouping.
+     * @param emissions double[] the emissions of each route.
+     * @param count int the number of routes.
+     */
+    private EmissionsAggregator(String[][] groups, double[] emissions, int count) {
+        this.groups = groups;
+        this.emissions = emissions;
+        this.count = count;
+    }
+
+    /**
+     * Reads the routes of a set from the application's database.
+     * @param setName String the name of the route set.
+     * @return EmissionsAggregator the aggregator of the routes.
+     * @throws SQLException if the set does not exist or its routes could not be read.
+     */
+    public static EmissionsAggregator load(String setName) throws SQLException {
+        AirportIndex airports = AirportIndex.get();
+        try (Connection connection = DatabaseManager.connectReadOnly();
+             PreparedStatement stmt = connection.prepareStatement("SELECT ID FROM RouteSet WHERE Name = ?")) {
+            stmt.setString(1, setName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Route set " + setName + " does not exist");
+                }
+                return load(connection, rs.getInt(1), airports);
+            }
+        }
+    }
+
+    /**
+     * Reads the routes of a set that have stored emissions.
+     * @param connection Connection the connection to the database.
+     * @param setID int the ID of the route set.
+     * @param airports AirportIndex the airports of the database, giving the countries of the routes.
+     * @return EmissionsAggregator the aggregator of the routes.
+     * @throws SQLException if the routes could not be read.
+     */
+    static EmissionsAggregator load(Connection connection, int setID, AirportIndex airports) throws SQLException {
+        int capacity = 1024;
+        String[][] groups = new String[Grouping.values().length][capacity];
+        double[] emissions = new double[capacity];
+        int count = 0;
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT Airline, SourceAirport, DestinationAirport, "
+                + "Equipment, CarbonEmissions FROM Route WHERE SetID = ? AND CarbonEmissions IS NOT NULL")) {
+            stmt.setInt(1, setID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (count == capacity) {
+                        capacity *= 2;
+                        for (int grouping = 0; grouping < groups.length; grouping++) {
+                            groups[grouping] = Arrays.copyOf(groups[grouping], capacity);
+                        }
+                        emissions = Arrays.copyOf(emissions, capacity);
+                    }
+                    groups[Grouping.AIRLINE.ordinal()][count] = group(rs.getString(1));
+                    groups[Grouping.SOURCE_COUNTRY.ordinal()][count] = country(airports, rs.getString(2));
+                    groups[Grouping.DESTINATION_COUNTRY.ordinal()][count] = country(airports, rs.getString(3));
+                    groups[Grouping.EQUIPMENT.ordinal()][count] = group(rs.getString(4));
+                    emissions[count] = rs.getDouble(5);
+                    count++;
+                }
+            }
+        }
+        return new EmissionsAggregator(groups, emissions, count);
+    }
+
+    /**
+     * Totals the routes in each group of a grouping.
+     * @param grouping Grouping the attribute the routes are grouped by.
+     * @return List the total of each group, in order of decreasing emissions.
+     */
+    public List<EmissionsTotal> aggregate(Grouping grouping) {
+        String[] keys = groups[grouping.ordinal()];
+        Map<String, EmissionsTotal> totals = IntStream.range(0, count).parallel().collect(
+                HashMap::new,
+                (map, i) -> map.computeIfAbsent(keys[i], EmissionsTotal::new).add(emissions[i]),
+                (first, second) -> second.forEach((group, total) ->
+                        first.merge(group, total, (a, b) -> {
+                            a.add(b);
+                            return a;
+                        })));
+        List<EmissionsTotal> sorted = new ArrayList<>(totals.values());
+        sorted.sort(Comparator.comparingDouble(EmissionsTotal::getEmissions).reversed()
+                .thenComparing(EmissionsTotal::getGroup));
+        return sorted;
+    }
+
+    /**
+     * Totals every route.
+     * @return EmissionsTotal the total of all routes.
+     */
+    public EmissionsTotal total() {
+        return IntStream.range(0, count).parallel().collect(
+                () -> new EmissionsTotal("All"),
+                (total, i) -> total.add(emissions[i]),
+                EmissionsTotal::add);
+    }
+
+    /**
+     * Gets the number of routes with stored emissions.
+     * @return int the number of routes.
+     */
+    public int getRouteCount() {
+        return count;
+    }
+
+    /**
+     * Gets the group of an attribute that may be missing.
+     * @param value String the value of the attribute.
+     * @return String the value, or UNKNOWN if it is null or empty.
+     */
+    private static String group(String value) {
+        return value == null || value.isEmpty() ? UNKNOWN : value;
+    }
+
+    /**
+     * Gets the country of an airport.
+     * @param airports AirportIndex the airports of the database.
+     * @param code String the IATA or ICAO code of the airport.
+     * @return String the country, or UNKNOWN if the airport or its country is not known.
+     */
+    private static String country(AirportIndex airports, String code) {
+        int slot = airports.slot(code);
+        return slot < 0 ? UNKNOWN : group(airports.getCountry(slot));
+    }
+}
@@ -0,0 +1,90 @@
+package seng202.team4.model;
+
+/**
+ * Totals of the carbon emissions of a group of routes, as computed by an
+ * {@link EmissionsAggregator}. The emissions of a route are those of one
+ * passenger flying it, and its dollar offset and trees are calculated from
+ * them as for a single route.
+ */
+public final class EmissionsTotal {
+
+    /**
+     * Name of the group, such as an airline code or a country.
+     */
+    private final String group;
+    /**
+     * Number of routes in the group.
+     */
+    private int routes = 0;
+    /**
+     * Total emissions of a passenger on each route.
+     */
+    private double emissions = 0;
+    /**
+     * Total dollars required to offset the emissions of each route.
+     */
+    private double dollarOffset = 0;
+    /**
+     * Total trees equivalent to the dollar offset of each route.
+     */
+    private long trees = 0;
+
+    /**
+     * Creates an empty total of a group.
+     * @param group String the name of the group.
+     */
+    EmissionsTotal(String group) {
+        this.group = group;
+    }
+
+    /**
+     * Adds a route to the total.
+     * @param routeEmissions double the emissions of a passenger on the route.
+     */
+    void add(double routeEmissions) {
+        double dollars = Calculations.calculateDollarOffset(routeEmissions);
+        routes++;
+        emissions += routeEmissions;
+        dollarOffset += dollars;
+        trees += Calculations.calculateTreesEquivalent(dollars);
+    }
+
+    /**
+     * Adds the routes of another total of the same group to this total.
+     * @param other EmissionsTotal the other total.
+     */
+    void add(EmissionsTotal other) {
+        routes += other.routes;
+        emissions += other.emissions;
+        dollarOffset += other.dollarOffset;
+        trees += other.trees;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public int getRoutes() {
+        return routes;
+    }
+
+    public double getEmissions() {
+        return emissions;
+    }
+
+    /**
+     * Gets the average emissions of a passenger on a route of the group.
+     * @return double the average emissions, 0 if there are no routes.
+     */
+    public double getAverageEmissions() {
+        return routes == 0 ? 0 : emissions / routes;
+    }
+
+    public double getDollarOffset() {
+        return dollarOffset;
+    }
+
+    public long getTrees() {
+        return trees;
+    }
+}
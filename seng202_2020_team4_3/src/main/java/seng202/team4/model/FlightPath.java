@@ -2,6 +2,8 @@ package seng202.team4.model;
 
 import org.apache.commons.math3.util.Precision;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 
 /**
@@ -77,6 +79,32 @@ public class FlightPath extends DataType {
                 + "');";
     }
 
+    /**
+     * Gets the parameterised flightpath insert statement for the database.
+     * @return String the insert statement with a placeholder for each attribute.
+     */
+    @Override
+    public String getPreparedInsertStatement() {
+        return "Insert into " + getTypeName() + " (Type, FlightPathId, Altitude, Latitude, Longitude, SetId) "
+                + "Values (?, ?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Binds the flightpath attributes to the prepared insert statement.
+     * @param statement PreparedStatement the prepared insert statement.
+     * @param setID int the ID of the set the that will be inserted into.
+     * @throws SQLException if a parameter could not be bound.
+     */
+    @Override
+    public void setInsertParameters(PreparedStatement statement, int setID) throws SQLException {
+        statement.setString(1, getType());
+        statement.setString(2, getFlightPathId());
+        statement.setInt(3, getAltitude());
+        statement.setDouble(4, getLatitude());
+        statement.setDouble(5, getLongitude());
+        statement.setInt(6, setID);
+    }
+
     @Override
     public String getUpdateStatement(int setID) {
         return "Update " + getTypeName() + " set "
@@ -166,18 +194,19 @@ public class FlightPath extends DataType {
 
     /**
      *
-     * @param record String constituting the record.
+     * @param record CharSequence the line constituting the record.
      * @param errorMessage ArrayList where the error messages will be stored.
      * @return Returns get valid
      */
     @Override
-    public DataType getValid(String record, ArrayList<String> errorMessage) {
-        String[] recordList = record.replaceAll("\"", "").split(",");
-        if (recordList.length != FLIGHTPATH_RECORD_LENGTH) {
+    public DataType getValid(CharSequence record, ArrayList<String> errorMessage) {
+        RecordTokenizer fields = RecordTokenizer.get();
+        if (fields.tokenize(record) != FLIGHTPATH_RECORD_LENGTH) {
             errorMessage.add("Invalid number of attributes");
             return null;
         }
-        return getValid(recordList, errorMessage);
+        return getValid(fields.getField(0), fields.getField(1), fields.getField(2), fields.getField(3),
+                fields.getField(4), errorMessage);
     }
 
     /**
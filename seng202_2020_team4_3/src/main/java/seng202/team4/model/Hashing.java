@@ -0,0 +1,19 @@
+package seng202.team4.model;
+
+/**
+ * Hashing shared by the open addressing tables of the model, which are keyed by
+ * values packed into a long or by hash codes, and have a power of two number of buckets.
+ */
+abstract class Hashing {
+
+    /**
+     * Mixes the bits of a packed key into the low bits of an int, so keys
+     * that differ only in a few bits do not land in neighbouring buckets.
+     * @param key long the packed key.
+     * @return int the hash, to be masked by the number of buckets minus one.
+     */
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
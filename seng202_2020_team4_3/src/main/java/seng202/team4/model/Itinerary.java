@@ -0,0 +1,74 @@
+package seng202.team4.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sequence of flights between airports found by a {@link RouteGraph},
+ * with its total distance and carbon emissions per passenger.
+ */
+public final class Itinerary {
+
+    /**
+     * Codes of the airports flown through, from the departure to the destination airport.
+     */
+    private final List<String> airports;
+    /**
+     * Total distance flown in kilometres.
+     */
+    private final double distance;
+    /**
+     * Total carbon emissions of a passenger.
+     */
+    private final double emissions;
+
+    /**
+     * Creates an itinerary through airports.
+     * @param airports List the codes of the airports, from the departure to the destination airport.
+     * @param distance double the total distance flown in kilometres.
+     * @param emissions double the total carbon emissions of a passenger.
+     */
+    Itinerary(List<String> airports, double distance, double emissions) {
+        this.airports = Collections.unmodifiableList(new ArrayList<>(airports));
+        this.distance = distance;
+        this.emissions = emissions;
+    }
+
+    /**
+     * Gets the codes of the airports flown through.
+     * @return List the codes, from the departure to the destination airport.
+     */
+    public List<String> getAirports() {
+        return airports;
+    }
+
+    /**
+     * Gets the number of stops between the departure and destination airports.
+     * @return int the number of stops.
+     */
+    public int getStops() {
+        return airports.size() - 2;
+    }
+
+    /**
+     * Gets the total distance flown.
+     * @return double the distance in kilometres.
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * Gets the total carbon emissions of a passenger.
+     * @return double the emissions.
+     */
+    public double getEmissions() {
+        return emissions;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" - ", airports);
+    }
+}
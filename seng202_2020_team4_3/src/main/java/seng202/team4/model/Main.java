@@ -5,8 +5,6 @@ import seng202.team4.view.MainApplication;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.StandardCopyOption;
 
 /**
  * Main model class that is run to start the 'GreenFlights'
@@ -15,16 +13,13 @@ import java.nio.file.StandardCopyOption;
 public class Main {
 
     public static void main(String[] args) throws IOException {
-        Main main = new Main();
-
         DatabaseManager.setUp();
 
-        main.copyToFolder(Path.AIRPORT_RSC);
-        main.copyToFolder(Path.AIRLINE_RSC);
-        main.copyToFolder(Path.ROUTE_RSC);
-        main.copyToFolder(Path.FLIGHT_PATH_RSC);
+        // Only copies bundled data that is missing or changed, without delaying startup
+        ResourceSync.syncInBackground();
 
         MainApplication.main(args);
+        DatabaseManager.closeConnections();
     }
 
     /**
@@ -32,10 +27,10 @@ public class Main {
      */
     public void loadDefaultData() {
         try {
-            File airport = copyToFolder(Path.AIRPORT_RSC);
-            File airline = copyToFolder(Path.AIRLINE_RSC);
-            File route = copyToFolder(Path.ROUTE_RSC);
-            File flightPath = copyToFolder(Path.FLIGHT_PATH_RSC);
+            File airport = ResourceSync.getFile(Path.AIRPORT_RSC);
+            File airline = ResourceSync.getFile(Path.AIRLINE_RSC);
+            File route = ResourceSync.getFile(Path.ROUTE_RSC);
+            File flightPath = ResourceSync.getFile(Path.FLIGHT_PATH_RSC);
 
             DataLoader.uploadData("Default", airline, new Airline());
             DataLoader.uploadData("Default", airport, new Airport());
@@ -61,25 +56,4 @@ public class Main {
             ErrorController.createErrorMessage(message, false);
         }
     }
-
-    /**
-     * Copies the provided file to a target file.
-     *
-     * @param fileName String name of source file
-     * @return File the final file with the source files contents
-     */
-    public File copyToFolder(String fileName) {
-        File targetFile = null;
-        try {
-            InputStream initialStream = (this.getClass().getResourceAsStream(fileName));
-            targetFile = new File(Path.DIRECTORY + fileName);
-
-            java.nio.file.Files.copy(initialStream, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        }
-        catch (IOException e) {
-            String message = "Error while copying file to directory";
-            ErrorController.createErrorMessage(message, false);
-        }
-        return targetFile;
-    }
 }
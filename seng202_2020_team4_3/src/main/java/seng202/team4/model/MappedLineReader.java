@@ -0,0 +1,273 @@
+package seng202.team4.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads the lines of a UTF-8 file through a memory mapped buffer. The file is
+ * mapped in windows and split into chunks of whole lines without decoding it, so
+ * chunks can be handed to other threads and their lines read there. Each chunk is
+ * copied out of its window, so no chunk keeps a window mapped, and closing the reader
+ * drops the last window. A mapping is only released when its buffer is garbage
+ * collected though, so on Windows the file can stay locked for a short time after
+ * it is closed. A line containing only ASCII is read through a view of its bytes, and
+ * only a line with other characters, such as Cyrillic codes, is decoded.
+ * Lines end with \n, \r\n or \r, and like the upload always has, reading stops
+ * at the first blank line. A byte order mark at the start of the file is skipped.
+ */
+public class MappedLineReader implements AutoCloseable {
+
+    /**
+     * Number of bytes of the file mapped at once, unless a line is longer.
+     */
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Channel of the file being read.
+     */
+    private final FileChannel channel;
+    /**
+     * Size of the file in bytes.
+     */
+    private final long size;
+    /**
+     * Number of bytes of the file mapped at once.
+     */
+    private final int windowSize;
+    /**
+     * Currently mapped part of the file.
+     */
+    private MappedByteBuffer window;
+    /**
+     * Offset in the file of the start of the mapped window.
+     */
+    private long windowStart = 0;
+    /**
+     * Offset in the file of the first line not returned in a chunk.
+     */
+    private long position = 0;
+    /**
+     * Whether a blank line or the end of the file has been reached.
+     */
+    private boolean finished = false;
+
+    /**
+     * Opens a file for reading.
+     * @param file File the file to read.
+     * @throws IOException if the file could not be opened.
+     */
+    public MappedLineReader(File file) throws IOException {
+        this(file, WINDOW_SIZE);
+    }
+
+    /**
+     * Opens a file for reading with a given window size.
+     * @param file File the file to read.
+     * @param windowSize int the number of bytes of the file mapped at once.
+     * @throws IOException if the file could not be opened.
+     */
+    MappedLineReader(File file, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = Math.max(16, windowSize);
+        if (size >= 3) {
+            ByteBuffer bom = ByteBuffer.allocate(3);
+            channel.read(bom, 0);
+            if (bom.get(0) == (byte) 0xEF && bom.get(1) == (byte) 0xBB && bom.get(2) == (byte) 0xBF) {
+                position = 3;
+            }
+        }
+    }
+
+    /**
+     * Gets the next chunk of whole lines of the file. The chunk ends before the
+     * first blank line, and no more chunks are returned after it.
+     * @param maxLines int the maximum number of lines in the chunk.
+     * @return ByteBuffer the bytes of the lines, or null at the end of the file or a blank line.
+     * @throws IOException if the file could not be mapped.
+     */
+    public ByteBuffer nextChunk(int maxLines) throws IOException {
+        int mapSize = windowSize;
+        while (!finished && position < size) {
+            if (window == null || position >= windowStart + window.limit()) {
+                map(mapSize);
+            }
+            int start = (int) (position - windowStart);
+            int limit = window.limit();
+            boolean endOfFile = windowStart + limit == size;
+
+            int end = start;
+            int lines = 0;
+            int lineStart = start;
+            boolean blank = true;
+            int i = start;
+            while (i < limit && lines < maxLines) {
+                byte b = window.get(i);
+                if (b == '\n' || b == '\r') {
+                    if (blank) {
+                        finished = true;
+                        break;
+                    }
+                    i++;
+                    if (b == '\r') {
+                        if (i < limit && window.get(i) == '\n') {
+                            i++;
+                        } else if (i == limit && !endOfFile) {
+                            break; // A \n may follow in the next window
+                        }
+                    }
+                    lines++;
+                    end = i;
+                    lineStart = i;
+                    blank = true;
+                } else {
+                    if ((b & 0xFF) > ' ') {
+                        blank = false;
+                    }
+                    i++;
+                }
+            }
+            if (i == limit && endOfFile && lineStart < limit && lines < maxLines) {
+                // The last line of the file has no line break
+                if (blank) {
+                    finished = true;
+                } else {
+                    end = limit;
+                }
+            }
+
+            if (end > start) {
+                position = windowStart + end;
+                ByteBuffer view = window.duplicate();
+                view.position(start).limit(end);
+                ByteBuffer chunk = ByteBuffer.allocate(end - start);
+                chunk.put(view).flip();
+                return chunk;
+            }
+            if (finished || endOfFile) {
+                finished = true;
+            } else {
+                // The line continues past the window, map from its start and grow if it is still too long
+                mapSize = windowStart == position ? mapSize * 2 : mapSize;
+                map(mapSize);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calls an action on each line of a chunk in order. A line containing only ASCII
+     * is passed as a view of the chunk which is reused for the next line, so it must
+     * be copied with toString to be kept. Other lines are decoded as UTF-8.
+     * @param chunk ByteBuffer the chunk from {@link #nextChunk(int)}.
+     * @param action Consumer the action called with each line, without its line break.
+     */
+    public static void forEachLine(ByteBuffer chunk, Consumer<CharSequence> action) {
+        AsciiLine view = new AsciiLine(chunk);
+        int limit = chunk.limit();
+        int start = 0;
+        while (start < limit) {
+            int end = start;
+            boolean ascii = true;
+            byte b = 0;
+            while (end < limit && (b = chunk.get(end)) != '\n' && b != '\r') {
+                if (b < 0) {
+                    ascii = false;
+                }
+                end++;
+            }
+            if (ascii) {
+                view.set(start, end);
+                action.accept(view);
+            } else {
+                byte[] bytes = new byte[end - start];
+                chunk.duplicate().position(start).get(bytes);
+                action.accept(new String(bytes, StandardCharsets.UTF_8));
+            }
+            start = end + 1;
+            if (b == '\r' && start < limit && chunk.get(start) == '\n') {
+                start++;
+            }
+        }
+    }
+
+    /**
+     * Gets the size of the file.
+     * @return long the size of the file in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Maps the window of the file starting at the current position.
+     * @param mapSize int the maximum number of bytes to map.
+     * @throws IOException if the file could not be mapped.
+     */
+    private void map(int mapSize) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(mapSize, size - position));
+    }
+
+    /**
+     * Closes the file and drops the mapped window. Chunks that have been returned stay readable.
+     * @throws IOException if the file could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * View of a line of ASCII bytes as characters.
+     */
+    private static class AsciiLine implements CharSequence {
+        private final ByteBuffer bytes;
+        private int start;
+        private int length;
+
+        private AsciiLine(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        private void set(int start, int end) {
+            this.start = start;
+            this.length = end - start;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index " + index + " of " + length);
+            }
+            return (char) bytes.get(start + index);
+        }
+
+        @Override
+        public String subSequence(int from, int to) {
+            if (from < 0 || to > length || from > to) {
+                throw new IndexOutOfBoundsException("Range " + from + " to " + to + " of " + length);
+            }
+            byte[] copy = new byte[to - from];
+            bytes.duplicate().position(start + from).get(copy);
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package seng202.team4.model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Statistics of the network of routes in a route set: the number of airports each
+ * airport flies to and from, the connected components of the network, the hubs with
+ * the most connections and an estimate of the betweenness centrality of each airport.
+ * They are computed from a copy of the flights of the set's {@link RouteGraph}, with
+ * the searches for betweenness and the sorting of hubs run in parallel on the common
+ * ForkJoin pool. The statistics of each set are kept until its graph changes.
+ * Airports without routes in the set have no connections and belong to no component.
+ */
+public final class NetworkAnalytics {
+
+    /**
+     * Statistics of each route set that has been analysed, by the ID of the set.
+     */
+    private static final Map<Integer, NetworkAnalytics> analytics = new HashMap<>();
+
+    /**
+     * Number of airports searched from to estimate betweenness centrality.
+     */
+    static final int DEFAULT_SAMPLES = 256;
+
+    /**
+     * Graph the statistics were computed from.
+     */
+    private final RouteGraph graph;
+    /**
+     * Version of the graph the statistics were computed from.
+     */
+    private final int version;
+    /**
+     * Number of airports each airport flies to, by slot.
+     */
+    private final int[] outDegrees;
+    /**
+     * Number of airports each airport is flown to from, by slot.
+     */
+    private final int[] inDegrees;
+    /**
+     * Component of each airport, by slot, or -1 if the airport has no routes.
+     */
+    private final int[] components;
+    /**
+     * Number of airports in each component.
+     */
+    private final int[] componentSizes;
+    /**
+     * Estimated number of shortest paths between other airports passing through each airport, by slot.
+     */
+    private final double[] betweenness;
+    /**
+     * Slots of the airports with routes, in order of decreasing number of connections.
+     */
+    private final int[] hubs;
+
+    /**
+     * Computes the statistics of a graph.
+     * @param graph RouteGraph the graph of a route set.
+     * @param samples int the number of airports searched from to estimate betweenness centrality.
+     */
+    private NetworkAnalytics(RouteGraph graph, int samples) {
+        this.graph = graph;
+        int[][] flights;
+        synchronized (graph) {
+            version = graph.getVersion();
+            flights = graph.copyFlights();
+        }
+        int[] offsets = flights[0];
+        int[] targets = flights[1];
+        int size = offsets.length - 1;
+
+        outDegrees = new int[size];
+        inDegrees = new int[size];
+        for (int from = 0; from < size; from++) {
+            outDegrees[from] = offsets[from + 1] - offsets[from];
+            for (int flight = offsets[from]; flight < offsets[from + 1]; flight++) {
+                inDegrees[targets[flight]]++;
+            }
+        }
+
+        components = new int[size];
+        componentSizes = findComponents(offsets, targets);
+        betweenness = estimateBetweenness(offsets, targets, samples);
+
+        long[] keys = IntStream.range(0, size)
+                .filter(slot -> outDegrees[slot] + inDegrees[slot] > 0)
+                // Most connections first, then by slot
+                .mapToLong(slot -> ((long) (Integer.MAX_VALUE - outDegrees[slot] - inDegrees[slot]) << 32) | slot)
+                .toArray();
+        Arrays.parallelSort(keys);
+        hubs = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hubs[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Gets the statistics of the routes in a set, computing them if the set has not been
+     * analysed since its routes or the airports changed.
+     * @param setName String the name of the route set.
+     * @return NetworkAnalytics the statistics of the set.
+     * @throws SQLException if the set does not exist or its routes could not be read.
+     */
+    public static synchronized NetworkAnalytics get(String setName) throws SQLException {
+        RouteGraph graph = RouteGraph.get(setName);
+        NetworkAnalytics statistics = analytics.get(graph.getSetID());
+        if (statistics == null || !statistics.isCurrent(graph)) {
+            statistics = compute(graph, DEFAULT_SAMPLES);
+            analytics.put(graph.getSetID(), statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Computes the statistics of a graph.
+     * @param graph RouteGraph the graph of a route set.
+     * @param samples int the number of airports searched from to estimate betweenness centrality,
+     *                every airport with routes is searched from if there are no more than this.
+     * @return NetworkAnalytics the statistics of the graph.
+     */
+    static NetworkAnalytics compute(RouteGraph graph, int samples) {
+        return new NetworkAnalytics(graph, samples);
+    }
+
+    /**
+     * Checks whether the statistics describe the current routes of a graph.
+     * @param current RouteGraph the current graph of the set.
+     * @return boolean true if the statistics were computed from the graph and it has not changed since.
+     */
+    boolean isCurrent(RouteGraph current) {
+        return graph == current && version == current.getVersion();
+    }
+
+    /**
+     * Gets the number of airports an airport flies to.
+     * @param code String the IATA or ICAO code of the airport.
+     * @return int the number of airports, 0 if the airport does not exist.
+     */
+    public int getOutDegree(String code) {
+        int slot = graph.getAirports().slot(code);
+        return slot < 0 ? 0 : outDegrees[slot];
+    }
+
+    /**
+     * Gets the number of airports an airport is flown to from.
+     * @param code String the IATA or ICAO code of the airport.
+     * @return int the number of airports, 0 if the airport does not exist.
+     */
+    public int getInDegree(String code) {
+        int slot = graph.getAirports().slot(code);
+        return slot < 0 ? 0 : inDegrees[slot];
+    }
+
+    /**
+     * Gets the number of groups of airports connected by routes in either direction.
+     * @return int the number of components.
+     */
+    public int getComponentCount() {
+        return componentSizes.length;
+    }
+
+    /**
+     * Gets the number of airports in the largest group of airports connected by routes.
+     * @return int the number of airports, 0 if there are no routes.
+     */
+    public int getLargestComponentSize() {
+        return Arrays.stream(componentSizes).max().orElse(0);
+    }
+
+    /**
+     * Gets the number of airports connected by routes to an airport, including the airport.
+     * @param code String the IATA or ICAO code of the airport.
+     * @return int the number of airports, 0 if the airport has no routes or does not exist.
+     */
+    public int getComponentSize(String code) {
+        int slot = graph.getAirports().slot(code);
+        return slot < 0 || components[slot] < 0 ? 0 : componentSizes[components[slot]];
+    }
+
+    /**
+     * Gets the estimated number of shortest paths, by number of flights, between
+     * other airports that pass through an airport.
+     * @param code String the IATA or ICAO code of the airport.
+     * @return double the estimated betweenness centrality, 0 if the airport does not exist.
+     */
+    public double getBetweenness(String code) {
+        int slot = graph.getAirports().slot(code);
+        return slot < 0 ? 0 : betweenness[slot];
+    }
+
+    /**
+     * Gets the airports with the most connections, counting the airports flown to and from.
+     * @param count int the maximum number of airports.
+     * @return List the codes of the airports, in order of decreasing number of connections.
+     */
+    public List<String> getTopHubs(int count) {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, hubs.length); i++) {
+            codes.add(graph.getAirports().getCode(hubs[i]));
+        }
+        return codes;
+    }
+
+    /**
+     * Finds the components of the network, ignoring the direction of flights, with a union find
+     * over the flights. Each airport with routes is given the number of its component.
+     * @param offsets int[] the start of the flights from each airport.
+     * @param targets int[] the destination of each flight.
+     * @return int[] the number of airports in each component.
+     */
+    private int[] findComponents(int[] offsets, int[] targets) {
+        int size = components.length;
+        int[] parents = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            parents[slot] = slot;
+        }
+        for (int from = 0; from < size; from++) {
+            for (int flight = offsets[from]; flight < offsets[from + 1]; flight++) {
+                int first = root(parents, from);
+                int second = root(parents, targets[flight]);
+                if (first != second) {
+                    parents[Math.max(first, second)] = Math.min(first, second);
+                }
+            }
+        }
+
+        int[] sizes = new int[size];
+        int count = 0;
+        Arrays.fill(components, -1);
+        for (int slot = 0; slot < size; slot++) {
+            if (outDegrees[slot] + inDegrees[slot] == 0) {
+                continue;
+            }
+            int root = root(parents, slot);
+            // A root is the smallest slot of its component, so it is numbered first
+            if (components[root] < 0) {
+                components[root] = count++;
+            }
+            components[slot] = components[root];
+            sizes[components[slot]]++;
+        }
+        return Arrays.copyOf(sizes, count);
+    }
+
+    /**
+     * Finds the root of an airport's tree in a union find, halving the path to it.
+     * @param parents int[] the parent of each airport.
+     * @param slot int the slot of the airport.
+     * @return int the slot of the root.
+     */
+    private static int root(int[] parents, int slot) {
+        while (parents[slot] != slot) {
+            parents[slot] = parents[parents[slot]];
+            slot = parents[slot];
+        }
+        return slot;
+    }
+
+    /**
+     * Estimates the betweenness centrality of every airport with Brandes' algorithm, counting
+     * shortest paths by number of flights from a random sample of the airports with routes.
+     * The counts are scaled up by the fraction of airports sampled.
+     * @param offsets int[] the start of the flights from each airport.
+     * @param targets int[] the destination of each flight.
+     * @param samples int the number of airports searched from.
+     * @return double[] the estimated betweenness of each airport.
+     */
+    private double[] estimateBetweenness(int[] offsets, int[] targets, int samples) {
+        int size = outDegrees.length;
+        int[] sources = IntStream.range(0, size).filter(slot -> outDegrees[slot] > 0).toArray();
+        int count = Math.min(samples, sources.length);
+        // Picks the sample with a fixed seed, so the estimate does not change between runs
+        Random random = new Random(202);
+        for (int i = 0; i < count; i++) {
+            int swap = i + random.nextInt(sources.length - i);
+            int source = sources[swap];
+            sources[swap] = sources[i];
+            sources[i] = source;
+        }
+
+        double[] totals = IntStream.range(0, count).parallel().collect(
+                () -> new double[size],
+                (sums, i) -> accumulateDependencies(offsets, targets, sources[i], sums),
+                (first, second) -> {
+                    for (int slot = 0; slot < size; slot++) {
+                        first[slot] += second[slot];
+                    }
+                });
+        double scale = count == 0 ? 0 : (double) sources.length / count;
+        for (int slot = 0; slot < size; slot++) {
+            totals[slot] *= scale;
+        }
+        return totals;
+    }
+
+    /**
+     * Searches breadth first from an airport and adds how much each other airport lies on
+     * the shortest paths from it to the sums.
+     * @param offsets int[] the start of the flights from each airport.
+     * @param targets int[] the destination of each flight.
+     * @param source int the slot of the airport searched from.
+     * @param sums double[] the betweenness of each airport, added to.
+     */
+    private static void accumulateDependencies(int[] offsets, int[] targets, int source, double[] sums) {
+        int size = sums.length;
+        int[] flightsTo = new int[size];
+        Arrays.fill(flightsTo, -1);
+        double[] paths = new double[size];
+        double[] dependencies = new double[size];
+        // Airports in the order they are reached, which doubles as the queue of the search
+        int[] order = new int[size];
+        flightsTo[source] = 0;
+        paths[source] = 1;
+        order[0] = source;
+        int reached = 1;
+        for (int head = 0; head < reached; head++) {
+            int from = order[head];
+            for (int flight = offsets[from]; flight < offsets[from + 1]; flight++) {
+                int to = targets[flight];
+                if (flightsTo[to] < 0) {
+                    flightsTo[to] = flightsTo[from] + 1;
+                    order[reached++] = to;
+                }
+                if (flightsTo[to] == flightsTo[from] + 1) {
+                    paths[to] += paths[from];
+                }
+            }
+        }
+        for (int i = reached - 1; i > 0; i--) {
+            int from = order[i];
+            for (int flight = offsets[from]; flight < offsets[from + 1]; flight++) {
+                int to = targets[flight];
+                if (flightsTo[to] == flightsTo[from] + 1) {
+                    dependencies[from] += paths[from] / paths[to] * (1 + dependencies[to]);
+                }
+            }
+            sums[from] += dependencies[from];
+        }
+    }
+}
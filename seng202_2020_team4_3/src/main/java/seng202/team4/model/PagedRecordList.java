@@ -0,0 +1,477 @@
+package seng202.team4.model;
+
+import javafx.collections.ObservableListBase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A list of the records of a query that reads its rows from the database a page at
+ * a time as they are accessed, so a TableView showing it only creates the records of
+ * the rows on screen. Opening the list reads only the IDs of the rows. In order of ID,
+ * only the ID of the last row of each page is kept, and a page is read with a keyset
+ * query, the rows with an ID after the last row of the previous page up to the page size,
+ * which seeks to the page by the primary key rather than skipping the rows before it.
+ * Sorted by a column, the ID of every row is kept in order, as there is usually no index
+ * to seek the column with, and a page is read by the IDs of its rows. The same is done when
+ * the rows are restricted to a set of IDs found outside the database, such as by a search of
+ * a {@link TrigramIndex}, as the rows of a page are then not a range of IDs. When a page is read
+ * the next page is read on a background thread, and the most recently used pages are kept,
+ * so scrolling usually finds its page already read, and the records kept stay the same
+ * whatever the number of rows. The list can only be changed by opening it again, which is
+ * done after the records change. It is used on the JavaFX application thread.
+ * @param <T> the type of the records.
+ */
+public final class PagedRecordList<T> extends ObservableListBase<T> {
+
+    /**
+     * Creates a record from the current row of a result set.
+     * @param <T> the type of the record.
+     */
+    public interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Opens connections to the database the rows are read from.
+     */
+    interface ConnectionSource {
+        Connection connect() throws SQLException;
+    }
+
+    /**
+     * Number of rows in each page.
+     */
+    static final int PAGE_SIZE = 256;
+    /**
+     * Number of pages kept.
+     */
+    static final int MAX_PAGES = 8;
+
+    /**
+     * Thread reading the pages after the pages that are accessed.
+     */
+    private static final ExecutorService prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "page-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Source of the connections rows are read through.
+     */
+    private final ConnectionSource source;
+    /**
+     * Reader creating the records of rows.
+     */
+    private final RowReader<T> reader;
+    /**
+     * Number of rows in each page.
+     */
+    private final int pageSize;
+
+    /**
+     * Query selecting the rows, with an ID column, or null if no rows are read.
+     */
+    private String query;
+    /**
+     * Condition the rows must meet, or null if every row of the query is included.
+     */
+    private String filter;
+    /**
+     * Values of the parameters of the filter.
+     */
+    private List<Object> parameters = Collections.emptyList();
+    /**
+     * IDs the rows are restricted to, or null if every row meeting the filter is included.
+     */
+    private BitSet idSet;
+    /**
+     * Column the rows are sorted by before their ID, or null if they are sorted by ID.
+     */
+    private String orderColumn;
+    /**
+     * Whether the rows are sorted in decreasing order.
+     */
+    private boolean descending;
+
+    /**
+     * Number of rows read when the list was opened.
+     */
+    private int size;
+    /**
+     * Whether the ID of each row was kept when the list was opened, rather than
+     * the ID of the last row before each page.
+     */
+    private boolean keepsIds;
+    /**
+     * In order of ID, the ID of the last row before each page. Sorted by a column
+     * or restricted to a set of IDs, the ID of each row.
+     */
+    private int[] ids = new int[0];
+    /**
+     * Incremented each time the list is opened, so pages read before are not kept.
+     */
+    private int generation;
+    /**
+     * Pages that have been read by their index, in order of least recent use.
+     * Guarded by itself, as pages are added by the prefetching thread.
+     */
+    private final Map<Integer, List<T>> pages;
+
+    /**
+     * Creates an empty list reading records from the application's database.
+     * @param reader RowReader the reader creating the record of each row.
+     */
+    public PagedRecordList(RowReader<T> reader) {
+        this(DatabaseManager::connectReadOnly, reader, PAGE_SIZE, MAX_PAGES);
+    }
+
+    /**
+     * Creates an empty list reading records from a database.
+     * @param source ConnectionSource the source of connections to the database.
+     * @param reader RowReader the reader creating the record of each row.
+     * @param pageSize int the number of rows in each page.
+     * @param maxPages int the number of pages kept.
+     */
+    PagedRecordList(ConnectionSource source, RowReader<T> reader, int pageSize, int maxPages) {
+        this.source = source;
+        this.reader = reader;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Sets the query selecting the rows. Takes effect when the list is opened.
+     * @param query String the query, selecting every column the reader needs and the ID column.
+     */
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    /**
+     * Gets the query selecting the rows.
+     * @return String the query, or null if no rows are read.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Sets the condition rows of the query must meet. Takes effect when the list is opened.
+     * @param filter String the SQL condition on the columns of the query with a '?' for each parameter,
+     *               or null to include every row.
+     * @param parameters List the values of the parameters.
+     */
+    public void setFilter(String filter, List<Object> parameters) {
+        this.filter = filter;
+        this.parameters = new ArrayList<>(parameters);
+    }
+
+    /**
+     * Restricts the rows to a set of IDs, as well as the filter. Takes effect when the list is opened.
+     * @param ids BitSet the IDs of the rows that can be included, or null to include every row meeting the filter.
+     */
+    public void setIds(BitSet ids) {
+        this.idSet = ids;
+    }
+
+    /**
+     * Sets the order of the rows, which is by the ID of the rows if they are equal in
+     * the sort column. Null values of the column are sorted as empty text.
+     * Takes effect when the list is opened.
+     * @param column String the column of the query the rows are sorted by, or null to sort by ID.
+     * @param descending boolean true to sort in decreasing order.
+     */
+    public void setOrder(String column, boolean descending) {
+        this.orderColumn = column;
+        this.descending = descending;
+    }
+
+    /**
+     * Opens the list with the current query, filter and order, reading the keys of every
+     * row and discarding the pages read before, and reports that every row changed.
+     * @throws SQLException if the rows could not be read.
+     */
+    public void open() throws SQLException {
+        int oldSize = size;
+        int count = 0;
+        int[] keys = new int[16];
+        boolean keepAll = orderColumn != null || idSet != null;
+        if (query != null) {
+            String sql = "SELECT ID FROM (" + query + ")" + (filter == null ? "" : " WHERE " + filter)
+                    + " ORDER BY " + order();
+            try (Connection connection = source.connect();
+                 PreparedStatement stmt = connection.prepareStatement(sql)) {
+                bind(stmt, parameters);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt(1);
+                        if (idSet != null && (id < 0 || !idSet.get(id))) {
+                            continue;
+                        }
+                        if (keepAll) {
+                            if (count == keys.length) {
+                                keys = Arrays.copyOf(keys, count * 2);
+                            }
+                            keys[count] = id;
+                        }
+                        count++;
+                        // Keeps the ID of the last row of each page, which the next page starts after
+                        if (!keepAll && count % pageSize == 0) {
+                            int page = count / pageSize;
+                            if (page == keys.length) {
+                                keys = Arrays.copyOf(keys, page * 2);
+                            }
+                            keys[page] = id;
+                        }
+                    }
+                }
+            }
+        }
+        synchronized (pages) {
+            generation++;
+            pages.clear();
+        }
+        size = count;
+        ids = keys;
+        keepsIds = keepAll;
+
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.nCopies(oldSize, null));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    /**
+     * Gets the record of a row, reading its page if it is not kept.
+     * @param index int the index of the row.
+     * @return T the record, or null if the row could not be read or was deleted since the list was opened.
+     * @throws IndexOutOfBoundsException if the index is not in the list.
+     */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in a list of " + size);
+        }
+        int page = index / pageSize;
+        List<T> rows;
+        synchronized (pages) {
+            rows = pages.get(page);
+        }
+        if (rows == null) {
+            try {
+                rows = readPage(page);
+            } catch (SQLException e) {
+                return null; // The page is read again when the row is next accessed
+            }
+            synchronized (pages) {
+                pages.put(page, rows);
+            }
+        }
+        prefetch(page + 1);
+        int offset = index % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of pages kept.
+     * @return int the number of pages.
+     */
+    int getPageCount() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    /**
+     * Reads a page on the prefetching thread if it exists and is not kept.
+     * @param page int the index of the page.
+     */
+    private void prefetch(int page) {
+        if (page * pageSize >= size) {
+            return;
+        }
+        int expected;
+        synchronized (pages) {
+            if (pages.containsKey(page)) {
+                return;
+            }
+            expected = generation;
+        }
+        // The query is read on this thread, as it may be changed before the page is read
+        String sql = pageQuery(page);
+        List<Object> values = pageParameters(page);
+        int[] order = pageIds(page);
+        prefetcher.execute(() -> {
+            synchronized (pages) {
+                if (generation != expected || pages.containsKey(page)) {
+                    return;
+                }
+            }
+            try {
+                List<T> rows = read(sql, values, order);
+                synchronized (pages) {
+                    if (generation == expected && !pages.containsKey(page)) {
+                        pages.put(page, rows);
+                    }
+                }
+            } catch (SQLException e) {
+                // The page is read again when it is accessed
+            }
+        });
+    }
+
+    /**
+     * Reads the records of a page.
+     * @param page int the index of the page.
+     * @return List the records of the rows in the page.
+     * @throws SQLException if the rows could not be read.
+     */
+    private List<T> readPage(int page) throws SQLException {
+        return read(pageQuery(page), pageParameters(page), pageIds(page));
+    }
+
+    /**
+     * Reads the records of the rows of a query.
+     * @param sql String the query.
+     * @param values List the values of the parameters of the query.
+     * @param order int[] the IDs of the rows in the order they are listed in, or null if they are read in order.
+     * @return List the records.
+     * @throws SQLException if the rows could not be read.
+     */
+    private List<T> read(String sql, List<Object> values, int[] order) throws SQLException {
+        List<T> rows = new ArrayList<>(pageSize);
+        Map<Integer, T> byId = order == null ? null : new HashMap<>();
+        try (Connection connection = source.connect();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            bind(stmt, values);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (byId == null) {
+                        rows.add(reader.read(rs));
+                    } else {
+                        byId.put(rs.getInt("ID"), reader.read(rs));
+                    }
+                }
+            }
+        }
+        if (order != null) {
+            for (int id : order) {
+                rows.add(byId.get(id));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the query reading the rows of a page. In order of ID these are the rows after the
+     * last row of the previous page, and sorted by a column or restricted to a set of IDs
+     * the rows with the IDs of the page.
+     * @param page int the index of the page.
+     * @return String the query.
+     */
+    private String pageQuery(int page) {
+        if (keepsIds) {
+            int count = Math.min(pageSize, size - page * pageSize);
+            return "SELECT * FROM (" + query + ") WHERE ID IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+        }
+        List<String> conditions = new ArrayList<>(2);
+        if (filter != null) {
+            conditions.add("(" + filter + ")");
+        }
+        if (page > 0) {
+            conditions.add(descending ? "ID < ?" : "ID > ?");
+        }
+        return "SELECT * FROM (" + query + ")" + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY " + order() + " LIMIT " + pageSize;
+    }
+
+    /**
+     * Gets the values of the parameters of the query reading a page.
+     * @param page int the index of the page.
+     * @return List the values.
+     */
+    private List<Object> pageParameters(int page) {
+        List<Object> values = new ArrayList<>();
+        if (keepsIds) {
+            for (int id : pageIds(page)) {
+                values.add(id);
+            }
+            return values;
+        }
+        values.addAll(parameters);
+        if (page > 0) {
+            values.add(ids[page]);
+        }
+        return values;
+    }
+
+    /**
+     * Gets the IDs of the rows of a page, when the ID of each row is kept.
+     * @param page int the index of the page.
+     * @return int[] the IDs in order, or null if the rows are read in order of ID.
+     */
+    private int[] pageIds(int page) {
+        if (!keepsIds) {
+            return null;
+        }
+        int start = page * pageSize;
+        return Arrays.copyOfRange(ids, start, Math.min(start + pageSize, size));
+    }
+
+    /**
+     * Gets the expression of the sort column, with null values as empty text.
+     * @return String the expression.
+     */
+    private String orderKey() {
+        return "IFNULL(" + orderColumn + ", '')";
+    }
+
+    /**
+     * Gets the ORDER BY terms of the rows.
+     * @return String the terms.
+     */
+    private String order() {
+        String direction = descending ? " DESC" : "";
+        return (orderColumn == null ? "" : orderKey() + direction + ", ") + "ID" + direction;
+    }
+
+    /**
+     * Binds values to the parameters of a statement.
+     * @param stmt PreparedStatement the statement.
+     * @param values List the values, in the order of the parameters.
+     * @throws SQLException if a value could not be bound.
+     */
+    private static void bind(PreparedStatement stmt, List<Object> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            stmt.setObject(i + 1, values.get(i));
+        }
+    }
+}
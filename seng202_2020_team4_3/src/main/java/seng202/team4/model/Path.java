@@ -30,6 +30,7 @@ public abstract class Path {
     public static final String FLIGHTPATH_DETAILS = VIEW + USER_INTERFACES + "/flightPathDetails.fxml";
     public static final String EMISSIONS_DETAILS = VIEW + USER_INTERFACES + "/emissionsDetails.fxml";
     public static final String CONTRIBUTIONS_GRAPH = VIEW + USER_INTERFACES + "/emissionsContributionsGraph.fxml";
+    public static final String EMISSIONS_REPORT = VIEW + USER_INTERFACES + "/emissionsReport.fxml";
     public static final String ERROR_FXML = VIEW + USER_INTERFACES + "/error.fxml";
 
     public static final String REFRESH_BUTTON_PNG = VIEW + "/images/refresh_icon.png";
@@ -49,6 +50,9 @@ public abstract class Path {
     public static final String AIRPORT_RSC = "/airports.dat";
     public static final String ROUTE_RSC = "/routes.dat";
     public static final String FLIGHT_PATH_RSC = "/NZCH-WSSS.csv";
+    public static final String EMISSION_FACTORS_RSC = "/emissionFactors.csv";
+    public static final String DEFAULT_DATABASE_RSC = "/default.db";
+    public static final String DEFAULT_DATABASE_CHECKSUM_RSC = "/default.db.sha256";
     public static final String USER_MANUAL = "/greenflights_user_manual.pdf";
     public static final String MAP_RSC = "/seng202.team4/user_interfaces/map.html";
     public static final String AIRLINE_TEST_RSC_VALID = "/airlineValid.dat";
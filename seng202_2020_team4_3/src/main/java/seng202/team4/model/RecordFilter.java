@@ -0,0 +1,210 @@
+package seng202.team4.model;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Filters the records shown in a table by the values of their columns. A record is
+ * shown if each column with a filter value contains that value, and any of its columns
+ * contains the search text, ignoring case. The filter values and search text are compiled
+ * into a single predicate over the lower-cased values of each record's columns, which are
+ * found once as records are added to the source list rather than on every evaluation, and
+ * the one filtered view of the source is updated with it. The lower-cased values are kept in
+ * a {@link TrigramIndex}, so the records containing the search text are found from the index
+ * when the filter is compiled rather than by checking every record. Used on the JavaFX
+ * application thread.
+ * @param <T> the type of the records.
+ */
+public final class RecordFilter<T> {
+
+    /**
+     * Reads the value of a column of a record.
+     * @param <T> the type of the records.
+     */
+    public interface Column<T> {
+        String read(T record);
+    }
+
+    /**
+     * Columns of the records, in the order their filter values are set.
+     */
+    private final List<Column<T>> columns;
+    /**
+     * Row of each record of the source in the index, by identity as records with
+     * equal attributes may be different rows.
+     */
+    private final Map<T, Integer> rows = new IdentityHashMap<>();
+    /**
+     * Index of the lower-cased values of the columns of the records in the source.
+     */
+    private TrigramIndex index;
+    /**
+     * View of the source showing the records that pass the filter.
+     */
+    private final FilteredList<T> view;
+    /**
+     * Lower-cased filter value of each column, null where the column is not filtered.
+     */
+    private final String[] values;
+    /**
+     * Lower-cased search text, null if the records are not searched.
+     */
+    private String search;
+
+    /**
+     * Creates a filter of a list of records that shows every record until a filter is set.
+     * @param source ObservableList the records.
+     * @param columns List the columns the records are filtered and searched by.
+     */
+    public RecordFilter(ObservableList<T> source, List<Column<T>> columns) {
+        this.columns = new ArrayList<>(columns);
+        this.values = new String[columns.size()];
+        this.index = new TrigramIndex(columns.size());
+        source.addListener((ListChangeListener<T>) change -> {
+            while (change.next()) {
+                if (source.isEmpty()) {
+                    // A new data set is indexed from the start
+                    rows.clear();
+                    index = new TrigramIndex(this.columns.size());
+                    continue;
+                }
+                for (T removed : change.getRemoved()) {
+                    Integer row = rows.remove(removed);
+                    if (row != null) {
+                        index.remove(row);
+                    }
+                }
+                for (T added : change.getAddedSubList()) {
+                    rows.put(added, index.add(lowerCase(added)));
+                }
+            }
+        });
+        for (T record : source) {
+            rows.put(record, index.add(lowerCase(record)));
+        }
+        view = new FilteredList<>(source);
+    }
+
+    /**
+     * Sets the value a column of the shown records must contain. Takes effect when the filter is applied.
+     * @param column int the index of the column in the columns of the filter.
+     * @param value String the value, null or empty to not filter the column.
+     */
+    public void setValue(int column, String value) {
+        values[column] = value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sets the text a column of the shown records must contain. Takes effect when the filter is applied.
+     * @param text String the text, null or empty to not search the records.
+     */
+    public void setSearch(String text) {
+        search = text == null || text.isEmpty() ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Updates the view to show the records that pass the filter values and search text.
+     */
+    public void apply() {
+        view.setPredicate(compile());
+    }
+
+    /**
+     * Compiles the filter values and search text into a predicate that only checks
+     * the columns that are filtered.
+     * @return Predicate the predicate, or null if every record passes.
+     */
+    Predicate<T> compile() {
+        int filtered = 0;
+        for (String value : values) {
+            if (value != null) {
+                filtered++;
+            }
+        }
+        if (filtered == 0 && search == null) {
+            return null;
+        }
+        int[] filteredColumns = new int[filtered];
+        String[] filteredValues = new String[filtered];
+        for (int column = 0, i = 0; column < values.length; column++) {
+            if (values[column] != null) {
+                filteredColumns[i] = column;
+                filteredValues[i++] = values[column];
+            }
+        }
+        String text = search;
+        TrigramIndex searched = index;
+        BitSet found = text == null ? null : searched.search(text);
+        int indexed = searched.size();
+        return record -> {
+            Integer row = rows.get(record);
+            if (row == null || index != searched || row >= indexed) {
+                // Added since the filter was compiled, so the values are checked
+                return matches(lowerCase(record), filteredColumns, filteredValues, text);
+            }
+            for (int i = 0; i < filteredColumns.length; i++) {
+                if (!searched.getValue(row, filteredColumns[i]).contains(filteredValues[i])) {
+                    return false;
+                }
+            }
+            return text == null || found.get(row);
+        };
+    }
+
+    /**
+     * Checks whether the values of a record pass the filter values and the search text.
+     * @param recordValues String[] the lower-cased values of the columns of the record.
+     * @param filteredColumns int[] the columns with a filter value.
+     * @param filteredValues String[] the filter value of each of the columns.
+     * @param text String the search text, or null if the records are not searched.
+     * @return boolean true if the record passes.
+     */
+    private static boolean matches(String[] recordValues, int[] filteredColumns, String[] filteredValues, String text) {
+        for (int i = 0; i < filteredColumns.length; i++) {
+            if (!recordValues[filteredColumns[i]].contains(filteredValues[i])) {
+                return false;
+            }
+        }
+        if (text == null) {
+            return true;
+        }
+        for (String value : recordValues) {
+            if (value.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the view of the records that pass the filter, which changes as the source changes
+     * and the filter is applied.
+     * @return FilteredList the view.
+     */
+    public FilteredList<T> getView() {
+        return view;
+    }
+
+    /**
+     * Reads the lower-cased values of the columns of a record.
+     * @param record T the record.
+     * @return String[] the value of each column, empty where the column has no value.
+     */
+    private String[] lowerCase(T record) {
+        String[] recordValues = new String[columns.size()];
+        for (int column = 0; column < recordValues.length; column++) {
+            String value = columns.get(column).read(record);
+            recordValues[column] = value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+        return recordValues;
+    }
+}
@@ -0,0 +1,222 @@
+package seng202.team4.model;
+
+import java.util.Arrays;
+
+/**
+ * Splits a comma separated line into fields following RFC 4180 in a single pass.
+ * Fields may be quoted, and a quoted field may contain commas and quotes escaped
+ * as two quotes. The tokenizer records the start and end offset of each field in
+ * arrays that are reused for every line, so no regular expression or intermediate
+ * array of strings is created. A field is only copied into a String when it is read.
+ * Quotes are handled leniently: a quote inside an unquoted field is kept, and text
+ * after the closing quote of a field is appended to it.
+ * A tokenizer is not thread safe, each thread uses its own through {@link #get()}.
+ */
+public class RecordTokenizer {
+
+    /**
+     * Field that is the text between its offsets.
+     */
+    private static final byte PLAIN = 0;
+    /**
+     * Field that is the text between its offsets without the surrounding quotes.
+     */
+    private static final byte QUOTED = 1;
+    /**
+     * Field whose quotes have to be removed or unescaped when it is read.
+     */
+    private static final byte ESCAPED = 2;
+
+    /**
+     * Tokenizer of each thread.
+     */
+    private static final ThreadLocal<RecordTokenizer> TOKENIZER = ThreadLocal.withInitial(RecordTokenizer::new);
+
+    /**
+     * Line that was last tokenized.
+     */
+    private CharSequence line = "";
+    /**
+     * Offset of the first character of each field, including its opening quote.
+     */
+    private int[] starts = new int[16];
+    /**
+     * Offset after the last character of each field, including its closing quote.
+     */
+    private int[] ends = new int[16];
+    /**
+     * Whether each field is plain, quoted or escaped.
+     */
+    private byte[] kinds = new byte[16];
+    /**
+     * Number of fields in the line.
+     */
+    private int count = 0;
+    /**
+     * Buffer reused to unescape fields.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Gets the tokenizer of the current thread.
+     * @return RecordTokenizer the tokenizer of the current thread.
+     */
+    public static RecordTokenizer get() {
+        return TOKENIZER.get();
+    }
+
+    /**
+     * Splits a line into fields, replacing the fields of the previous line.
+     * Every comma outside quotes ends a field, so a line ending with a
+     * comma has an empty last field.
+     * @param line CharSequence the line to split.
+     * @return int the number of fields in the line.
+     */
+    public int tokenize(CharSequence line) {
+        this.line = line;
+        count = 0;
+        int length = line.length();
+        int position = 0;
+        while (true) {
+            int start = position;
+            byte kind = PLAIN;
+            if (position < length && line.charAt(position) == '"') {
+                kind = QUOTED;
+                position++;
+                boolean closed = false;
+                while (position < length && !closed) {
+                    if (line.charAt(position) == '"') {
+                        if (position + 1 < length && line.charAt(position + 1) == '"') {
+                            kind = ESCAPED;
+                            position++;
+                        } else {
+                            closed = true;
+                        }
+                    }
+                    position++;
+                }
+                if (!closed) {
+                    kind = ESCAPED;
+                }
+            }
+            while (position < length && line.charAt(position) != ',') {
+                // Unquoted field, or text after the closing quote of a quoted field
+                if (kind != PLAIN) {
+                    kind = ESCAPED;
+                }
+                position++;
+            }
+            add(start, position, kind);
+            if (position >= length) {
+                return count;
+            }
+            position++; // Skip the comma
+        }
+    }
+
+    /**
+     * Gets the number of fields in the last line.
+     * @return int the number of fields.
+     */
+    public int getFieldCount() {
+        return count;
+    }
+
+    /**
+     * Gets the value of a field without its quotes.
+     * @param index int the index of the field.
+     * @return String the value of the field.
+     */
+    public String getField(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        int end = ends[index];
+        switch (kinds[index]) {
+            case PLAIN:
+                return line.subSequence(start, end).toString();
+            case QUOTED:
+                return line.subSequence(start + 1, end - 1).toString();
+            default:
+                return unescape(start, end);
+        }
+    }
+
+    /**
+     * Checks if a field is the unquoted null value \N.
+     * @param index int the index of the field.
+     * @return boolean true if the field is \N.
+     */
+    public boolean isNull(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        return kinds[index] == PLAIN && ends[index] - start == 2
+                && line.charAt(start) == '\\' && line.charAt(start + 1) == 'N';
+    }
+
+    /**
+     * Checks if a field has an empty value, either nothing or two quotes.
+     * @param index int the index of the field.
+     * @return boolean true if the field is empty.
+     */
+    public boolean isEmpty(int index) {
+        checkIndex(index);
+        int length = ends[index] - starts[index];
+        return length == 0 || (kinds[index] == QUOTED && length == 2);
+    }
+
+    /**
+     * Records the offsets of a field, growing the arrays if they are full.
+     * @param start int the offset of the first character of the field.
+     * @param end int the offset after the last character of the field.
+     * @param kind byte whether the field is plain, quoted or escaped.
+     */
+    private void add(int start, int end, byte kind) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            kinds = Arrays.copyOf(kinds, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        kinds[count] = kind;
+        count++;
+    }
+
+    /**
+     * Removes the quotes of a field with escaped quotes, text after
+     * its closing quote or no closing quote.
+     * @param start int the offset of the opening quote of the field.
+     * @param end int the offset after the last character of the field.
+     * @return String the value of the field.
+     */
+    private String unescape(int start, int end) {
+        buffer.setLength(0);
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c != '"') {
+                buffer.append(c);
+            } else if (i == start) {
+                quoted = true;
+            } else if (quoted && i + 1 < end && line.charAt(i + 1) == '"') {
+                buffer.append('"');
+                i++;
+            } else if (quoted) {
+                quoted = false;
+            } else {
+                buffer.append(c);
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Checks that a field exists in the last line.
+     * @param index int the index of the field.
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Field " + index + " of " + count);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package seng202.team4.model;
+
+import seng202.team4.controller.ErrorController;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Keeps copies of the bundled data files in the application's directory up to date.
+ * A manifest in the directory records the application version and, for each file,
+ * the SHA-256 of its content, the size and modification time of the bundled resource
+ * it was copied from and the size and modification time of the copy. A file is only
+ * copied if it is missing or its content differs from the bundled resource, and while
+ * the version, resource and copy all match the manifest nothing is read at all. When the
+ * application is not run from a jar it has no version, and the resource and copy alone
+ * are matched.
+ * Files are copied to a temporary file and moved into place, so a copy is never partial.
+ */
+public abstract class ResourceSync {
+
+    /**
+     * Bundled data files copied to the application's directory.
+     */
+    static final String[] RESOURCES = {
+            Path.AIRPORT_RSC, Path.AIRLINE_RSC, Path.ROUTE_RSC, Path.FLIGHT_PATH_RSC
+    };
+
+    /**
+     * Name of the manifest in the application's directory.
+     */
+    static final String MANIFEST = "resources.properties";
+
+    /**
+     * Version of the running application, from the jar manifest,
+     * or null when it is not run from a jar.
+     */
+    private static final String VERSION = ResourceSync.class.getPackage().getImplementationVersion();
+
+    /**
+     * Starts updating the copies of the bundled data on a background thread,
+     * so starting the application does not wait for them.
+     * @return Thread the thread updating the copies.
+     */
+    public static Thread syncInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                sync(new File(Path.DIRECTORY));
+            } catch (IOException e) {
+                String message = "Error while copying file to directory";
+                ErrorController.createErrorMessage(message, false);
+            }
+        }, "resource-sync");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Gets the copy of a bundled data file in the application's directory,
+     * copying it first if it is missing or out of date.
+     * @param resource String the name of the bundled resource, e.g. Path.AIRPORT_RSC.
+     * @return File the copy of the resource.
+     * @throws IOException if the resource could not be copied.
+     */
+    public static File getFile(String resource) throws IOException {
+        File directory = new File(Path.DIRECTORY);
+        sync(directory);
+        return new File(directory, resource);
+    }
+
+    /**
+     * Copies each bundled data file that is missing or out of date to a directory
+     * and updates the manifest.
+     * @param directory File the directory the files are copied to.
+     * @return int the number of files copied.
+     * @throws IOException if a resource could not be read or copied.
+     */
+    static synchronized int sync(File directory) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File manifestFile = new File(directory, MANIFEST);
+        Properties manifest = new Properties();
+        if (manifestFile.exists()) {
+            try (InputStream stream = Files.newInputStream(manifestFile.toPath())) {
+                manifest.load(stream);
+            } catch (IOException | IllegalArgumentException e) {
+                manifest.clear(); // A damaged manifest only means every file is checked again
+            }
+        }
+        boolean sameVersion = Objects.equals(VERSION, manifest.getProperty("version"));
+
+        int copied = 0;
+        boolean changed = !sameVersion;
+        for (String resource : RESOURCES) {
+            URLConnection source = open(resource);
+            String sourceStamp = source.getContentLengthLong() + ":" + source.getLastModified();
+            File target = new File(directory, resource);
+            if (sameVersion && sourceStamp.equals(manifest.getProperty(resource + ".source"))
+                    && stamp(target).equals(manifest.getProperty(resource + ".target"))) {
+                continue; // Nothing changed since the last sync
+            }
+
+            String hash;
+            try (InputStream stream = source.getInputStream()) {
+                hash = hash(stream);
+            }
+            if (!target.exists() || target.length() != source.getContentLengthLong()
+                    || !hash.equals(hash(target))) {
+                copy(resource, target);
+                copied++;
+            }
+            manifest.setProperty(resource + ".sha256", hash);
+            manifest.setProperty(resource + ".source", sourceStamp);
+            manifest.setProperty(resource + ".target", stamp(target));
+            changed = true;
+        }
+
+        if (changed) {
+            if (VERSION != null) {
+                manifest.setProperty("version", VERSION);
+            } else {
+                manifest.remove("version");
+            }
+            File temporary = new File(directory, MANIFEST + ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temporary.toPath())) {
+                manifest.store(stream, "Bundled data copied by GreenFlights");
+            }
+            Files.move(temporary.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copied;
+    }
+
+    /**
+     * Opens a connection to a bundled resource, which gives its size and
+     * modification time without reading it.
+     * @param resource String the name of the resource.
+     * @return URLConnection the connection to the resource.
+     * @throws IOException if the resource does not exist.
+     */
+    private static URLConnection open(String resource) throws IOException {
+        URL url = ResourceSync.class.getResource(resource);
+        if (url == null) {
+            throw new IOException("Missing resource " + resource);
+        }
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    /**
+     * Copies a bundled resource to a file through a temporary file.
+     * @param resource String the name of the resource.
+     * @param target File the file to copy it to.
+     * @throws IOException if the resource could not be copied.
+     */
+    private static void copy(String resource, File target) throws IOException {
+        File temporary = new File(target.getPath() + ".tmp");
+        try (InputStream stream = open(resource).getInputStream()) {
+            Files.copy(stream, temporary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Gets the size and modification time of a file.
+     * @param file File the file.
+     * @return String the size and modification time, or an empty string if the file does not exist.
+     */
+    private static String stamp(File file) {
+        return file.exists() ? file.length() + ":" + file.lastModified() : "";
+    }
+
+    /**
+     * Calculates the SHA-256 of a file.
+     * @param file File the file to read.
+     * @return String the hash as hexadecimal.
+     * @throws IOException if the file could not be read.
+     */
+    private static String hash(File file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file.toPath())) {
+            return hash(stream);
+        }
+    }
+
+    /**
+     * Calculates the SHA-256 of the rest of a stream.
+     * @param stream InputStream the stream to read.
+     * @return String the hash as hexadecimal.
+     * @throws IOException if the stream could not be read.
+     */
+    private static String hash(InputStream stream) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream digested = new DigestInputStream(stream, digest)) {
+            while (digested.read(buffer) != -1) {
+                // Reading updates the digest
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -3,6 +3,8 @@ package seng202.team4.model;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 
 /**
@@ -109,6 +111,34 @@ public class Route extends DataType {
                 + "');";
     }
 
+    /**
+     * Gets the parameterised route insert statement for the database.
+     * @return String the insert statement with a placeholder for each attribute.
+     */
+    @Override
+    public String getPreparedInsertStatement() {
+        return "Insert into " + getTypeName() + " (Airline, SourceAirport, DestinationAirport, Codeshare, Stops, Equipment, Distance, SetID) "
+                + "Values (?, ?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Binds the route attributes to the prepared insert statement.
+     * @param statement PreparedStatement the prepared insert statement.
+     * @param setID int the ID of the set the that will be inserted into.
+     * @throws SQLException if a parameter could not be bound.
+     */
+    @Override
+    public void setInsertParameters(PreparedStatement statement, int setID) throws SQLException {
+        statement.setString(1, getAirlineCode());
+        statement.setString(2, getSourceAirportCode());
+        statement.setString(3, getDestinationAirportCode());
+        statement.setString(4, String.valueOf(isCodeshare()));
+        statement.setInt(5, getNumStops());
+        statement.setString(6, getPlaneTypeCode());
+        statement.setDouble(7, getDistance());
+        statement.setInt(8, setID);
+    }
+
 
     @Override
     public String getUpdateStatement(int setID) {
@@ -207,20 +237,22 @@ public class Route extends DataType {
 
     /**
      * Converts a string record into individual strings and calls get valid.
-     * @param record String constituting the record.
+     * @param record CharSequence the line constituting the record.
      * @param errorMessage ArrayList where the error messages will be stored.
      * @return DataType the airline if valid, otherwise null.
      */
     @Override
-    public DataType getValid(String record, ArrayList<String> errorMessage) {
-        String[] recordList = record.replaceAll("\"", "").split(",");
-        if (recordList.length == ROUTE_RECORD_LENGTH) {
-            recordList = new String[] {recordList[0], recordList[2], recordList[4], recordList[6], recordList[7], recordList[8]};
-            return getValid(recordList, errorMessage);
+    public DataType getValid(CharSequence record, ArrayList<String> errorMessage) {
+        RecordTokenizer fields = RecordTokenizer.get();
+        int length = fields.tokenize(record);
+        if (length == ROUTE_RECORD_LENGTH) {
+            return getValid(fields.getField(0), fields.getField(2), fields.getField(4), fields.getField(6),
+                    fields.getField(7), fields.getField(8), errorMessage);
         }
-        else if (recordList.length == (ROUTE_RECORD_LENGTH - 1)) {
-            recordList = new String[]{recordList[0], recordList[2], recordList[4], recordList[6], recordList[7], ""};
-            return getValid(recordList, errorMessage);
+        else if (length == (ROUTE_RECORD_LENGTH - 1)) {
+            // The line has no equipment and no comma before it
+            return getValid(fields.getField(0), fields.getField(2), fields.getField(4), fields.getField(6),
+                    fields.getField(7), "", errorMessage);
         }
         else {
             errorMessage.add("Invalid number of attributes");
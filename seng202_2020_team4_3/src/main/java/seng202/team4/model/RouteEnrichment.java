@@ -0,0 +1,266 @@
+package seng202.team4.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Stores the distance and carbon emissions of every route in the Route table, so
+ * routes can be sorted, filtered and totalled by them without calculating each one.
+ * The routes are read into arrays, their distances and emissions are calculated in
+ * parallel from an {@link AirportIndex} and the {@link EmissionFactors} of their equipment,
+ * and only the routes whose stored values changed are updated. A route whose airports are not in the index has no distance
+ * or emissions, stored as null. Every route is refreshed after routes are uploaded, the
+ * database is migrated or the emission factors are replaced, which takes long enough that it
+ * is done off the JavaFX application thread. Refreshing every route also recalculates the
+ * emissions of the selected routes from their stored distances, so the emissions tab uses
+ * the same factors. After a single record changes only the routes
+ * it affects are refreshed: the route added or edited, or the routes flying from or to the
+ * codes of the airport added, edited or deleted.
+ */
+public abstract class RouteEnrichment {
+
+    /**
+     * Number of updates executed in each batch.
+     */
+    private static final int BATCH_SIZE = 2000;
+
+    /**
+     * Calculates the distance and emissions of every route in a database with the
+     * application's emission factors and stores those that changed, recalculates the
+     * emissions of the selected routes, then commits.
+     * @param connection Connection the connection to the database, without auto commit.
+     * @param airports AirportIndex the airports of the database.
+     * @return int the number of routes updated.
+     * @throws SQLException if the routes could not be read or updated.
+     */
+    public static int refresh(Connection connection, AirportIndex airports) throws SQLException {
+        return refresh(connection, airports, EmissionFactors.get());
+    }
+
+    /**
+     * Calculates the distance and emissions of every route in a database and
+     * stores those that changed, recalculates the emissions of the selected routes, then commits.
+     * @param connection Connection the connection to the database, without auto commit.
+     * @param airports AirportIndex the airports of the database.
+     * @param factors EmissionFactors the emissions per kilometre of each aircraft.
+     * @return int the number of routes updated.
+     * @throws SQLException if the routes could not be read or updated.
+     */
+    static int refresh(Connection connection, AirportIndex airports, EmissionFactors factors) throws SQLException {
+        return refresh(connection, airports, factors, "");
+    }
+
+    /**
+     * Calculates the distance and emissions of a route with the application's
+     * emission factors and stores them if they changed, then commits.
+     * @param connection Connection the connection to the database, without auto commit.
+     * @param airports AirportIndex the airports of the database.
+     * @param id int the ID of the route.
+     * @return int the number of routes updated, 0 or 1.
+     * @throws SQLException if the route could not be read or updated.
+     */
+    public static int refreshRoute(Connection connection, AirportIndex airports, int id) throws SQLException {
+        return refresh(connection, airports, EmissionFactors.get(), " WHERE ID = ?", id);
+    }
+
+    /**
+     * Calculates the distance and emissions of the routes flying from or to any of
+     * a set of airport codes with the application's emission factors and stores those
+     * that changed, then commits.
+     * @param connection Connection the connection to the database, without auto commit.
+     * @param airports AirportIndex the airports of the database.
+     * @param codes Collection the IATA and ICAO codes of the airports.
+     * @return int the number of routes updated.
+     * @throws SQLException if the routes could not be read or updated.
+     */
+    public static int refreshAirports(Connection connection, AirportIndex airports, Collection<String> codes) throws SQLException {
+        if (codes.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(codes.size(), "?"));
+        List<Object> parameters = new ArrayList<>(codes);
+        parameters.addAll(codes);
+        return refresh(connection, airports, EmissionFactors.get(),
+                " WHERE SourceAirport IN (" + placeholders + ") OR DestinationAirport IN (" + placeholders + ")",
+                parameters.toArray());
+    }
+
+    /**
+     * Calculates the distance and emissions of the routes matching a condition and
+     * stores those that changed, then commits. If every route is refreshed the
+     * emissions of the selected routes are recalculated too.
+     * @param connection Connection the connection to the database, without auto commit.
+     * @param airports AirportIndex the airports of the database.
+     * @param factors EmissionFactors the emissions per kilometre of each aircraft.
+     * @param condition String the WHERE clause selecting the routes, empty for every route.
+     * @param parameters Object[] the values of the parameters of the condition.
+     * @return int the number of routes updated.
+     * @throws SQLException if the routes could not be read or updated.
+     */
+    private static int refresh(Connection connection, AirportIndex airports, EmissionFactors factors,
+                               String condition, Object... parameters) throws SQLException {
+        int count;
+        try (PreparedStatement countQuery = prepare(connection, "SELECT count(*) FROM Route" + condition, parameters);
+             ResultSet rs = countQuery.executeQuery()) {
+            count = rs.getInt(1);
+        }
+        int[] ids = new int[count];
+        String[] sources = new String[count];
+        String[] destinations = new String[count];
+        String[] equipment = new String[count];
+        double[] storedDistances = new double[count];
+        double[] storedEmissions = new double[count];
+        try (PreparedStatement query = prepare(connection,
+                "SELECT ID, SourceAirport, DestinationAirport, Equipment, Distance, CarbonEmissions FROM Route" + condition,
+                parameters);
+             ResultSet rs = query.executeQuery()) {
+            int i = 0;
+            while (rs.next() && i < count) {
+                ids[i] = rs.getInt(1);
+                sources[i] = rs.getString(2);
+                destinations[i] = rs.getString(3);
+                equipment[i] = rs.getString(4);
+                storedDistances[i] = getNullableDouble(rs, 5);
+                storedEmissions[i] = getNullableDouble(rs, 6);
+                i++;
+            }
+            count = i;
+        }
+
+        double[] distances = new double[count];
+        double[] emissions = new double[count];
+        calculate(airports, factors, sources, destinations, equipment, distances, emissions, count);
+
+        int updated = 0;
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE Route SET Distance = ?, CarbonEmissions = ? WHERE ID = ?")) {
+            for (int i = 0; i < count; i++) {
+                if (Double.compare(distances[i], storedDistances[i]) == 0
+                        && Double.compare(emissions[i], storedEmissions[i]) == 0) {
+                    continue;
+                }
+                setNullableDouble(update, 1, distances[i]);
+                setNullableDouble(update, 2, emissions[i]);
+                update.setInt(3, ids[i]);
+                update.addBatch();
+                updated++;
+                if (updated % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+        if (condition.isEmpty()) {
+            refreshSelected(connection, factors);
+        }
+        connection.commit();
+        return updated;
+    }
+
+    /**
+     * Calculates the emissions of every selected route from its stored distance
+     * and equipment, and stores those that changed. Does not commit.
+     * @param connection Connection the connection to the database, without auto commit.
+     * @param factors EmissionFactors the emissions per kilometre of each aircraft.
+     * @return int the number of selected routes updated.
+     * @throws SQLException if the selected routes could not be read or updated.
+     */
+    static int refreshSelected(Connection connection, EmissionFactors factors) throws SQLException {
+        int updated = 0;
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT ID, Distance, Equipment, CarbonEmissions FROM RoutesSelected");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE RoutesSelected SET CarbonEmissions = ? WHERE ID = ?");
+             ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                double emissions = factors.emissions(getNullableDouble(rs, 2), rs.getString(3));
+                if (Double.compare(emissions, getNullableDouble(rs, 4)) == 0) {
+                    continue;
+                }
+                setNullableDouble(update, 1, emissions);
+                update.setInt(2, rs.getInt(1));
+                update.addBatch();
+                updated++;
+            }
+            update.executeBatch();
+        }
+        return updated;
+    }
+
+    /**
+     * Calculates the distance and emissions of routes in parallel.
+     * @param airports AirportIndex the airports the routes fly between.
+     * @param factors EmissionFactors the emissions per kilometre of each aircraft.
+     * @param sources String[] the code of the source airport of each route.
+     * @param destinations String[] the code of the destination airport of each route.
+     * @param equipment String[] the equipment of each route.
+     * @param distances double[] the distance of each route in kilometres, NaN if an airport is missing.
+     * @param emissions double[] the emissions of each route, NaN if an airport is missing.
+     * @param count int the number of routes.
+     */
+    static void calculate(AirportIndex airports, EmissionFactors factors, String[] sources, String[] destinations,
+                          String[] equipment, double[] distances, double[] emissions, int count) {
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int source = airports.slot(sources[i]);
+            int destination = airports.slot(destinations[i]);
+            if (source < 0 || destination < 0) {
+                distances[i] = Double.NaN;
+                emissions[i] = Double.NaN;
+            } else {
+                distances[i] = airports.distance(source, destination);
+                emissions[i] = factors.emissions(distances[i], equipment[i]);
+            }
+        });
+    }
+
+    /**
+     * Prepares a query and sets its parameters.
+     * @param connection Connection the connection to the database.
+     * @param sql String the query.
+     * @param parameters Object[] the value of each parameter of the query.
+     * @return PreparedStatement the prepared query.
+     * @throws SQLException if the query could not be prepared.
+     */
+    private static PreparedStatement prepare(Connection connection, String sql, Object[] parameters) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    /**
+     * Gets a column that may be null as a double.
+     * @param rs ResultSet the result set at the row to read.
+     * @param column int the index of the column.
+     * @return double the value, or NaN if it is null.
+     * @throws SQLException if the column could not be read.
+     */
+    private static double getNullableDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+
+    /**
+     * Sets a parameter to a double, or to null if it is NaN.
+     * @param statement PreparedStatement the statement.
+     * @param index int the index of the parameter.
+     * @param value double the value.
+     * @throws SQLException if the parameter could not be set.
+     */
+    private static void setNullableDouble(PreparedStatement statement, int index, double value) throws SQLException {
+        if (Double.isNaN(value)) {
+            statement.setNull(index, Types.DOUBLE);
+        } else {
+            statement.setDouble(index, value);
+        }
+    }
+}
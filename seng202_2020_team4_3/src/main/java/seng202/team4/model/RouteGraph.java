@@ -0,0 +1,833 @@
+package seng202.team4.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In memory graph of the routes in a route set, used to find the itineraries between
+ * two airports with the lowest carbon emissions. Airports are the slots of an
+ * {@link AirportIndex}, and the routes leaving each airport are stored in compressed
+ * sparse row form: the flights from an airport are a range of arrays of destination
+ * slots, numbers of routes, emission factors and emissions, sorted by destination. Routes
+ * between the same airports share one flight, which is weighted by the distance between
+ * the airports times the lowest {@link EmissionFactors} factor of the equipment of its
+ * routes, as a passenger can choose the route with the cleanest aircraft.
+ * Routes whose airports are not in the index are left out.
+ * Itineraries are found with A*, estimating the emissions still to fly from the great
+ * circle distance to the destination at the lowest factor in the table, and further
+ * itineraries with Yen's k shortest paths algorithm. Routes added or deleted after the
+ * graph is built change the number of routes of a flight, or are kept in a list of added
+ * flights per airport, which is merged into the arrays once it grows large. The graph of
+ * each set is built when it is first used and kept up to date by {@link DataLoader}; it is
+ * rebuilt after the airports or the emission factors change, and after a route that may
+ * have had the lowest factor of a flight still flown by other routes is deleted.
+ */
+public final class RouteGraph {
+
+    /**
+     * Graph of each route set that has been used, by the ID of the set.
+     */
+    private static final Map<Integer, RouteGraph> graphs = new HashMap<>();
+
+    /**
+     * Marks that an airport has no previous airport on a path.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Airports of the graph.
+     */
+    private final AirportIndex airports;
+    /**
+     * ID of the route set of the graph.
+     */
+    private final int setID;
+    /**
+     * Emission factors the flights are weighted by.
+     */
+    private final EmissionFactors emissionFactors;
+
+    /**
+     * Start of the flights from each airport in the flight arrays, with an extra
+     * element holding the number of flights.
+     */
+    private int[] offsets;
+    /**
+     * Destination airport of each flight.
+     */
+    private int[] targets;
+    /**
+     * Number of routes flying each flight, the flight is not used when it is zero.
+     */
+    private int[] counts;
+    /**
+     * Lowest emission factor of the routes flying each flight.
+     */
+    private double[] factors;
+    /**
+     * Emissions of a passenger on each flight.
+     */
+    private double[] weights;
+
+    /**
+     * Destinations of the flights added to each airport since the arrays were built, null if there are none.
+     */
+    private final int[][] addedTargets;
+    /**
+     * Number of routes flying each added flight.
+     */
+    private final int[][] addedCounts;
+    /**
+     * Lowest emission factor of the routes flying each added flight.
+     */
+    private final double[][] addedFactors;
+    /**
+     * Number of flights added to each airport.
+     */
+    private final int[] addedSizes;
+    /**
+     * Number of flights added to all airports.
+     */
+    private int addedFlights = 0;
+    /**
+     * Number of flights flown by at least one route.
+     */
+    private int flightCount = 0;
+    /**
+     * Number of times routes have been added to or removed from the graph since it was built.
+     */
+    private int version = 0;
+
+    /**
+     * Creates a graph of routes between airports.
+     * @param airports AirportIndex the airports of the graph.
+     * @param setID int the ID of the route set of the graph.
+     * @param emissionFactors EmissionFactors the emission factors the flights are weighted by.
+     * @param sources int[] the slot of the source airport of each route.
+     * @param destinations int[] the slot of the destination airport of each route.
+     * @param routeCounts int[] the number of routes between each pair of airports.
+     * @param routeFactors double[] the lowest emission factor of the routes between each pair of airports.
+     * @param count int the number of pairs of airports.
+     */
+    private RouteGraph(AirportIndex airports, int setID, EmissionFactors emissionFactors, int[] sources,
+                       int[] destinations, int[] routeCounts, double[] routeFactors, int count) {
+        this.airports = airports;
+        this.setID = setID;
+        this.emissionFactors = emissionFactors;
+        int size = airports.size();
+        addedTargets = new int[size][];
+        addedCounts = new int[size][];
+        addedFactors = new double[size][];
+        addedSizes = new int[size];
+        build(sources, destinations, routeCounts, routeFactors, count);
+    }
+
+    /**
+     * Gets the graph of the routes in a set, building it if it has not been used
+     * since it was last built or the airports or emission factors changed.
+     * @param setName String the name of the route set.
+     * @return RouteGraph the graph of the set.
+     * @throws SQLException if the set does not exist or the routes could not be read.
+     */
+    public static synchronized RouteGraph get(String setName) throws SQLException {
+        AirportIndex airports = AirportIndex.get();
+        EmissionFactors emissionFactors = EmissionFactors.get();
+        try (Connection connection = DatabaseManager.connectReadOnly();
+             PreparedStatement stmt = connection.prepareStatement("SELECT ID FROM RouteSet WHERE Name = ?")) {
+            stmt.setString(1, setName);
+            int setID;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Route set " + setName + " does not exist");
+                }
+                setID = rs.getInt(1);
+            }
+            RouteGraph graph = graphs.get(setID);
+            if (graph == null || graph.airports != airports || graph.emissionFactors != emissionFactors) {
+                graph = load(connection, setID, airports, emissionFactors);
+                graphs.put(setID, graph);
+            }
+            return graph;
+        }
+    }
+
+    /**
+     * Adds a route to the graph of its set, if the graph has been built.
+     * Called after a route is added or edited.
+     * @param setID int the ID of the set of the route.
+     * @param source String the code of the source airport.
+     * @param destination String the code of the destination airport.
+     * @param equipment String the equipment codes of the route separated by spaces, may be null.
+     */
+    static synchronized void routeAdded(int setID, String source, String destination, String equipment) {
+        RouteGraph graph = graphs.get(setID);
+        if (graph != null) {
+            graph.addRoute(source, destination, equipment);
+        }
+    }
+
+    /**
+     * Removes a route from the graph of its set, if the graph has been built. The graph is
+     * discarded, to be built again when next used, if the route may have had the lowest
+     * emission factor of the routes still flying its flight. Called after a route is deleted or edited.
+     * @param setID int the ID of the set of the route.
+     * @param source String the code of the source airport.
+     * @param destination String the code of the destination airport.
+     * @param equipment String the equipment codes of the route separated by spaces, may be null.
+     */
+    static synchronized void routeRemoved(int setID, String source, String destination, String equipment) {
+        RouteGraph graph = graphs.get(setID);
+        if (graph != null && !graph.removeRoute(source, destination, equipment)) {
+            graphs.remove(setID);
+        }
+    }
+
+    /**
+     * Discards every graph, so each is built again when next used.
+     */
+    public static synchronized void invalidate() {
+        graphs.clear();
+    }
+
+    /**
+     * Reads the routes of a set and builds their graph, weighted by the application's emission factors.
+     * @param connection Connection the connection to the database.
+     * @param setID int the ID of the route set.
+     * @param airports AirportIndex the airports of the database.
+     * @return RouteGraph the graph of the routes.
+     * @throws SQLException if the routes could not be read.
+     */
+    static RouteGraph load(Connection connection, int setID, AirportIndex airports) throws SQLException {
+        return load(connection, setID, airports, EmissionFactors.get());
+    }
+
+    /**
+     * Reads the routes of a set and builds their graph.
+     * @param connection Connection the connection to the database.
+     * @param setID int the ID of the route set.
+     * @param airports AirportIndex the airports of the database.
+     * @param emissionFactors EmissionFactors the emission factors the flights are weighted by.
+     * @return RouteGraph the graph of the routes.
+     * @throws SQLException if the routes could not be read.
+     */
+    static RouteGraph load(Connection connection, int setID, AirportIndex airports,
+                           EmissionFactors emissionFactors) throws SQLException {
+        int[] sources = new int[1024];
+        int[] destinations = new int[1024];
+        double[] routeFactors = new double[1024];
+        int count = 0;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT SourceAirport, DestinationAirport, Equipment FROM Route WHERE SetID = ?")) {
+            stmt.setInt(1, setID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int source = airports.slot(rs.getString(1));
+                    int destination = airports.slot(rs.getString(2));
+                    if (source < 0 || destination < 0 || source == destination) {
+                        continue;
+                    }
+                    if (count == sources.length) {
+                        sources = Arrays.copyOf(sources, count * 2);
+                        destinations = Arrays.copyOf(destinations, count * 2);
+                        routeFactors = Arrays.copyOf(routeFactors, count * 2);
+                    }
+                    sources[count] = source;
+                    destinations[count] = destination;
+                    routeFactors[count] = emissionFactors.factor(rs.getString(3));
+                    count++;
+                }
+            }
+        }
+        int[] routeCounts = new int[count];
+        Arrays.fill(routeCounts, 1);
+        return new RouteGraph(airports, setID, emissionFactors, sources, destinations, routeCounts, routeFactors, count);
+    }
+
+    /**
+     * Gets the airports of the graph.
+     * @return AirportIndex the airports.
+     */
+    public AirportIndex getAirports() {
+        return airports;
+    }
+
+    /**
+     * Gets the ID of the route set of the graph.
+     * @return int the ID of the set.
+     */
+    public int getSetID() {
+        return setID;
+    }
+
+    /**
+     * Gets the number of times routes have been added to or removed from the graph since it was built.
+     * @return int the version of the graph.
+     */
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    /**
+     * Copies the flights with at least one route, after merging any added flights into the flight arrays.
+     * @return int[][] the start of the flights from each airport with an extra element holding the
+     * number of flights, followed by the destination of each flight.
+     */
+    synchronized int[][] copyFlights() {
+        if (addedFlights > 0 || flightCount < targets.length) {
+            compact();
+        }
+        return new int[][] {offsets.clone(), targets.clone()};
+    }
+
+    /**
+     * Gets the number of pairs of airports with at least one route between them.
+     * @return int the number of flights.
+     */
+    public synchronized int getFlightCount() {
+        return flightCount;
+    }
+
+    /**
+     * Finds the itinerary between two airports with the lowest carbon emissions.
+     * @param source String the code of the departure airport.
+     * @param destination String the code of the destination airport.
+     * @return Itinerary the itinerary, or null if the airports are not connected.
+     */
+    public Itinerary findLowestEmissions(String source, String destination) {
+        List<Itinerary> itineraries = findLowestEmissions(source, destination, 1);
+        return itineraries.isEmpty() ? null : itineraries.get(0);
+    }
+
+    /**
+     * Finds the itineraries between two airports with the lowest carbon emissions,
+     * none of which visits an airport twice.
+     * @param source String the code of the departure airport.
+     * @param destination String the code of the destination airport.
+     * @param limit int the maximum number of itineraries.
+     * @return List the itineraries in order of increasing emissions, empty if the airports are not connected.
+     */
+    public synchronized List<Itinerary> findLowestEmissions(String source, String destination, int limit) {
+        List<Itinerary> itineraries = new ArrayList<>();
+        int from = airports.slot(source);
+        int to = airports.slot(destination);
+        if (from < 0 || to < 0 || from == to || limit < 1) {
+            return itineraries;
+        }
+        boolean[] blockedAirports = new boolean[airports.size()];
+        Set<Long> blockedFlights = new HashSet<>();
+        Path shortest = search(from, to, blockedAirports, blockedFlights);
+        if (shortest == null) {
+            return itineraries;
+        }
+
+        List<Path> found = new ArrayList<>();
+        PriorityQueue<Path> candidates = new PriorityQueue<>();
+        Set<Path> seen = new HashSet<>();
+        found.add(shortest);
+        seen.add(shortest);
+        while (found.size() < limit) {
+            int[] last = found.get(found.size() - 1).airports;
+            // Deviates from the last path at each of its airports in turn
+            for (int i = 0; i < last.length - 1; i++) {
+                for (Path path : found) {
+                    if (path.sharesRoot(last, i)) {
+                        blockedFlights.add(flightKey(path.airports[i], path.airports[i + 1]));
+                    }
+                }
+                for (int j = 0; j < i; j++) {
+                    blockedAirports[last[j]] = true;
+                }
+                Path spur = search(last[i], to, blockedAirports, blockedFlights);
+                if (spur != null) {
+                    int[] joined = new int[i + spur.airports.length];
+                    System.arraycopy(last, 0, joined, 0, i);
+                    System.arraycopy(spur.airports, 0, joined, i, spur.airports.length);
+                    Path candidate = new Path(joined, emissions(joined));
+                    if (seen.add(candidate)) {
+                        candidates.add(candidate);
+                    }
+                }
+                blockedFlights.clear();
+                for (int j = 0; j < i; j++) {
+                    blockedAirports[last[j]] = false;
+                }
+            }
+            Path next = candidates.poll();
+            if (next == null) {
+                break;
+            }
+            found.add(next);
+        }
+
+        for (Path path : found) {
+            List<String> codes = new ArrayList<>(path.airports.length);
+            double distance = 0;
+            for (int i = 0; i < path.airports.length; i++) {
+                codes.add(airports.getCode(path.airports[i]));
+                if (i > 0) {
+                    distance += airports.distance(path.airports[i - 1], path.airports[i]);
+                }
+            }
+            itineraries.add(new Itinerary(codes, distance, path.emissions));
+        }
+        return itineraries;
+    }
+
+    /**
+     * Adds a route between two airports to the graph, lowering the emission factor
+     * of its flight if the route's equipment has a lower factor.
+     * @param source String the code of the source airport.
+     * @param destination String the code of the destination airport.
+     * @param equipment String the equipment codes of the route separated by spaces, may be null.
+     */
+    synchronized void addRoute(String source, String destination, String equipment) {
+        int from = airports.slot(source);
+        int to = airports.slot(destination);
+        if (from < 0 || to < 0 || from == to) {
+            return;
+        }
+        version++;
+        double factor = emissionFactors.factor(equipment);
+        int flight = findFlight(from, to);
+        if (flight >= 0) {
+            if (counts[flight]++ == 0) {
+                flightCount++;
+                factors[flight] = factor;
+            } else {
+                factors[flight] = Math.min(factors[flight], factor);
+            }
+            weights[flight] = weight(from, to, factors[flight]);
+            return;
+        }
+        int added = findAddedFlight(from, to);
+        if (added < 0) {
+            if (addedTargets[from] == null) {
+                addedTargets[from] = new int[2];
+                addedCounts[from] = new int[2];
+                addedFactors[from] = new double[2];
+            } else if (addedSizes[from] == addedTargets[from].length) {
+                addedTargets[from] = Arrays.copyOf(addedTargets[from], addedSizes[from] * 2);
+                addedCounts[from] = Arrays.copyOf(addedCounts[from], addedSizes[from] * 2);
+                addedFactors[from] = Arrays.copyOf(addedFactors[from], addedSizes[from] * 2);
+            }
+            added = addedSizes[from]++;
+            addedTargets[from][added] = to;
+            addedCounts[from][added] = 0;
+            addedFlights++;
+        }
+        if (addedCounts[from][added]++ == 0) {
+            flightCount++;
+            addedFactors[from][added] = factor;
+        } else {
+            addedFactors[from][added] = Math.min(addedFactors[from][added], factor);
+        }
+        if (addedFlights > targets.length / 8 + 64) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes a route between two airports from the graph. The emission factor of its
+     * flight is kept, so if the route may have had the lowest factor of the routes still
+     * flying the flight, the flight's emissions may be too low until the graph is rebuilt.
+     * @param source String the code of the source airport.
+     * @param destination String the code of the destination airport.
+     * @param equipment String the equipment codes of the route separated by spaces, may be null.
+     * @return boolean false if the emissions of the route's flight may be too low.
+     */
+    synchronized boolean removeRoute(String source, String destination, String equipment) {
+        int from = airports.slot(source);
+        int to = airports.slot(destination);
+        if (from < 0 || to < 0 || from == to) {
+            return true;
+        }
+        version++;
+        double factor = emissionFactors.factor(equipment);
+        int flight = findFlight(from, to);
+        if (flight >= 0 && counts[flight] > 0) {
+            if (--counts[flight] == 0) {
+                flightCount--;
+            }
+            return counts[flight] == 0 || factor > factors[flight];
+        }
+        int added = findAddedFlight(from, to);
+        if (added >= 0 && addedCounts[from][added] > 0) {
+            if (--addedCounts[from][added] == 0) {
+                flightCount--;
+            }
+            return addedCounts[from][added] == 0 || factor > addedFactors[from][added];
+        }
+        return true;
+    }
+
+    /**
+     * Merges the added flights into the flight arrays, dropping flights without routes.
+     */
+    synchronized void compact() {
+        int size = flightCount;
+        int[] sources = new int[size];
+        int[] destinations = new int[size];
+        int[] routeCounts = new int[size];
+        double[] routeFactors = new double[size];
+        int count = 0;
+        for (int from = 0; from < addedSizes.length; from++) {
+            for (int flight = offsets[from]; flight < offsets[from + 1]; flight++) {
+                if (counts[flight] > 0) {
+                    sources[count] = from;
+                    destinations[count] = targets[flight];
+                    routeFactors[count] = factors[flight];
+                    routeCounts[count++] = counts[flight];
+                }
+            }
+            for (int added = 0; added < addedSizes[from]; added++) {
+                if (addedCounts[from][added] > 0) {
+                    sources[count] = from;
+                    destinations[count] = addedTargets[from][added];
+                    routeFactors[count] = addedFactors[from][added];
+                    routeCounts[count++] = addedCounts[from][added];
+                }
+            }
+            addedTargets[from] = null;
+            addedCounts[from] = null;
+            addedFactors[from] = null;
+            addedSizes[from] = 0;
+        }
+        addedFlights = 0;
+        build(sources, destinations, routeCounts, routeFactors, count);
+    }
+
+    /**
+     * Builds the flight arrays from pairs of airports, merging pairs with the same airports.
+     * @param sources int[] the slot of the source airport of each pair.
+     * @param destinations int[] the slot of the destination airport of each pair.
+     * @param routeCounts int[] the number of routes between each pair.
+     * @param routeFactors double[] the lowest emission factor of the routes between each pair.
+     * @param count int the number of pairs.
+     */
+    private void build(int[] sources, int[] destinations, int[] routeCounts, double[] routeFactors, int count) {
+        int size = airports.size();
+        int[] starts = new int[size + 1];
+        for (int i = 0; i < count; i++) {
+            starts[sources[i] + 1]++;
+        }
+        for (int from = 0; from < size; from++) {
+            starts[from + 1] += starts[from];
+        }
+        // Sorts the pairs by source, then each source's pairs by destination, packing the pair's index with the destination
+        long[] sorted = new long[count];
+        int[] next = Arrays.copyOf(starts, size);
+        for (int i = 0; i < count; i++) {
+            sorted[next[sources[i]]++] = ((long) destinations[i] << 32) | i;
+        }
+
+        offsets = new int[size + 1];
+        targets = new int[count];
+        counts = new int[count];
+        factors = new double[count];
+        weights = new double[count];
+        int flight = 0;
+        for (int from = 0; from < size; from++) {
+            offsets[from] = flight;
+            Arrays.sort(sorted, starts[from], starts[from + 1]);
+            for (int i = starts[from]; i < starts[from + 1]; i++) {
+                int to = (int) (sorted[i] >>> 32);
+                int pair = (int) sorted[i];
+                if (flight > offsets[from] && targets[flight - 1] == to) {
+                    counts[flight - 1] += routeCounts[pair];
+                    factors[flight - 1] = Math.min(factors[flight - 1], routeFactors[pair]);
+                } else {
+                    targets[flight] = to;
+                    counts[flight] = routeCounts[pair];
+                    factors[flight] = routeFactors[pair];
+                    flight++;
+                }
+            }
+            for (int built = offsets[from]; built < flight; built++) {
+                weights[built] = weight(from, targets[built], factors[built]);
+            }
+        }
+        offsets[size] = flight;
+        targets = Arrays.copyOf(targets, flight);
+        counts = Arrays.copyOf(counts, flight);
+        factors = Arrays.copyOf(factors, flight);
+        weights = Arrays.copyOf(weights, flight);
+        flightCount = flight;
+    }
+
+    /**
+     * Finds the path between two airports with the lowest emissions with A*, avoiding blocked airports and flights.
+     * @param source int the slot of the departure airport.
+     * @param destination int the slot of the destination airport.
+     * @param blockedAirports boolean[] whether each airport may not be flown through.
+     * @param blockedFlights Set the keys of the flights that may not be flown.
+     * @return Path the path, or null if there is none.
+     */
+    private Path search(int source, int destination, boolean[] blockedAirports, Set<Long> blockedFlights) {
+        int size = airports.size();
+        double[] costs = new double[size];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        int[] previous = new int[size];
+        boolean[] visited = new boolean[size];
+        Frontier frontier = new Frontier();
+        costs[source] = 0;
+        previous[source] = NONE;
+        frontier.push(estimate(source, destination), source);
+
+        while (!frontier.isEmpty()) {
+            int from = frontier.pop();
+            if (from == destination) {
+                break;
+            }
+            if (visited[from]) {
+                continue;
+            }
+            visited[from] = true;
+            for (int flight = offsets[from]; flight < offsets[from + 1]; flight++) {
+                if (counts[flight] > 0) {
+                    relax(from, targets[flight], weights[flight], destination, costs, previous,
+                            visited, blockedAirports, blockedFlights, frontier);
+                }
+            }
+            for (int added = 0; added < addedSizes[from]; added++) {
+                if (addedCounts[from][added] > 0) {
+                    int to = addedTargets[from][added];
+                    relax(from, to, weight(from, to, addedFactors[from][added]), destination, costs, previous,
+                            visited, blockedAirports, blockedFlights, frontier);
+                }
+            }
+        }
+        if (costs[destination] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+
+        int length = 0;
+        for (int at = destination; at != NONE; at = previous[at]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int at = destination; at != NONE; at = previous[at]) {
+            path[--length] = at;
+        }
+        return new Path(path, costs[destination]);
+    }
+
+    /**
+     * Updates the cost of reaching an airport through a flight, if the flight is allowed and cheaper.
+     * @param from int the slot of the airport the flight leaves.
+     * @param to int the slot of the airport the flight arrives at.
+     * @param weight double the emissions of the flight.
+     * @param destination int the slot of the destination airport of the search.
+     * @param costs double[] the lowest emissions found to each airport.
+     * @param previous int[] the airport before each airport on its cheapest path.
+     * @param visited boolean[] whether each airport's cheapest path is known.
+     * @param blockedAirports boolean[] whether each airport may not be flown through.
+     * @param blockedFlights Set the keys of the flights that may not be flown.
+     * @param frontier Frontier the airports still to visit.
+     */
+    private void relax(int from, int to, double weight, int destination, double[] costs, int[] previous,
+                       boolean[] visited, boolean[] blockedAirports, Set<Long> blockedFlights, Frontier frontier) {
+        if (visited[to] || blockedAirports[to]
+                || (!blockedFlights.isEmpty() && blockedFlights.contains(flightKey(from, to)))) {
+            return;
+        }
+        double cost = costs[from] + weight;
+        if (cost < costs[to]) {
+            costs[to] = cost;
+            previous[to] = from;
+            frontier.push(cost + estimate(to, destination), to);
+        }
+    }
+
+    /**
+     * Finds a flight in the flight arrays.
+     * @param from int the slot of the airport the flight leaves.
+     * @param to int the slot of the airport the flight arrives at.
+     * @return int the index of the flight, or a negative number if it is not in the arrays.
+     */
+    private int findFlight(int from, int to) {
+        int index = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Finds a flight in the flights added to an airport.
+     * @param from int the slot of the airport the flight leaves.
+     * @param to int the slot of the airport the flight arrives at.
+     * @return int the index of the flight among the added flights, or -1 if it was not added.
+     */
+    private int findAddedFlight(int from, int to) {
+        for (int added = 0; added < addedSizes[from]; added++) {
+            if (addedTargets[from][added] == to) {
+                return added;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates the emissions of a flight between two airports.
+     * @param from int the slot of the airport the flight leaves.
+     * @param to int the slot of the airport the flight arrives at.
+     * @param factor double the emission factor of the flight.
+     * @return double the emissions of a passenger.
+     */
+    private double weight(int from, int to, double factor) {
+        return airports.distance(from, to) * factor;
+    }
+
+    /**
+     * Gets the emissions of a flight flown by at least one route.
+     * @param from int the slot of the airport the flight leaves.
+     * @param to int the slot of the airport the flight arrives at.
+     * @return double the emissions of a passenger.
+     */
+    private double flightWeight(int from, int to) {
+        int flight = findFlight(from, to);
+        if (flight >= 0 && counts[flight] > 0) {
+            return weights[flight];
+        }
+        int added = findAddedFlight(from, to);
+        return weight(from, to, addedFactors[from][added]);
+    }
+
+    /**
+     * Estimates the emissions still to fly from an airport to the destination from the
+     * great circle distance between them at the lowest factor in the table, which is
+     * never more than any path between them.
+     * @param from int the slot of the airport.
+     * @param destination int the slot of the destination airport.
+     * @return double the lowest possible emissions.
+     */
+    private double estimate(int from, int destination) {
+        return weight(from, destination, emissionFactors.minFactor());
+    }
+
+    /**
+     * Calculates the emissions of a path.
+     * @param path int[] the slots of the airports on the path.
+     * @return double the emissions of a passenger.
+     */
+    private double emissions(int[] path) {
+        double emissions = 0;
+        for (int i = 1; i < path.length; i++) {
+            emissions += flightWeight(path[i - 1], path[i]);
+        }
+        return emissions;
+    }
+
+    /**
+     * Packs the airports of a flight into a key.
+     * @param from int the slot of the airport the flight leaves.
+     * @param to int the slot of the airport the flight arrives at.
+     * @return long the key of the flight.
+     */
+    private static long flightKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A path through airports and its emissions, ordered by emissions then number of airports.
+     */
+    private static final class Path implements Comparable<Path> {
+        private final int[] airports;
+        private final double emissions;
+
+        private Path(int[] airports, double emissions) {
+            this.airports = airports;
+            this.emissions = emissions;
+        }
+
+        /**
+         * Checks whether this path starts with the same airports as another up to an airport.
+         * @param other int[] the airports of the other path.
+         * @param last int the index of the last airport compared.
+         * @return boolean true if both paths pass through the same airports up to the index and this path continues.
+         */
+        private boolean sharesRoot(int[] other, int last) {
+            return airports.length > last + 1
+                    && Arrays.equals(airports, 0, last + 1, other, 0, last + 1);
+        }
+
+        @Override
+        public int compareTo(Path other) {
+            int compare = Double.compare(emissions, other.emissions);
+            return compare != 0 ? compare : Integer.compare(airports.length, other.airports.length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Path && Arrays.equals(airports, ((Path) o).airports);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(airports);
+        }
+    }
+
+    /**
+     * Binary heap of airports ordered by their estimated emissions. An airport
+     * is pushed again when a cheaper path to it is found, and its older entries
+     * are skipped when they are popped.
+     */
+    private static final class Frontier {
+        private double[] keys = new double[64];
+        private int[] slots = new int[64];
+        private int size = 0;
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void push(double key, int slot) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                slots[i] = slots[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            slots[i] = slot;
+        }
+
+        private int pop() {
+            int top = slots[0];
+            double key = keys[--size];
+            int slot = slots[size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                slots[i] = slots[child];
+                i = child;
+            }
+            keys[i] = key;
+            slots[i] = slot;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package seng202.team4.model;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.apache.commons.math3.util.Precision;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The routes the user has selected on the route tab, kept in step with the
+ * RoutesSelected table so the emissions tab does not have to query it again.
+ * Routes with the same airline, airports and equipment are shown once, as the
+ * table stores a row each time one of them is selected. The total emissions,
+ * dollar offset and trees of the shown routes are kept as running totals,
+ * updated as each route is added or removed rather than summed again.
+ * The position of each shown route is tracked, and a removed route is replaced
+ * by the last one shown, so removing a route does not search or shift the list;
+ * the order of the shown routes is not kept, as the emissions tab sorts them.
+ * The selection is changed by {@link DataLoader} after it changes the table,
+ * on the JavaFX application thread, while whether a route is selected can be
+ * checked from any thread.
+ */
+public final class RouteSelection {
+
+    /**
+     * The selection of the application.
+     */
+    private static final RouteSelection selection = new RouteSelection();
+
+    /**
+     * Routes shown, one for each distinct selected route.
+     */
+    private final ObservableList<Route> routes = FXCollections.observableArrayList();
+    /**
+     * View of the routes shown that can not be modified.
+     */
+    private final ObservableList<Route> unmodifiableRoutes = FXCollections.unmodifiableObservableList(routes);
+    /**
+     * Shown route of each key.
+     */
+    private final Map<String, Route> shown = new HashMap<>();
+    /**
+     * Position in the routes shown of the route of each key.
+     */
+    private final Map<String, Integer> positions = new HashMap<>();
+    /**
+     * Number of rows of the RoutesSelected table with each key.
+     */
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Total emissions of the shown routes.
+     */
+    private final ReadOnlyDoubleWrapper totalEmissions = new ReadOnlyDoubleWrapper(0);
+    /**
+     * Total dollars required to offset the emissions of the shown routes.
+     */
+    private final ReadOnlyDoubleWrapper totalDonation = new ReadOnlyDoubleWrapper(0);
+    /**
+     * Total trees equivalent to the dollar offset of the shown routes.
+     */
+    private final ReadOnlyLongWrapper totalTrees = new ReadOnlyLongWrapper(0);
+
+    /**
+     * Creates an empty selection.
+     */
+    RouteSelection() {
+    }
+
+    /**
+     * Gets the selection of the application.
+     * @return RouteSelection the selection.
+     */
+    public static RouteSelection get() {
+        return selection;
+    }
+
+    /**
+     * Empties the selection before the rows of the RoutesSelected table are loaded.
+     */
+    public void clear() {
+        shown.clear();
+        positions.clear();
+        counts.clear();
+        routes.clear();
+        totalEmissions.set(0);
+        totalDonation.set(0);
+        totalTrees.set(0);
+    }
+
+    /**
+     * Adds loaded rows of the RoutesSelected table to the selection.
+     * @param rows List the routes of the rows, each with the distance and
+     *             carbon emissions stored in the table.
+     */
+    public void addAll(List<Route> rows) {
+        List<Route> loaded = new ArrayList<>();
+        for (Route row : rows) {
+            Route route = addRow(row.getAirlineCode(), row.getSourceAirportCode(),
+                    row.getDestinationAirportCode(), row.getPlaneTypeCode(),
+                    row.getDistance(), row.getCarbonEmissions());
+            if (route != null) {
+                positions.put(key(route), routes.size() + loaded.size());
+                loaded.add(route);
+            }
+        }
+        routes.addAll(loaded);
+    }
+
+    /**
+     * Adds a route that was inserted into the RoutesSelected table.
+     * @param route Route the route, with its distance calculated.
+     * @param emissions double the emissions of the route stored in the table.
+     */
+    void add(Route route, double emissions) {
+        Route added = addRow(route.getAirlineCode(), route.getSourceAirportCode(),
+                route.getDestinationAirportCode(), route.getPlaneTypeCode(), route.getDistance(), emissions);
+        if (added != null) {
+            positions.put(key(added), routes.size());
+            routes.add(added);
+        }
+    }
+
+    /**
+     * Removes a route whose rows were deleted from the RoutesSelected table.
+     * @param route Route the route.
+     */
+    void remove(Route route) {
+        String key = key(route);
+        Route removed = shown.remove(key);
+        counts.remove(key);
+        if (removed == null) {
+            return;
+        }
+        int position = positions.remove(key);
+        int last = routes.size() - 1;
+        if (position < last) {
+            Route moved = routes.get(last);
+            positions.put(key(moved), position);
+            routes.set(position, moved);
+        }
+        routes.remove(last);
+        if (shown.isEmpty()) {
+            // Clears the rounding left over from subtracting
+            totalEmissions.set(0);
+            totalDonation.set(0);
+            totalTrees.set(0);
+        } else {
+            totalEmissions.set(totalEmissions.get() - removed.getCarbonEmissions());
+            totalDonation.set(totalDonation.get() - removed.getDollarOffset());
+            totalTrees.set(totalTrees.get() - removed.getTreeEquivalent());
+        }
+    }
+
+    /**
+     * Counts a row of the RoutesSelected table, creating the route shown for it
+     * and adding it to the totals if no row with the same key was counted.
+     * @param airline String the airline code.
+     * @param source String the source airport code.
+     * @param destination String the destination airport code.
+     * @param equipment String the equipment.
+     * @param distance double the distance of the route in kilometres.
+     * @param emissions double the emissions of the route.
+     * @return Route the route to show, or null if a row with the same key is already shown.
+     */
+    private Route addRow(String airline, String source, String destination, String equipment,
+                         double distance, double emissions) {
+        String key = key(airline, source, destination, equipment);
+        if (counts.merge(key, 1, Integer::sum) > 1) {
+            return null;
+        }
+        Route route = new Route();
+        route.setAirlineCode(airline);
+        route.setSourceAirportCode(source);
+        route.setDestinationAirportCode(destination);
+        route.setPlaneTypeCode(equipment);
+        route.setDistance(Precision.round(distance, 2));
+        route.setCarbonEmissions(Precision.round(emissions, 2));
+        route.setDollarOffset(Calculations.calculateDollarOffset(route));
+        route.setTreeEquivalent(Calculations.calculateTreesEquivalent(route));
+        shown.put(key, route);
+        totalEmissions.set(totalEmissions.get() + route.getCarbonEmissions());
+        totalDonation.set(totalDonation.get() + route.getDollarOffset());
+        totalTrees.set(totalTrees.get() + route.getTreeEquivalent());
+        return route;
+    }
+
+    /**
+     * Gets the routes shown, which change as routes are selected.
+     * @return ObservableList the routes, which can not be modified.
+     */
+    public ObservableList<Route> getRoutes() {
+        return unmodifiableRoutes;
+    }
+
+    /**
+     * Checks whether a route with the same airline, airports and equipment is selected.
+     * @param route Route the route.
+     * @return boolean true if the route is selected.
+     */
+    public boolean contains(Route route) {
+        return getCount(route) > 0;
+    }
+
+    /**
+     * Gets the number of rows of the RoutesSelected table with the same key as a route.
+     * @param route Route the route.
+     * @return int the number of rows.
+     */
+    int getCount(Route route) {
+        return counts.getOrDefault(key(route), 0);
+    }
+
+    public ReadOnlyDoubleProperty totalEmissionsProperty() {
+        return totalEmissions.getReadOnlyProperty();
+    }
+
+    public double getTotalEmissions() {
+        return totalEmissions.get();
+    }
+
+    public ReadOnlyDoubleProperty totalDonationProperty() {
+        return totalDonation.getReadOnlyProperty();
+    }
+
+    public double getTotalDonation() {
+        return totalDonation.get();
+    }
+
+    public ReadOnlyLongProperty totalTreesProperty() {
+        return totalTrees.getReadOnlyProperty();
+    }
+
+    public long getTotalTrees() {
+        return totalTrees.get();
+    }
+
+    /**
+     * Gets the key of a route, the attributes a row of the RoutesSelected table is deleted by.
+     * @param route Route the route.
+     * @return String the key.
+     */
+    private static String key(Route route) {
+        return key(route.getAirlineCode(), route.getSourceAirportCode(),
+                route.getDestinationAirportCode(), route.getPlaneTypeCode());
+    }
+
+    /**
+     * Gets the key of a route, the attributes a row of the RoutesSelected table is deleted by.
+     * @param airline String the airline code.
+     * @param source String the source airport code.
+     * @param destination String the destination airport code.
+     * @param equipment String the equipment.
+     * @return String the key.
+     */
+    private static String key(String airline, String source, String destination, String equipment) {
+        return airline + '\t' + source + '\t' + destination + '\t' + equipment;
+    }
+}
@@ -0,0 +1,282 @@
+package seng202.team4.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * In memory index of the columns of rows by the trigrams, the runs of three characters,
+ * of their values, used to search for the rows with a column containing a text without
+ * checking every row. Each trigram of a column's value maps through an open addressing
+ * hash table to the posting list of the rows it occurs in, in the order the rows were added.
+ * A search intersects the posting lists of the trigrams of the text, starting from the
+ * shortest, and only checks the rows in every list, as a value containing the text contains
+ * each of its trigrams. Texts shorter than a trigram are found by checking every row.
+ * Rows are numbered from 0 in the order they are added. Values are indexed as given, so a
+ * search ignoring case indexes and searches lower-cased text. An index is not thread safe.
+ */
+public final class TrigramIndex {
+
+    /**
+     * Number of characters in each indexed run.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Number of columns of each row.
+     */
+    private final int columns;
+    /**
+     * Value of each column of each row, row after row.
+     */
+    private String[] values = new String[0];
+    /**
+     * Number of rows added.
+     */
+    private int rows = 0;
+    /**
+     * Rows that have been removed.
+     */
+    private final BitSet removed = new BitSet();
+
+    /**
+     * Packed trigram in each bucket of the hash table.
+     */
+    private long[] grams = new long[64];
+    /**
+     * Posting list of the trigram in each bucket, null where the bucket is empty.
+     */
+    private int[][] postings = new int[64][];
+    /**
+     * Number of rows in the posting list in each bucket.
+     */
+    private int[] lengths = new int[64];
+    /**
+     * Number of trigrams in the hash table.
+     */
+    private int gramCount = 0;
+
+    /**
+     * Creates an empty index of rows with a number of columns.
+     * @param columns int the number of columns.
+     */
+    public TrigramIndex(int columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Adds a row to the index.
+     * @param rowValues String[] the value of each column, null or empty where a column has no value.
+     * @return int the number of the row.
+     */
+    public int add(String... rowValues) {
+        int row = rows++;
+        if (rows * columns > values.length) {
+            values = Arrays.copyOf(values, Math.max(16 * columns, values.length * 2));
+        }
+        for (int column = 0; column < columns; column++) {
+            String value = column < rowValues.length && rowValues[column] != null ? rowValues[column] : "";
+            values[row * columns + column] = value;
+            for (int start = 0; start + GRAM_LENGTH <= value.length(); start++) {
+                post(pack(value, start), row);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Removes a row, so it is no longer found by searches. Its number is not reused.
+     * @param row int the number of the row.
+     */
+    public void remove(int row) {
+        removed.set(row);
+    }
+
+    /**
+     * Gets the number of rows added, including removed rows.
+     * @return int the number of rows.
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Gets the value of a column of a row.
+     * @param row int the number of the row.
+     * @param column int the index of the column.
+     * @return String the value, empty if the column has no value.
+     */
+    public String getValue(int row, int column) {
+        return values[row * columns + column];
+    }
+
+    /**
+     * Finds the rows that have not been removed with a column whose value contains a text.
+     * @param text String the text.
+     * @return BitSet the numbers of the rows found.
+     */
+    public BitSet search(String text) {
+        BitSet found = new BitSet(rows);
+        if (text.length() < GRAM_LENGTH) {
+            for (int row = 0; row < rows; row++) {
+                if (!removed.get(row) && contains(row, text)) {
+                    found.set(row);
+                }
+            }
+            return found;
+        }
+        // Posting lists of the distinct trigrams of the text, shortest first
+        int gramTotal = text.length() - GRAM_LENGTH + 1;
+        int[] buckets = new int[gramTotal];
+        int distinct = 0;
+        for (int start = 0; start < gramTotal; start++) {
+            int bucket = find(pack(text, start));
+            if (bucket < 0) {
+                return found;
+            }
+            boolean repeated = false;
+            for (int i = 0; i < distinct && !repeated; i++) {
+                repeated = buckets[i] == bucket;
+            }
+            if (!repeated) {
+                buckets[distinct++] = bucket;
+            }
+        }
+        Integer[] order = new Integer[distinct];
+        for (int i = 0; i < distinct; i++) {
+            order[i] = buckets[i];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(lengths[a], lengths[b]));
+
+        int[] candidates = Arrays.copyOf(postings[order[0]], lengths[order[0]]);
+        int count = candidates.length;
+        for (int i = 1; i < distinct && count > 0; i++) {
+            count = intersect(candidates, count, postings[order[i]], lengths[order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+            int row = candidates[i];
+            if (!removed.get(row) && contains(row, text)) {
+                found.set(row);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks whether a column of a row contains a text.
+     * @param row int the number of the row.
+     * @param text String the text.
+     * @return boolean true if the value of a column contains the text.
+     */
+    private boolean contains(int row, String text) {
+        for (int column = 0; column < columns; column++) {
+            if (values[row * columns + column].contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps the rows of a sorted list that are also in another sorted list.
+     * @param rows int[] the rows kept, in increasing order, updated in place.
+     * @param count int the number of rows in the list.
+     * @param other int[] the other list, in increasing order.
+     * @param otherCount int the number of rows in the other list.
+     * @return int the number of rows kept.
+     */
+    private static int intersect(int[] rows, int count, int[] other, int otherCount) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < otherCount; i++) {
+            while (j < otherCount && other[j] < rows[i]) {
+                j++;
+            }
+            if (j < otherCount && other[j] == rows[i]) {
+                rows[kept++] = rows[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Adds a row to the posting list of a trigram, unless it is the last row in the list.
+     * @param gram long the packed trigram.
+     * @param row int the number of the row.
+     */
+    private void post(long gram, int row) {
+        int bucket = bucket(gram);
+        if (postings[bucket] == null) {
+            // Grows before a new trigram would fill more than half the buckets
+            if (2 * (gramCount + 1) > grams.length) {
+                grow();
+                bucket = bucket(gram);
+            }
+            grams[bucket] = gram;
+            postings[bucket] = new int[4];
+            gramCount++;
+        }
+        int length = lengths[bucket];
+        if (length > 0 && postings[bucket][length - 1] == row) {
+            return; // The trigram occurs more than once in the row
+        }
+        if (length == postings[bucket].length) {
+            postings[bucket] = Arrays.copyOf(postings[bucket], length * 2);
+        }
+        postings[bucket][length] = row;
+        lengths[bucket] = length + 1;
+    }
+
+    /**
+     * Finds the bucket of a trigram.
+     * @param gram long the packed trigram.
+     * @return int the bucket, or -1 if the trigram is not in the table.
+     */
+    private int find(long gram) {
+        int bucket = bucket(gram);
+        return postings[bucket] == null ? -1 : bucket;
+    }
+
+    /**
+     * Gets the bucket holding a trigram, or the empty bucket it would be put in.
+     * @param gram long the packed trigram.
+     * @return int the bucket.
+     */
+    private int bucket(long gram) {
+        int mask = grams.length - 1;
+        int bucket = Hashing.mix(gram) & mask;
+        while (postings[bucket] != null && grams[bucket] != gram) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    /**
+     * Doubles the number of buckets of the hash table.
+     */
+    private void grow() {
+        long[] oldGrams = grams;
+        int[][] oldPostings = postings;
+        int[] oldLengths = lengths;
+        grams = new long[oldGrams.length * 2];
+        postings = new int[oldGrams.length * 2][];
+        lengths = new int[oldGrams.length * 2];
+        for (int i = 0; i < oldGrams.length; i++) {
+            if (oldPostings[i] != null) {
+                int bucket = bucket(oldGrams[i]);
+                grams[bucket] = oldGrams[i];
+                postings[bucket] = oldPostings[i];
+                lengths[bucket] = oldLengths[i];
+            }
+        }
+    }
+
+    /**
+     * Packs the trigram starting at a character of a text into a long, 16 bits per character.
+     * @param text String the text.
+     * @param start int the index of the first character of the trigram.
+     * @return long the packed trigram.
+     */
+    private static long pack(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
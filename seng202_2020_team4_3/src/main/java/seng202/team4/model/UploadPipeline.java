@@ -0,0 +1,221 @@
+package seng202.team4.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Staged pipeline used to upload a file of records. A reader thread splits the
+ * mapped file into chunks of lines, a pool of workers decodes and validates the
+ * chunks in parallel with {@link DataType#getValid(CharSequence, ArrayList)} and the thread that runs the
+ * pipeline is the only writer, taking the chunks back in file order and inserting
+ * the valid records through its own connection. Records are inserted and invalid
+ * lines are reported in the same order as the lines of the file.
+ * Progress is reported after each chunk, and the upload stops with a
+ * {@link CancellationException} when it is cancelled or interrupted.
+ */
+class UploadPipeline {
+
+    /**
+     * Number of lines validated by a worker in one task.
+     */
+    static final int CHUNK_SIZE = 2000;
+    /**
+     * Number of validated chunks that may wait for the writer per worker
+     * before the reader is blocked.
+     */
+    private static final int CHUNKS_PER_WORKER = 2;
+    /**
+     * Chunk put on the queue by the reader after the last line of the file.
+     */
+    private static final ParsedChunk END = new ParsedChunk(0);
+
+    /**
+     * Data type of the records in the file.
+     */
+    private final DataType dataType;
+    /**
+     * Number of worker threads validating chunks.
+     */
+    private final int workers;
+
+    /**
+     * Creates a pipeline with one worker for each available processor not
+     * used by the reader and writer.
+     * @param dataType DataType the data type of the records in the file.
+     */
+    UploadPipeline(DataType dataType) {
+        this(dataType, Math.max(1, Runtime.getRuntime().availableProcessors() - 2));
+    }
+
+    /**
+     * Creates a pipeline.
+     * @param dataType DataType the data type of the records in the file.
+     * @param workers int the number of worker threads validating chunks.
+     */
+    UploadPipeline(DataType dataType, int workers) {
+        this.dataType = dataType;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Reads, validates and inserts every line of the reader up to the end of the
+     * file or the first blank line. Valid records are added to the inserter,
+     * which is flushed before returning.
+     * @param reader MappedLineReader the lines to upload.
+     * @param inserter BatchInserter the inserter the valid records are added to.
+     * @param setID int the ID of the set the records are inserted into.
+     * @param progress UploadProgress the progress updated after each chunk.
+     * @return ArrayList the invalid lines, each followed by the reason it is invalid.
+     * @throws CancellationException if the upload was cancelled or the thread interrupted.
+     * @throws Exception if reading, validating or inserting failed.
+     */
+    ArrayList<String> run(MappedLineReader reader, BatchInserter inserter, int setID, UploadProgress progress) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, daemonThreads("upload-worker"));
+        BlockingQueue<Future<ParsedChunk>> chunks = new ArrayBlockingQueue<>(workers * CHUNKS_PER_WORKER);
+        Thread readerThread = new Thread(() -> read(reader, pool, chunks), "upload-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        ArrayList<String> invalidLines = new ArrayList<>();
+        long bytesRead = 0;
+        try {
+            ParsedChunk chunk = take(chunks, progress);
+            while (chunk != END) {
+                for (DataType data : chunk.records) {
+                    inserter.add(data, setID); // Add to database
+                }
+                invalidLines.addAll(chunk.invalidLines);
+                bytesRead += chunk.bytes;
+                progress.update(bytesRead, reader.size(), inserter.getCount(), invalidLines.size());
+                chunk = take(chunks, progress);
+            }
+            inserter.flush();
+            progress.update(reader.size(), reader.size(), inserter.getCount(), invalidLines.size());
+            return invalidLines;
+        } finally {
+            readerThread.interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the file into chunks, submitting each chunk to the pool and putting
+     * its result on the queue in file order. Runs on the reader thread.
+     * @param reader MappedLineReader the lines to upload.
+     * @param pool ExecutorService the workers validating the chunks.
+     * @param chunks BlockingQueue the queue of chunks waiting for the writer.
+     */
+    private void read(MappedLineReader reader, ExecutorService pool, BlockingQueue<Future<ParsedChunk>> chunks) {
+        try {
+            ByteBuffer lines = reader.nextChunk(CHUNK_SIZE);
+            while (lines != null) {
+                submit(lines, pool, chunks);
+                lines = reader.nextChunk(CHUNK_SIZE);
+            }
+            chunks.put(CompletableFuture.completedFuture(END));
+        } catch (InterruptedException e) {
+            // The writer stopped, nothing is waiting for the remaining chunks
+        } catch (Exception e) {
+            // Passes the failure on to the writer in place of the next chunk
+            CompletableFuture<ParsedChunk> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            try {
+                chunks.put(failed);
+            } catch (InterruptedException interrupted) {
+                // The writer stopped, nothing is waiting for the failure
+            }
+        }
+    }
+
+    /**
+     * Submits a chunk of lines to the workers and queues its result.
+     * @param lines ByteBuffer the lines of the chunk.
+     * @param pool ExecutorService the workers validating the chunks.
+     * @param chunks BlockingQueue the queue of chunks waiting for the writer.
+     * @throws InterruptedException if the reader was interrupted while the queue was full.
+     */
+    private void submit(ByteBuffer lines, ExecutorService pool, BlockingQueue<Future<ParsedChunk>> chunks) throws InterruptedException {
+        chunks.put(pool.submit(() -> validate(lines)));
+    }
+
+    /**
+     * Validates a chunk of lines. Runs on a worker thread.
+     * @param lines ByteBuffer the lines of the chunk.
+     * @return ParsedChunk the valid records and invalid lines of the chunk in order.
+     */
+    private ParsedChunk validate(ByteBuffer lines) {
+        ParsedChunk chunk = new ParsedChunk(CHUNK_SIZE);
+        chunk.bytes = lines.limit();
+        MappedLineReader.forEachLine(lines, line -> {
+            ArrayList<String> errorMessage = new ArrayList<>();
+            DataType data = dataType.getValid(line, errorMessage);
+            if (data != null) {
+                chunk.records.add(data);
+            }
+            else if (errorMessage.size() > 0) {
+                chunk.invalidLines.add(line + " (" + errorMessage.get(0) + ")");
+            }
+        });
+        return chunk;
+    }
+
+    /**
+     * Takes the next chunk off the queue, waiting for it to be validated.
+     * @param chunks BlockingQueue the queue of chunks waiting for the writer.
+     * @param progress UploadProgress the progress checked for cancellation.
+     * @return ParsedChunk the next chunk of the file.
+     * @throws CancellationException if the upload was cancelled or the thread interrupted.
+     * @throws Exception if the chunk could not be read or validated.
+     */
+    private static ParsedChunk take(BlockingQueue<Future<ParsedChunk>> chunks, UploadProgress progress) throws Exception {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Upload cancelled");
+        }
+        try {
+            return chunks.take().get();
+        } catch (InterruptedException e) {
+            throw new CancellationException("Upload interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * Gets a thread factory creating named daemon threads, so an abandoned
+     * upload never keeps the application alive.
+     * @param name String the prefix of the thread names.
+     * @return a factory for the pipeline's threads.
+     */
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The valid records and invalid lines of one chunk, each in file order.
+     */
+    private static class ParsedChunk {
+        private final ArrayList<DataType> records;
+        private final ArrayList<String> invalidLines = new ArrayList<>();
+        private int bytes = 0;
+
+        private ParsedChunk(int size) {
+            records = new ArrayList<>(size);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package seng202.team4.model;
+
+/**
+ * Interface for following and cancelling the upload of a file.
+ * The upload reports its progress after each chunk of lines is inserted,
+ * from the thread running the upload.
+ */
+public interface UploadProgress {
+
+    /**
+     * Progress that ignores updates and is never cancelled.
+     */
+    UploadProgress NONE = new UploadProgress() {
+        @Override
+        public void update(long bytesRead, long totalBytes, int rowsInserted, int rowsRejected) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    /**
+     * Called after a chunk of lines has been validated and its records inserted.
+     * @param bytesRead long the number of bytes of the file uploaded so far.
+     * @param totalBytes long the size of the file in bytes.
+     * @param rowsInserted int the number of valid records inserted so far.
+     * @param rowsRejected int the number of invalid lines so far.
+     */
+    void update(long bytesRead, long totalBytes, int rowsInserted, int rowsRejected);
+
+    /**
+     * Checks if the upload should stop. A cancelled upload is rolled back.
+     * @return boolean true if the upload has been cancelled.
+     */
+    boolean isCancelled();
+
+    /**
+     * Called once every record has been inserted, just before the upload is committed.
+     * After it returns true the upload can no longer be cancelled, as it is committed.
+     * @return boolean true if the upload is committed, false if it was cancelled and is rolled back.
+     */
+    default boolean commit() {
+        return !isCancelled();
+    }
+}
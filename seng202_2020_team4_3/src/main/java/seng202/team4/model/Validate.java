@@ -2,6 +2,10 @@ package seng202.team4.model;
 
 /**
  * Interface for validating strings for data input into the application and database.
+ * Every check scans the characters of the string directly rather than matching a
+ * regular expression, so no Pattern or Matcher is created for each field of an
+ * uploaded line. Each check accepts exactly the strings matched by the expression
+ * given in the comment of its method.
  */
 public interface Validate {
     static final String NULL = "\\N";
@@ -15,7 +19,20 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.matches("-?\\d+(\\.\\d+)?");
+        // -?\d+(\.\d+)?
+        int i = skipMinus(string);
+        int end = skipDigits(string, i, string.length());
+        if (end == i) {
+            return false;
+        }
+        if (end < string.length() && string.charAt(end) == '.') {
+            int fraction = end + 1;
+            end = skipDigits(string, fraction, string.length());
+            if (end == fraction) {
+                return false;
+            }
+        }
+        return end == string.length();
     }
 
     /**
@@ -27,7 +44,10 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.matches("-?\\d+");
+        // -?\d+
+        int i = skipMinus(string);
+        int end = skipDigits(string, i, string.length());
+        return end > i && end == string.length();
     }
 
     /**
@@ -39,7 +59,17 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.matches("[A-Za-z][A-Za-z\\s]*");
+        // [A-Za-z][A-Za-z\s]*
+        if (string.isEmpty() || !isLetter(string.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (!isLetter(c) && !isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -51,7 +81,14 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.matches("[-\\a-zA-Z0-9 \'.\u0080-\u9fff]*+");
+        // [-\a-zA-Z0-9 '.\u0080-\u9fff]*+ where \a-z is the range from \u0007 to z
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < '\u0007' || (c > 'z' && c < '\u0080') || c > '\u9fff') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -63,7 +100,14 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.matches("[A-Za-z0-9\\s]*");
+        // [A-Za-z0-9\s]*
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (!isLetter(c) && !isDigit(c) && !isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -75,7 +119,20 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.equals("") || string.equals(NULL) || string.matches("[a-zA-Z0-9а-яА-Я%]{3}");
+        if (string.equals("") || string.equals(NULL)) {
+            return true;
+        }
+        // [a-zA-Z0-9а-яА-Я%]{3}
+        if (string.length() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            char c = string.charAt(i);
+            if (!isLetter(c) && !isDigit(c) && !isCyrillic(c) && c != '%') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -87,7 +144,20 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.equals("") || string.equals(NULL) || string.matches("[a-zA-Z0-9-_%]{3,4}");
+        if (string.equals("") || string.equals(NULL)) {
+            return true;
+        }
+        // [a-zA-Z0-9-_%]{3,4}
+        if (string.length() < 3 || string.length() > 4) {
+            return false;
+        }
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (!isLetter(c) && !isDigit(c) && c != '-' && c != '_' && c != '%') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -99,7 +169,8 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.equals("") || string.equals(NULL) || string.matches("[-\\a-zA-Z0-9а-яА-Я +^;:&.?!]*");
+        // "", \N and [-\a-zA-Z0-9а-яА-Я +^;:&.?!]* where \a-z is the range from \u0007 to z
+        return isAsciiToZOrCyrillic(string);
     }
 
     /**
@@ -111,7 +182,8 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.equals("") || string.equals(NULL) || string.matches("[-\\a-zA-Z0-9а-яА-Я '*/+=:&.?!]*");
+        // "", \N and [-\a-zA-Z0-9а-яА-Я '*/+=:&.?!]* where \a-z is the range from \u0007 to z
+        return isAsciiToZOrCyrillic(string);
     }
 
     /**
@@ -123,25 +195,39 @@ public interface Validate {
         if (string == null) {
             return false;
         }
-        return string.equals("") || string.matches("[a-zA-Z]+/[a-zA-Z_-]+") || string.equals(NULL);
+        if (string.equals("") || string.equals(NULL)) {
+            return true;
+        }
+        // [a-zA-Z]+/[a-zA-Z_-]+
+        int slash = 0;
+        while (slash < string.length() && isLetter(string.charAt(slash))) {
+            slash++;
+        }
+        if (slash == 0 || slash >= string.length() - 1 || string.charAt(slash) != '/') {
+            return false;
+        }
+        for (int i = slash + 1; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (!isLetter(c) && c != '_' && c != '-') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Method for checking if a given string is a valid timezone.
+     * Method for checking if a given string is a valid timezone, any number accepted
+     * by Double.parseDouble from -12 to 14. The format is checked before the string
+     * is parsed so invalid timezones are rejected without throwing an exception.
      * @param string String
      * @return Returns true if the given string is a valid timezone.
      */
     static boolean isValidTimeZone(String string) {
-        try {
-            double timezone = Double.parseDouble(string);
-            if (timezone >= -12 && timezone <= 14) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (Exception e) {
+        if (string == null || !isDouble(string)) {
             return false;
         }
+        double timezone = Double.parseDouble(string);
+        return timezone >= -12 && timezone <= 14;
     }
 
     /**
@@ -150,6 +236,217 @@ public interface Validate {
      * @return Returns true if the given string is an ASCII or null.
      */
     static boolean isAsciiOrNull(String string) {
-        return string.equals(NULL) || string.matches("^\\p{ASCII}*$");
+        if (string.equals(NULL)) {
+            return true;
+        }
+        // ^\p{ASCII}*$
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > '\u007f') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if every character of a string is in the range from \u0007 to z
+     * or is one of the Cyrillic letters а to я and А to Я.
+     * @param string CharSequence the string to check.
+     * @return true if every character is in the range.
+     */
+    private static boolean isAsciiToZOrCyrillic(CharSequence string) {
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if ((c < '\u0007' || c > 'z') && !isCyrillic(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a string has the format of a number accepted by Double.parseDouble,
+     * including surrounding whitespace, a sign, an exponent, a type suffix,
+     * hexadecimal floats, NaN and Infinity.
+     * @param string CharSequence the string to check.
+     * @return true if the string can be parsed as a double.
+     */
+    private static boolean isDouble(CharSequence string) {
+        // Double.parseDouble trims every character up to and including space
+        int start = 0;
+        int end = string.length();
+        while (start < end && string.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && string.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start < end && (string.charAt(start) == '-' || string.charAt(start) == '+')) {
+            start++;
+        }
+        if (isRegion(string, start, end, "NaN") || isRegion(string, start, end, "Infinity")) {
+            return true;
+        }
+        if (end > start && "fFdD".indexOf(string.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end - start > 2 && string.charAt(start) == '0' && (string.charAt(start + 1) | 0x20) == 'x') {
+            return isHexFloat(string, start + 2, end);
+        }
+        return isDecimalFloat(string, start, end);
+    }
+
+    /**
+     * Checks if part of a string is a decimal number without a sign,
+     * (\d+\.?\d*|\.\d+)([eE][+-]?\d+)?
+     * @param string CharSequence the string to check.
+     * @param start int the index of the first character to check.
+     * @param end int the index after the last character to check.
+     * @return true if the part of the string is a decimal number.
+     */
+    private static boolean isDecimalFloat(CharSequence string, int start, int end) {
+        int i = skipDigits(string, start, end);
+        int digits = i - start;
+        if (i < end && string.charAt(i) == '.') {
+            int fraction = i + 1;
+            i = skipDigits(string, fraction, end);
+            digits += i - fraction;
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < end && (string.charAt(i) | 0x20) == 'e') {
+            return isExponent(string, i + 1, end);
+        }
+        return i == end;
+    }
+
+    /**
+     * Checks if part of a string is the significand and exponent of a
+     * hexadecimal number after its 0x prefix, (\p{XDigit}+\.?\p{XDigit}*|\.\p{XDigit}+)[pP][+-]?\d+
+     * @param string CharSequence the string to check.
+     * @param start int the index of the first character after the prefix.
+     * @param end int the index after the last character to check.
+     * @return true if the part of the string is a hexadecimal number.
+     */
+    private static boolean isHexFloat(CharSequence string, int start, int end) {
+        int i = skipHexDigits(string, start, end);
+        int digits = i - start;
+        if (i < end && string.charAt(i) == '.') {
+            int fraction = i + 1;
+            i = skipHexDigits(string, fraction, end);
+            digits += i - fraction;
+        }
+        return digits > 0 && i < end && (string.charAt(i) | 0x20) == 'p' && isExponent(string, i + 1, end);
+    }
+
+    /**
+     * Checks if part of a string is the signed integer of an exponent, [+-]?\d+
+     * @param string CharSequence the string to check.
+     * @param start int the index of the first character after the exponent indicator.
+     * @param end int the index after the last character to check.
+     * @return true if the part of the string is an exponent.
+     */
+    private static boolean isExponent(CharSequence string, int start, int end) {
+        if (start < end && (string.charAt(start) == '-' || string.charAt(start) == '+')) {
+            start++;
+        }
+        int i = skipDigits(string, start, end);
+        return i > start && i == end;
+    }
+
+    /**
+     * Checks if part of a string is equal to a word.
+     * @param string CharSequence the string to check.
+     * @param start int the index of the first character to check.
+     * @param end int the index after the last character to check.
+     * @param word String the word to compare to.
+     * @return true if the part of the string is the word.
+     */
+    private static boolean isRegion(CharSequence string, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (string.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skips an optional leading minus sign.
+     * @param string CharSequence the string to scan.
+     * @return int the index after the sign.
+     */
+    private static int skipMinus(CharSequence string) {
+        return string.length() > 0 && string.charAt(0) == '-' ? 1 : 0;
+    }
+
+    /**
+     * Skips the ASCII digits 0 to 9.
+     * @param string CharSequence the string to scan.
+     * @param start int the index to scan from.
+     * @param end int the index to stop scanning at.
+     * @return int the index of the first character that is not a digit.
+     */
+    private static int skipDigits(CharSequence string, int start, int end) {
+        int i = start;
+        while (i < end && isDigit(string.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skips the hexadecimal digits 0 to 9, a to f and A to F.
+     * @param string CharSequence the string to scan.
+     * @param start int the index to scan from.
+     * @param end int the index to stop scanning at.
+     * @return int the index of the first character that is not a hexadecimal digit.
+     */
+    private static int skipHexDigits(CharSequence string, int start, int end) {
+        int i = start;
+        while (i < end && (isDigit(string.charAt(i)) || ((string.charAt(i) | 0x20) >= 'a' && (string.charAt(i) | 0x20) <= 'f'))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Checks for an ASCII digit, \d
+     * @param c char the character to check.
+     * @return true if the character is 0 to 9.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Checks for an ASCII letter, [a-zA-Z]
+     * @param c char the character to check.
+     * @return true if the character is a to z or A to Z.
+     */
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Checks for a whitespace character, \s
+     * @param c char the character to check.
+     * @return true if the character is a space, tab, new line, vertical tab, form feed or carriage return.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Checks for a basic Cyrillic letter, [а-яА-Я]
+     * @param c char the character to check.
+     * @return true if the character is from А to я.
+     */
+    private static boolean isCyrillic(char c) {
+        return c >= '\u0410' && c <= '\u044f';
     }
 }
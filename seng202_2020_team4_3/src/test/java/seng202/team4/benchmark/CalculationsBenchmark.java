@@ -0,0 +1,161 @@
+package seng202.team4.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import seng202.team4.model.Calculations;
+import seng202.team4.model.Route;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calculating the distance, emissions, dollar offset and trees of a
+ * batch of routes through the array API of Calculations against calculating
+ * them one Route object at a time. The routes counter reports the throughput
+ * in routes per second.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=seng202.team4.benchmark.CalculationsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculationsBenchmark {
+
+    /**
+     * Number of routes in the batch.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * Equipment the routes are given in turn, with known, unknown and several aircraft.
+     */
+    private static final String[] EQUIPMENT = {"738", "320", "788 320", "DH8", "ZZZ", null};
+
+    private double[] sourceLatitudes;
+    private double[] sourceLongitudes;
+    private double[] destinationLatitudes;
+    private double[] destinationLongitudes;
+    private String[] equipment;
+    private double[] distances;
+    private double[] emissions;
+    private double[] dollarOffsets;
+    private int[] trees;
+    private Route[] routes;
+
+    /**
+     * Counts the routes calculated, reported by JMH as routes per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counter {
+        public long routes;
+
+        /**
+         * Resets the count at the start of each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            routes = 0;
+        }
+    }
+
+    /**
+     * Creates routes between random coordinates flown by a mix of aircraft.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(202);
+        sourceLatitudes = new double[size];
+        sourceLongitudes = new double[size];
+        destinationLatitudes = new double[size];
+        destinationLongitudes = new double[size];
+        equipment = new String[size];
+        distances = new double[size];
+        emissions = new double[size];
+        dollarOffsets = new double[size];
+        trees = new int[size];
+        routes = new Route[size];
+        for (int i = 0; i < size; i++) {
+            sourceLatitudes[i] = random.nextDouble() * 180 - 90;
+            sourceLongitudes[i] = random.nextDouble() * 360 - 180;
+            destinationLatitudes[i] = random.nextDouble() * 180 - 90;
+            destinationLongitudes[i] = random.nextDouble() * 360 - 180;
+            equipment[i] = EQUIPMENT[i % EQUIPMENT.length];
+            routes[i] = new Route();
+            routes[i].setPlaneTypeCode(equipment[i]);
+        }
+    }
+
+    /**
+     * Calculates every route through the array API.
+     * @param counter Counter the count of routes calculated.
+     * @return int the trees of the last route, so the work is not removed.
+     */
+    @Benchmark
+    public int batch(Counter counter) {
+        Calculations.calculateAll(sourceLatitudes, sourceLongitudes, destinationLatitudes, destinationLongitudes,
+                equipment, distances, emissions, dollarOffsets, trees, size);
+        counter.routes += size;
+        return trees[size - 1];
+    }
+
+    /**
+     * Calculates every route one Route object at a time, with the distance
+     * calculated by the same Haversine formula.
+     * @param counter Counter the count of routes calculated.
+     * @return int the trees of the last route, so the work is not removed.
+     */
+    @Benchmark
+    public int perRoute(Counter counter) {
+        for (int i = 0; i < size; i++) {
+            Route route = routes[i];
+            route.setDistance(haversine(sourceLatitudes[i], sourceLongitudes[i],
+                    destinationLatitudes[i], destinationLongitudes[i]));
+            route.setCarbonEmissions(Calculations.calculateEmissions(route));
+            route.setDollarOffset(Calculations.calculateDollarOffset(route));
+            route.setTreeEquivalent(Calculations.calculateTreesEquivalent(route));
+        }
+        counter.routes += size;
+        return routes[size - 1].getTreeEquivalent();
+    }
+
+    /**
+     * Calculates the distance between two coordinates in degrees with the Haversine formula.
+     * @param lat1 double the latitude of the first coordinate.
+     * @param long1 double the longitude of the first coordinate.
+     * @param lat2 double the latitude of the second coordinate.
+     * @param long2 double the longitude of the second coordinate.
+     * @return double the distance in kilometres.
+     */
+    private static double haversine(double lat1, double long1, double lat2, double long2) {
+        lat1 = Math.toRadians(lat1);
+        lat2 = Math.toRadians(lat2);
+        double dlon = Math.toRadians(long2) - Math.toRadians(long1);
+        double dlat = lat2 - lat1;
+        double arcInverse = Math.pow(Math.sin(dlat / 2), 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dlon / 2), 2);
+        return 6371 * 2 * Math.asin(Math.sqrt(arcInverse));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CalculationsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package seng202.team4.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import seng202.team4.model.Calculations;
+import seng202.team4.model.DistanceStrategy;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time to calculate the distances of a batch of routes with the
+ * exact and the fast distance strategies.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=seng202.team4.benchmark.DistanceStrategyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceStrategyBenchmark {
+
+    /**
+     * Number of routes in the batch.
+     */
+    private static final int SIZE = 1000000;
+
+    /**
+     * Strategy the distances are calculated with.
+     */
+    @Param({"EXACT", "FAST"})
+    public DistanceStrategy strategy;
+
+    private double[] sourceLatitudes;
+    private double[] sourceLongitudes;
+    private double[] destinationLatitudes;
+    private double[] destinationLongitudes;
+    private double[] distances;
+
+    /**
+     * Creates routes between random coordinates.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(202);
+        sourceLatitudes = new double[SIZE];
+        sourceLongitudes = new double[SIZE];
+        destinationLatitudes = new double[SIZE];
+        destinationLongitudes = new double[SIZE];
+        distances = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            sourceLatitudes[i] = random.nextDouble() * 180 - 90;
+            sourceLongitudes[i] = random.nextDouble() * 360 - 180;
+            destinationLatitudes[i] = random.nextDouble() * 180 - 90;
+            destinationLongitudes[i] = random.nextDouble() * 360 - 180;
+        }
+    }
+
+    /**
+     * Calculates the distance of every route with the strategy.
+     * @return double the distance of the last route, so the work is not removed.
+     */
+    @Benchmark
+    public double distances() {
+        Calculations.calculateDistances(sourceLatitudes, sourceLongitudes, destinationLatitudes, destinationLongitudes,
+                distances, SIZE, strategy);
+        return distances[SIZE - 1];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DistanceStrategyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
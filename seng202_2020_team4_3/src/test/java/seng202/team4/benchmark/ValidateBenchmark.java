@@ -0,0 +1,156 @@
+package seng202.team4.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import seng202.team4.model.Path;
+import seng202.team4.model.Validate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the checks of the Validate interface against the String.matches
+ * implementation they replaced, by validating every field of the default
+ * airports the same way Airport.getValid does.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=seng202.team4.benchmark.ValidateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidateBenchmark {
+
+    /**
+     * Fields of each line of the default airports file.
+     */
+    private String[][] airports;
+
+    /**
+     * Reads and splits the default airports file.
+     * @throws IOException if the airports file could not be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        ArrayList<String[]> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ValidateBenchmark.class.getResourceAsStream(Path.AIRPORT_RSC), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                String[] fields = line.replaceAll("\"", "").split(",");
+                if (fields.length == 12) {
+                    lines.add(fields);
+                }
+                line = reader.readLine();
+            }
+        }
+        airports = lines.toArray(new String[0][]);
+    }
+
+    /**
+     * Validates every airport with the hand-written checks.
+     * @return int the number of valid airports.
+     */
+    @Benchmark
+    public int scanner() {
+        int valid = 0;
+        for (String[] a : airports) {
+            if (Validate.isAlphaMultiLanguage(a[1]) && Validate.isAlphaMultiLanguage(a[2])
+                    && Validate.isAlphaMultiLanguage(a[3]) && Validate.isAirportIATA(a[4])
+                    && Validate.isAirportICAO(a[5]) && Validate.isFloat(a[6]) && Validate.isFloat(a[7])
+                    && Validate.isInteger(a[8]) && Validate.isValidTimeZone(a[9])
+                    && Validate.isValidTZDB(a[11])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Validates every airport with the String.matches checks.
+     * @return int the number of valid airports.
+     */
+    @Benchmark
+    public int regex() {
+        int valid = 0;
+        for (String[] a : airports) {
+            if (RegexValidate.isAlphaMultiLanguage(a[1]) && RegexValidate.isAlphaMultiLanguage(a[2])
+                    && RegexValidate.isAlphaMultiLanguage(a[3]) && RegexValidate.isAirportIATA(a[4])
+                    && RegexValidate.isAirportICAO(a[5]) && RegexValidate.isFloat(a[6]) && RegexValidate.isFloat(a[7])
+                    && RegexValidate.isInteger(a[8]) && RegexValidate.isValidTimeZone(a[9])
+                    && RegexValidate.isValidTZDB(a[11])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args String[] unused.
+     * @throws RunnerException if the benchmark failed.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ValidateBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The previous implementation of the Validate checks, compiling a
+     * regular expression on every call.
+     */
+    private static class RegexValidate {
+
+        static boolean isFloat(String string) {
+            return string != null && string.matches("-?\\d+(\\.\\d+)?");
+        }
+
+        static boolean isInteger(String string) {
+            return string != null && string.matches("-?\\d+");
+        }
+
+        static boolean isAlphaMultiLanguage(String string) {
+            return string != null && string.matches("[-\\a-zA-Z0-9 '.\u0080-\u9fff]*+");
+        }
+
+        static boolean isAirportIATA(String string) {
+            return string != null && (string.equals("") || string.equals(Validate.NULL)
+                    || string.matches("[a-zA-Z0-9а-яА-Я%]{3}"));
+        }
+
+        static boolean isAirportICAO(String string) {
+            return string != null && (string.equals("") || string.equals(Validate.NULL)
+                    || string.matches("[a-zA-Z0-9-_%]{3,4}"));
+        }
+
+        static boolean isValidTZDB(String string) {
+            return string != null && (string.equals("") || string.matches("[a-zA-Z]+/[a-zA-Z_-]+")
+                    || string.equals(Validate.NULL));
+        }
+
+        static boolean isValidTimeZone(String string) {
+            try {
+                double timezone = Double.parseDouble(string);
+                return timezone >= -12 && timezone <= 14;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package seng202.team4.model;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Tests looking up airports and their distances in the airport index.
+ */
+public class AirportIndexTest {
+
+    private static TestDatabase database;
+    private static AirportIndex index;
+
+    /**
+     * Loads the index of a database with a few airports, one of which
+     * has the same codes as an airport in another set.
+     * @throws Exception exception to catch file and database errors
+     */
+    @BeforeClass
+    public static void setUp() throws Exception {
+        database = new TestDatabase("airports");
+        try (Connection connection = database.connect();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Airport (IATA, ICAO, Latitude, Longitude, SetID) VALUES "
+                    + "('GKA', 'AYGA', -6.081689, 145.391881, 1), "
+                    + "('MAG', 'AYMD', -5.207083, 145.7887, 1), "
+                    + "('', 'NZCH', -43.489399, 172.531998, 1), "
+                    + "('GKA', 'AYGA', 0, 0, 2)");
+            connection.commit();
+            index = AirportIndex.load(connection);
+        }
+    }
+
+    /**
+     * Deletes the database.
+     */
+    @AfterClass
+    public static void tearDown() {
+        database.delete();
+    }
+
+    /**
+     * Tests that airports are found by IATA and ICAO code, and that
+     * a code in several sets belongs to the first airport.
+     */
+    @Test
+    public void slotTest() {
+        Assert.assertEquals(4, index.size());
+        Assert.assertEquals(0, index.slot("GKA"));
+        Assert.assertEquals(0, index.slot("AYGA"));
+        Assert.assertEquals(1, index.slot("MAG"));
+        Assert.assertEquals(2, index.slot("NZCH"));
+        Assert.assertEquals(-1, index.slot("XXX"));
+        Assert.assertEquals(-1, index.slot(""));
+        Assert.assertEquals(-1, index.slot(null));
+    }
+
+    /**
+     * Tests the distance between two airports against the
+     * Haversine formula, in both directions.
+     */
+    @Test
+    public void distanceTest() {
+        Assert.assertEquals(106.705, index.distance(index.slot("GKA"), index.slot("MAG")), 0.001);
+        Assert.assertEquals(106.705, index.distance(index.slot("MAG"), index.slot("GKA")), 0.001);
+        Assert.assertEquals(0, index.distance(index.slot("NZCH"), index.slot("NZCH")), 0);
+    }
+
+    /**
+     * Tests that the distance between a pair of airports is cached in either direction.
+     */
+    @Test
+    public void cachedDistanceTest() {
+        int gka = index.slot("GKA");
+        int mag = index.slot("MAG");
+        long misses = index.getDistanceCache().getMisses();
+        long hits = index.getDistanceCache().getHits();
+        Assert.assertEquals(index.distance(gka, mag), index.cachedDistance(gka, mag), 0);
+        Assert.assertEquals(index.distance(gka, mag), index.cachedDistance(mag, gka), 0);
+        Assert.assertEquals(misses + 1, index.getDistanceCache().getMisses());
+        Assert.assertEquals(hits + 1, index.getDistanceCache().getHits());
+    }
+}
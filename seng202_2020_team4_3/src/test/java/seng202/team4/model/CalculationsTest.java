@@ -100,10 +100,12 @@ public class CalculationsTest {
     }
 
     /**
-     * Tests whether the distance calculation is accurate up to 3 decimal places.
+     * Tests whether the distance calculation is accurate up to 3 decimal places,
+     * through the overload kept for callers that pass a statement.
      * @throws Exception exception to catch database access errors.
      */
     @Test
+    @SuppressWarnings("deprecation")
     public void testCalculateDistance() throws Exception {
         double distance = Calculations.calculateDistance("GKA", "MAG", stmt);
         Assert.assertEquals(106.705, distance, 0.001);
@@ -144,4 +146,41 @@ public class CalculationsTest {
         int trees = Calculations.calculateTreesEquivalent(route);
         Assert.assertEquals(4, trees);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test whether the batch calculations give the same results
+     * as the calculations for a single route, including routes
+     * flown by aircraft other than the Boeing 737 baseline.
+     */
+    @Test
+    public void testCalculateAll() {
+        double[] sourceLatitudes = {-6.081689, -5.207083, 10};
+        double[] sourceLongitudes = {145.391881, 145.7887, -179.5};
+        double[] destinationLatitudes = {-5.207083, -6.081689, 10};
+        double[] destinationLongitudes = {145.7887, 145.391881, 179.5};
+        String[] equipment = {"DH8", null, "320 788"};
+        double[] distances = new double[3];
+        double[] emissions = new double[3];
+        double[] dollars = new double[3];
+        int[] trees = new int[3];
+        Calculations.calculateAll(sourceLatitudes, sourceLongitudes, destinationLatitudes, destinationLongitudes,
+                equipment, distances, emissions, dollars, trees, 3);
+
+        Assert.assertEquals(106.705, distances[0], 0.001);
+        Assert.assertEquals(distances[0], distances[1], 0);
+        Assert.assertEquals(109.5, distances[2], 0.1);
+        Assert.assertNotEquals(emissions[1], emissions[0], 0.001);
+        Assert.assertEquals(EmissionFactors.get().emissions(distances[0], "DH8"), emissions[0], 0);
+        Assert.assertEquals(EmissionFactors.get().emissions(distances[1], null), emissions[1], 0);
+        for (int i = 0; i < 3; i++) {
+            Route route = new Route();
+            route.setDistance(distances[i]);
+            route.setPlaneTypeCode(equipment[i]);
+            Assert.assertEquals(Calculations.calculateEmissions(route), emissions[i], 0);
+            route.setCarbonEmissions(emissions[i]);
+            Assert.assertEquals(Calculations.calculateDollarOffset(route), dollars[i], 0);
+            route.setDollarOffset(dollars[i]);
+            Assert.assertEquals(Calculations.calculateTreesEquivalent(route), trees[i]);
+        }
+    }
+}
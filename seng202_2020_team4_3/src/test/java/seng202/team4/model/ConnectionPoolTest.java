@@ -0,0 +1,214 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests borrowing and returning pooled database connections.
+ */
+public class ConnectionPoolTest {
+
+    private File database;
+    private ConnectionPool pool;
+
+    /**
+     * Creates a pool for an empty database with a single table.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = File.createTempFile("pool", ".db");
+        pool = new ConnectionPool("jdbc:sqlite:" + database.getPath());
+        try (Connection connection = pool.getWriter();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE Test (Value INTEGER)");
+            connection.commit();
+        }
+    }
+
+    /**
+     * Closes the pool and deletes the database.
+     * @throws Exception exception to catch database errors
+     */
+    @After
+    public void tearDown() throws Exception {
+        pool.close();
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            new File(database.getPath() + suffix).delete();
+        }
+    }
+
+    /**
+     * Counts the rows of the test table.
+     * @param connection Connection the connection to count through.
+     * @return int the number of rows.
+     * @throws SQLException exception to catch database errors
+     */
+    private int count(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM Test")) {
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Tests that readers see committed changes and that changes which
+     * are not committed are rolled back when the writer is returned.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void writerTestCommit() throws Exception {
+        try (Connection connection = pool.getWriter();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Test VALUES (1)");
+            connection.commit();
+            stmt.executeUpdate("INSERT INTO Test VALUES (2)");
+        }
+        try (Connection connection = pool.getReader()) {
+            Assert.assertEquals(1, count(connection));
+        }
+    }
+
+    /**
+     * Tests that a closed connection can not be used, and that
+     * the pool hands out a working connection afterwards.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void readerTestReturned() throws Exception {
+        Connection connection = pool.getReader();
+        connection.close();
+        Assert.assertTrue(connection.isClosed());
+        try {
+            connection.createStatement();
+            Assert.fail();
+        } catch (SQLException e) {
+            // Expected, the connection was returned to the pool
+        }
+        try (Connection reader = pool.getReader()) {
+            Assert.assertEquals(0, count(reader));
+        }
+    }
+
+    /**
+     * Tests that a reader can not change the database.
+     * @throws Exception exception to catch database errors
+     */
+    @Test(expected = SQLException.class)
+    public void readerTestReadOnly() throws Exception {
+        try (Connection connection = pool.getReader();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Test VALUES (1)");
+        }
+    }
+
+    /**
+     * Tests that the thread using the writer can not borrow it again, and that
+     * the refused borrow leaves the outer borrow's work in place.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void writerTestNested() throws Exception {
+        try (Connection outer = pool.getWriter();
+             Statement stmt = outer.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Test VALUES (1)");
+            try (Connection inner = pool.getWriter()) {
+                Assert.fail("The writer was borrowed twice by the same thread");
+            } catch (SQLException e) {
+                // Expected
+            }
+            outer.commit();
+        }
+        try (Connection connection = pool.getReader()) {
+            Assert.assertEquals(1, count(connection));
+        }
+    }
+
+    /**
+     * Tests that borrowing the writer without waiting fails while another thread uses it.
+     * @throws Exception exception to catch database errors and thread interruption
+     */
+    @Test
+    public void writerTestNoWait() throws Exception {
+        AtomicReference<Boolean> refused = new AtomicReference<>();
+        try (Connection connection = pool.getWriter()) {
+            Thread other = new Thread(() -> {
+                try (Connection writer = pool.getWriter(0)) {
+                    refused.set(false);
+                } catch (SQLException e) {
+                    refused.set(true);
+                }
+            });
+            other.start();
+            other.join();
+        }
+        Assert.assertEquals(Boolean.TRUE, refused.get());
+        try (Connection connection = pool.getWriter(0)) {
+            Assert.assertEquals(0, count(connection));
+        }
+    }
+
+    /**
+     * Tests that closing the pool waits for the writer to be returned before closing it.
+     * @throws Exception exception to catch database errors and thread interruption
+     */
+    @Test
+    public void closeTestWaitsForWriter() throws Exception {
+        Thread other;
+        try (Connection connection = pool.getWriter();
+             Statement stmt = connection.createStatement()) {
+            other = new Thread(() -> {
+                try {
+                    pool.close();
+                } catch (SQLException e) {
+                    // Checked by the count below
+                }
+            });
+            other.start();
+            stmt.executeUpdate("INSERT INTO Test VALUES (1)");
+            Thread.sleep(100);
+            connection.commit();
+        }
+        other.join();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.getPath())) {
+            Assert.assertEquals(1, count(connection));
+        }
+    }
+
+    /**
+     * Tests that another thread waits for the writer to be returned.
+     * @throws Exception exception to catch database errors and thread interruption
+     */
+    @Test
+    public void writerTestWaits() throws Exception {
+        AtomicReference<Integer> seen = new AtomicReference<>();
+        Thread other;
+        try (Connection connection = pool.getWriter();
+             Statement stmt = connection.createStatement()) {
+            other = new Thread(() -> {
+                try (Connection writer = pool.getWriter()) {
+                    seen.set(count(writer));
+                } catch (SQLException e) {
+                    seen.set(-1);
+                }
+            });
+            other.start();
+            stmt.executeUpdate("INSERT INTO Test VALUES (1)");
+            Thread.sleep(100);
+            Assert.assertNull(seen.get());
+            connection.commit();
+        }
+        other.join();
+        Assert.assertEquals(Integer.valueOf(1), seen.get());
+    }
+}
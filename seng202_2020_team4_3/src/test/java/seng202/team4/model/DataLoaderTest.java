@@ -8,6 +8,7 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintWriter;
 import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -105,6 +106,48 @@ public class DataLoaderTest {
         Assert.assertEquals(insertResult, true);
     }
 
+    /**
+     * Adds a route between airports that do not exist yet, then
+     * adds the airports one at a time.
+     *
+     * Tests whether the route has no distance until both of its
+     * airports exist, and is given one when the second is added
+     *
+     * @throws SQLException exception to catch database errors
+     */
+    @Test
+    public void addNewRecordTestDistance() throws SQLException {
+        try (Connection connection = DatabaseManager.connect();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO AirportSet (Name) VALUES ('Distance')");
+            stmt.executeUpdate("INSERT INTO RouteSet (Name) VALUES ('Distance')");
+            connection.commit();
+        }
+        Assert.assertTrue(DataLoader.addNewRecord(new Route("NZ", "ZQA", "ZQB", false, 0, "320"), "Distance"));
+        String query = "SELECT Distance FROM Route WHERE SourceAirport = 'ZQA' AND DestinationAirport = 'ZQB'";
+        Assert.assertNull(queryObject(query));
+
+        DataLoader.addNewRecord(new Airport("A", "A", "Nowhere", "ZQA", "", 0, 0, 0, 0, 'N', "UTC"), "Distance");
+        Assert.assertNull(queryObject(query));
+        DataLoader.addNewRecord(new Airport("B", "B", "Nowhere", "ZQB", "", 0, 1, 0, 0, 'N', "UTC"), "Distance");
+        Assert.assertEquals(111.2, ((Number) queryObject(query)).doubleValue(), 0.1);
+    }
+
+    /**
+     * Reads the first column of the first row of a query.
+     * @param query String the query.
+     * @return Object the value, null if it is null.
+     * @throws SQLException exception to catch database errors
+     */
+    private Object queryObject(String query) throws SQLException {
+        try (Connection connection = DatabaseManager.connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            rs.next();
+            return rs.getObject(1);
+        }
+    }
+
     /**
      * Test whether a route object can be added to
      * the RoutesSelected table. The RoutesSelected
@@ -236,4 +279,144 @@ public class DataLoaderTest {
         boolean updateResult = DataLoader.updateRecord(toUpdate, "Default");
         Assert.assertEquals(updateResult, true);
     }
+
+    /**
+     * Uploads a file spanning several validation chunks with
+     * invalid lines spread through it.
+     *
+     * Tests whether the records are inserted and the invalid
+     * lines are reported in the same order as the file
+     *
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void uploadDataTestOrder() throws Exception {
+        File testData = new File(Path.DIRECTORY + "/airlineOrder.dat");
+        ArrayList<String> expectedInvalid = new ArrayList<>();
+        try (PrintWriter writer = new PrintWriter(testData)) {
+            for (int i = 0; i < 5000; i++) {
+                if (i % 7 == 0) {
+                    String line = i + ",\"Airline " + i + "\",\\N,\"\",\"ORD\",\"ORDER\",\"Canada\",\"X\"";
+                    writer.println(line);
+                    expectedInvalid.add(line + " (Invalid recently active)");
+                } else {
+                    writer.println(i + ",\"Airline " + i + "\",\\N,\"\",\"ORD\",\"ORDER\",\"Canada\",\"Y\"");
+                }
+            }
+        }
+        ArrayList<String> invalidLines = DataLoader.uploadData("Order", testData, new Airline());
+        Assert.assertEquals(expectedInvalid, invalidLines);
+
+        String query = "SELECT Airline.Name FROM Airline JOIN AirlineSet ON Airline.SetID = AirlineSet.ID "
+                + "WHERE AirlineSet.Name = 'Order' ORDER BY Airline.ID";
+        try (Connection connection = DatabaseManager.connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            int expected = 0;
+            while (rs.next()) {
+                if (expected % 7 == 0) {
+                    expected++;
+                }
+                Assert.assertEquals("Airline " + expected, rs.getString("Name"));
+                expected++;
+            }
+            Assert.assertEquals(5000, expected);
+        }
+    }
+
+    /**
+     * Uploads a file with an upload that is cancelled before its first chunk.
+     *
+     * Tests whether the new set and its records are rolled back
+     *
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void uploadDataTestCancelled() throws Exception {
+        File testData = copyToFolder(Path.AIRLINE_TEST_RSC_VALID);
+        UploadProgress cancelled = new UploadProgress() {
+            @Override
+            public void update(long bytesRead, long totalBytes, int rowsInserted, int rowsRejected) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+        Assert.assertNull(DataLoader.uploadData("Cancelled", testData, new Airline(), cancelled));
+
+        try (Connection connection = DatabaseManager.connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM AirlineSet WHERE Name = 'Cancelled'")) {
+            Assert.assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    /**
+     * Uploads a file with an upload that is cancelled after its last chunk,
+     * just before it is committed.
+     *
+     * Tests whether the new set and its records are rolled back
+     *
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void uploadDataTestCancelledAtCommit() throws Exception {
+        File testData = copyToFolder(Path.AIRLINE_TEST_RSC_VALID);
+        UploadProgress cancelled = new UploadProgress() {
+            @Override
+            public void update(long bytesRead, long totalBytes, int rowsInserted, int rowsRejected) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public boolean commit() {
+                return false;
+            }
+        };
+        Assert.assertNull(DataLoader.uploadData("CancelledAtCommit", testData, new Airline(), cancelled));
+
+        try (Connection connection = DatabaseManager.connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM AirlineSet WHERE Name = 'CancelledAtCommit'")) {
+            Assert.assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    /**
+     * Uploads a file while following its progress.
+     *
+     * Tests whether the last update covers the whole file and counts every line
+     *
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void uploadDataTestProgress() throws Exception {
+        File testData = copyToFolder(Path.AIRLINE_TEST_RSC_INVALID);
+        long[] last = new long[4];
+        UploadProgress progress = new UploadProgress() {
+            @Override
+            public void update(long bytesRead, long totalBytes, int rowsInserted, int rowsRejected) {
+                last[0] = bytesRead;
+                last[1] = totalBytes;
+                last[2] = rowsInserted;
+                last[3] = rowsRejected;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        };
+        ArrayList<String> invalidLines = DataLoader.uploadData("Progress", testData, new Airline(), progress);
+        Assert.assertEquals(testData.length(), last[0]);
+        Assert.assertEquals(testData.length(), last[1]);
+        Assert.assertEquals(invalidLines.size(), last[3]);
+        Assert.assertTrue(last[2] + last[3] > 0);
+    }
 }
@@ -0,0 +1,116 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Tests creating and migrating the database schema.
+ */
+public class DatabaseManagerTest {
+
+    private File database;
+    private Connection connection;
+
+    /**
+     * Creates a new database with the current schema.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = File.createTempFile("schema", ".db");
+        connection = DatabaseManager.connect("jdbc:sqlite:" + database.getPath());
+        DatabaseManager.createTables(connection);
+    }
+
+    /**
+     * Closes and deletes the database.
+     * @throws Exception exception to catch database errors
+     */
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+        database.delete();
+    }
+
+    /**
+     * Runs a query with a single integer result.
+     * @param query String the query.
+     * @return int the result.
+     * @throws SQLException exception to catch database errors
+     */
+    private int queryInt(String query) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Tests that a new database is at the current schema version and has nothing to migrate.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void migrateTestNew() throws Exception {
+        Assert.assertEquals(DatabaseManager.SCHEMA_VERSION, queryInt("PRAGMA user_version"));
+        Assert.assertEquals(0, DatabaseManager.migrate(connection));
+    }
+
+    /**
+     * Tests that a database created before versioning, with no indexes,
+     * is upgraded in place and keeps its records.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void migrateTestUnversioned() throws Exception {
+        connection.close();
+        database.delete();
+        connection = DatabaseManager.connect("jdbc:sqlite:" + database.getPath());
+        DatabaseManager.createUnversionedTables(connection);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Airport (IATA, SetID) VALUES ('CHC', 1)");
+        }
+        connection.commit();
+        Assert.assertEquals(0, queryInt("PRAGMA user_version"));
+
+        Assert.assertEquals(DatabaseManager.SCHEMA_VERSION, DatabaseManager.migrate(connection));
+        Assert.assertEquals(DatabaseManager.SCHEMA_VERSION, queryInt("PRAGMA user_version"));
+        Assert.assertEquals(1, queryInt("SELECT count(*) FROM sqlite_master WHERE type = 'index' AND name = 'AirportIATA'"));
+        Assert.assertEquals(1, queryInt("SELECT count(*) FROM sqlite_master WHERE type = 'index' AND name = 'RouteAirlineFilter'"));
+        Assert.assertEquals(1, queryInt("SELECT count(*) FROM Airport WHERE IATA = 'CHC'"));
+        Assert.assertEquals(0, queryInt("SELECT count(*) FROM Route WHERE CarbonEmissions IS NOT NULL"));
+    }
+
+    /**
+     * Tests that airports are found by IATA through the index.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void indexTestAirportIATA() throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN SELECT Latitude, Longitude FROM Airport WHERE IATA = 'CHC'")) {
+            rs.next();
+            Assert.assertTrue(rs.getString("detail").contains("AirportIATA"));
+        }
+    }
+
+    /**
+     * Tests that a database from a newer version of the application is not changed.
+     * @throws Exception exception to catch database errors
+     */
+    @Test(expected = SQLException.class)
+    public void migrateTestNewer() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("PRAGMA user_version = " + (DatabaseManager.SCHEMA_VERSION + 1));
+        }
+        connection.commit();
+        DatabaseManager.migrate(connection);
+    }
+}
@@ -0,0 +1,72 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Tests building the default data snapshot.
+ */
+public class DatabaseSnapshotTest {
+
+    /**
+     * Counts the records of a data type in the 'Default' set of a database.
+     * @param stmt Statement a statement of the database.
+     * @param dataType DataType the data type to count.
+     * @return int the number of records.
+     * @throws Exception exception to catch database errors
+     */
+    private int countDefault(Statement stmt, DataType dataType) throws Exception {
+        String query = "SELECT count(*) FROM " + dataType.getTypeName() + " JOIN " + dataType.getSetName()
+                + " ON " + dataType.getTypeName() + ".SetID = " + dataType.getSetName() + ".ID WHERE "
+                + dataType.getSetName() + ".Name = '" + DatabaseSnapshot.DEFAULT_SET + "'";
+        try (ResultSet rs = stmt.executeQuery(query)) {
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Builds a snapshot into a temporary directory.
+     *
+     * Tests whether every default data type is loaded, the tables
+     * are indexed, the routes have emissions and the checksum of
+     * the current data is written
+     *
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void buildTest() throws Exception {
+        File directory = Files.createTempDirectory("snapshot").toFile();
+        File database = new File(directory, "default.db");
+        File checksum = new File(directory, "default.db.sha256");
+        try {
+            DatabaseSnapshot.build(database, checksum);
+
+            try (Connection connection = DatabaseManager.connect("jdbc:sqlite:" + database.getPath());
+                 Statement stmt = connection.createStatement()) {
+                Assert.assertTrue(countDefault(stmt, new Airline()) > 5000);
+                Assert.assertTrue(countDefault(stmt, new Airport()) > 7000);
+                Assert.assertTrue(countDefault(stmt, new Route()) > 60000);
+                Assert.assertTrue(countDefault(stmt, new FlightPath()) > 0);
+                try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM sqlite_master WHERE type = 'index' AND name = 'RouteSetID'")) {
+                    Assert.assertEquals(1, rs.getInt(1));
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM Route WHERE CarbonEmissions IS NOT NULL")) {
+                    Assert.assertTrue(rs.getInt(1) > 60000);
+                }
+            }
+            Assert.assertEquals(DatabaseSnapshot.checksum(),
+                    new String(Files.readAllBytes(checksum.toPath()), StandardCharsets.US_ASCII));
+        } finally {
+            database.delete();
+            checksum.delete();
+            directory.delete();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests caching distances between pairs of airports.
+ */
+public class DistanceCacheTest {
+
+    /**
+     * Tests that a pair has the same key in either order.
+     */
+    @Test
+    public void keyTest() {
+        Assert.assertEquals(DistanceCache.key(3, 7), DistanceCache.key(7, 3));
+        Assert.assertNotEquals(DistanceCache.key(3, 7), DistanceCache.key(3, 8));
+        Assert.assertNotEquals(DistanceCache.key(0, 1), DistanceCache.key(1, 1));
+    }
+
+    /**
+     * Tests that cached pairs are hits and other pairs are misses.
+     */
+    @Test
+    public void getTest() {
+        DistanceCache cache = new DistanceCache(4);
+        Assert.assertTrue(Double.isNaN(cache.get(DistanceCache.key(1, 2))));
+        cache.put(DistanceCache.key(1, 2), 106.7);
+        Assert.assertEquals(106.7, cache.get(DistanceCache.key(2, 1)), 0);
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Tests that the least recently used pair is evicted when the cache is full.
+     */
+    @Test
+    public void evictionTest() {
+        DistanceCache cache = new DistanceCache(2);
+        cache.put(1, 1.0);
+        cache.put(2, 2.0);
+        cache.get(1);
+        cache.put(3, 3.0);
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1.0, cache.get(1), 0);
+        Assert.assertTrue(Double.isNaN(cache.get(2)));
+        Assert.assertEquals(3.0, cache.get(3), 0);
+    }
+
+    /**
+     * Tests random lookups and insertions against a LinkedHashMap in access order.
+     */
+    @Test
+    public void randomTest() {
+        int capacity = 50;
+        DistanceCache cache = new DistanceCache(capacity);
+        Map<Long, Double> expected = new LinkedHashMap<Long, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+                return size() > capacity;
+            }
+        };
+        Random random = new Random(202);
+        for (int i = 0; i < 100000; i++) {
+            long key = DistanceCache.key(random.nextInt(20), random.nextInt(20));
+            if (random.nextBoolean()) {
+                double distance = random.nextDouble();
+                cache.put(key, distance);
+                expected.put(key, distance);
+            } else {
+                Double value = expected.get(key);
+                Assert.assertEquals(value == null ? Double.NaN : value, cache.get(key), 0);
+            }
+        }
+        Assert.assertEquals(expected.size(), cache.size());
+    }
+}
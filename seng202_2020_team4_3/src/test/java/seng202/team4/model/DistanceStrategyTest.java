@@ -0,0 +1,131 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests that the fast distance strategy stays within its maximum error of the exact one.
+ */
+public class DistanceStrategyTest {
+
+    /**
+     * Number of random pairs of coordinates checked by each test.
+     */
+    private static final int PAIRS = 200000;
+
+    private static double[] latitudes;
+    private static double[] longitudes;
+
+    /**
+     * Reads the coordinates of every airport in the default airports file.
+     * @throws Exception exception to catch file errors
+     */
+    @BeforeClass
+    public static void setUp() throws Exception {
+        ArrayList<double[]> coordinates = new ArrayList<>();
+        RecordTokenizer tokenizer = RecordTokenizer.get();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                DistanceStrategyTest.class.getResourceAsStream(Path.AIRPORT_RSC), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                if (tokenizer.tokenize(line) == 12) {
+                    coordinates.add(new double[] {
+                            Double.parseDouble(tokenizer.getField(6)), Double.parseDouble(tokenizer.getField(7))});
+                }
+                line = reader.readLine();
+            }
+        }
+        latitudes = new double[coordinates.size()];
+        longitudes = new double[coordinates.size()];
+        for (int i = 0; i < coordinates.size(); i++) {
+            latitudes[i] = coordinates.get(i)[0];
+            longitudes[i] = coordinates.get(i)[1];
+        }
+    }
+
+    /**
+     * Asserts that the fast distance between two coordinates is within the maximum error of the exact distance.
+     * @param lat1 double the latitude of the first coordinate.
+     * @param long1 double the longitude of the first coordinate.
+     * @param lat2 double the latitude of the second coordinate.
+     * @param long2 double the longitude of the second coordinate.
+     */
+    private static void assertWithinError(double lat1, double long1, double lat2, double long2) {
+        double exact = DistanceStrategy.EXACT.distance(lat1, long1, lat2, long2);
+        double fast = DistanceStrategy.FAST.distance(lat1, long1, lat2, long2);
+        Assert.assertEquals(lat1 + "," + long1 + " to " + lat2 + "," + long2,
+                exact, fast, DistanceStrategy.FAST_MAX_ERROR_KM);
+    }
+
+    /**
+     * Tests random pairs of airports from the default airports file.
+     */
+    @Test
+    public void airportPairsTest() {
+        Assert.assertTrue(latitudes.length > 1000);
+        Random random = new Random(202);
+        for (int i = 0; i < PAIRS; i++) {
+            int source = random.nextInt(latitudes.length);
+            int destination = random.nextInt(latitudes.length);
+            assertWithinError(latitudes[source], longitudes[source], latitudes[destination], longitudes[destination]);
+        }
+    }
+
+    /**
+     * Tests each airport against itself and against the point opposite it on the earth,
+     * where the Haversine formula is least accurate.
+     */
+    @Test
+    public void identicalAndAntipodalTest() {
+        for (int i = 0; i < latitudes.length; i++) {
+            double antipodalLongitude = longitudes[i] > 0 ? longitudes[i] - 180 : longitudes[i] + 180;
+            assertWithinError(latitudes[i], longitudes[i], latitudes[i], longitudes[i]);
+            assertWithinError(latitudes[i], longitudes[i], -latitudes[i], antipodalLongitude);
+        }
+    }
+
+    /**
+     * Tests random pairs of coordinates that are close together, cross the antimeridian or include a pole.
+     */
+    @Test
+    public void edgeCoordinatesTest() {
+        Random random = new Random(202);
+        for (int i = 0; i < PAIRS; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            assertWithinError(latitude, longitude, Math.max(-90, Math.min(90, latitude + random.nextDouble() * 1e-3)),
+                    longitude + random.nextDouble() * 1e-3);
+            assertWithinError(latitude, 179.9, random.nextDouble() * 180 - 90, -179.9);
+            assertWithinError(90, 0, latitude, longitude);
+            assertWithinError(-90, 0, latitude, longitude);
+        }
+    }
+
+    /**
+     * Tests that the batch calculation gives the same distances through the exact strategy as without one.
+     */
+    @Test
+    public void batchStrategyTest() {
+        int count = latitudes.length - 1;
+        double[] exact = new double[count];
+        double[] strategy = new double[count];
+        double[] destinationLatitudes = new double[count];
+        double[] destinationLongitudes = new double[count];
+        System.arraycopy(latitudes, 1, destinationLatitudes, 0, count);
+        System.arraycopy(longitudes, 1, destinationLongitudes, 0, count);
+        Calculations.calculateDistances(latitudes, longitudes, destinationLatitudes, destinationLongitudes, exact, count);
+        Calculations.calculateDistances(latitudes, longitudes, destinationLatitudes, destinationLongitudes,
+                strategy, count, DistanceStrategy.EXACT);
+        Assert.assertArrayEquals(exact, strategy, 0);
+        Calculations.calculateDistances(latitudes, longitudes, destinationLatitudes, destinationLongitudes,
+                strategy, count, DistanceStrategy.FAST);
+        Assert.assertArrayEquals(exact, strategy, DistanceStrategy.FAST_MAX_ERROR_KM);
+    }
+}
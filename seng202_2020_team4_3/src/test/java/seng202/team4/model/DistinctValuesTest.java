@@ -0,0 +1,80 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests reading and caching the distinct values of columns.
+ */
+public class DistinctValuesTest {
+
+    private TestDatabase database;
+    private DistinctValues values;
+
+    /**
+     * Creates a database of routes in two sets with repeated and missing airlines.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = new TestDatabase("distinct");
+        try (Connection connection = database.connect();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Route (Airline, SourceAirport, SetID) VALUES "
+                    + "('QF', 'SYD', 1), ('NZ', 'CHC', 1), (NULL, 'AKL', 1), ('QF', 'MEL', 1), ('EK', 'DXB', 2)");
+            connection.commit();
+        }
+        values = new DistinctValues(database::connect);
+    }
+
+    /**
+     * Deletes the database.
+     */
+    @After
+    public void tearDown() {
+        database.delete();
+    }
+
+    /**
+     * Tests that the values of a column are distinct, sorted and without null.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void ofTest() throws Exception {
+        Assert.assertEquals(Arrays.asList("EK", "NZ", "QF"), values.of("SELECT * FROM Route", "Airline"));
+        Assert.assertEquals(Arrays.asList("NZ", "QF"), values.of("SELECT * FROM Route WHERE SetID = 1", "Airline"));
+    }
+
+    /**
+     * Tests that values are read once until the cache is cleared.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void cacheTest() throws Exception {
+        List<String> first = values.of("SELECT * FROM Route", "Airline");
+        try (Connection connection = database.connect();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Route (Airline, SourceAirport, SetID) VALUES ('AA', 'LAX', 2)");
+            connection.commit();
+        }
+        Assert.assertSame(first, values.of("SELECT * FROM Route", "Airline"));
+        values.invalidate();
+        Assert.assertEquals(Arrays.asList("AA", "EK", "NZ", "QF"), values.of("SELECT * FROM Route", "Airline"));
+    }
+
+    /**
+     * Tests that the cached values can not be modified.
+     * @throws Exception exception to catch database errors
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableTest() throws Exception {
+        values.of("SELECT * FROM Route", "SourceAirport").add("ZQN");
+    }
+}
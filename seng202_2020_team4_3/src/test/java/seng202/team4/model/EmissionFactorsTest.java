@@ -0,0 +1,100 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests finding the emissions per kilometre of the aircraft of a route.
+ */
+public class EmissionFactorsTest {
+
+    /**
+     * Reads a table of factors from text.
+     * @param text String the lines of the table.
+     * @return EmissionFactors the table.
+     * @throws IOException exception to catch lines that are not valid
+     */
+    private EmissionFactors read(String text) throws IOException {
+        return EmissionFactors.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Tests that the bundled factors are read and include common aircraft.
+     */
+    @Test
+    public void bundledTest() {
+        EmissionFactors factors = EmissionFactors.get();
+        Assert.assertTrue(factors.size() > 100);
+        Assert.assertEquals(0.112, factors.factor("320"), 0);
+        Assert.assertEquals(0.115, factors.factor("738"), 0);
+        Assert.assertTrue(factors.contains("DH4"));
+    }
+
+    /**
+     * Tests that comments and blank lines are skipped, extra fields are
+     * ignored and a repeated code replaces the earlier factor.
+     * @throws Exception exception to catch lines that are not valid
+     */
+    @Test
+    public void readTest() throws Exception {
+        EmissionFactors factors = read("# code,factor\n\n320,0.1,Airbus A320\n 738 , 0.2 \n320,0.3\n");
+        Assert.assertEquals(2, factors.size());
+        Assert.assertEquals(0.3, factors.factor("320"), 0);
+        Assert.assertEquals(0.2, factors.factor("738"), 0);
+    }
+
+    /**
+     * Tests that a table with many codes finds every code.
+     * @throws Exception exception to catch lines that are not valid
+     */
+    @Test
+    public void readTestMany() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append(i).append(',').append(i / 1000.0).append('\n');
+        }
+        EmissionFactors factors = read(text.toString());
+        Assert.assertEquals(1000, factors.size());
+        for (int i = 1; i < 1000; i++) {
+            Assert.assertEquals(i / 1000.0, factors.factor(Integer.toString(i)), 0);
+        }
+    }
+
+    /**
+     * Tests that lines without a valid code or factor are rejected.
+     */
+    @Test
+    public void readTestInvalid() {
+        String[] invalid = {"320", "320,", "320,abc", "320,-0.1", "32000,0.1", ",0.1", "320,NaN"};
+        for (String line : invalid) {
+            try {
+                read(line);
+                Assert.fail("Read " + line);
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("line 1"));
+            }
+        }
+    }
+
+    /**
+     * Tests that a route listing several aircraft gets the average factor of the known
+     * aircraft, and that a route with no known aircraft gets the baseline.
+     * @throws Exception exception to catch lines that are not valid
+     */
+    @Test
+    public void factorTest() throws Exception {
+        EmissionFactors factors = read("320,0.1\n738,0.2\n");
+        Assert.assertEquals(0.15, factors.factor("320 738"), 1e-12);
+        Assert.assertEquals(0.1, factors.factor("320 XYZ"), 0);
+        Assert.assertEquals(0.1, factors.factor("320  320"), 0);
+        Assert.assertEquals(Calculations.AVG_PASSENGER_C02_EMITTED_KM, factors.factor("XYZ"), 0);
+        Assert.assertEquals(Calculations.AVG_PASSENGER_C02_EMITTED_KM, factors.factor(""), 0);
+        Assert.assertEquals(Calculations.AVG_PASSENGER_C02_EMITTED_KM, factors.factor(null), 0);
+        Assert.assertEquals(Calculations.AVG_PASSENGER_C02_EMITTED_KM, new EmissionFactors().factor("320"), 0);
+        Assert.assertEquals(150, factors.emissions(1000, "320 738"), 1e-9);
+    }
+}
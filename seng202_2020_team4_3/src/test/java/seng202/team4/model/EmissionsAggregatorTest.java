@@ -0,0 +1,137 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Tests totalling the emissions of the routes in a route set by group.
+ */
+public class EmissionsAggregatorTest {
+
+    private TestDatabase database;
+    private AirportIndex index;
+    private EmissionsAggregator aggregator;
+
+    /**
+     * Creates a database with airports in two countries and routes between them,
+     * stores the emissions of the routes and reads the routes of one set.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = new TestDatabase("emissions");
+        try (Connection connection = database.connect();
+             Statement stmt = connection.createStatement()) {
+            TestDatabase.insertAirports(stmt, 1, "CHC", "AKL", "SYD");
+            stmt.executeUpdate("INSERT INTO Route (Airline, SourceAirport, DestinationAirport, Equipment, SetID) VALUES "
+                    + "('NZ', 'CHC', 'AKL', '320', 1), ('NZ', 'AKL', 'SYD', '789', 1), "
+                    + "('QF', 'SYD', 'CHC', '738', 1), ('', 'AKL', 'CHC', '320', 1), "
+                    + "('QF', 'XXX', 'SYD', '738', 1), ('JQ', 'CHC', 'SYD', '320', 2)");
+            connection.commit();
+            index = AirportIndex.load(connection);
+            RouteEnrichment.refresh(connection, index);
+            aggregator = EmissionsAggregator.load(connection, 1, index);
+        }
+    }
+
+    /**
+     * Deletes the database.
+     */
+    @After
+    public void tearDown() {
+        database.delete();
+    }
+
+    /**
+     * Calculates the emissions of a passenger flying between two airports.
+     * @param source String the code of the departure airport.
+     * @param destination String the code of the destination airport.
+     * @param equipment String the equipment of the route.
+     * @return double the emissions.
+     */
+    private double emissions(String source, String destination, String equipment) {
+        return Calculations.calculateEmissions(index.distance(index.slot(source), index.slot(destination)), equipment);
+    }
+
+    /**
+     * Finds the total of a group.
+     * @param totals List the totals of each group.
+     * @param group String the name of the group.
+     * @return EmissionsTotal the total of the group.
+     */
+    private EmissionsTotal find(List<EmissionsTotal> totals, String group) {
+        for (EmissionsTotal total : totals) {
+            if (total.getGroup().equals(group)) {
+                return total;
+            }
+        }
+        Assert.fail("No total for " + group);
+        return null;
+    }
+
+    /**
+     * Tests that only the routes of the set with stored emissions are totalled.
+     */
+    @Test
+    public void totalTest() {
+        Assert.assertEquals(4, aggregator.getRouteCount());
+        EmissionsTotal total = aggregator.total();
+        double expected = emissions("CHC", "AKL", "320") + emissions("AKL", "SYD", "789") + emissions("SYD", "CHC", "738")
+                + emissions("AKL", "CHC", "320");
+        Assert.assertEquals(4, total.getRoutes());
+        Assert.assertEquals(expected, total.getEmissions(), 1e-6);
+        Assert.assertEquals(expected / 4, total.getAverageEmissions(), 1e-6);
+        Assert.assertEquals(Calculations.calculateDollarOffset(expected), total.getDollarOffset(), 1e-6);
+    }
+
+    /**
+     * Tests grouping by airline, with routes without an airline in the unknown group,
+     * and that groups are ordered by decreasing emissions.
+     */
+    @Test
+    public void airlineTest() {
+        List<EmissionsTotal> totals = aggregator.aggregate(EmissionsAggregator.Grouping.AIRLINE);
+        Assert.assertEquals(3, totals.size());
+        EmissionsTotal nz = find(totals, "NZ");
+        Assert.assertEquals(2, nz.getRoutes());
+        Assert.assertEquals(emissions("CHC", "AKL", "320") + emissions("AKL", "SYD", "789"), nz.getEmissions(), 1e-6);
+        long trees = Calculations.calculateTreesEquivalent(Calculations.calculateDollarOffset(emissions("CHC", "AKL", "320")))
+                + Calculations.calculateTreesEquivalent(Calculations.calculateDollarOffset(emissions("AKL", "SYD", "789")));
+        Assert.assertEquals(trees, nz.getTrees());
+        Assert.assertEquals(1, find(totals, EmissionsAggregator.UNKNOWN).getRoutes());
+        for (int i = 1; i < totals.size(); i++) {
+            Assert.assertTrue(totals.get(i - 1).getEmissions() >= totals.get(i).getEmissions());
+        }
+    }
+
+    /**
+     * Tests grouping by the countries of the source and destination airports.
+     */
+    @Test
+    public void countryTest() {
+        List<EmissionsTotal> sources = aggregator.aggregate(EmissionsAggregator.Grouping.SOURCE_COUNTRY);
+        Assert.assertEquals(2, sources.size());
+        Assert.assertEquals(3, find(sources, "New Zealand").getRoutes());
+        Assert.assertEquals(1, find(sources, "Australia").getRoutes());
+        List<EmissionsTotal> destinations = aggregator.aggregate(EmissionsAggregator.Grouping.DESTINATION_COUNTRY);
+        Assert.assertEquals(3, find(destinations, "New Zealand").getRoutes());
+        Assert.assertEquals(emissions("AKL", "SYD", "789"), find(destinations, "Australia").getEmissions(), 1e-6);
+    }
+
+    /**
+     * Tests grouping by equipment.
+     */
+    @Test
+    public void equipmentTest() {
+        List<EmissionsTotal> totals = aggregator.aggregate(EmissionsAggregator.Grouping.EQUIPMENT);
+        Assert.assertEquals(3, totals.size());
+        Assert.assertEquals(2, find(totals, "320").getRoutes());
+        Assert.assertEquals(1, find(totals, "738").getRoutes());
+    }
+}
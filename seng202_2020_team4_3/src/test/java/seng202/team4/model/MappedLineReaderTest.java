@@ -0,0 +1,147 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * Tests reading the lines of a file through the MappedLineReader.
+ */
+public class MappedLineReaderTest {
+
+    /**
+     * Writes bytes to a temporary file that is deleted on exit.
+     * @param bytes byte[] the contents of the file.
+     * @return File the temporary file.
+     * @throws IOException if the file could not be written.
+     */
+    private File writeFile(byte[] bytes) throws IOException {
+        File file = File.createTempFile("mapped", ".dat");
+        file.deleteOnExit();
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+
+    /**
+     * Reads every line of a file in chunks.
+     * @param file File the file to read.
+     * @param windowSize int the number of bytes mapped at once.
+     * @param maxLines int the maximum number of lines in a chunk.
+     * @return ArrayList the lines of the file.
+     * @throws IOException if the file could not be read.
+     */
+    private ArrayList<String> readLines(File file, int windowSize, int maxLines) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        try (MappedLineReader reader = new MappedLineReader(file, windowSize)) {
+            ByteBuffer chunk = reader.nextChunk(maxLines);
+            while (chunk != null) {
+                MappedLineReader.forEachLine(chunk, line -> lines.add(line.toString()));
+                chunk = reader.nextChunk(maxLines);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Test that lines ending with \n, \r\n and \r are read without their line
+     * breaks, including a last line with no line break.
+     * @throws IOException if the test file could not be written or read.
+     */
+    @Test
+    public void readLineBreaksTest() throws IOException {
+        File file = writeFile("one\ntwo\r\nthree\rfour".getBytes(StandardCharsets.UTF_8));
+        ArrayList<String> lines = readLines(file, MappedLineReader.WINDOW_SIZE, 2);
+        Assert.assertEquals(4, lines.size());
+        Assert.assertEquals("one", lines.get(0));
+        Assert.assertEquals("two", lines.get(1));
+        Assert.assertEquals("three", lines.get(2));
+        Assert.assertEquals("four", lines.get(3));
+    }
+
+    /**
+     * Test that reading stops at the first blank line.
+     * @throws IOException if the test file could not be written or read.
+     */
+    @Test
+    public void readStopsAtBlankLineTest() throws IOException {
+        File file = writeFile("one\ntwo\n  \nthree\n".getBytes(StandardCharsets.UTF_8));
+        ArrayList<String> lines = readLines(file, MappedLineReader.WINDOW_SIZE, 10);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals("two", lines.get(1));
+    }
+
+    /**
+     * Test that lines longer than the mapped window and lines crossing the
+     * end of a window are read whole.
+     * @throws IOException if the test file could not be written or read.
+     */
+    @Test
+    public void readAcrossWindowsTest() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        ArrayList<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            StringBuilder line = new StringBuilder("line" + i);
+            for (int j = 0; j < i; j++) {
+                line.append(j % 10);
+            }
+            expected.add(line.toString());
+            contents.append(line).append("\r\n");
+        }
+        File file = writeFile(contents.toString().getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(expected, readLines(file, 16, 3));
+    }
+
+    /**
+     * Test that a byte order mark is skipped and lines with Cyrillic
+     * characters are decoded as UTF-8.
+     * @throws IOException if the test file could not be written or read.
+     */
+    @Test
+    public void readUtf8Test() throws IOException {
+        byte[] text = "ЖУК,\"Airport\"\nabc".getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[text.length + 3];
+        bytes[0] = (byte) 0xEF;
+        bytes[1] = (byte) 0xBB;
+        bytes[2] = (byte) 0xBF;
+        System.arraycopy(text, 0, bytes, 3, text.length);
+        ArrayList<String> lines = readLines(writeFile(bytes), MappedLineReader.WINDOW_SIZE, 10);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals("ЖУК,\"Airport\"", lines.get(0));
+        Assert.assertTrue(Validate.isAirportIATA(lines.get(0).substring(0, 3)));
+        Assert.assertEquals("abc", lines.get(1));
+    }
+
+    /**
+     * Test that an empty file has no chunks.
+     * @throws IOException if the test file could not be written or read.
+     */
+    @Test
+    public void readEmptyFileTest() throws IOException {
+        Assert.assertTrue(readLines(writeFile(new byte[0]), MappedLineReader.WINDOW_SIZE, 10).isEmpty());
+    }
+
+    /**
+     * Test that chunks are copied out of the mapped window, so they stay
+     * readable and do not keep the file mapped after the reader is closed.
+     * @throws IOException if the test file could not be written or read.
+     */
+    @Test
+    public void readChunkCopiedTest() throws IOException {
+        File file = writeFile("one\ntwo\n".getBytes(StandardCharsets.UTF_8));
+        ByteBuffer chunk;
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            chunk = reader.nextChunk(10);
+        }
+        Assert.assertFalse(chunk.isDirect());
+        ArrayList<String> lines = new ArrayList<>();
+        MappedLineReader.forEachLine(chunk, line -> lines.add(line.toString()));
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals("two", lines.get(1));
+    }
+}
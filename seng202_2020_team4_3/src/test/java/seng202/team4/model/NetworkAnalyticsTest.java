@@ -0,0 +1,122 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Tests the statistics of the network of routes in a route set.
+ */
+public class NetworkAnalyticsTest {
+
+    private TestDatabase database;
+    private RouteGraph graph;
+    private NetworkAnalytics analytics;
+
+    /**
+     * Creates a database with a network of four airports and a separate pair of airports,
+     * and computes its statistics searching from every airport.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = new TestDatabase("network");
+        try (Connection connection = database.connect();
+             Statement stmt = connection.createStatement()) {
+            TestDatabase.insertAirports(stmt, 1, "CHC", "AKL", "SYD", "LHR", "LAX", "JFK", "DXB");
+            stmt.executeUpdate("INSERT INTO Route (SourceAirport, DestinationAirport, SetID) VALUES "
+                    + "('CHC', 'AKL', 1), ('AKL', 'CHC', 1), ('AKL', 'SYD', 1), ('SYD', 'AKL', 1), "
+                    + "('CHC', 'SYD', 1), ('CHC', 'SYD', 1), ('SYD', 'LHR', 1), ('LAX', 'JFK', 1)");
+            connection.commit();
+            graph = RouteGraph.load(connection, 1, AirportIndex.load(connection));
+        }
+        analytics = NetworkAnalytics.compute(graph, NetworkAnalytics.DEFAULT_SAMPLES);
+    }
+
+    /**
+     * Deletes the database.
+     */
+    @After
+    public void tearDown() {
+        database.delete();
+    }
+
+    /**
+     * Tests that each airport's degrees count the airports it flies to and from once each.
+     */
+    @Test
+    public void degreeTest() {
+        Assert.assertEquals(2, analytics.getOutDegree("CHC"));
+        Assert.assertEquals(1, analytics.getInDegree("CHC"));
+        Assert.assertEquals(2, analytics.getOutDegree("SYD"));
+        Assert.assertEquals(2, analytics.getInDegree("SYD"));
+        Assert.assertEquals(0, analytics.getOutDegree("LHR"));
+        Assert.assertEquals(1, analytics.getInDegree("LHR"));
+        Assert.assertEquals(0, analytics.getOutDegree("DXB"));
+        Assert.assertEquals(0, analytics.getInDegree("XXX"));
+    }
+
+    /**
+     * Tests that airports connected in either direction share a component,
+     * and that airports without routes belong to none.
+     */
+    @Test
+    public void componentTest() {
+        Assert.assertEquals(2, analytics.getComponentCount());
+        Assert.assertEquals(4, analytics.getLargestComponentSize());
+        Assert.assertEquals(4, analytics.getComponentSize("LHR"));
+        Assert.assertEquals(2, analytics.getComponentSize("JFK"));
+        Assert.assertEquals(0, analytics.getComponentSize("DXB"));
+    }
+
+    /**
+     * Tests that hubs are ordered by their number of connections, then by the order they were added.
+     */
+    @Test
+    public void topHubsTest() {
+        Assert.assertEquals(Arrays.asList("AKL", "SYD", "CHC"), analytics.getTopHubs(3));
+        Assert.assertEquals(6, analytics.getTopHubs(10).size());
+    }
+
+    /**
+     * Tests the betweenness of each airport when every airport is searched from.
+     */
+    @Test
+    public void betweennessTest() {
+        // CHC and AKL reach LHR through SYD, SYD reaches CHC through AKL
+        Assert.assertEquals(2, analytics.getBetweenness("SYD"), 1e-9);
+        Assert.assertEquals(1, analytics.getBetweenness("AKL"), 1e-9);
+        Assert.assertEquals(0, analytics.getBetweenness("CHC"), 1e-9);
+        Assert.assertEquals(0, analytics.getBetweenness("LHR"), 1e-9);
+    }
+
+    /**
+     * Tests that the estimate from a sample of airports is the same each time it is computed.
+     */
+    @Test
+    public void sampledBetweennessTest() {
+        NetworkAnalytics first = NetworkAnalytics.compute(graph, 2);
+        NetworkAnalytics second = NetworkAnalytics.compute(graph, 2);
+        for (String code : new String[] {"CHC", "AKL", "SYD", "LHR"}) {
+            Assert.assertEquals(first.getBetweenness(code), second.getBetweenness(code), 0);
+        }
+    }
+
+    /**
+     * Tests that the statistics are out of date once the routes of the graph change.
+     */
+    @Test
+    public void isCurrentTest() {
+        Assert.assertTrue(analytics.isCurrent(graph));
+        graph.addRoute("LHR", "DXB", null);
+        Assert.assertFalse(analytics.isCurrent(graph));
+        NetworkAnalytics updated = NetworkAnalytics.compute(graph, NetworkAnalytics.DEFAULT_SAMPLES);
+        Assert.assertEquals(1, updated.getOutDegree("LHR"));
+        Assert.assertEquals(5, updated.getLargestComponentSize());
+    }
+}
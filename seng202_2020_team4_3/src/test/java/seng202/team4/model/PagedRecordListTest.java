@@ -0,0 +1,172 @@
+package seng202.team4.model;
+
+import javafx.collections.ListChangeListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tests reading the rows of a query a page at a time.
+ */
+public class PagedRecordListTest {
+
+    private static final int ROUTES = 1000;
+    private static final String[] AIRLINES = {"NZ", "QF", "JQ", null, "EK", "nz"};
+
+    private TestDatabase database;
+    private PagedRecordList<Integer> list;
+
+    /**
+     * Creates a database of routes with repeated and missing airlines, and a list
+     * of the IDs of the routes with small pages.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = new TestDatabase("paged");
+        try (Connection connection = database.connect()) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO Route (ID, Airline, Stops, SetID) VALUES (?, ?, ?, 1)")) {
+                for (int id = 1; id <= ROUTES; id++) {
+                    stmt.setInt(1, id);
+                    stmt.setString(2, airline(id));
+                    stmt.setInt(3, id % 3);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            connection.commit();
+        }
+        list = new PagedRecordList<>(database::connect, rs -> rs.getInt("ID"), 10, 3);
+        list.setQuery("SELECT * FROM Route");
+    }
+
+    /**
+     * Deletes the database.
+     */
+    @After
+    public void tearDown() {
+        database.delete();
+    }
+
+    /**
+     * Gets the airline of a route.
+     * @param id int the ID of the route.
+     * @return String the airline.
+     */
+    private static String airline(int id) {
+        return AIRLINES[(id * 7) % AIRLINES.length];
+    }
+
+    /**
+     * Reads every row of the list.
+     * @return List the rows.
+     */
+    private List<Integer> readAll() {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            rows.add(list.get(i));
+        }
+        return rows;
+    }
+
+    /**
+     * Tests that every row is read in order of ID while only a few pages are kept.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void openTest() throws Exception {
+        Assert.assertEquals(0, list.size());
+        list.open();
+        Assert.assertEquals(ROUTES, list.size());
+        for (int i = 0; i < ROUTES; i++) {
+            Assert.assertEquals(i + 1, (int) list.get(i));
+            Assert.assertTrue(list.getPageCount() <= 3);
+        }
+        // Jumps back to a page that is no longer kept
+        Assert.assertEquals(5, (int) list.get(4));
+    }
+
+    /**
+     * Tests that rows are filtered and sorted by a column in decreasing
+     * order, with null values sorted as empty text and ties sorted by ID.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void filterOrderTest() throws Exception {
+        list.setFilter("Stops = ?", Arrays.asList(1));
+        list.setOrder("Airline", true);
+        list.open();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 1; id <= ROUTES; id++) {
+            if (id % 3 == 1) {
+                expected.add(id);
+            }
+        }
+        Comparator<Integer> byAirline = Comparator.comparing(id -> airline(id) == null ? "" : airline(id));
+        expected.sort(byAirline.thenComparing(id -> id).reversed());
+        Assert.assertEquals(expected, readAll());
+    }
+
+    /**
+     * Tests that rows restricted to a set of IDs are read in order of ID and sorted
+     * by a column, together with the filter.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void idSetTest() throws Exception {
+        BitSet ids = new BitSet();
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 5; id <= ROUTES; id += 7) {
+            ids.set(id);
+            if (id % 3 != 0) {
+                expected.add(id);
+            }
+        }
+        list.setFilter("Stops > ?", Arrays.asList(0));
+        list.setIds(ids);
+        list.open();
+        Assert.assertEquals(expected, readAll());
+
+        list.setOrder("Airline", false);
+        list.open();
+        Comparator<Integer> byAirline = Comparator.comparing(id -> airline(id) == null ? "" : airline(id));
+        expected.sort(byAirline.thenComparing(id -> id));
+        Assert.assertEquals(expected, readAll());
+    }
+
+    /**
+     * Tests that opening the list again reads the rows that changed
+     * and reports that the rows of the list were replaced.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void reopenTest() throws Exception {
+        list.open();
+        Assert.assertEquals(1, (int) list.get(0));
+        int[] changes = new int[2];
+        list.addListener((ListChangeListener<Integer>) change -> {
+            while (change.next()) {
+                changes[0] += change.getRemovedSize();
+                changes[1] += change.getAddedSize();
+            }
+        });
+        list.setFilter("instr(lower(Airline), ?) > 0", Arrays.asList("nz"));
+        list.open();
+        Assert.assertEquals(ROUTES, changes[0]);
+        Assert.assertEquals(list.size(), changes[1]);
+        for (int id : readAll()) {
+            Assert.assertEquals("nz", airline(id).toLowerCase());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package seng202.team4.model;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests filtering records by the values of their columns.
+ */
+public class RecordFilterTest {
+
+    private static final int COUNTRY = 1;
+    private static final int CITY = 3;
+
+    private ObservableList<Airport> airports;
+    private RecordFilter<Airport> filter;
+    private Airport christchurch;
+    private Airport auckland;
+    private Airport sydney;
+
+    /**
+     * Creates a filter of three airports by their name, country, IATA code and city.
+     */
+    @Before
+    public void setUp() {
+        christchurch = airport("Christchurch Intl", "Christchurch", "New Zealand", "CHC");
+        auckland = airport("Auckland Intl", "Auckland", "New Zealand", "AKL");
+        sydney = airport("Sydney Intl", "Sydney", "Australia", "SYD");
+        airports = FXCollections.observableArrayList(christchurch, auckland, sydney);
+        filter = new RecordFilter<>(airports,
+                Arrays.asList(Airport::getName, Airport::getCountry, Airport::getIata, Airport::getCity));
+    }
+
+    /**
+     * Creates an airport.
+     * @param name String the name of the airport.
+     * @param city String the city of the airport.
+     * @param country String the country of the airport.
+     * @param iata String the IATA code of the airport.
+     * @return Airport the airport.
+     */
+    private static Airport airport(String name, String city, String country, String iata) {
+        return new Airport(name, city, country, iata, "", 0, 0, 0, 12, 'Z', "Pacific/Auckland");
+    }
+
+    /**
+     * Tests that every record is shown until a filter is set.
+     */
+    @Test
+    public void noFilterTest() {
+        filter.setValue(COUNTRY, "");
+        filter.setSearch(null);
+        filter.apply();
+        Assert.assertNull(filter.compile());
+        Assert.assertEquals(3, filter.getView().size());
+    }
+
+    /**
+     * Tests that a column filter shows the records whose column contains the value, ignoring case.
+     */
+    @Test
+    public void valueTest() {
+        filter.setValue(COUNTRY, "new ZEALAND");
+        filter.apply();
+        Assert.assertEquals(Arrays.asList(christchurch, auckland), filter.getView());
+        filter.setValue(CITY, "auck");
+        filter.apply();
+        Assert.assertEquals(Arrays.asList(auckland), filter.getView());
+    }
+
+    /**
+     * Tests that the search shows the records with any column containing the text.
+     */
+    @Test
+    public void searchTest() {
+        filter.setSearch("SYD");
+        filter.apply();
+        Assert.assertEquals(Arrays.asList(sydney), filter.getView());
+        filter.setSearch("intl");
+        filter.setValue(COUNTRY, "zealand");
+        filter.apply();
+        Assert.assertEquals(Arrays.asList(christchurch, auckland), filter.getView());
+    }
+
+    /**
+     * Tests that records added or removed after the filter is applied are filtered,
+     * including records equal to a record already in the list.
+     */
+    @Test
+    public void changeTest() {
+        filter.setSearch("chc");
+        filter.apply();
+        Airport copy = airport("Christchurch Intl", "Christchurch", "New Zealand", "CHC");
+        airports.add(copy);
+        Assert.assertEquals(2, filter.getView().size());
+        airports.remove(christchurch);
+        Assert.assertEquals(1, filter.getView().size());
+        Assert.assertSame(copy, filter.getView().get(0));
+        airports.clear();
+        airports.add(auckland);
+        Assert.assertTrue(filter.getView().isEmpty());
+    }
+}
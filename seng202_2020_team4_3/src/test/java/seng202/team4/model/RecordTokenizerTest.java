@@ -0,0 +1,96 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests splitting comma separated lines into fields with the RecordTokenizer.
+ */
+public class RecordTokenizerTest {
+
+    /**
+     * Test that quoted and unquoted fields are split on commas and
+     * quoted fields are read without their quotes.
+     */
+    @Test
+    public void tokenizeTest() {
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        String line = "1,\"Goroka\",\"Papua New Guinea\",-6.081689,5282";
+        Assert.assertEquals(5, tokenizer.tokenize(line));
+        Assert.assertEquals("1", tokenizer.getField(0));
+        Assert.assertEquals("Goroka", tokenizer.getField(1));
+        Assert.assertEquals("Papua New Guinea", tokenizer.getField(2));
+        Assert.assertEquals("-6.081689", tokenizer.getField(3));
+        Assert.assertEquals("5282", tokenizer.getField(4));
+    }
+
+    /**
+     * Test that a quoted field keeps its commas and escaped quotes.
+     */
+    @Test
+    public void tokenizeQuotedTest() {
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        Assert.assertEquals(3, tokenizer.tokenize("\"Angaha, Niuafo'ou Island\",\"The \"\"Big\"\" One\",x"));
+        Assert.assertEquals("Angaha, Niuafo'ou Island", tokenizer.getField(0));
+        Assert.assertEquals("The \"Big\" One", tokenizer.getField(1));
+        Assert.assertEquals("x", tokenizer.getField(2));
+    }
+
+    /**
+     * Test that empty fields, including a trailing one, are counted and
+     * that \N is only null when it is unquoted.
+     */
+    @Test
+    public void tokenizeEmptyAndNullTest() {
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        Assert.assertEquals(5, tokenizer.tokenize("\\N,\"\",,\"\\N\","));
+        Assert.assertTrue(tokenizer.isNull(0));
+        Assert.assertEquals("\\N", tokenizer.getField(0));
+        Assert.assertTrue(tokenizer.isEmpty(1));
+        Assert.assertEquals("", tokenizer.getField(1));
+        Assert.assertTrue(tokenizer.isEmpty(2));
+        Assert.assertFalse(tokenizer.isNull(3));
+        Assert.assertEquals("\\N", tokenizer.getField(3));
+        Assert.assertTrue(tokenizer.isEmpty(4));
+    }
+
+    /**
+     * Test that the tokenizer is reused for lines with more fields than
+     * its initial capacity and for a shorter line after it.
+     */
+    @Test
+    public void tokenizeReuseTest() {
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        StringBuilder line = new StringBuilder("0");
+        for (int i = 1; i < 40; i++) {
+            line.append(',').append(i);
+        }
+        Assert.assertEquals(40, tokenizer.tokenize(line));
+        Assert.assertEquals("39", tokenizer.getField(39));
+        Assert.assertEquals(2, tokenizer.tokenize("a,b"));
+        Assert.assertEquals(2, tokenizer.getFieldCount());
+        Assert.assertEquals("b", tokenizer.getField(1));
+    }
+
+    /**
+     * Test that quotes that do not surround a field are handled leniently.
+     */
+    @Test
+    public void tokenizeLenientQuotesTest() {
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        Assert.assertEquals(3, tokenizer.tokenize("a\"b,\"c\"d,\"e"));
+        Assert.assertEquals("a\"b", tokenizer.getField(0));
+        Assert.assertEquals("cd", tokenizer.getField(1));
+        Assert.assertEquals("e", tokenizer.getField(2));
+    }
+
+    /**
+     * Test that a field outside of the last line can't be read.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getFieldOutOfBoundsTest() {
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        tokenizer.tokenize("a,b");
+        tokenizer.getField(2);
+    }
+}
@@ -0,0 +1,106 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Comparator;
+
+/**
+ * Tests copying the bundled data files to a directory.
+ */
+public class ResourceSyncTest {
+
+    private File directory;
+
+    /**
+     * Creates an empty directory to copy the files to.
+     * @throws Exception exception to catch file errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("resources").toFile();
+    }
+
+    /**
+     * Deletes the directory and its files.
+     * @throws Exception exception to catch file errors
+     */
+    @After
+    public void tearDown() throws Exception {
+        Files.walk(directory.toPath()).sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+    }
+
+    /**
+     * Tests that every file is copied to an empty directory and has the
+     * content of the bundled resource.
+     * @throws Exception exception to catch file errors
+     */
+    @Test
+    public void syncTestEmpty() throws Exception {
+        Assert.assertEquals(ResourceSync.RESOURCES.length, ResourceSync.sync(directory));
+        Assert.assertTrue(new File(directory, ResourceSync.MANIFEST).exists());
+        byte[] expected = getClass().getResourceAsStream(Path.AIRPORT_RSC).readAllBytes();
+        Assert.assertArrayEquals(expected, Files.readAllBytes(new File(directory, Path.AIRPORT_RSC).toPath()));
+    }
+
+    /**
+     * Tests that files which are up to date are not copied again.
+     * @throws Exception exception to catch file errors
+     */
+    @Test
+    public void syncTestUnchanged() throws Exception {
+        ResourceSync.sync(directory);
+        Assert.assertEquals(0, ResourceSync.sync(directory));
+    }
+
+    /**
+     * Tests that a copy whose size and modification time match the manifest is not
+     * read again, even when the application has no version as it is not run from a jar.
+     * @throws Exception exception to catch file errors
+     */
+    @Test
+    public void syncTestStampsMatch() throws Exception {
+        ResourceSync.sync(directory);
+        File route = new File(directory, Path.ROUTE_RSC);
+        long modified = route.lastModified();
+        byte[] content = Files.readAllBytes(route.toPath());
+        content[0] ^= 1;
+        Files.write(route.toPath(), content);
+        Assert.assertTrue(route.setLastModified(modified));
+
+        Assert.assertEquals(0, ResourceSync.sync(directory));
+        Assert.assertArrayEquals(content, Files.readAllBytes(route.toPath()));
+    }
+
+    /**
+     * Tests that only files which were changed or deleted are copied again.
+     * @throws Exception exception to catch file errors
+     */
+    @Test
+    public void syncTestChanged() throws Exception {
+        ResourceSync.sync(directory);
+        File route = new File(directory, Path.ROUTE_RSC);
+        Files.write(route.toPath(), "changed".getBytes());
+        Files.delete(new File(directory, Path.AIRLINE_RSC).toPath());
+
+        Assert.assertEquals(2, ResourceSync.sync(directory));
+        byte[] expected = getClass().getResourceAsStream(Path.ROUTE_RSC).readAllBytes();
+        Assert.assertArrayEquals(expected, Files.readAllBytes(route.toPath()));
+    }
+
+    /**
+     * Tests that a damaged manifest causes the files to be checked
+     * but not copied again.
+     * @throws Exception exception to catch file errors
+     */
+    @Test
+    public void syncTestDamagedManifest() throws Exception {
+        ResourceSync.sync(directory);
+        Files.write(new File(directory, ResourceSync.MANIFEST).toPath(), "\\u00".getBytes());
+        Assert.assertEquals(0, ResourceSync.sync(directory));
+    }
+}
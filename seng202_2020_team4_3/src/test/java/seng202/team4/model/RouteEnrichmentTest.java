@@ -0,0 +1,190 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests storing the distance and emissions of routes.
+ */
+public class RouteEnrichmentTest {
+
+    private TestDatabase database;
+    private Connection connection;
+
+    /**
+     * Creates a database with two airports, a route between them
+     * and a route from an airport that does not exist.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = new TestDatabase("routes");
+        connection = database.connect();
+        try (Statement stmt = connection.createStatement()) {
+            TestDatabase.insertAirports(stmt, 1, "GKA", "MAG");
+            stmt.executeUpdate("INSERT INTO Route (ID, SourceAirport, DestinationAirport, Distance, SetID) VALUES "
+                    + "(1, 'GKA', 'AYMD', 0, 1), (2, 'XXX', 'MAG', 0, 1)");
+        }
+        connection.commit();
+    }
+
+    /**
+     * Closes and deletes the database.
+     * @throws Exception exception to catch database errors
+     */
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+        database.delete();
+    }
+
+    /**
+     * Tests that the distance and emissions of a route are stored, and that
+     * a route with a missing airport has none.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void refreshTest() throws Exception {
+        Assert.assertEquals(2, RouteEnrichment.refresh(connection, AirportIndex.load(connection)));
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT Distance, CarbonEmissions FROM Route ORDER BY ID")) {
+            rs.next();
+            Assert.assertEquals(106.705, rs.getDouble(1), 0.001);
+            Assert.assertEquals(EmissionFactors.get().emissions(rs.getDouble(1), null), rs.getDouble(2), 0);
+            rs.next();
+            Assert.assertNull(rs.getObject(1));
+            Assert.assertNull(rs.getObject(2));
+        }
+    }
+
+    /**
+     * Tests that only routes whose airports changed are updated again.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void refreshTestChanged() throws Exception {
+        RouteEnrichment.refresh(connection, AirportIndex.load(connection));
+        Assert.assertEquals(0, RouteEnrichment.refresh(connection, AirportIndex.load(connection)));
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Airport (IATA, Latitude, Longitude, SetID) VALUES ('XXX', 0, 0, 1)");
+        }
+        connection.commit();
+        Assert.assertEquals(1, RouteEnrichment.refresh(connection, AirportIndex.load(connection)));
+    }
+
+    /**
+     * Tests that the emissions of a route depend on its equipment, and that replacing
+     * the emission factors updates only the routes whose factor changed.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void refreshTestFactors() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Route (ID, SourceAirport, DestinationAirport, Equipment, SetID) VALUES "
+                    + "(3, 'GKA', 'MAG', '320', 1), (4, 'GKA', 'MAG', '320 DH8', 1)");
+        }
+        connection.commit();
+        AirportIndex airports = AirportIndex.load(connection);
+        EmissionFactors factors = EmissionFactors.read(new ByteArrayInputStream(
+                "320,0.1\nDH8,0.2\n".getBytes(StandardCharsets.UTF_8)));
+        RouteEnrichment.refresh(connection, airports, factors);
+        Assert.assertEquals(106.705 * 0.1, queryEmissions(3), 0.001);
+        Assert.assertEquals(106.705 * 0.15, queryEmissions(4), 0.001);
+
+        factors = EmissionFactors.read(new ByteArrayInputStream(
+                "320,0.1\nDH8,0.4\n".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(1, RouteEnrichment.refresh(connection, airports, factors));
+        Assert.assertEquals(106.705 * 0.25, queryEmissions(4), 0.001);
+    }
+
+    /**
+     * Tests that refreshing every route recalculates the emissions of the
+     * selected routes with the same factors.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void refreshTestSelected() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO RoutesSelected (SourceAirport, DestinationAirport, Equipment, Distance, CarbonEmissions) "
+                    + "VALUES ('GKA', 'MAG', 'DH8', 100, 11.5)");
+        }
+        connection.commit();
+        EmissionFactors factors = EmissionFactors.read(new ByteArrayInputStream(
+                "DH8,0.2\n".getBytes(StandardCharsets.UTF_8)));
+        RouteEnrichment.refresh(connection, AirportIndex.load(connection), factors);
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CarbonEmissions FROM RoutesSelected")) {
+            Assert.assertEquals(20, rs.getDouble(1), 0.001);
+        }
+        Assert.assertEquals(0, RouteEnrichment.refreshSelected(connection, factors));
+    }
+
+    /**
+     * Tests that refreshing a route only updates that route.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void refreshRouteTest() throws Exception {
+        AirportIndex airports = AirportIndex.load(connection);
+        Assert.assertEquals(1, RouteEnrichment.refreshRoute(connection, airports, 1));
+        Assert.assertEquals(106.705, queryDistance(1), 0.001);
+        Assert.assertEquals(0, queryDistance(2), 0);
+        Assert.assertEquals(0, RouteEnrichment.refreshRoute(connection, airports, 1));
+    }
+
+    /**
+     * Tests that refreshing the codes of an airport only updates the routes flying from or to them.
+     * @throws Exception exception to catch database errors
+     */
+    @Test
+    public void refreshAirportsTest() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Route (ID, SourceAirport, DestinationAirport, Distance, SetID) VALUES "
+                    + "(3, 'MAG', 'AYGA', 0, 1)");
+        }
+        connection.commit();
+        AirportIndex airports = AirportIndex.load(connection);
+        Assert.assertEquals(0, RouteEnrichment.refreshAirports(connection, airports, Collections.emptySet()));
+        Assert.assertEquals(2, RouteEnrichment.refreshAirports(connection, airports, Arrays.asList("AYMD", "AYGA")));
+        Assert.assertEquals(106.705, queryDistance(1), 0.001);
+        Assert.assertEquals(0, queryDistance(2), 0);
+        Assert.assertEquals(106.705, queryDistance(3), 0.001);
+    }
+
+    /**
+     * Reads the stored distance of a route.
+     * @param id int the ID of the route.
+     * @return double the distance.
+     * @throws Exception exception to catch database errors
+     */
+    private double queryDistance(int id) throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT Distance FROM Route WHERE ID = " + id)) {
+            return rs.getDouble(1);
+        }
+    }
+
+    /**
+     * Reads the stored emissions of a route.
+     * @param id int the ID of the route.
+     * @return double the emissions.
+     * @throws Exception exception to catch database errors
+     */
+    private double queryEmissions(int id) throws Exception {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CarbonEmissions FROM Route WHERE ID = " + id)) {
+            return rs.getDouble(1);
+        }
+    }
+}
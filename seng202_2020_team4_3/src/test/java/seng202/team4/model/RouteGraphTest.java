@@ -0,0 +1,230 @@
+package seng202.team4.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests finding the itineraries with the lowest emissions in the graph of a route set.
+ */
+public class RouteGraphTest {
+
+    private static final String[][] ROUTES = {
+            {"CHC", "AKL"}, {"CHC", "SYD"}, {"CHC", "SYD"}, {"AKL", "SYD"}, {"SYD", "SIN"}, {"SIN", "LHR"},
+            {"SYD", "DXB"}, {"DXB", "LHR"}, {"AKL", "LAX"}, {"LAX", "LHR"}, {"AKL", "SIN"}, {"XXX", "LHR"}
+    };
+
+    private TestDatabase database;
+    private AirportIndex index;
+    private RouteGraph graph;
+    /**
+     * Emission factor of each flight by its source and destination, the baseline where missing.
+     */
+    private final Map<String, Double> flightFactors = new HashMap<>();
+
+    /**
+     * Creates a database with airports and routes between them in one set,
+     * and a direct route in another set.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Before
+    public void setUp() throws Exception {
+        database = new TestDatabase("graph");
+        try (Connection connection = database.connect();
+             Statement stmt = connection.createStatement()) {
+            TestDatabase.insertAirports(stmt, 1, "CHC", "AKL", "SYD", "SIN", "DXB", "LHR", "LAX");
+            for (String[] route : ROUTES) {
+                stmt.executeUpdate("INSERT INTO Route (SourceAirport, DestinationAirport, SetID) VALUES ('"
+                        + route[0] + "', '" + route[1] + "', 1)");
+            }
+            stmt.executeUpdate("INSERT INTO Route (SourceAirport, DestinationAirport, SetID) VALUES ('CHC', 'LHR', 2)");
+            connection.commit();
+            index = AirportIndex.load(connection);
+            graph = RouteGraph.load(connection, 1, index);
+        }
+    }
+
+    /**
+     * Deletes the database.
+     */
+    @After
+    public void tearDown() {
+        database.delete();
+    }
+
+    /**
+     * Finds every path between two airports that does not visit an airport twice,
+     * in order of increasing emissions.
+     * @param routes String[][] the source and destination of each route.
+     * @param source String the code of the departure airport.
+     * @param destination String the code of the destination airport.
+     * @return List the airports of each path.
+     */
+    private List<List<String>> allPaths(String[][] routes, String source, String destination) {
+        List<List<String>> paths = new ArrayList<>();
+        List<String> path = new ArrayList<>();
+        path.add(source);
+        extend(routes, path, destination, paths);
+        paths.sort(Comparator.comparingDouble(this::emissions));
+        return paths;
+    }
+
+    /**
+     * Extends a path by every route from its last airport, adding each new path reaching the destination.
+     * @param routes String[][] the source and destination of each route.
+     * @param path List the airports of the path so far.
+     * @param destination String the code of the destination airport.
+     * @param paths List the paths found.
+     */
+    private void extend(String[][] routes, List<String> path, String destination, List<List<String>> paths) {
+        String last = path.get(path.size() - 1);
+        if (last.equals(destination)) {
+            if (!paths.contains(path)) {
+                paths.add(new ArrayList<>(path));
+            }
+            return;
+        }
+        for (String[] route : routes) {
+            if (route[0].equals(last) && !path.contains(route[1]) && index.slot(route[1]) >= 0) {
+                path.add(route[1]);
+                extend(routes, path, destination, paths);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Calculates the emissions of a path.
+     * @param path List the airports of the path.
+     * @return double the emissions of a passenger.
+     */
+    private double emissions(List<String> path) {
+        double emissions = 0;
+        for (int i = 1; i < path.size(); i++) {
+            double factor = flightFactors.getOrDefault(path.get(i - 1) + " " + path.get(i),
+                    Calculations.AVG_PASSENGER_C02_EMITTED_KM);
+            emissions += factor * index.distance(index.slot(path.get(i - 1)), index.slot(path.get(i)));
+        }
+        return emissions;
+    }
+
+    /**
+     * Tests that the itineraries found are every path between the airports in order of emissions.
+     */
+    @Test
+    public void findLowestEmissionsTest() {
+        List<List<String>> expected = allPaths(ROUTES, "CHC", "LHR");
+        List<Itinerary> itineraries = graph.findLowestEmissions("CHC", "LHR", 20);
+        Assert.assertEquals(expected.size(), itineraries.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i), itineraries.get(i).getAirports());
+            Assert.assertEquals(emissions(expected.get(i)), itineraries.get(i).getEmissions(), 1e-9);
+        }
+        Itinerary lowest = graph.findLowestEmissions("NZCH", "EGLL");
+        Assert.assertEquals(expected.get(0), lowest.getAirports());
+        Assert.assertEquals(EmissionFactors.get().emissions(lowest.getDistance(), null), lowest.getEmissions(), 1e-9);
+        Assert.assertEquals(expected.get(0).size() - 2, lowest.getStops());
+    }
+
+    /**
+     * Tests that no itinerary is found between airports without a path, or airports that do not exist.
+     */
+    @Test
+    public void noItineraryTest() {
+        Assert.assertNull(graph.findLowestEmissions("LHR", "CHC"));
+        Assert.assertNull(graph.findLowestEmissions("XXX", "LHR"));
+        Assert.assertNull(graph.findLowestEmissions("CHC", "CHC"));
+        Assert.assertTrue(graph.findLowestEmissions("CHC", "LHR", 0).isEmpty());
+    }
+
+    /**
+     * Tests that routes between the same airports share a flight.
+     */
+    @Test
+    public void flightCountTest() {
+        Assert.assertEquals(10, graph.getFlightCount());
+    }
+
+    /**
+     * Tests that added and removed routes change the itineraries found, both before
+     * and after the added flights are merged into the graph.
+     */
+    @Test
+    public void addAndRemoveRouteTest() {
+        graph.addRoute("CHC", "LHR", null);
+        Assert.assertEquals(11, graph.getFlightCount());
+        Assert.assertEquals(Arrays.asList("CHC", "LHR"), graph.findLowestEmissions("CHC", "LHR").getAirports());
+        graph.compact();
+        Assert.assertEquals(11, graph.getFlightCount());
+        Assert.assertEquals(Arrays.asList("CHC", "LHR"), graph.findLowestEmissions("CHC", "LHR").getAirports());
+        graph.removeRoute("CHC", "LHR", null);
+        Assert.assertEquals(10, graph.getFlightCount());
+
+        // One of the two routes from CHC to SYD remains after removing the other
+        graph.removeRoute("CHC", "SYD", null);
+        Assert.assertEquals(10, graph.getFlightCount());
+        graph.removeRoute("CHC", "SYD", null);
+        Assert.assertEquals(9, graph.getFlightCount());
+        String[][] remaining = Arrays.stream(ROUTES).filter(route -> !route[1].equals("SYD") || !route[0].equals("CHC"))
+                .toArray(String[][]::new);
+        List<List<String>> expected = allPaths(remaining, "CHC", "LHR");
+        List<Itinerary> itineraries = graph.findLowestEmissions("CHC", "LHR", 20);
+        Assert.assertEquals(expected.size(), itineraries.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i), itineraries.get(i).getAirports());
+        }
+        graph.compact();
+        Assert.assertEquals(9, graph.getFlightCount());
+        Assert.assertEquals(expected.get(0), graph.findLowestEmissions("CHC", "LHR").getAirports());
+    }
+
+    /**
+     * Tests that each flight is weighted by the lowest emission factor of the equipment of
+     * its routes, and that removing the route with that factor reports the flight as too low.
+     * @throws Exception exception to catch file and database errors
+     */
+    @Test
+    public void equipmentTest() throws Exception {
+        EmissionFactors factors = EmissionFactors.read(new ByteArrayInputStream(
+                "A,0.05\nB,0.2\n".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(0.05, factors.minFactor(), 0);
+        try (Connection connection = database.connect();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE Route SET Equipment = 'B' WHERE SourceAirport = 'DXB'");
+            stmt.executeUpdate("UPDATE Route SET Equipment = 'A' WHERE SourceAirport = 'SIN'");
+            stmt.executeUpdate("UPDATE Route SET Equipment = CASE WHEN ID = (SELECT min(ID) FROM Route "
+                    + "WHERE SourceAirport = 'CHC' AND DestinationAirport = 'SYD') THEN 'B' ELSE 'A' END "
+                    + "WHERE SourceAirport = 'CHC' AND DestinationAirport = 'SYD'");
+            connection.commit();
+            graph = RouteGraph.load(connection, 1, index, factors);
+        }
+        flightFactors.put("DXB LHR", 0.2);
+        flightFactors.put("SIN LHR", 0.05);
+        flightFactors.put("CHC SYD", 0.05);
+
+        List<List<String>> expected = allPaths(ROUTES, "CHC", "LHR");
+        List<Itinerary> itineraries = graph.findLowestEmissions("CHC", "LHR", 20);
+        Assert.assertEquals(expected.size(), itineraries.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i), itineraries.get(i).getAirports());
+            Assert.assertEquals(emissions(expected.get(i)), itineraries.get(i).getEmissions(), 1e-9);
+        }
+
+        Assert.assertTrue(graph.removeRoute("CHC", "SYD", "B"));
+        graph.addRoute("CHC", "SYD", "B");
+        Assert.assertFalse(graph.removeRoute("CHC", "SYD", "A"));
+        Assert.assertTrue(graph.removeRoute("SIN", "LHR", "A"));
+    }
+}
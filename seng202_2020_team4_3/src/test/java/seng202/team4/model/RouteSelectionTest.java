@@ -0,0 +1,125 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests keeping the running totals of the selected routes.
+ */
+public class RouteSelectionTest {
+
+    private RouteSelection selection;
+    private Route first;
+    private Route second;
+
+    /**
+     * Creates an empty selection and two routes to select.
+     */
+    @Before
+    public void setUp() {
+        selection = new RouteSelection();
+        first = new Route("NZ", "CHC", "AKL", false, 0, "320");
+        first.setDistance(745.56);
+        second = new Route("QF", "SYD", "CHC", false, 0, "738");
+        second.setDistance(2126.0);
+    }
+
+    /**
+     * Tests that adding routes adds their emissions, dollar offsets and trees to the totals.
+     */
+    @Test
+    public void addTest() {
+        selection.add(first, 80.5);
+        selection.add(second, 230.25);
+        Assert.assertEquals(2, selection.getRoutes().size());
+        Assert.assertEquals(310.75, selection.getTotalEmissions(), 1e-9);
+        double donation = Calculations.calculateDollarOffset(80.5) + Calculations.calculateDollarOffset(230.25);
+        Assert.assertEquals(donation, selection.getTotalDonation(), 1e-9);
+        long trees = Calculations.calculateTreesEquivalent(Calculations.calculateDollarOffset(80.5))
+                + Calculations.calculateTreesEquivalent(Calculations.calculateDollarOffset(230.25));
+        Assert.assertEquals(trees, selection.getTotalTrees());
+        Assert.assertEquals(745.56, selection.getRoutes().get(0).getDistance(), 1e-9);
+    }
+
+    /**
+     * Tests that a route selected more than once is shown and totalled once.
+     */
+    @Test
+    public void duplicateTest() {
+        selection.add(first, 80.5);
+        selection.add(first, 80.5);
+        Assert.assertEquals(1, selection.getRoutes().size());
+        Assert.assertEquals(2, selection.getCount(first));
+        Assert.assertEquals(80.5, selection.getTotalEmissions(), 1e-9);
+    }
+
+    /**
+     * Tests that removing a route subtracts it from the totals, and that
+     * removing every route resets the totals to zero.
+     */
+    @Test
+    public void removeTest() {
+        selection.add(first, 80.5);
+        selection.add(first, 80.5);
+        selection.add(second, 230.25);
+        selection.remove(first);
+        Assert.assertEquals(1, selection.getRoutes().size());
+        Assert.assertEquals(0, selection.getCount(first));
+        Assert.assertEquals(230.25, selection.getTotalEmissions(), 1e-9);
+        selection.remove(first);
+        Assert.assertEquals(230.25, selection.getTotalEmissions(), 1e-9);
+        selection.remove(second);
+        Assert.assertTrue(selection.getRoutes().isEmpty());
+        Assert.assertEquals(0.0, selection.getTotalEmissions(), 0.0);
+        Assert.assertEquals(0.0, selection.getTotalDonation(), 0.0);
+        Assert.assertEquals(0, selection.getTotalTrees());
+    }
+
+    /**
+     * Tests that removing a route moves the last route shown into its place,
+     * and that the moved route can then be removed too.
+     */
+    @Test
+    public void removeTestMoved() {
+        Route third = new Route("VA", "BNE", "SYD", false, 0, "73H");
+        third.setDistance(750.0);
+        selection.add(first, 80.5);
+        selection.add(second, 230.25);
+        selection.add(third, 90.0);
+        selection.remove(first);
+        Assert.assertEquals(2, selection.getRoutes().size());
+        Assert.assertEquals("VA", selection.getRoutes().get(0).getAirlineCode());
+        Assert.assertEquals("QF", selection.getRoutes().get(1).getAirlineCode());
+        selection.remove(third);
+        Assert.assertEquals(1, selection.getRoutes().size());
+        Assert.assertEquals("QF", selection.getRoutes().get(0).getAirlineCode());
+        Assert.assertEquals(230.25, selection.getTotalEmissions(), 1e-9);
+        selection.add(first, 80.5);
+        selection.remove(second);
+        Assert.assertEquals("NZ", selection.getRoutes().get(0).getAirlineCode());
+    }
+
+    /**
+     * Tests that loading rows in chunks shows repeated rows once, and that
+     * clearing the selection before loading again resets the totals.
+     */
+    @Test
+    public void addAllTest() {
+        first.setCarbonEmissions(80.5);
+        second.setCarbonEmissions(230.25);
+        selection.addAll(Arrays.asList(first, second));
+        selection.addAll(Collections.singletonList(first));
+        Assert.assertEquals(2, selection.getRoutes().size());
+        Assert.assertEquals(2, selection.getCount(first));
+        Assert.assertEquals(310.75, selection.getTotalEmissions(), 1e-9);
+        selection.clear();
+        Assert.assertTrue(selection.getRoutes().isEmpty());
+        Assert.assertEquals(0, selection.getCount(first));
+        selection.addAll(Collections.singletonList(second));
+        Assert.assertEquals(230.25, selection.getTotalEmissions(), 1e-9);
+    }
+}
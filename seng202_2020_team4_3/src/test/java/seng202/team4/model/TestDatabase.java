@@ -0,0 +1,105 @@
+package seng202.team4.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Temporary database with the application's tables, for tests of classes that are
+ * given a connection and so do not need the application's database from
+ * {@link DatabaseManager#setUp()}. Known airports can be inserted by their codes,
+ * so tests share their coordinates rather than each repeating them.
+ */
+class TestDatabase {
+
+    /**
+     * ICAO code, country, latitude and longitude of each known airport by its IATA code.
+     */
+    private static final Map<String, Object[]> AIRPORTS = new HashMap<>();
+
+    static {
+        AIRPORTS.put("GKA", new Object[]{"AYGA", "Papua New Guinea", -6.081689, 145.391881});
+        AIRPORTS.put("MAG", new Object[]{"AYMD", "Papua New Guinea", -5.207083, 145.7887});
+        AIRPORTS.put("CHC", new Object[]{"NZCH", "New Zealand", -43.489399, 172.531998});
+        AIRPORTS.put("AKL", new Object[]{"NZAA", "New Zealand", -37.008056, 174.791667});
+        AIRPORTS.put("SYD", new Object[]{"YSSY", "Australia", -33.946111, 151.177222});
+        AIRPORTS.put("SIN", new Object[]{"WSSS", "Singapore", 1.350189, 103.994433});
+        AIRPORTS.put("DXB", new Object[]{"OMDB", "United Arab Emirates", 25.252778, 55.364444});
+        AIRPORTS.put("LHR", new Object[]{"EGLL", "United Kingdom", 51.4775, -0.461389});
+        AIRPORTS.put("LAX", new Object[]{"KLAX", "United States", 33.942536, -118.408075});
+        AIRPORTS.put("JFK", new Object[]{"KJFK", "United States", 40.639751, -73.778925});
+    }
+
+    /**
+     * File of the database.
+     */
+    private final File file;
+    /**
+     * JDBC url of the database.
+     */
+    private final String url;
+
+    /**
+     * Creates an empty database with every table of the current schema.
+     * @param prefix String the prefix of the name of the temporary file.
+     * @throws IOException if the file could not be created.
+     * @throws SQLException if the tables could not be created.
+     */
+    TestDatabase(String prefix) throws IOException, SQLException {
+        file = File.createTempFile(prefix, ".db");
+        url = "jdbc:sqlite:" + file.getPath();
+        try (Connection connection = connect()) {
+            DatabaseManager.createTables(connection);
+            connection.commit();
+        }
+    }
+
+    /**
+     * Opens a new connection to the database.
+     * @return Connection the connection, without auto commit.
+     * @throws SQLException if the database could not be opened.
+     */
+    Connection connect() throws SQLException {
+        return DatabaseManager.connect(url);
+    }
+
+    /**
+     * Gets the JDBC url of the database.
+     * @return String the url.
+     */
+    String getUrl() {
+        return url;
+    }
+
+    /**
+     * Inserts known airports into a set.
+     * @param stmt Statement a statement of a connection to the database.
+     * @param setID int the ID of the airport set.
+     * @param codes String[] the IATA codes of the airports.
+     * @throws SQLException if an airport could not be inserted.
+     */
+    static void insertAirports(Statement stmt, int setID, String... codes) throws SQLException {
+        for (String code : codes) {
+            Object[] airport = AIRPORTS.get(code);
+            if (airport == null) {
+                throw new IllegalArgumentException("Unknown test airport " + code);
+            }
+            stmt.executeUpdate("INSERT INTO Airport (IATA, ICAO, Country, Latitude, Longitude, SetID) VALUES ('"
+                    + code + "', '" + airport[0] + "', '" + airport[1] + "', " + airport[2] + ", " + airport[3]
+                    + ", " + setID + ")");
+        }
+    }
+
+    /**
+     * Deletes the database and the journal files SQLite keeps next to it.
+     */
+    void delete() {
+        for (String suffix : new String[]{"", "-journal", "-wal", "-shm"}) {
+            new File(file.getPath() + suffix).delete();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package seng202.team4.model;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Tests searching rows through the trigrams of their values.
+ */
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    /**
+     * Creates an index of routes by their airline, airports and equipment.
+     */
+    @Before
+    public void setUp() {
+        index = new TrigramIndex(4);
+        index.add("nz", "chc", "akl", "320");
+        index.add("qf", "syd", "chc", "738 73h");
+        index.add("jq", "akl", "zqn", null);
+        index.add("nz", "akl", "akl", "");
+    }
+
+    /**
+     * Creates a set of row numbers.
+     * @param rows int[] the row numbers.
+     * @return BitSet the set.
+     */
+    private static BitSet rows(int... rows) {
+        BitSet set = new BitSet();
+        for (int row : rows) {
+            set.set(row);
+        }
+        return set;
+    }
+
+    /**
+     * Tests that the rows with a column containing a text are found, including texts
+     * shorter than a trigram and texts whose trigrams only occur in different rows.
+     */
+    @Test
+    public void searchTest() {
+        Assert.assertEquals(rows(0, 1), index.search("chc"));
+        Assert.assertEquals(rows(1), index.search("738 7"));
+        Assert.assertEquals(rows(0, 3), index.search("nz"));
+        Assert.assertEquals(rows(0, 1, 2, 3), index.search(""));
+        Assert.assertEquals(rows(), index.search("akl3"));
+        Assert.assertEquals(rows(), index.search("chcakl"));
+        Assert.assertEquals(4, index.size());
+        Assert.assertEquals("", index.getValue(2, 3));
+    }
+
+    /**
+     * Tests that removed rows are not found.
+     */
+    @Test
+    public void removeTest() {
+        index.remove(0);
+        Assert.assertEquals(rows(1), index.search("chc"));
+        Assert.assertEquals(rows(3), index.search("nz"));
+    }
+
+    /**
+     * Tests that searching many random values finds the same rows as checking every row.
+     */
+    @Test
+    public void randomTest() {
+        Random random = new Random(202);
+        TrigramIndex large = new TrigramIndex(2);
+        String[][] values = new String[5000][2];
+        for (String[] row : values) {
+            for (int column = 0; column < row.length; column++) {
+                char[] text = new char[1 + random.nextInt(8)];
+                for (int i = 0; i < text.length; i++) {
+                    text[i] = (char) ('a' + random.nextInt(4));
+                }
+                row[column] = new String(text);
+            }
+            large.add(row);
+        }
+        for (int query = 0; query < 200; query++) {
+            char[] text = new char[1 + random.nextInt(5)];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = (char) ('a' + random.nextInt(4));
+            }
+            String search = new String(text);
+            BitSet expected = new BitSet();
+            for (int row = 0; row < values.length; row++) {
+                if (values[row][0].contains(search) || values[row][1].contains(search)) {
+                    expected.set(row);
+                }
+            }
+            Assert.assertEquals(search, expected, large.search(search));
+        }
+    }
+}
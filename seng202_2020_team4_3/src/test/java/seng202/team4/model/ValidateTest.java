@@ -327,6 +327,25 @@ public class ValidateTest {
         Assert.assertFalse(Validate.isValidTimeZone(tz));
     }
 
+    /**
+     * Test to ensure timezones with an exponent or surrounding whitespace are parsed as numbers.
+     */
+    @Test
+    public void testIsValidTimeZone6() {
+        Assert.assertTrue(Validate.isValidTimeZone(" 1.2e1 "));
+    }
+
+    /**
+     * Test to ensure timezones that are not finite numbers are rejected.
+     */
+    @Test
+    public void testIsValidTimeZone7() {
+        Assert.assertFalse(Validate.isValidTimeZone("NaN"));
+        Assert.assertFalse(Validate.isValidTimeZone("-Infinity"));
+        Assert.assertFalse(Validate.isValidTimeZone("1e"));
+        Assert.assertFalse(Validate.isValidTimeZone("."));
+    }
+
     /**
      * Test to multilingual characters are allowed.
      */